@@ -0,0 +1,118 @@
+package com.ticket.benchmarks;
+
+import com.ticket.datastructures.ArbolBSTTickets;
+import com.ticket.model.Ticket;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ArbolBSTTickets (AVL) contra TreeMap (rojo-negro) con IDs secuenciales y aleatorios.
+ * Cada método de búsqueda/inserción mide UNA operación sobre un árbol de n tickets;
+ * construir y recorrer miden la estructura completa.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArbolBSTBenchmark {
+
+    @Param({ "1000", "100000", "1000000", "10000000" })
+    int n;
+
+    @Param({ "secuencial", "aleatorio" })
+    String orden;
+
+    private Ticket[] tickets;
+    private long[] consultas;
+    private Ticket extra;
+    private int i;
+
+    private ArbolBSTTickets arbol;
+    private TreeMap<Long, Ticket> treeMap;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        long[] ids = Datos.ids(n, orden);
+        tickets = Datos.tickets(ids);
+        consultas = Datos.consultas(ids);
+        extra = Datos.ticket(n + 1L);
+        arbol = construirArbol();
+        treeMap = construirTreeMap();
+    }
+
+    private ArbolBSTTickets construirArbol() {
+        ArbolBSTTickets a = new ArbolBSTTickets();
+        for (Ticket t : tickets) {
+            a.insertar(t);
+        }
+        return a;
+    }
+
+    private TreeMap<Long, Ticket> construirTreeMap() {
+        TreeMap<Long, Ticket> m = new TreeMap<>();
+        for (Ticket t : tickets) {
+            m.put(t.getId(), t);
+        }
+        return m;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Measurement(iterations = 5)
+    public ArbolBSTTickets construir() {
+        return construirArbol();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Measurement(iterations = 5)
+    public TreeMap<Long, Ticket> construirTreeMap_base() {
+        return construirTreeMap();
+    }
+
+    @Benchmark
+    public Ticket buscar() {
+        return arbol.buscar(consultas[i++ & Datos.MASCARA]);
+    }
+
+    @Benchmark
+    public Ticket buscarTreeMap_base() {
+        return treeMap.get(consultas[i++ & Datos.MASCARA]);
+    }
+
+    /**
+     * Insertar y eliminar el mismo ID mantiene el tamaño constante entre invocaciones.
+     */
+    @Benchmark
+    public void insertarYEliminar() {
+        arbol.insertar(extra);
+        arbol.eliminar(extra.getId());
+    }
+
+    @Benchmark
+    public Ticket insertarYEliminarTreeMap_base() {
+        treeMap.put(extra.getId(), extra);
+        return treeMap.remove(extra.getId());
+    }
+
+    @Benchmark
+    public void recorrer(Blackhole bh) {
+        for (Ticket t : arbol) {
+            bh.consume(t);
+        }
+    }
+
+    @Benchmark
+    public void recorrerTreeMap_base(Blackhole bh) {
+        for (Ticket t : treeMap.values()) {
+            bh.consume(t);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.ticket.benchmarks;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Prueba de carga HTTP contra un servidor ya levantado (no es un benchmark JMH: mide
+ * el servicio completo, con Tomcat, pool de conexiones y BD). Cada cliente es un hilo
+ * virtual que repite GET sin pausa durante 'segundos'; se informa peticiones/s,
+ * latencias p50/p99/máx. y cuántas respondieron 503 (FiltroConcurrenciaBD).
+ * Para comparar hilos de plataforma contra virtuales se corre dos veces, con el
+ * servidor arrancado con HILOS_VIRTUALES=false y luego =true:
+ *
+ *   mvn -Pjmh test-compile exec:exec -Djmh.clase=com.ticket.benchmarks.CargaHttp \
+ *       -Djmh.args="http://localhost:8081 1000 20"
+ */
+public class CargaHttp {
+
+    private static final List<String> RUTAS = List.of(
+            "/api/tickets?limite=50",
+            "/api/tickets/{id}",
+            "/api/estructuras/bst/pagina?limite=50",
+            "/api/estructuras/hash");
+
+    private static final Pattern PRIMER_ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+
+    private record Resultado(long ok, long rechazadas, long errores, long[] latenciasMicros) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String base = args.length > 0 ? args[0] : "http://localhost:8081";
+        int clientes = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int segundos = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+
+        HttpClient http = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        String id = primerId(http, base);
+
+        System.out.printf("%s, %d clientes, %d s por ruta%n", base, clientes, segundos);
+        System.out.printf("%-40s %10s %9s %9s %9s %8s %8s%n",
+                "ruta", "pet/s", "p50 ms", "p99 ms", "máx ms", "503", "errores");
+        for (String ruta : RUTAS) {
+            URI uri = URI.create(base + ruta.replace("{id}", id));
+            medir(http, uri, Math.max(1, segundos / 4), clientes); // calentamiento
+            Resultado r = medir(http, uri, segundos, clientes);
+            long[] l = r.latenciasMicros();
+            System.out.printf("%-40s %10.0f %9.1f %9.1f %9.1f %8d %8d%n", ruta,
+                    (double) r.ok() / segundos, percentil(l, 0.50), percentil(l, 0.99),
+                    l.length == 0 ? 0 : l[l.length - 1] / 1000.0, r.rechazadas(), r.errores());
+        }
+    }
+
+    private static String primerId(HttpClient http, String base) throws Exception {
+        String cuerpo = http.send(HttpRequest.newBuilder(URI.create(base + "/api/tickets?limite=1")).build(),
+                HttpResponse.BodyHandlers.ofString()).body();
+        Matcher m = PRIMER_ID.matcher(cuerpo);
+        if (!m.find())
+            throw new IllegalStateException("El servidor no tiene tickets para consultar: " + cuerpo);
+        return m.group(1);
+    }
+
+    private static Resultado medir(HttpClient http, URI uri, int segundos, int clientes) throws Exception {
+        HttpRequest peticion = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).build();
+        long fin = System.nanoTime() + Duration.ofSeconds(segundos).toNanos();
+        List<Future<Resultado>> futuros = new ArrayList<>(clientes);
+        try (ExecutorService hilos = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clientes; c++) {
+                futuros.add(hilos.submit(() -> cliente(http, peticion, fin)));
+            }
+        }
+        long ok = 0, rechazadas = 0, errores = 0;
+        List<long[]> latencias = new ArrayList<>(clientes);
+        int total = 0;
+        for (Future<Resultado> f : futuros) {
+            Resultado r = f.get();
+            ok += r.ok();
+            rechazadas += r.rechazadas();
+            errores += r.errores();
+            latencias.add(r.latenciasMicros());
+            total += r.latenciasMicros().length;
+        }
+        long[] todas = new long[total];
+        int i = 0;
+        for (long[] l : latencias) {
+            System.arraycopy(l, 0, todas, i, l.length);
+            i += l.length;
+        }
+        Arrays.sort(todas);
+        return new Resultado(ok, rechazadas, errores, todas);
+    }
+
+    private static Resultado cliente(HttpClient http, HttpRequest peticion, long fin) {
+        long ok = 0, rechazadas = 0, errores = 0;
+        long[] latencias = new long[1024];
+        int n = 0;
+        while (System.nanoTime() < fin) {
+            long inicio = System.nanoTime();
+            try {
+                int estado = http.send(peticion, HttpResponse.BodyHandlers.discarding()).statusCode();
+                if (estado == 200) {
+                    ok++;
+                    if (n == latencias.length)
+                        latencias = Arrays.copyOf(latencias, n * 2);
+                    latencias[n++] = (System.nanoTime() - inicio) / 1000;
+                } else if (estado == 503) {
+                    rechazadas++;
+                } else {
+                    errores++;
+                }
+            } catch (Exception e) {
+                errores++;
+            }
+        }
+        return new Resultado(ok, rechazadas, errores, Arrays.copyOf(latencias, n));
+    }
+
+    private static double percentil(long[] ordenadas, double p) {
+        if (ordenadas.length == 0)
+            return 0;
+        return ordenadas[(int) Math.min(ordenadas.length - 1, (long) (ordenadas.length * p))] / 1000.0;
+    }
+}
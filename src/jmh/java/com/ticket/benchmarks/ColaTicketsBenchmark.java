@@ -0,0 +1,141 @@
+package com.ticket.benchmarks;
+
+import com.ticket.datastructures.ColaPrioridadTickets;
+import com.ticket.datastructures.ColaTickets;
+import com.ticket.model.Ticket;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ColaTickets (FIFO) contra ArrayDeque, y ColaPrioridadTickets contra PriorityQueue
+ * con el mismo orden (prioridad más alta primero, luego el más antiguo).
+ * Las colas empiezan con n tickets y cada operación deja el tamaño igual.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ColaTicketsBenchmark {
+
+    private static final Comparator<Ticket> ORDEN_ATENCION = Comparator
+            .comparing(Ticket::getPrioridad, Comparator.reverseOrder())
+            .thenComparing(Ticket::getFechaCreacion);
+
+    @Param({ "1000", "100000", "1000000", "10000000" })
+    int n;
+
+    @Param({ "secuencial", "aleatorio" })
+    String orden;
+
+    private Ticket[] tickets;
+    private Ticket extra;
+    private LocalDateTime reloj;
+
+    private ColaTickets cola;
+    private ColaPrioridadTickets colaPrioridad;
+    private ArrayDeque<Ticket> deque;
+    private PriorityQueue<Ticket> priorityQueue;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        tickets = Datos.tickets(Datos.ids(n, orden));
+        extra = Datos.ticket(n + 1L);
+        reloj = tickets[n - 1].getFechaCreacion();
+        cola = new ColaTickets();
+        colaPrioridad = new ColaPrioridadTickets();
+        deque = new ArrayDeque<>();
+        priorityQueue = new PriorityQueue<>(ORDEN_ATENCION);
+        for (Ticket t : tickets) {
+            cola.encolar(t);
+            colaPrioridad.encolar(t);
+            deque.addLast(t);
+            priorityQueue.add(t);
+        }
+    }
+
+    /**
+     * Vuelve a poner un ticket atendido al final, como si hubiera llegado recién.
+     */
+    private Ticket renovar(Ticket t) {
+        reloj = reloj.plusNanos(1);
+        t.setFechaCreacion(reloj);
+        return t;
+    }
+
+    // ---- FIFO ----
+
+    @Benchmark
+    public void desencolarYEncolar() {
+        cola.encolar(cola.desencolar());
+    }
+
+    @Benchmark
+    public void desencolarYEncolarArrayDeque_base() {
+        deque.addLast(deque.pollFirst());
+    }
+
+    @Benchmark
+    public boolean encolarYEliminar() {
+        cola.encolar(extra);
+        return cola.eliminar(extra.getId()); // recorre la cola: O(n)
+    }
+
+    @Benchmark
+    public boolean encolarYEliminarArrayDeque_base() {
+        deque.addLast(extra);
+        return deque.removeLastOccurrence(extra);
+    }
+
+    @Benchmark
+    public void recorrer(Blackhole bh) {
+        bh.consume(cola.obtenerCola());
+    }
+
+    @Benchmark
+    public void recorrerArrayDeque_base(Blackhole bh) {
+        bh.consume(new ArrayList<>(deque));
+    }
+
+    // ---- PRIORIDAD ----
+
+    @Benchmark
+    public void desencolarYEncolarPrioridad() {
+        colaPrioridad.encolar(renovar(colaPrioridad.desencolar()));
+    }
+
+    @Benchmark
+    public void desencolarYEncolarPriorityQueue_base() {
+        priorityQueue.add(renovar(priorityQueue.poll()));
+    }
+
+    @Benchmark
+    public boolean encolarYEliminarPrioridad() {
+        colaPrioridad.encolar(extra);
+        return colaPrioridad.eliminar(extra.getId()); // índice por ID: O(1)
+    }
+
+    @Benchmark
+    public boolean encolarYEliminarPriorityQueue_base() {
+        priorityQueue.add(extra);
+        return priorityQueue.remove(extra); // búsqueda lineal: O(n)
+    }
+
+    @Benchmark
+    public boolean contienePrioridad() {
+        return colaPrioridad.contiene(tickets[n >>> 1].getId());
+    }
+
+    @Benchmark
+    public void recorrerPrioridad(Blackhole bh) {
+        bh.consume(colaPrioridad.obtenerCola());
+    }
+}
@@ -0,0 +1,95 @@
+package com.ticket.benchmarks;
+
+import com.ticket.model.Estado;
+import com.ticket.model.Prioridad;
+import com.ticket.model.Ticket;
+import com.ticket.model.Usuario;
+
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+
+/**
+ * Datos de prueba compartidos por los benchmarks. Con semilla fija, así dos
+ * corridas comparan exactamente las mismas secuencias.
+ */
+final class Datos {
+
+    static final int CONSULTAS = 1 << 16; // potencia de dos: se recorre con (i & MASCARA)
+    static final int MASCARA = CONSULTAS - 1;
+
+    private static final long SEMILLA = 20240101L;
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private Datos() {
+    }
+
+    /**
+     * IDs 1..n en orden creciente ("secuencial") o barajados ("aleatorio").
+     */
+    static long[] ids(int n, String orden) {
+        long[] ids = new long[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = i + 1;
+        }
+        if ("aleatorio".equals(orden)) {
+            SplittableRandom random = new SplittableRandom(SEMILLA);
+            for (int i = n - 1; i > 0; i--) { // Fisher–Yates
+                int j = random.nextInt(i + 1);
+                long tmp = ids[i];
+                ids[i] = ids[j];
+                ids[j] = tmp;
+            }
+        }
+        return ids;
+    }
+
+    static Ticket[] tickets(long[] ids) {
+        Prioridad[] prioridades = Prioridad.values();
+        Ticket[] tickets = new Ticket[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            Ticket t = new Ticket();
+            t.setId(ids[i]);
+            t.setPrioridad(prioridades[(int) (ids[i] % prioridades.length)]);
+            t.setEstado(Estado.ABIERTO);
+            t.setFechaCreacion(BASE.plusSeconds(i)); // en orden de llegada
+            tickets[i] = t;
+        }
+        return tickets;
+    }
+
+    static Ticket ticket(long id) {
+        Ticket t = new Ticket();
+        t.setId(id);
+        t.setPrioridad(Prioridad.values()[(int) (id % Prioridad.values().length)]);
+        t.setEstado(Estado.ABIERTO);
+        t.setFechaCreacion(BASE.plusYears(100)); // el más nuevo de todos
+        return t;
+    }
+
+    static Usuario[] usuarios(long[] ids) {
+        Usuario[] usuarios = new Usuario[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            Usuario u = new Usuario();
+            u.setId(ids[i]);
+            u.setEmail(email(ids[i]));
+            usuarios[i] = u;
+        }
+        return usuarios;
+    }
+
+    static String email(long id) {
+        return "usuario" + id + "@empresa.com";
+    }
+
+    /**
+     * CONSULTAS IDs existentes elegidos al azar.
+     */
+    static long[] consultas(long[] ids) {
+        SplittableRandom random = new SplittableRandom(SEMILLA + 1);
+        long[] consultas = new long[CONSULTAS];
+        for (int i = 0; i < CONSULTAS; i++) {
+            consultas[i] = ids[random.nextInt(ids.length)];
+        }
+        return consultas;
+    }
+}
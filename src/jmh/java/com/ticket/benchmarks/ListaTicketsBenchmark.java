@@ -0,0 +1,132 @@
+package com.ticket.benchmarks;
+
+import com.ticket.datastructures.ListaBloquesTickets;
+import com.ticket.datastructures.ListaEnlazadaTickets;
+import com.ticket.datastructures.ListaTickets;
+import com.ticket.model.Ticket;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Las tres variantes de lista (ver estructuras.lista.modo) contra ArrayDeque
+ * (agregar y recorrer) y HashMap (buscar por ID).
+ * En modo "lineal" buscar y eliminar son O(n): con n = 10M cada operación tarda
+ * milisegundos, conviene limitar el tamaño con -p n=...
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ListaTicketsBenchmark {
+
+    @Param({ "1000", "100000", "1000000", "10000000" })
+    int n;
+
+    @Param({ "secuencial", "aleatorio" })
+    String orden;
+
+    @Param({ "lineal", "indexada", "bloques" })
+    String modo;
+
+    private Ticket[] tickets;
+    private long[] consultas;
+    private Ticket extra;
+    private int i;
+
+    private ListaTickets lista;
+    private ArrayDeque<Ticket> deque;
+    private HashMap<Long, Ticket> hashMap;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        long[] ids = Datos.ids(n, orden);
+        tickets = Datos.tickets(ids);
+        consultas = Datos.consultas(ids);
+        extra = Datos.ticket(n + 1L);
+        lista = construirLista();
+        deque = new ArrayDeque<>();
+        hashMap = new HashMap<>();
+        for (Ticket t : tickets) {
+            deque.addLast(t);
+            hashMap.put(t.getId(), t);
+        }
+    }
+
+    private ListaTickets nuevaLista() {
+        return switch (modo) {
+            case "lineal" -> new ListaEnlazadaTickets(false);
+            case "bloques" -> new ListaBloquesTickets(64);
+            default -> new ListaEnlazadaTickets(true);
+        };
+    }
+
+    private ListaTickets construirLista() {
+        ListaTickets l = nuevaLista();
+        for (Ticket t : tickets) {
+            l.agregar(t);
+        }
+        return l;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Measurement(iterations = 5)
+    public ListaTickets construir() {
+        return construirLista();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Measurement(iterations = 5)
+    public ArrayDeque<Ticket> construirArrayDeque_base() {
+        ArrayDeque<Ticket> d = new ArrayDeque<>();
+        for (Ticket t : tickets) {
+            d.addLast(t);
+        }
+        return d;
+    }
+
+    @Benchmark
+    public Ticket buscar() {
+        return lista.buscarPorId(consultas[i++ & Datos.MASCARA]);
+    }
+
+    @Benchmark
+    public Ticket buscarHashMap_base() {
+        return hashMap.get(consultas[i++ & Datos.MASCARA]);
+    }
+
+    /**
+     * Agregar al final y eliminar ese mismo ticket: mide el puntero a la cola y el índice.
+     */
+    @Benchmark
+    public boolean agregarYEliminar() {
+        lista.agregar(extra);
+        return lista.eliminar(extra.getId());
+    }
+
+    @Benchmark
+    public Ticket agregarYEliminarArrayDeque_base() {
+        deque.addLast(extra);
+        return deque.pollLast();
+    }
+
+    @Benchmark
+    public void recorrer(Blackhole bh) {
+        bh.consume(lista.obtenerTodos());
+    }
+
+    @Benchmark
+    public void recorrerArrayDeque_base(Blackhole bh) {
+        bh.consume(new ArrayList<>(deque)); // obtenerTodos() también copia a una lista
+    }
+}
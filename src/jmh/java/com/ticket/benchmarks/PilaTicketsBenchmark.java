@@ -0,0 +1,107 @@
+package com.ticket.benchmarks;
+
+import com.ticket.datastructures.NodoPila;
+import com.ticket.datastructures.PilaTickets;
+import com.ticket.model.Estado;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PilaTickets contra ArrayDeque usado como pila. Una pila no se consulta por ID,
+ * así que se miden push/pop, construir y recorrer el historial completo.
+ * El parámetro 'orden' no aplica: los estados no dependen del ID.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PilaTicketsBenchmark {
+
+    private static final String MARCA = "2024-01-01T00:00";
+
+    @Param({ "1000", "100000", "1000000", "10000000" })
+    int n;
+
+    private String[] estados;
+    private PilaTickets pila;
+    private ArrayDeque<NodoPila> deque;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        Estado[] valores = Estado.values();
+        estados = new String[valores.length];
+        for (int e = 0; e < valores.length; e++) {
+            estados[e] = valores[e].name();
+        }
+        pila = construirPila();
+        deque = construirDeque();
+    }
+
+    private PilaTickets construirPila() {
+        PilaTickets p = new PilaTickets(1L);
+        for (int k = 0; k < n; k++) {
+            p.push(estados[k % estados.length], MARCA);
+        }
+        return p;
+    }
+
+    private ArrayDeque<NodoPila> construirDeque() {
+        ArrayDeque<NodoPila> d = new ArrayDeque<>();
+        for (int k = 0; k < n; k++) {
+            d.push(new NodoPila(estados[k % estados.length], MARCA));
+        }
+        return d;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Measurement(iterations = 5)
+    public PilaTickets construir() {
+        return construirPila();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Measurement(iterations = 5)
+    public ArrayDeque<NodoPila> construirArrayDeque_base() {
+        return construirDeque();
+    }
+
+    @Benchmark
+    public NodoPila pushYPop() {
+        pila.push(estados[0], MARCA);
+        return pila.pop();
+    }
+
+    @Benchmark
+    public NodoPila pushYPopArrayDeque_base() {
+        deque.push(new NodoPila(estados[0], MARCA));
+        return deque.pop();
+    }
+
+    @Benchmark
+    public NodoPila peek() {
+        return pila.peek();
+    }
+
+    @Benchmark
+    public void recorrer(Blackhole bh) {
+        for (NodoPila actual = pila.peek(); actual != null; actual = actual.abajo) {
+            bh.consume(actual.estado);
+        }
+    }
+
+    @Benchmark
+    public void recorrerArrayDeque_base(Blackhole bh) {
+        for (NodoPila nodo : deque) {
+            bh.consume(nodo.estado);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.ticket.benchmarks;
+
+import com.ticket.config.FormatosRespuestaConfig;
+import com.ticket.dto.TicketResumenDTO;
+import com.ticket.model.Estado;
+import com.ticket.model.Prioridad;
+import org.openjdk.jmh.annotations.*;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Costo de serializar una página del listado (GET /api/tickets) en cada formato que
+ * negocia el servidor, sin comprimir y con gzip (lo que hace Tomcat por encima de
+ * server.compression.min-response-size). Mide una página completa; el tamaño
+ * resultante de cada combinación se imprime al preparar.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializacionBenchmark {
+
+    private static final String[] PALABRAS = { "impresora", "red", "correo", "servidor", "acceso", "clave",
+            "monitor", "teclado", "sistema", "factura", "reporte", "usuario" };
+    private static final String[] USUARIOS = { "Administrador", "Ana Gómez", "Luis Pérez" };
+    private static final String[] CATEGORIAS = { "Hardware", "Software", "Redes" };
+
+    @Param({ "50", "500" })
+    int n;
+
+    @Param({ "json", "smile", "cbor" })
+    String formato;
+
+    @Param({ "false", "true" })
+    boolean gzip;
+
+    private List<TicketResumenDTO> pagina;
+    private ObjectMapper mapper;
+    private ByteArrayOutputStream salida;
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        SplittableRandom random = new SplittableRandom(20240101L);
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        pagina = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            StringBuilder titulo = new StringBuilder();
+            for (int p = 0; p < 4; p++) {
+                titulo.append(p == 0 ? "" : " ").append(PALABRAS[random.nextInt(PALABRAS.length)]);
+            }
+            pagina.add(new TicketResumenDTO(i + 1L, titulo.toString(),
+                    Prioridad.values()[random.nextInt(Prioridad.values().length)],
+                    Estado.values()[random.nextInt(Estado.values().length)],
+                    base.plusSeconds(random.nextInt(1_000_000)),
+                    CATEGORIAS[random.nextInt(CATEGORIAS.length)],
+                    USUARIOS[random.nextInt(USUARIOS.length)]));
+        }
+        mapper = switch (formato) {
+            case "smile" -> FormatosRespuestaConfig.smileMapper();
+            case "cbor" -> new CBORMapper();
+            default -> new JsonMapper();
+        };
+        salida = new ByteArrayOutputStream(1 << 20);
+        System.out.printf("%n%s%s, %d tickets: %d bytes%n", formato, gzip ? "+gzip" : "", n, serializar());
+    }
+
+    @Benchmark
+    public int serializar() throws IOException {
+        salida.reset();
+        if (gzip) {
+            try (OutputStream comprimido = new GZIPOutputStream(salida, 8192)) {
+                mapper.writeValue(comprimido, pagina);
+            }
+        } else {
+            mapper.writeValue(salida, pagina);
+        }
+        return salida.size();
+    }
+}
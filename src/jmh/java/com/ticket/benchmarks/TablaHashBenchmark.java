@@ -0,0 +1,121 @@
+package com.ticket.benchmarks;
+
+import com.ticket.datastructures.TablaHashUsuarios;
+import com.ticket.datastructures.TablaHashUsuariosSondeo;
+import com.ticket.datastructures.TablaUsuarios;
+import com.ticket.model.Usuario;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tablas hash de usuarios (encadenamiento y sondeo lineal) contra HashMap<String, Usuario>.
+ * Las tablas arrancan en 16 posiciones, así "construir" incluye todos los rehash.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TablaHashBenchmark {
+
+    @Param({ "1000", "100000", "1000000", "10000000" })
+    int n;
+
+    @Param({ "secuencial", "aleatorio" })
+    String orden;
+
+    @Param({ "encadenamiento", "sondeo" })
+    String modo;
+
+    private Usuario[] usuarios;
+    private String[] consultas;
+    private Usuario extra;
+    private int i;
+
+    private TablaUsuarios tabla;
+    private HashMap<String, Usuario> hashMap;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        long[] ids = Datos.ids(n, orden);
+        usuarios = Datos.usuarios(ids);
+        long[] idsConsulta = Datos.consultas(ids);
+        consultas = new String[idsConsulta.length];
+        for (int k = 0; k < idsConsulta.length; k++) {
+            consultas[k] = Datos.email(idsConsulta[k]);
+        }
+        extra = Datos.usuarios(new long[] { n + 1L })[0];
+        tabla = construirTabla();
+        hashMap = construirHashMap();
+    }
+
+    private TablaUsuarios construirTabla() {
+        TablaUsuarios t = "sondeo".equals(modo) ? new TablaHashUsuariosSondeo(16, 0.75) : new TablaHashUsuarios(16, 0.75);
+        for (Usuario u : usuarios) {
+            t.insertar(u);
+        }
+        return t;
+    }
+
+    private HashMap<String, Usuario> construirHashMap() {
+        HashMap<String, Usuario> m = new HashMap<>(16, 0.75f);
+        for (Usuario u : usuarios) {
+            m.put(u.getEmail(), u);
+        }
+        return m;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Measurement(iterations = 5)
+    public TablaUsuarios construir() {
+        return construirTabla();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Measurement(iterations = 5)
+    public HashMap<String, Usuario> construirHashMap_base() {
+        return construirHashMap();
+    }
+
+    @Benchmark
+    public Usuario buscar() {
+        return tabla.buscar(consultas[i++ & Datos.MASCARA]);
+    }
+
+    @Benchmark
+    public Usuario buscarHashMap_base() {
+        return hashMap.get(consultas[i++ & Datos.MASCARA]);
+    }
+
+    @Benchmark
+    public boolean insertarYEliminar() {
+        tabla.insertar(extra);
+        return tabla.eliminar(extra.getEmail());
+    }
+
+    @Benchmark
+    public Usuario insertarYEliminarHashMap_base() {
+        hashMap.put(extra.getEmail(), extra);
+        return hashMap.remove(extra.getEmail());
+    }
+
+    @Benchmark
+    public void recorrer(Blackhole bh) {
+        bh.consume(tabla.obtenerTodos());
+    }
+
+    @Benchmark
+    public void recorrerHashMap_base(Blackhole bh) {
+        for (Usuario u : hashMap.values()) {
+            bh.consume(u);
+        }
+    }
+}
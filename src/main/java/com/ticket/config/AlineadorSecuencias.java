@@ -0,0 +1,52 @@
+package com.ticket.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.dialect.sequence.SequenceSupport;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Las entidades pasaron de IDENTITY a secuencias. En una BD que ya tenía filas
+ * (ddl-auto=update crea la secuencia empezando en 1) los primeros bloques de IDs
+ * chocarían con los existentes: al arrancar se adelanta cada secuencia por encima
+ * del mayor ID de su tabla. Si ya está por encima no se toca.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AlineadorSecuencias {
+
+    private static final int ASIGNACION = 50; // igual al allocationSize de las entidades
+
+    private static final Map<String, String> SECUENCIAS = Map.of(
+            "tickets", "tickets_seq",
+            "usuarios", "usuarios_seq",
+            "comentarios", "comentarios_seq",
+            "categorias", "categorias_seq");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    public void alinear() {
+        SequenceSupport secuencias = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect().getSequenceSupport();
+        SECUENCIAS.forEach((tabla, secuencia) -> {
+            Long maxId = jdbcTemplate.queryForObject("select max(id) from " + tabla, Long.class);
+            if (maxId == null)
+                return; // tabla vacía: nada que pisar
+            // el optimizador "pooled" usa el valor leído como el último ID del bloque
+            Long tope = jdbcTemplate.queryForObject(secuencias.getSequenceNextValString(secuencia), Long.class);
+            if (tope - ASIGNACION < maxId) {
+                jdbcTemplate.execute("alter sequence " + secuencia + " restart with " + (maxId + ASIGNACION));
+                log.info("Secuencia {} adelantada por encima del ID {} de {}", secuencia, maxId, tabla);
+            }
+        });
+    }
+}
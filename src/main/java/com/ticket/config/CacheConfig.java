@@ -0,0 +1,19 @@
+package com.ticket.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Caché en memoria (Caffeine) para datos de referencia que casi no cambian: categorías
+ * y usuarios. Tamaño, vencimiento y estadísticas se configuran en spring.cache.caffeine.spec.
+ * Las entradas se actualizan o invalidan en los crear() de cada servicio.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String CATEGORIAS = "categorias"; // la lista completa, una sola entrada
+    public static final String CATEGORIA_POR_ID = "categoriaPorId";
+    public static final String USUARIO_POR_ID = "usuarioPorId";
+    public static final String USUARIO_POR_EMAIL = "usuarioPorEmail";
+}
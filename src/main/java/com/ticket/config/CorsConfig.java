@@ -1,5 +1,6 @@
 package com.ticket.config;
 
+import com.ticket.controller.TicketController;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.cors.CorsConfiguration;
@@ -24,6 +25,8 @@ public class CorsConfig {
                                 "Accept",
                                 "Authorization",
                                 "X-Requested-With",
+                                "If-Match",
+                                "If-None-Match",
                                 "Access-Control-Request-Method",
                                 "Access-Control-Request-Headers"));
 
@@ -37,7 +40,9 @@ public class CorsConfig {
 
                 config.setExposedHeaders(Arrays.asList(
                                 "Access-Control-Allow-Origin",
-                                "Access-Control-Allow-Credentials"));
+                                "Access-Control-Allow-Credentials",
+                                TicketController.CABECERA_CURSOR,
+                                "ETag"));
 
                 config.setMaxAge(3600L);
 
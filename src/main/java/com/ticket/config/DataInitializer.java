@@ -5,13 +5,16 @@ import com.ticket.model.Rol;
 import com.ticket.model.Usuario;
 import com.ticket.repository.CategoriaRepository;
 import com.ticket.repository.UsuarioRepository;
+import com.ticket.service.ContraseniaService;
 import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
 import org.springframework.stereotype.Component;
 
 @Component
+@DependsOn("alineadorSecuencias") // insertar solo cuando las secuencias ya no chocan con IDs viejos
 public class DataInitializer {
 
     private static final Logger logger = LoggerFactory.getLogger(DataInitializer.class);
@@ -22,6 +25,9 @@ public class DataInitializer {
     @Autowired
     private CategoriaRepository categoriaRepository;
 
+    @Autowired
+    private ContraseniaService contraseniaService;
+
     @PostConstruct
     public void init() {
         logger.info("Inicializando datos de prueba...");
@@ -51,7 +57,7 @@ public class DataInitializer {
             Usuario admin = new Usuario();
             admin.setNombre("Administrador Central");
             admin.setEmail("admin@test.com");
-            admin.setPassword("1234");
+            admin.setPassword(contraseniaService.hashear("1234"));
             admin.setRol(Rol.ADMIN);
 
             usuarioRepository.save(admin);
@@ -63,7 +69,7 @@ public class DataInitializer {
             Usuario tecnico = new Usuario();
             tecnico.setNombre("Técnico de Soporte 1");
             tecnico.setEmail("tecnico@test.com");
-            tecnico.setPassword("1234");
+            tecnico.setPassword(contraseniaService.hashear("1234"));
             tecnico.setRol(Rol.TECNICO);
 
             usuarioRepository.save(tecnico);
@@ -0,0 +1,46 @@
+package com.ticket.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Buffer de salida más grande para las lecturas de la API. Con el de Tomcat (8 KB) un
+ * listado de cientos de KB se envía en decenas de escrituras al socket, cada una con
+ * su pasada de gzip y su chunk; con 'respuestas.buffer' son unas pocas.
+ * El flujo SSE queda con el buffer por defecto: cada evento se envía enseguida y la
+ * conexión dura mucho, no conviene reservarle más memoria.
+ */
+@Component
+public class FiltroBufferRespuesta extends OncePerRequestFilter {
+
+    private static final String EVENTOS = "/api/tickets/events";
+
+    private final int tamanio;
+
+    public FiltroBufferRespuesta(@Value("${respuestas.buffer:64KB}") DataSize tamanio) {
+        this.tamanio = (int) tamanio.toBytes();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String ruta = request.getRequestURI();
+        return !"GET".equals(request.getMethod()) || !ruta.startsWith("/api/") || ruta.startsWith(EVENTOS);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (tamanio > response.getBufferSize()) {
+            response.setBufferSize(tamanio);
+        }
+        chain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,119 @@
+package com.ticket.config;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Límite de peticiones simultáneas que usan la BD (bulkhead). Con hilos virtuales
+ * Tomcat ya no pone tope a las peticiones en curso: miles podrían quedar esperando
+ * una conexión del pool hasta su connection-timeout. Acá pasan a lo sumo 'permisos'
+ * a la vez (por defecto, el tamaño del pool de Hikari); las demás esperan hasta
+ * 'espera' y si no se libera lugar reciben 503 con Retry-After.
+ * Las lecturas que salen de memoria (estructuras, búsqueda, estadísticas, el flujo de
+ * eventos) no cuentan.
+ * Una petición asíncrona (ej. una exportación) retiene su permiso hasta terminar.
+ */
+@Component
+@Slf4j
+public class FiltroConcurrenciaBD extends OncePerRequestFilter {
+
+    private static final List<String> EN_MEMORIA = List.of(
+            "/api/estructuras/", "/api/tickets/search", "/api/tickets/stats", "/api/tickets/events");
+
+    private final Semaphore permisos;
+    private final int maximo;
+    private final long esperaNanos;
+
+    public FiltroConcurrenciaBD(
+            @Value("${concurrencia.bd.permisos:10}") int permisos,
+            @Value("${concurrencia.bd.espera:1s}") Duration espera) {
+        this.permisos = new Semaphore(permisos, true); // justo: los que esperan entran en orden
+        this.maximo = permisos;
+        this.esperaNanos = espera.toNanos();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String ruta = request.getRequestURI();
+        if (!ruta.startsWith("/api/"))
+            return true;
+        return "GET".equals(request.getMethod()) && EN_MEMORIA.stream().anyMatch(ruta::startsWith);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean obtenido;
+        try {
+            obtenido = permisos.tryAcquire(esperaNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            obtenido = false;
+        }
+        if (!obtenido) {
+            log.debug("Petición {} {} rechazada: {} peticiones ya usan la BD",
+                    request.getMethod(), request.getRequestURI(), maximo);
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setCharacterEncoding("UTF-8");
+            response.getWriter().write("{\"error\": \"Demasiadas peticiones en curso, reintente en un momento\"}");
+            return;
+        }
+        boolean liberarAlSalir = true;
+        try {
+            chain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new Liberar()); // onComplete llega también tras error o timeout
+                liberarAlSalir = false;
+            }
+        } finally {
+            if (liberarAlSalir)
+                permisos.release();
+        }
+    }
+
+    public int getPermisosDisponibles() {
+        return permisos.availablePermits();
+    }
+
+    public int getPermisos() {
+        return maximo;
+    }
+
+    private class Liberar implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            permisos.release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
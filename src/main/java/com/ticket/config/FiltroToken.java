@@ -0,0 +1,58 @@
+package com.ticket.config;
+
+import com.ticket.model.Usuario;
+import com.ticket.service.TokenService;
+import com.ticket.service.UsuarioService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Resuelve el usuario de 'Authorization: Bearer <token>' sin ir a la BD: el token se
+ * valida en memoria y el usuario sale de la caché usuarioPorId. Queda en el atributo
+ * USUARIO y los datos del token en TOKEN. Las peticiones sin token pasan tal cual; un
+ * token inválido, vencido o revocado se rechaza con 401.
+ */
+@Component
+@RequiredArgsConstructor
+public class FiltroToken extends OncePerRequestFilter {
+
+    public static final String USUARIO = "usuarioAutenticado";
+    public static final String TOKEN = "tokenAutenticado";
+
+    private static final String BEARER = "Bearer ";
+
+    private final TokenService tokenService;
+    private final UsuarioService usuarioService;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String cabecera = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (cabecera == null || !cabecera.startsWith(BEARER)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        Optional<TokenService.Datos> datos = tokenService.validar(cabecera.substring(BEARER.length()).trim());
+        Optional<Usuario> usuario = datos.flatMap(d -> usuarioService.obtenerPorId(d.usuarioId()));
+        if (usuario.isEmpty()) {
+            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setCharacterEncoding("UTF-8");
+            response.getWriter().write("{\"error\": \"Token inválido, vencido o revocado\"}");
+            return;
+        }
+        request.setAttribute(USUARIO, usuario.get());
+        request.setAttribute(TOKEN, datos.get());
+        chain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,94 @@
+package com.ticket.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.http.converter.autoconfigure.ServerHttpMessageConvertersCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.smile.JacksonSmileHttpMessageConverter;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import tools.jackson.dataformat.smile.SmileFactory;
+import tools.jackson.dataformat.smile.SmileMapper;
+import tools.jackson.dataformat.smile.SmileWriteFeature;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Formatos binarios además de JSON, elegidos por la cabecera Accept. Con las
+ * librerías en el classpath Spring MVC ya registra ambos convertidores:
+ * - application/x-jackson-smile: cada nombre de campo se escribe una vez y después
+ *   se referencia. Es el indicado para sincronizar listados completos.
+ * - application/cbor (RFC 8949): estándar, para clientes sin Smile; repite los nombres.
+ * Acá solo se reemplaza el de Smile para que también referencie los valores cortos
+ * repetidos: estados, prioridades, nombres de usuario y de categoría.
+ *
+ * Como la misma URL tiene tres representaciones, los GET de la API responden con
+ * Vary: Accept (para que un caché no le sirva Smile a un cliente JSON) y los ETag
+ * llevan el sufijo del formato (ver sufijoEtag).
+ */
+@Configuration
+public class FormatosRespuestaConfig implements WebMvcConfigurer {
+
+    public static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    @Bean
+    public ServerHttpMessageConvertersCustomizer convertidorSmile() {
+        return convertidores -> convertidores.withSmileConverter(new JacksonSmileHttpMessageConverter(smileMapper()));
+    }
+
+    public static SmileMapper smileMapper() {
+        return SmileMapper.builder(SmileFactory.builder()
+                        .enable(SmileWriteFeature.CHECK_SHARED_STRING_VALUES)
+                        .build())
+                .build();
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                if ("GET".equals(request.getMethod())) {
+                    response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT); // también en los 304
+                }
+                return true;
+            }
+        }).addPathPatterns("/api/**");
+    }
+
+    /**
+     * Sufijo de ETag para el formato que la negociación va a elegir con el Accept del
+     * pedido: nada para JSON (también sin Accept o si acepta cualquier tipo), "-s" para
+     * Smile y "-c" para CBOR. Se recorren los tipos aceptados en el mismo orden que usa
+     * Spring (calidad y especificidad) y gana el primero que sea uno de los tres.
+     */
+    public static String sufijoEtag(WebRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null || accept.isBlank())
+            return "";
+        List<MediaType> aceptados;
+        try {
+            aceptados = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        } catch (InvalidMediaTypeException e) {
+            return "";
+        }
+        MimeTypeUtils.sortBySpecificity(aceptados);
+        for (MediaType tipo : aceptados) {
+            if (tipo.isCompatibleWith(MediaType.APPLICATION_JSON))
+                return "";
+            if (tipo.isCompatibleWith(SMILE))
+                return "-s";
+            if (tipo.isCompatibleWith(MediaType.APPLICATION_CBOR))
+                return "-c";
+        }
+        return "";
+    }
+}
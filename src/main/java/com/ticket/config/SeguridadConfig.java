@@ -0,0 +1,33 @@
+package com.ticket.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Hilos propios para el hash de contraseñas del login. PBKDF2 ocupa la CPU cientos
+ * de milisegundos a propósito; si corriera en los hilos del servidor, una ráfaga de
+ * logins dejaría sin hilos al resto de las peticiones. La cola es acotada: si se
+ * llena, el login responde 503 en vez de acumular trabajo.
+ *
+ * No es candidato por defecto: solo se inyecta con @Qualifier y Boot sigue creando
+ * applicationTaskExecutor, que de otro modo se omite al ver un Executor en el contexto.
+ */
+@Configuration
+public class SeguridadConfig {
+
+    public static final String EJECUTOR_CONTRASENIAS = "ejecutorContrasenias";
+
+    @Bean(name = EJECUTOR_CONTRASENIAS, defaultCandidate = false)
+    public ThreadPoolTaskExecutor ejecutorContrasenias(
+            @Value("${seguridad.password.hilos:2}") int hilos,
+            @Value("${seguridad.password.cola:100}") int cola) {
+        ThreadPoolTaskExecutor ejecutor = new ThreadPoolTaskExecutor();
+        ejecutor.setCorePoolSize(hilos);
+        ejecutor.setMaxPoolSize(hilos);
+        ejecutor.setQueueCapacity(cola);
+        ejecutor.setThreadNamePrefix("hash-password-");
+        return ejecutor;
+    }
+}
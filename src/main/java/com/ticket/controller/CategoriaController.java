@@ -2,6 +2,7 @@ package com.ticket.controller;
 
 import com.ticket.model.Categoria;
 import com.ticket.service.CategoriaService;
+import com.ticket.service.VersionesService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -9,6 +10,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -22,16 +24,25 @@ public class CategoriaController {
     @Autowired
     private CategoriaService categoriaService;
 
+    @Autowired
+    private VersionesService versionesService;
+
     @GetMapping
-    public ResponseEntity<List<Categoria>> obtenerTodas() {
+    public ResponseEntity<List<Categoria>> obtenerTodas(WebRequest request) {
         logger.info("GET /api/categorias - Obteniendo todas las categorías");
+        if (request.checkNotModified(versionesService.etagCategorias(request))) {
+            return null;
+        }
         List<Categoria> categorias = categoriaService.obtenerTodas();
         return ResponseEntity.ok(categorias);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Categoria> obtenerPorId(@PathVariable Long id) {
+    public ResponseEntity<Categoria> obtenerPorId(@PathVariable Long id, WebRequest request) {
         logger.info("GET /api/categorias/{} - Obteniendo categoría", id);
+        if (request.checkNotModified(versionesService.etagCategorias(request))) {
+            return null;
+        }
         return categoriaService.obtenerPorId(id)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
@@ -44,6 +55,7 @@ public class CategoriaController {
 
         try {
             Categoria categoriaCreada = categoriaService.crear(categoria);
+            versionesService.categoriasModificadas(); // después de que crear() actualizó la caché
             logger.info("Categoría creada exitosamente con ID: {}", categoriaCreada.getId());
             return ResponseEntity.status(HttpStatus.CREATED).body(categoriaCreada);
         } catch (IllegalArgumentException e) {
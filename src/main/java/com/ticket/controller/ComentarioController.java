@@ -1,16 +1,20 @@
 package com.ticket.controller;
 
-import com.ticket.model.Comentario;
+import com.ticket.dto.ComentarioDTO;
+import com.ticket.exception.ColaEscrituraLlenaException;
 import com.ticket.service.ComentarioService;
+import com.ticket.service.VersionesService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/tickets")
@@ -18,17 +22,79 @@ import java.util.Map;
 public class ComentarioController {
 
     private static final Logger logger = LoggerFactory.getLogger(ComentarioController.class);
+    private static final int LIMITE_MAXIMO = 500; // tope de comentarios por página
+    private static final int MAX_TICKETS_POR_CONSULTA = 100;
 
     @Autowired
     private ComentarioService comentarioService;
 
+    @Autowired
+    private VersionesService versionesService;
+
+    /**
+     * Comentarios de un ticket paginados por clave: ?despuesDe=<id>&limite=<n>.
+     * Si hay más, el ID para la siguiente página viaja en la cabecera X-Cursor-Siguiente.
+     * El ETag cambia solo con los cambios de este ticket.
+     */
     @GetMapping("/{ticketId}/comentarios")
-    public ResponseEntity<List<Comentario>> obtenerComentarios(@PathVariable Long ticketId) {
-        logger.info("GET /api/tickets/{}/comentarios - Obteniendo comentarios", ticketId);
-        List<Comentario> comentarios = comentarioService.obtenerPorTicket(ticketId);
+    public ResponseEntity<List<ComentarioDTO>> obtenerComentarios(
+            @PathVariable Long ticketId,
+            @RequestParam(required = false) Long despuesDe,
+            @RequestParam(defaultValue = "50") int limite,
+            WebRequest request) {
+        logger.info("GET /api/tickets/{}/comentarios?despuesDe={}&limite={}", ticketId, despuesDe, limite);
+        if (limite < 1 || limite > LIMITE_MAXIMO) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (request.checkNotModified(versionesService.etagTicket(ticketId, request))) {
+            return null;
+        }
+        List<ComentarioDTO> comentarios = comentarioService.obtenerPorTicket(ticketId, despuesDe, limite + 1);
+        if (comentarios.size() > limite) {
+            comentarios = comentarios.subList(0, limite);
+            return ResponseEntity.ok()
+                    .header(TicketController.CABECERA_CURSOR, String.valueOf(comentarios.get(limite - 1).id()))
+                    .body(comentarios);
+        }
         return ResponseEntity.ok(comentarios);
     }
 
+    /**
+     * Primeros comentarios de varios tickets en una sola consulta:
+     * ?ticketIds=1,2,3&porTicket=<n>. Para seguir leyendo uno, se pide su página
+     * con despuesDe = ID del último recibido.
+     */
+    @GetMapping("/comentarios")
+    public ResponseEntity<Map<Long, List<ComentarioDTO>>> obtenerComentariosDeTickets(
+            @RequestParam Set<Long> ticketIds,
+            @RequestParam(defaultValue = "20") int porTicket,
+            WebRequest request) {
+        logger.info("GET /api/tickets/comentarios - {} tickets, {} por ticket", ticketIds.size(), porTicket);
+        if (ticketIds.isEmpty() || ticketIds.size() > MAX_TICKETS_POR_CONSULTA
+                || porTicket < 1 || porTicket > LIMITE_MAXIMO) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (request.checkNotModified(versionesService.etagGlobal(request))) {
+            return null;
+        }
+        return ResponseEntity.ok(comentarioService.obtenerPorTickets(ticketIds, porTicket));
+    }
+
+    /**
+     * Cantidad de comentarios de cada ticket: ?ticketIds=1,2,3 → {"1": 12, "2": 0, "3": 4}.
+     */
+    @GetMapping("/comentarios/conteo")
+    public ResponseEntity<Map<Long, Long>> contarComentarios(@RequestParam Set<Long> ticketIds, WebRequest request) {
+        logger.info("GET /api/tickets/comentarios/conteo - {} tickets", ticketIds.size());
+        if (ticketIds.isEmpty() || ticketIds.size() > MAX_TICKETS_POR_CONSULTA) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (request.checkNotModified(versionesService.etagGlobal(request))) {
+            return null;
+        }
+        return ResponseEntity.ok(comentarioService.contarPorTickets(ticketIds));
+    }
+
     @PostMapping("/{ticketId}/comentarios")
     public ResponseEntity<?> crearComentario(
             @PathVariable Long ticketId,
@@ -44,9 +110,16 @@ public class ComentarioController {
                 return ResponseEntity.badRequest().body("El texto del comentario es obligatorio");
             }
 
-            Comentario comentario = comentarioService.crear(ticketId, usuarioId, texto);
-            logger.info("Comentario creado exitosamente con ID: {}", comentario.getId());
+            if (comentarioService.escrituraDiferida()) {
+                // aceptado pero aún no insertado: las lecturas del ticket ya lo incluyen
+                return ResponseEntity.status(HttpStatus.ACCEPTED)
+                        .body(comentarioService.encolar(ticketId, usuarioId, texto));
+            }
+            ComentarioDTO comentario = comentarioService.crear(ticketId, usuarioId, texto);
+            logger.info("Comentario creado exitosamente con ID: {}", comentario.id());
             return ResponseEntity.status(HttpStatus.CREATED).body(comentario);
+        } catch (ColaEscrituraLlenaException e) {
+            throw e; // 429 en GlobalExceptionHandler
         } catch (IllegalArgumentException e) {
             logger.error("Error al crear comentario: {}", e.getMessage());
             return ResponseEntity.badRequest().body(e.getMessage());
@@ -2,13 +2,21 @@ package com.ticket.controller;
 
 import com.ticket.datastructures.*;
 import com.ticket.dto.EstructuraResponseDTO;
+import com.ticket.dto.TicketResumenDTO;
+import com.ticket.model.Estado;
 import com.ticket.model.Ticket;
 import com.ticket.model.Usuario;
 import com.ticket.service.EstructurasService;
+import com.ticket.service.HistorialEstadosService;
+import com.ticket.service.VersionesService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Map;
@@ -19,50 +27,115 @@ import java.util.Map;
 @Slf4j
 public class EstructurasController {
 
+        private static final int LIMITE_MAXIMO = 1000; // tope de tickets por página
+
         private final EstructurasService estructurasService;
+        private final CacheManager cacheManager;
+        private final VersionesService versionesService;
+
+        /**
+         * Nombre de la lista según estructuras.lista.modo.
+         */
+        private String nombreLista() {
+                return switch (estructurasService.modoLista()) {
+                        case "lineal" -> "Lista Enlazada (búsqueda lineal)";
+                        case "bloques" -> "Lista Desenrollada (bloques de " + estructurasService.tamanioBloqueLista()
+                                        + " tickets)";
+                        default -> "Lista Enlazada + índice por ID";
+                };
+        }
 
         @GetMapping("/lista")
-        public ResponseEntity<EstructuraResponseDTO> obtenerLista() {
+        public ResponseEntity<EstructuraResponseDTO> obtenerLista(WebRequest request) {
                 log.info("GET /api/estructuras/lista");
-                ListaEnlazadaTickets lista = estructurasService.construirListaEnlazada();
-                List<Ticket> tickets = lista.obtenerTodos();
+                if (request.checkNotModified(versionesService.etagGlobal(request))) {
+                        return null;
+                }
+                List<TicketResumenDTO> tickets = estructurasService.recorrerLista();
+                String recorrido = "bloques".equals(estructurasService.modoLista())
+                                ? "Se recorrieron " + tickets.size() + " tickets bloque a bloque desde la cabeza hasta null."
+                                : "Se recorrieron " + tickets.size() + " nodos enlazados desde la cabeza hasta null.";
 
                 EstructuraResponseDTO resp = new EstructuraResponseDTO(
-                                "Lista Enlazada Simple",
+                                nombreLista(),
                                 "recorridoCompleto",
                                 "O(n)",
-                                "Se recorrieron " + lista.getTamanio() + " nodos enlazados desde la cabeza hasta null.",
-                                lista.getTamanio(),
+                                recorrido,
+                                tickets.size(),
                                 tickets);
                 return ResponseEntity.ok(resp);
         }
 
         /**
-         * Búsqueda lineal O(n) en la lista enlazada por ID de ticket.
+         * Búsqueda por ID de ticket: O(n) en modo lineal, O(1) con índice,
+         * O(tamaño de bloque) con bloques.
          */
         @GetMapping("/lista/buscar/{id}")
-        public ResponseEntity<EstructuraResponseDTO> buscarEnLista(@PathVariable Long id) {
+        public ResponseEntity<EstructuraResponseDTO> buscarEnLista(@PathVariable Long id, WebRequest request) {
                 log.info("GET /api/estructuras/lista/buscar/{}", id);
+                if (request.checkNotModified(versionesService.etagGlobal(request))) {
+                        return null;
+                }
                 Ticket ticket = estructurasService.buscarEnLista(id);
+                String modo = estructurasService.modoLista();
+                String complejidad = switch (modo) {
+                        case "lineal" -> "O(n)";
+                        case "bloques" -> "O(1) índice + O(" + estructurasService.tamanioBloqueLista() + ") en el bloque";
+                        default -> "O(1)";
+                };
+                String descripcion;
+                if ("lineal".equals(modo)) {
+                        descripcion = ticket != null
+                                        ? "Ticket ID=" + id + " encontrado recorriendo la lista nodo a nodo."
+                                        : "Ticket ID=" + id + " no encontrado (se recorrió toda la lista).";
+                } else {
+                        descripcion = ticket != null
+                                        ? "Ticket ID=" + id + " encontrado a través del índice id → nodo."
+                                        : "Ticket ID=" + id + " no está en el índice.";
+                }
 
                 EstructuraResponseDTO resp = new EstructuraResponseDTO(
-                                "Lista Enlazada Simple",
+                                nombreLista(),
                                 "buscarPorId",
-                                "O(n)",
-                                ticket != null
-                                                ? "Ticket ID=" + id + " encontrado recorriendo la lista nodo a nodo."
-                                                : "Ticket ID=" + id + " no encontrado (se recorrió toda la lista).",
+                                complejidad,
+                                descripcion,
                                 1,
                                 ticket);
                 return ticket != null ? ResponseEntity.ok(resp) : ResponseEntity.notFound().build();
         }
 
+        /**
+         * Ocupación del almacén de pilas: cuántas hay en memoria, estados y bytes estimados.
+         */
+        @GetMapping("/pila")
+        public ResponseEntity<EstructuraResponseDTO> verAlmacenPilas() {
+                log.info("GET /api/estructuras/pila");
+                EstadisticasPilas stats = estructurasService.estadisticasPilas();
+                EstadisticasRegistro registro = estructurasService.estadisticasRegistro();
+
+                EstructuraResponseDTO resp = new EstructuraResponseDTO(
+                                "Pila (Stack - LIFO)",
+                                "estadisticas",
+                                "O(segmentos)",
+                                "Pilas en memoria: " + stats.pilasEnMemoria + " de " + stats.maxPilas
+                                                + " (máx. " + stats.maxProfundidad + " estados por ticket)."
+                                                + " Las menos usadas se desalojan (LRU) y se reconstruyen"
+                                                + " desde el registro en disco (" + registro.registros + " transiciones).",
+                                stats.pilasEnMemoria,
+                                null);
+                resp.setMetricas(Map.of("pilas", stats, "registro", registro));
+                return ResponseEntity.ok(resp);
+        }
+
         /**
          * Consulta el historial de estados apilados para un ticket (LIFO).
          */
         @GetMapping("/pila/{ticketId}")
-        public ResponseEntity<EstructuraResponseDTO> verPila(@PathVariable Long ticketId) {
+        public ResponseEntity<EstructuraResponseDTO> verPila(@PathVariable Long ticketId, WebRequest request) {
                 log.info("GET /api/estructuras/pila/{}", ticketId);
+                if (request.checkNotModified(versionesService.etagTicket(ticketId, request))) {
+                        return null;
+                }
                 PilaTickets pila = estructurasService.obtenerPila(ticketId);
                 NodoPila tope = pila.peek();
 
@@ -79,25 +152,44 @@ public class EstructurasController {
         }
 
         /**
-         * PUSH: apila un nuevo estado en el historial del ticket.
-         * Body: {"estado": "EN_PROCESO"}
+         * PUSH: cambia el estado del ticket y lo apila en su historial.
+         * Body: {"estado": "EN_PROCESO"} (ABIERTO, EN_PROCESO o CERRADO)
          */
         @PostMapping("/pila/{ticketId}")
         public ResponseEntity<EstructuraResponseDTO> pushEstado(
                         @PathVariable Long ticketId,
                         @RequestBody Map<String, String> body) {
                 String estado = body.getOrDefault("estado", "").toUpperCase();
-                if (estado.isBlank()) {
+                Estado nuevoEstado;
+                try {
+                        nuevoEstado = Estado.valueOf(estado);
+                } catch (IllegalArgumentException e) {
                         return ResponseEntity.badRequest().build();
                 }
                 log.info("POST /api/estructuras/pila/{} - push estado: {}", ticketId, estado);
-                List<String> historial = estructurasService.pushEstado(ticketId, estado);
+                if (estructurasService.escrituraDiferida()) {
+                        Long escritura = estructurasService.encolarEstado(ticketId, nuevoEstado);
+                        if (escritura == null) {
+                                return ResponseEntity.notFound().build();
+                        }
+                        return ResponseEntity.status(HttpStatus.ACCEPTED).body(new EstructuraResponseDTO(
+                                        "Pila (Stack - LIFO)",
+                                        "push",
+                                        "O(1)",
+                                        "Estado '" + estado + "' encolado: se aplica y se apila en el próximo lote de escritura.",
+                                        0,
+                                        escritura));
+                }
+                List<String> historial = estructurasService.pushEstado(ticketId, nuevoEstado);
+                if (historial == null) {
+                        return ResponseEntity.notFound().build();
+                }
 
                 EstructuraResponseDTO resp = new EstructuraResponseDTO(
                                 "Pila (Stack - LIFO)",
                                 "push",
                                 "O(1)",
-                                "Estado '" + estado + "' apilado en el tope. El tope anterior queda debajo.",
+                                "Estado '" + estado + "' aplicado al ticket y apilado en el tope. El tope anterior queda debajo.",
                                 historial.size(),
                                 null);
                 resp.setHistorial(historial);
@@ -105,13 +197,18 @@ public class EstructurasController {
         }
 
         /**
-         * POP: retira el estado del tope (deshacer el último cambio).
+         * POP: retira el estado del tope (deshacer el último cambio) y el ticket vuelve al anterior.
+         * 404 si el ticket no existe, 204 si no hay un estado anterior y 412 si el estado
+         * cambió mientras tanto.
          */
         @DeleteMapping("/pila/{ticketId}")
         public ResponseEntity<EstructuraResponseDTO> popEstado(@PathVariable Long ticketId) {
                 log.info("DELETE /api/estructuras/pila/{} - pop", ticketId);
-                String estadoRetirado = estructurasService.popEstado(ticketId);
-                if (estadoRetirado == null) {
+                HistorialEstadosService.Deshecho deshecho = estructurasService.popEstado(ticketId);
+                if (deshecho == null) {
+                        return ResponseEntity.notFound().build();
+                }
+                if (deshecho.getRetirado() == null) {
                         return ResponseEntity.noContent().build();
                 }
 
@@ -119,51 +216,57 @@ public class EstructurasController {
                                 "Pila (Stack - LIFO)",
                                 "pop",
                                 "O(1)",
-                                "Estado '" + estadoRetirado + "' retirado del tope (deshecho).",
+                                "Estado '" + deshecho.getRetirado() + "' retirado del tope (deshecho). El ticket vuelve a '"
+                                                + deshecho.getRestaurado() + "'.",
                                 0,
-                                estadoRetirado);
+                                deshecho.getRetirado());
                 return ResponseEntity.ok(resp);
         }
 
         /**
-         * Muestra la cola de tickets abiertos en orden de llegada (FIFO).
+         * Muestra la cola de tickets abiertos en orden de atención:
+         * primero ALTA, luego MEDIA y BAJA; FIFO por fecha dentro de cada prioridad.
          */
         @GetMapping("/cola")
-        public ResponseEntity<EstructuraResponseDTO> verCola() {
+        public ResponseEntity<EstructuraResponseDTO> verCola(WebRequest request) {
                 log.info("GET /api/estructuras/cola");
-                ColaTickets cola = estructurasService.construirCola();
-                List<Ticket> tickets = cola.obtenerCola();
-                Ticket frente = cola.verFrente();
+                if (request.checkNotModified(versionesService.etagGlobal(request))) {
+                        return null;
+                }
+                List<TicketResumenDTO> tickets = estructurasService.obtenerCola();
+                TicketResumenDTO frente = tickets.isEmpty() ? null : tickets.get(0);
 
                 EstructuraResponseDTO resp = new EstructuraResponseDTO(
-                                "Cola (Queue - FIFO)",
+                                "Cola de Prioridad (FIFO por nivel)",
                                 "verCola",
                                 "O(n)",
-                                "Cola de " + cola.getTamanio() + " tickets abiertos. Próximo a atender: " +
-                                                (frente != null ? "ID=" + frente.getId() + " - " + frente.getTitulo()
+                                "Cola de " + tickets.size() + " tickets abiertos. Próximo a atender: " +
+                                                (frente != null ? "ID=" + frente.id() + " - " + frente.titulo()
+                                                                + " (" + frente.prioridad() + ")"
                                                                 : "ninguno"),
-                                cola.getTamanio(),
+                                tickets.size(),
                                 tickets);
                 return ResponseEntity.ok(resp);
         }
 
         /**
-         * DESENCOLAR: atiende el primer ticket de la cola (retira del frente).
+         * DESENCOLAR: atiende el próximo ticket (retira del frente y lo pasa a EN_PROCESO).
+         * Cada llamada entrega un ticket distinto, aunque haya varios agentes a la vez.
          */
         @DeleteMapping("/cola/atender")
         public ResponseEntity<EstructuraResponseDTO> atenderTicket() {
                 log.info("DELETE /api/estructuras/cola/atender - desencolar");
-                ColaTickets cola = estructurasService.construirCola();
-                Ticket atendido = cola.desencolar();
+                Ticket atendido = estructurasService.atenderCola();
 
                 if (atendido == null) {
                         return ResponseEntity.noContent().build();
                 }
                 EstructuraResponseDTO resp = new EstructuraResponseDTO(
-                                "Cola (Queue - FIFO)",
+                                "Cola de Prioridad (FIFO por nivel)",
                                 "desencolar",
                                 "O(1)",
-                                "Ticket ID=" + atendido.getId() + " atendido y removido del frente de la cola.",
+                                "Ticket ID=" + atendido.getId() + " (" + atendido.getPrioridad()
+                                                + ") atendido: removido del frente de la cola y pasado a EN_PROCESO.",
                                 0,
                                 atendido);
                 return ResponseEntity.ok(resp);
@@ -173,10 +276,12 @@ public class EstructurasController {
          * Devuelve todos los tickets en INORDEN (ordenados por ID ascendente).
          */
         @GetMapping("/bst")
-        public ResponseEntity<EstructuraResponseDTO> obtenerBSTInorden() {
+        public ResponseEntity<EstructuraResponseDTO> obtenerBSTInorden(WebRequest request) {
                 log.info("GET /api/estructuras/bst - recorrido inorden");
-                ArbolBSTTickets arbol = estructurasService.construirBST();
-                List<Ticket> tickets = arbol.inorden();
+                if (request.checkNotModified(versionesService.etagGlobal(request))) {
+                        return null;
+                }
+                List<TicketResumenDTO> tickets = estructurasService.recorrerBSTInorden();
 
                 EstructuraResponseDTO resp = new EstructuraResponseDTO(
                                 "Árbol Binario de Búsqueda (BST)",
@@ -193,8 +298,11 @@ public class EstructurasController {
          * Mucho más eficiente que la búsqueda lineal de la lista enlazada.
          */
         @GetMapping("/bst/buscar/{id}")
-        public ResponseEntity<EstructuraResponseDTO> buscarEnBST(@PathVariable Long id) {
+        public ResponseEntity<EstructuraResponseDTO> buscarEnBST(@PathVariable Long id, WebRequest request) {
                 log.info("GET /api/estructuras/bst/buscar/{}", id);
+                if (request.checkNotModified(versionesService.etagGlobal(request))) {
+                        return null;
+                }
                 Ticket ticket = estructurasService.buscarEnBST(id);
 
                 EstructuraResponseDTO resp = new EstructuraResponseDTO(
@@ -210,24 +318,153 @@ public class EstructurasController {
                 return ticket != null ? ResponseEntity.ok(resp) : ResponseEntity.notFound().build();
         }
 
+        /**
+         * Paginación por clave (keyset) sobre el BST: devuelve los 'limite' tickets
+         * siguientes a 'despuesDe'. El cliente pide la página siguiente con el
+         * 'siguienteCursor' de la respuesta, sin importar cuántas páginas lleve.
+         */
+        @GetMapping("/bst/pagina")
+        public ResponseEntity<EstructuraResponseDTO> paginaBST(
+                        @RequestParam(defaultValue = "0") Long despuesDe,
+                        @RequestParam(defaultValue = "50") int limite,
+                        WebRequest request) {
+                log.info("GET /api/estructuras/bst/pagina?despuesDe={}&limite={}", despuesDe, limite);
+                if (limite < 1 || limite > LIMITE_MAXIMO) {
+                        return ResponseEntity.badRequest().build();
+                }
+                if (request.checkNotModified(versionesService.etagGlobal(request))) {
+                        return null;
+                }
+                // se pide uno de más para saber si queda otra página sin contar el resto
+                List<TicketResumenDTO> tickets = estructurasService.paginaBST(despuesDe, limite + 1);
+                Long siguiente = null;
+                if (tickets.size() > limite) {
+                        tickets = tickets.subList(0, limite);
+                        siguiente = tickets.get(limite - 1).id();
+                }
+
+                EstructuraResponseDTO resp = new EstructuraResponseDTO(
+                                "Árbol Binario de Búsqueda (BST)",
+                                "siguientes",
+                                "O(log n + k)",
+                                "Se bajó hasta el primer ID mayor que " + despuesDe
+                                                + " y se avanzó en inorden " + tickets.size() + " nodos.",
+                                tickets.size(),
+                                tickets);
+                resp.setSiguienteCursor(siguiente);
+                return ResponseEntity.ok(resp);
+        }
+
+        /**
+         * Tickets con ID dentro de [desde, hasta], paginados con el mismo cursor que
+         * /bst/pagina: la página siguiente se pide con los mismos 'desde' y 'hasta' y
+         * con 'despuesDe' igual al 'siguienteCursor' de la respuesta.
+         */
+        @GetMapping("/bst/rango")
+        public ResponseEntity<EstructuraResponseDTO> rangoBST(
+                        @RequestParam Long desde,
+                        @RequestParam Long hasta,
+                        @RequestParam(required = false) Long despuesDe,
+                        @RequestParam(defaultValue = "50") int limite,
+                        WebRequest request) {
+                log.info("GET /api/estructuras/bst/rango?desde={}&hasta={}&despuesDe={}&limite={}",
+                                desde, hasta, despuesDe, limite);
+                if (limite < 1 || limite > LIMITE_MAXIMO || desde > hasta) {
+                        return ResponseEntity.badRequest().build();
+                }
+                if (request.checkNotModified(versionesService.etagGlobal(request))) {
+                        return null;
+                }
+                // el cursor solo puede acotar el rango por abajo
+                long inicio = despuesDe == null || despuesDe < desde ? desde : despuesDe + 1;
+                List<TicketResumenDTO> tickets = despuesDe != null && despuesDe >= hasta
+                                ? List.of()
+                                : estructurasService.rangoBST(inicio, hasta, limite + 1);
+                Long siguiente = null;
+                if (tickets.size() > limite) {
+                        tickets = tickets.subList(0, limite);
+                        siguiente = tickets.get(limite - 1).id();
+                }
+
+                EstructuraResponseDTO resp = new EstructuraResponseDTO(
+                                "Árbol Binario de Búsqueda (BST)",
+                                "rango",
+                                "O(log n + k)",
+                                "Tickets con ID entre " + desde + " y " + hasta
+                                                + ": solo se visitan los nodos dentro del rango.",
+                                tickets.size(),
+                                tickets);
+                resp.setSiguienteCursor(siguiente);
+                return ResponseEntity.ok(resp);
+        }
+
+        /**
+         * PISO: ticket con el mayor ID menor o igual al dado.
+         */
+        @GetMapping("/bst/piso/{id}")
+        public ResponseEntity<EstructuraResponseDTO> pisoBST(@PathVariable Long id, WebRequest request) {
+                log.info("GET /api/estructuras/bst/piso/{}", id);
+                if (request.checkNotModified(versionesService.etagGlobal(request))) {
+                        return null;
+                }
+                Ticket ticket = estructurasService.pisoBST(id);
+                if (ticket == null) {
+                        return ResponseEntity.notFound().build();
+                }
+
+                EstructuraResponseDTO resp = new EstructuraResponseDTO(
+                                "Árbol Binario de Búsqueda (BST)",
+                                "piso",
+                                "O(log n)",
+                                "Mayor ID <= " + id + ": ticket ID=" + ticket.getId() + ".",
+                                1,
+                                ticket);
+                return ResponseEntity.ok(resp);
+        }
+
+        /**
+         * TECHO: ticket con el menor ID mayor o igual al dado.
+         */
+        @GetMapping("/bst/techo/{id}")
+        public ResponseEntity<EstructuraResponseDTO> techoBST(@PathVariable Long id, WebRequest request) {
+                log.info("GET /api/estructuras/bst/techo/{}", id);
+                if (request.checkNotModified(versionesService.etagGlobal(request))) {
+                        return null;
+                }
+                Ticket ticket = estructurasService.techoBST(id);
+                if (ticket == null) {
+                        return ResponseEntity.notFound().build();
+                }
+
+                EstructuraResponseDTO resp = new EstructuraResponseDTO(
+                                "Árbol Binario de Búsqueda (BST)",
+                                "techo",
+                                "O(log n)",
+                                "Menor ID >= " + id + ": ticket ID=" + ticket.getId() + ".",
+                                1,
+                                ticket);
+                return ResponseEntity.ok(resp);
+        }
+
         /**
          * Devuelve todos los usuarios indexados en la tabla hash (con info de cubeta).
          */
         @GetMapping("/hash")
         public ResponseEntity<EstructuraResponseDTO> obtenerHash() {
                 log.info("GET /api/estructuras/hash");
-                TablaHashUsuarios tabla = estructurasService.construirTablaHash();
-                List<TablaHashUsuarios.UsuarioHashInfo> entradas = tabla.obtenerTodos();
+                List<TablaHashUsuarios.UsuarioHashInfo> entradas = estructurasService.obtenerEntradasHash();
+                EstadisticasHash stats = estructurasService.estadisticasHash();
 
                 EstructuraResponseDTO resp = new EstructuraResponseDTO(
                                 "Tabla Hash",
                                 "obtenerTodos",
                                 "O(capacidad + n)",
-                                "Usuarios distribuidos en " + tabla.getCapacidad() + " cubetas. " +
-                                                "Cada entrada muestra el índice de cubeta calculado por hash(email) % "
-                                                + tabla.getCapacidad(),
-                                tabla.getTamanio(),
+                                "Usuarios distribuidos en " + stats.capacidad + " posiciones (" + stats.modo + "). " +
+                                                "Cada entrada muestra el índice calculado por dispersar(email) & "
+                                                + (stats.capacidad - 1),
+                                entradas.size(),
                                 entradas);
+                resp.setMetricas(stats);
                 return ResponseEntity.ok(resp);
         }
 
@@ -245,10 +482,34 @@ public class EstructurasController {
                                 "O(1) promedio",
                                 usuario != null
                                                 ? "Usuario '" + email + "' encontrado directamente en su cubeta (hash="
-                                                                + Math.abs(email.hashCode()) % 16 + ")."
+                                                                + estructurasService.indiceEnHash(email) + ")."
                                                 : "Email '" + email + "' no encontrado en la tabla hash.",
                                 1,
                                 usuario);
                 return usuario != null ? ResponseEntity.ok(resp) : ResponseEntity.notFound().build();
         }
+
+        /**
+         * Aciertos, fallos y ocupación de las cachés de categorías y usuarios.
+         */
+        @GetMapping("/cache")
+        public ResponseEntity<EstructuraResponseDTO> obtenerCaches() {
+                log.info("GET /api/estructuras/cache");
+                List<EstadisticasCache> caches = cacheManager.getCacheNames().stream()
+                                .sorted()
+                                .map(cacheManager::getCache)
+                                .filter(CaffeineCache.class::isInstance)
+                                .map(c -> EstadisticasCache.de(c.getName(), ((CaffeineCache) c).getNativeCache()))
+                                .toList();
+
+                EstructuraResponseDTO resp = new EstructuraResponseDTO(
+                                "Caché Caffeine",
+                                "estadisticas",
+                                "O(1) por lectura",
+                                "Cachés de datos de referencia (tamaño máximo y vencimiento por escritura). "
+                                                + "Cada fallo es una consulta a la BD.",
+                                caches.size(),
+                                caches);
+                return ResponseEntity.ok(resp);
+        }
 }
@@ -1,15 +1,37 @@
 package com.ticket.controller;
 
+import com.ticket.config.FormatosRespuestaConfig;
+import com.ticket.datastructures.ContadoresTickets;
+import com.ticket.dto.ResultadoBusquedaDTO;
+import com.ticket.dto.ResultadoImportacionDTO;
+import com.ticket.dto.TicketPatchDTO;
+import com.ticket.dto.TicketResumenDTO;
 import com.ticket.model.Ticket;
+import com.ticket.repository.FiltroTickets;
+import com.ticket.service.BusquedaTicketsService;
+import com.ticket.service.EventosTicketsService;
+import com.ticket.service.ExportacionTicketsService;
+import com.ticket.service.ImportacionTicketsService;
 import com.ticket.service.TicketService;
+import com.ticket.service.VersionesService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/tickets")
@@ -17,29 +39,159 @@ import java.util.List;
 @Slf4j
 public class TicketController {
 
+    public static final String CABECERA_CURSOR = "X-Cursor-Siguiente";
+    private static final int LIMITE_MAXIMO = 500; // tope de tickets por página
+    private static final int LIMITE_BUSQUEDA = 100;
+
     private final TicketService ticketService;
+    private final ExportacionTicketsService exportacionTicketsService;
+    private final ImportacionTicketsService importacionTicketsService;
+    private final BusquedaTicketsService busquedaTicketsService;
+    private final EventosTicketsService eventosTicketsService;
+    private final VersionesService versionesService;
 
-    
+    /**
+     * Listado paginado por clave (keyset): ?despuesDe=<id>&limite=<n> más filtros opcionales.
+     * El cuerpo es un arreglo de resúmenes (sin descripción; el ticket completo está en
+     * /api/tickets/{id}); si hay más, el ID para pedir la siguiente página viaja en la
+     * cabecera X-Cursor-Siguiente.
+     * Con If-None-Match igual al ETag y sin cambios desde entonces: 304 sin consultar la BD.
+     */
     @GetMapping
-    public ResponseEntity<List<Ticket>> getAllTickets() {
-        log.info("GET /api/tickets - Obteniendo todos los tickets");
-        List<Ticket> tickets = ticketService.getAllTickets();
+    public ResponseEntity<List<TicketResumenDTO>> getAllTickets(
+            @RequestParam(required = false) Long despuesDe,
+            @RequestParam(defaultValue = "50") int limite,
+            FiltroTickets filtro,
+            WebRequest request) {
+        log.info("GET /api/tickets?despuesDe={}&limite={}", despuesDe, limite);
+        if (limite < 1 || limite > LIMITE_MAXIMO) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (request.checkNotModified(versionesService.etagGlobal(request))) {
+            return null;
+        }
+
+        List<TicketResumenDTO> tickets = ticketService.buscarTickets(filtro, despuesDe, limite + 1);
+        if (tickets.size() > limite) {
+            tickets = tickets.subList(0, limite);
+            return ResponseEntity.ok()
+                    .header(CABECERA_CURSOR, String.valueOf(tickets.get(limite - 1).id()))
+                    .body(tickets);
+        }
         return ResponseEntity.ok(tickets);
     }
 
+    /**
+     * Exportación completa, con los mismos filtros que el listado: ?formato=ndjson|csv.
+     * El cuerpo se escribe a medida que se leen los tickets, en otro hilo, así la
+     * memoria no crece con la cantidad exportada.
+     */
+    @GetMapping("/exportar")
+    public ResponseEntity<StreamingResponseBody> exportarTickets(
+            @RequestParam(defaultValue = "ndjson") String formato,
+            FiltroTickets filtro) {
+        log.info("GET /api/tickets/exportar?formato={}", formato);
+        ExportacionTicketsService.Formato f;
+        try {
+            f = ExportacionTicketsService.Formato.valueOf(formato.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        MediaType tipo = f == ExportacionTicketsService.Formato.NDJSON
+                ? MediaType.APPLICATION_NDJSON
+                : new MediaType("text", "csv", StandardCharsets.UTF_8);
+        StreamingResponseBody cuerpo = salida -> exportacionTicketsService.exportar(filtro, f, salida);
+        return ResponseEntity.ok()
+                .contentType(tipo)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("tickets." + f.name().toLowerCase())
+                        .build().toString())
+                .body(cuerpo);
+    }
+
+    /**
+     * Importación masiva: un arreglo JSON o NDJSON (un ticket por línea) con
+     * titulo, descripcion, prioridad, estado, usuarioId y categoriaId. Se inserta en
+     * lotes; los tickets inválidos se informan en el resumen sin frenar al resto.
+     */
+    @PostMapping(value = "/bulk", consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+    public ResponseEntity<ResultadoImportacionDTO> importarTickets(InputStream cuerpo) {
+        log.info("POST /api/tickets/bulk - Importación masiva");
+        return ResponseEntity.ok(importacionTicketsService.importar(cuerpo));
+    }
+
     
+    /**
+     * Búsqueda de texto en título, descripción y comentarios: ?q=<palabras>&limite=<n>.
+     * Sin distinguir mayúsculas ni tildes; ordenado por relevancia (BM25).
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<ResultadoBusquedaDTO>> buscarTickets(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "20") int limite,
+            WebRequest request) {
+        log.info("GET /api/tickets/search?q={}&limite={}", q, limite);
+        if (q.isBlank() || limite < 1 || limite > LIMITE_BUSQUEDA) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (request.checkNotModified(versionesService.etagGlobal(request))) {
+            return null;
+        }
+        return ResponseEntity.ok(busquedaTicketsService.buscar(q, limite));
+    }
+
+    /**
+     * Cantidad de tickets por estado, prioridad, categoría y sus cruces, para el tablero.
+     * Se mantiene en memoria con cada alta, cambio o baja: el costo no depende de la tabla.
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<ContadoresTickets.Instantanea> obtenerEstadisticas(WebRequest request) {
+        log.info("GET /api/tickets/stats");
+        if (request.checkNotModified(versionesService.etagGlobal(request))) {
+            return null;
+        }
+        return ResponseEntity.ok(ticketService.obtenerEstadisticas());
+    }
+
+    /**
+     * Flujo Server-Sent Events con cada alta, cambio, despacho o baja de tickets, en lugar
+     * de consultar el listado periódicamente. Al reconectar, el navegador manda
+     * Last-Event-ID y recibe lo que se perdió; si ya no se puede, llega un evento RESYNC
+     * y hay que recargar el listado.
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> suscribirEventos(
+            @RequestHeader(value = "Last-Event-ID", required = false) Long ultimoId) {
+        log.info("GET /api/tickets/events - Last-Event-ID: {}", ultimoId);
+        return eventosTicketsService.suscribir(ultimoId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "5")
+                        .build());
+    }
+
+    /**
+     * El ETag es la versión del ticket (la misma que pide If-Match), con el sufijo del
+     * formato si no es JSON ('"3-s"'). Un If-None-Match se compara con la versión del
+     * índice en memoria: si coincide, 304 sin leer la BD.
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<Ticket> getTicketById(@PathVariable Long id) {
+    public ResponseEntity<Ticket> getTicketById(@PathVariable Long id, WebRequest request) {
         log.info("GET /api/tickets/{} - Buscando ticket", id);
+        Long version = ticketService.versionEnMemoria(id);
+        String formato = FormatosRespuestaConfig.sufijoEtag(request);
+        if (version != null && request.checkNotModified("\"" + version + formato + "\"")) {
+            return null;
+        }
         return ticketService.getTicketById(id)
-                .map(ResponseEntity::ok)
+                .map(t -> ResponseEntity.ok().eTag("\"" + t.getVersion() + formato + "\"").body(t))
                 .orElseGet(() -> {
                     log.warn("Ticket con ID {} no encontrado", id);
                     return ResponseEntity.notFound().build();
                 });
     }
 
-    
     @PostMapping
     public ResponseEntity<Ticket> createTicket(@Valid @RequestBody Ticket ticket) {
         log.info("POST /api/tickets - Creando nuevo ticket: {}", ticket.getTitulo());
@@ -51,17 +203,64 @@ public class TicketController {
     @PutMapping("/{id}")
     public ResponseEntity<Ticket> updateTicket(
             @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody Ticket ticket) {
         log.info("PUT /api/tickets/{} - Actualizando ticket", id);
-        return ticketService.updateTicket(id, ticket)
-                .map(ResponseEntity::ok)
+        return ticketService.updateTicket(id, ticket, versiones(ifMatch))
+                .map(t -> ResponseEntity.ok().eTag(etag(t)).body(t))
                 .orElseGet(() -> {
                     log.warn("No se puede actualizar. Ticket con ID {} no encontrado", id);
                     return ResponseEntity.notFound().build();
                 });
     }
 
-    
+    /**
+     * Actualización parcial: solo los campos enviados. Con If-Match: "<version>" (el
+     * ETag del GET) la escritura solo se aplica si nadie modificó el ticket desde
+     * entonces; si no, 412 con el ETag actual.
+     */
+    @PatchMapping(value = "/{id}", consumes = { MediaType.APPLICATION_JSON_VALUE, "application/merge-patch+json" })
+    public ResponseEntity<Ticket> patchTicket(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @Valid @RequestBody TicketPatchDTO cambios) {
+        log.info("PATCH /api/tickets/{} - If-Match {}", id, ifMatch);
+        try {
+            return ticketService.patchTicket(id, cambios, versiones(ifMatch))
+                    .map(t -> ResponseEntity.ok().eTag(etag(t)).body(t))
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            log.warn("PATCH /api/tickets/{} rechazado: {}", id, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    private static String etag(Ticket ticket) {
+        return "\"" + ticket.getVersion() + "\"";
+    }
+
+    /**
+     * Versiones aceptadas según If-Match ('"3"' o '"3", "4"'); null si no vino o es "*".
+     * Un valor que no es una versión nuestra no coincide con ninguna: conjunto vacío.
+     */
+    private static Set<Long> versiones(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*"))
+            return null;
+        Set<Long> versiones = new HashSet<>();
+        for (String etag : ifMatch.split(",")) {
+            String v = etag.trim();
+            if (v.length() > 2 && v.startsWith("\"") && v.endsWith("\"")) { // las débiles (W/) no valen en If-Match
+                try {
+                    // la versión es la misma en cualquier formato: se ignora el sufijo "-s"/"-c"
+                    versiones.add(Long.parseLong(v.substring(1, v.length() - 1).replaceFirst("-[sc]$", "")));
+                } catch (NumberFormatException ignorada) {
+                    // etiqueta ajena: no coincide
+                }
+            }
+        }
+        return versiones;
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteTicket(@PathVariable Long id) {
         log.info("DELETE /api/tickets/{} - Eliminando ticket", id);
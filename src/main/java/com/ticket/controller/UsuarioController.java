@@ -1,17 +1,23 @@
 package com.ticket.controller;
 
+import com.ticket.config.FiltroToken;
 import com.ticket.dto.LoginRequest;
 import com.ticket.model.Usuario;
+import com.ticket.service.AutenticacionService;
+import com.ticket.service.TokenService;
 import com.ticket.service.UsuarioService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/usuarios")
@@ -23,6 +29,12 @@ public class UsuarioController {
     @Autowired
     private UsuarioService usuarioService;
 
+    @Autowired
+    private AutenticacionService autenticacionService;
+
+    @Autowired
+    private TokenService tokenService;
+
     
     @GetMapping
     public ResponseEntity<List<Usuario>> obtenerTodos() {
@@ -55,26 +67,55 @@ public class UsuarioController {
         }
     }
 
-    
+    /**
+     * Devuelve un token de sesión (ver SesionDTO). El hash de la contraseña corre en
+     * el ejecutor de contraseñas; el hilo del servidor queda libre mientras tanto.
+     */
     @PostMapping("/login")
-    public ResponseEntity<?> login(@Valid @RequestBody LoginRequest request) {
+    public CompletableFuture<ResponseEntity<?>> login(@Valid @RequestBody LoginRequest request) {
         logger.info("Intento de login para: {}", request.getEmail());
 
         try {
-            var usuario = usuarioService.login(request.getEmail(), request.getPassword());
-
-            if (usuario.isPresent()) {
-                logger.info("Login exitoso para: {}", request.getEmail());
-                return ResponseEntity.ok(usuario.get());
-            } else {
-                logger.warn("Login fallido para: {} - Credenciales inválidas", request.getEmail());
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body("Credenciales inválidas");
-            }
-        } catch (Exception e) {
-            logger.error("Error en login: {}", e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Error al procesar login");
+            return autenticacionService.login(request.getEmail(), request.getPassword())
+                    .<ResponseEntity<?>>thenApply(sesion -> {
+                        if (sesion.isPresent()) {
+                            logger.info("Login exitoso para: {}", request.getEmail());
+                            return ResponseEntity.ok(sesion.get());
+                        }
+                        logger.warn("Login fallido para: {} - Credenciales inválidas", request.getEmail());
+                        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Credenciales inválidas");
+                    })
+                    .exceptionally(e -> {
+                        logger.error("Error en login: {}", e.getMessage());
+                        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                                .body("Error al procesar login");
+                    });
+        } catch (TaskRejectedException e) {
+            logger.warn("Login rechazado para: {} - demasiados logins en curso", request.getEmail());
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body("Demasiados logins en curso, reintente en un momento"));
         }
     }
+
+    /**
+     * Usuario del token enviado en Authorization (lo resuelve FiltroToken).
+     */
+    @GetMapping("/yo")
+    public ResponseEntity<Usuario> yo(@RequestAttribute(name = FiltroToken.USUARIO, required = false) Usuario usuario) {
+        return usuario != null ? ResponseEntity.ok(usuario) : ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+    }
+
+    /**
+     * Revoca el token enviado en Authorization; deja de valer aunque no haya vencido.
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(
+            @RequestAttribute(name = FiltroToken.TOKEN, required = false) TokenService.Datos token) {
+        if (token == null)
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        tokenService.revocar(token);
+        logger.info("Logout del usuario {}", token.usuarioId());
+        return ResponseEntity.noContent().build();
+    }
 }
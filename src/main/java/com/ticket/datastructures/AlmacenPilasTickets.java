@@ -0,0 +1,175 @@
+package com.ticket.datastructures;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Almacén concurrente y ACOTADO de pilas de historial, una por ticket.
+ * Las pilas se reparten en segmentos según el ID del ticket; cada segmento es
+ * un LinkedHashMap en orden de acceso (LRU) con su propio lock, así las
+ * operaciones sobre tickets distintos rara vez compiten y push/pop sobre el
+ * mismo ticket son atómicos.
+ * Cuando un segmento se llena se desaloja la pila usada hace más tiempo; el
+ * callback 'alDesalojar' decide qué hacer con ella e 'inicializador' rellena
+ * la pila nueva cuando se vuelve a pedir.
+ */
+public class AlmacenPilasTickets {
+
+    private static final int SEGMENTOS = 16;
+
+    private final Segmento[] segmentos = new Segmento[SEGMENTOS];
+    private final int maxTickets;
+    private final int maxProfundidad;
+    private final Consumer<PilaTickets> inicializador;
+    private final Consumer<PilaTickets> alDesalojar;
+
+    private final LongAdder nodos = new LongAdder();
+    private final LongAdder desalojos = new LongAdder();
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder cargas = new LongAdder();
+
+    private class Segmento extends LinkedHashMap<Long, PilaTickets> {
+        final ReentrantLock lock = new ReentrantLock();
+        final int capacidad;
+
+        Segmento(int capacidad) {
+            super(16, 0.75f, true); // true = orden de acceso (LRU)
+            this.capacidad = capacidad;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, PilaTickets> masVieja) {
+            if (size() <= capacidad)
+                return false;
+            PilaTickets desalojada = masVieja.getValue();
+            nodos.add(-desalojada.getTamanio());
+            desalojos.increment();
+            alDesalojar.accept(desalojada);
+            return true;
+        }
+    }
+
+    /**
+     * @param maxTickets     pilas que se mantienen en memoria como máximo
+     * @param maxProfundidad estados que guarda cada pila como máximo
+     * @param inicializador  rellena la pila (vacía) de un ticket que no estaba en memoria
+     * @param alDesalojar    recibe cada pila expulsada por falta de espacio
+     */
+    public AlmacenPilasTickets(int maxTickets, int maxProfundidad,
+            Consumer<PilaTickets> inicializador, Consumer<PilaTickets> alDesalojar) {
+        this.maxTickets = maxTickets;
+        this.maxProfundidad = maxProfundidad;
+        this.inicializador = inicializador;
+        this.alDesalojar = alDesalojar;
+        int porSegmento = Math.max(1, (maxTickets + SEGMENTOS - 1) / SEGMENTOS);
+        for (int i = 0; i < SEGMENTOS; i++) {
+            segmentos[i] = new Segmento(porSegmento);
+        }
+    }
+
+    private Segmento segmentoDe(Long ticketId) {
+        return segmentos[TablaUsuarios.dispersar(ticketId.toString()) & (SEGMENTOS - 1)];
+    }
+
+    /**
+     * Ejecuta 'operacion' sobre la pila del ticket con el lock de su segmento tomado.
+     * Si la pila no está en memoria se carga FUERA del lock (puede ir a la BD o a disco)
+     * y, si otro hilo la cargó mientras tanto, se usa la suya.
+     */
+    public <R> R conPila(Long ticketId, Function<PilaTickets, R> operacion) {
+        return conPila(ticketId, inicializador, operacion);
+    }
+
+    /**
+     * Como conPila, pero si la pila no está en memoria la rellena 'inicializador' en vez
+     * del inicializador del almacén (ej. quien llama ya conoce el estado del ticket).
+     */
+    public <R> R conPila(Long ticketId, Consumer<PilaTickets> inicializador, Function<PilaTickets, R> operacion) {
+        Segmento segmento = segmentoDe(ticketId);
+        segmento.lock.lock();
+        try {
+            PilaTickets pila = segmento.get(ticketId);
+            if (pila != null) {
+                aciertos.increment();
+                return aplicar(pila, operacion);
+            }
+        } finally {
+            segmento.lock.unlock();
+        }
+
+        PilaTickets cargada = new PilaTickets(ticketId, maxProfundidad);
+        inicializador.accept(cargada);
+        cargas.increment();
+
+        segmento.lock.lock();
+        try {
+            PilaTickets pila = segmento.get(ticketId);
+            if (pila == null) {
+                pila = cargada;
+                segmento.put(ticketId, pila);
+                nodos.add(pila.getTamanio());
+            }
+            return aplicar(pila, operacion);
+        } finally {
+            segmento.lock.unlock();
+        }
+    }
+
+    private <R> R aplicar(PilaTickets pila, Function<PilaTickets, R> operacion) {
+        int antes = pila.getTamanio();
+        R resultado = operacion.apply(pila);
+        nodos.add(pila.getTamanio() - antes);
+        return resultado;
+    }
+
+    /**
+     * Copia de la pila del ticket, segura para leer sin lock.
+     */
+    public PilaTickets obtener(Long ticketId) {
+        return conPila(ticketId, PilaTickets::copiar);
+    }
+
+    /**
+     * Quita la pila de memoria sin pasar por 'alDesalojar' (ej. ticket eliminado).
+     */
+    public void descartar(Long ticketId) {
+        Segmento segmento = segmentoDe(ticketId);
+        segmento.lock.lock();
+        try {
+            PilaTickets pila = segmento.remove(ticketId);
+            if (pila != null)
+                nodos.add(-pila.getTamanio());
+        } finally {
+            segmento.lock.unlock();
+        }
+    }
+
+    public EstadisticasPilas estadisticas() {
+        EstadisticasPilas e = new EstadisticasPilas();
+        for (Segmento segmento : segmentos) {
+            segmento.lock.lock();
+            try {
+                e.pilasEnMemoria += segmento.size();
+            } finally {
+                segmento.lock.unlock();
+            }
+        }
+        e.maxPilas = maxTickets;
+        e.maxProfundidad = maxProfundidad;
+        e.estadosEnMemoria = nodos.sum();
+        e.bytesEstimados = e.pilasEnMemoria * EstadisticasPilas.BYTES_POR_PILA
+                + e.estadosEnMemoria * EstadisticasPilas.BYTES_POR_ESTADO;
+        e.desalojos = desalojos.sum();
+        e.aciertos = aciertos.sum();
+        e.cargas = cargas.sum();
+        return e;
+    }
+
+    public int getMaxProfundidad() {
+        return maxProfundidad;
+    }
+}
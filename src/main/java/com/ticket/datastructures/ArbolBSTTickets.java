@@ -1,62 +1,121 @@
 package com.ticket.datastructures;
 
 import com.ticket.model.Ticket;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-public class ArbolBSTTickets {
+/**
+ * Árbol binario de búsqueda AVL: tras cada inserción o eliminación se rota
+ * para que las alturas de los subárboles no difieran en más de 1, así la
+ * altura es O(log n) aunque los IDs lleguen ordenados (como con IDENTITY).
+ * Todas las operaciones son iterativas para no depender de la pila de llamadas.
+ */
+public class ArbolBSTTickets implements Iterable<Ticket> {
+
+    // Un AVL con 2^31 nodos no supera altura 45; 64 deja margen de sobra
+    private static final int ALTURA_MAXIMA = 64;
 
     private NodoBST raiz; // raíz del árbol
+    private int tamanio;
 
     public ArbolBSTTickets() {
         this.raiz = null;
+        this.tamanio = 0;
+    }
+
+    // ---- CARGA MASIVA ----
+
+    /**
+     * Reemplaza el contenido del árbol con tickets YA ORDENADOS por ID ascendente — O(n).
+     * Cada subárbol toma la mediana de su rango como raíz, por lo que el árbol
+     * resultante queda perfectamente balanceado sin ninguna rotación.
+     */
+    public void cargarOrdenados(List<Ticket> ordenados) {
+        for (int i = 1; i < ordenados.size(); i++) {
+            if (ordenados.get(i - 1).getId() >= ordenados.get(i).getId()) {
+                throw new IllegalArgumentException(
+                        "Los tickets deben venir ordenados por ID sin duplicados (posición " + i + ")");
+            }
+        }
+        raiz = construirBalanceado(ordenados, 0, ordenados.size() - 1);
+        tamanio = ordenados.size();
+    }
+
+    // La recursión solo baja log2(n) niveles porque cada llamada parte el rango a la mitad
+    private NodoBST construirBalanceado(List<Ticket> ordenados, int desde, int hasta) {
+        if (desde > hasta)
+            return null;
+        int medio = (desde + hasta) >>> 1;
+        NodoBST nodo = new NodoBST(ordenados.get(medio));
+        nodo.izquierdo = construirBalanceado(ordenados, desde, medio - 1);
+        nodo.derecho = construirBalanceado(ordenados, medio + 1, hasta);
+        actualizarAltura(nodo);
+        return nodo;
     }
 
     // ---- INSERTAR ----
 
     /**
-     * Inserta un ticket en el árbol usando su ID como clave.
+     * Inserta un ticket en el árbol usando su ID como clave — O(log n).
+     * Se guarda el camino recorrido para rebalancear de abajo hacia arriba.
      */
     public void insertar(Ticket ticket) {
-        raiz = insertarRec(raiz, ticket);
-    }
+        long clave = ticket.getId();
+        if (raiz == null) {
+            raiz = new NodoBST(ticket);
+            tamanio++;
+            return;
+        }
 
-    private NodoBST insertarRec(NodoBST nodo, Ticket ticket) {
-        if (nodo == null) {
-            return new NodoBST(ticket); // posición encontrada
+        NodoBST[] camino = new NodoBST[ALTURA_MAXIMA];
+        int profundidad = 0;
+        NodoBST actual = raiz;
+        while (actual != null) {
+            camino[profundidad++] = actual;
+            long id = actual.ticket.getId();
+            if (clave < id) {
+                actual = actual.izquierdo; // ir a la izquierda
+            } else if (clave > id) {
+                actual = actual.derecho; // ir a la derecha
+            } else {
+                return; // si clave == id existente, no se duplica
+            }
         }
-        long clave = ticket.getId();
-        if (clave < nodo.ticket.getId()) {
-            nodo.izquierdo = insertarRec(nodo.izquierdo, ticket); // ir a la izquierda
-        } else if (clave > nodo.ticket.getId()) {
-            nodo.derecho = insertarRec(nodo.derecho, ticket); // ir a la derecha
+
+        NodoBST padre = camino[profundidad - 1];
+        if (clave < padre.ticket.getId()) {
+            padre.izquierdo = new NodoBST(ticket);
+        } else {
+            padre.derecho = new NodoBST(ticket);
         }
-        // si clave == id existente, no se duplica
-        return nodo;
+        tamanio++;
+        rebalancearCamino(camino, profundidad);
     }
 
     // ---- BUSCAR ----
 
     /**
-     * Busca un ticket por ID — O(log n) en árbol balanceado.
+     * Busca un ticket por ID — O(log n) garantizado por el balanceo AVL.
      * En cada paso descarta la mitad del árbol según la comparación.
      */
     public Ticket buscar(Long id) {
-        NodoBST resultado = buscarRec(raiz, id);
-        return (resultado != null) ? resultado.ticket : null;
-    }
-
-    private NodoBST buscarRec(NodoBST nodo, Long id) {
-        if (nodo == null)
-            return null; // no encontrado
-        if (id.equals(nodo.ticket.getId()))
-            return nodo; // encontrado
-
-        if (id < nodo.ticket.getId()) {
-            return buscarRec(nodo.izquierdo, id); // buscar en subárbol izquierdo
-        } else {
-            return buscarRec(nodo.derecho, id); // buscar en subárbol derecho
+        NodoBST actual = raiz;
+        while (actual != null) {
+            long clave = actual.ticket.getId();
+            if (id == clave)
+                return actual.ticket; // encontrado
+            actual = (id < clave) ? actual.izquierdo : actual.derecho;
         }
+        return null; // no encontrado
     }
 
     // ---- RECORRIDO INORDEN ----
@@ -64,63 +123,299 @@ public class ArbolBSTTickets {
     /**
      * Recorrido INORDEN (izquierdo → raíz → derecho).
      * Devuelve los tickets ordenados de MENOR a MAYOR id.
-     * Propiedad fundamental del BST: el inorden siempre es ordenado.
+     * Usa una pila explícita en lugar de recursión.
      */
     public List<Ticket> inorden() {
+        List<Ticket> resultado = new ArrayList<>(tamanio);
+        Deque<NodoBST> pendientes = new ArrayDeque<>();
+        NodoBST actual = raiz;
+        while (actual != null || !pendientes.isEmpty()) {
+            while (actual != null) { // bajar todo a la izquierda
+                pendientes.push(actual);
+                actual = actual.izquierdo;
+            }
+            actual = pendientes.pop();
+            resultado.add(actual.ticket); // visitar la raíz
+            actual = actual.derecho; // luego el subárbol derecho
+        }
+        return resultado;
+    }
+
+    // ---- CONSULTAS ORDENADAS ----
+
+    /**
+     * PISO: el ticket con el mayor ID que sea <= id, o null — O(log n).
+     */
+    public Ticket piso(Long id) {
+        Ticket candidato = null;
+        NodoBST actual = raiz;
+        while (actual != null) {
+            long clave = actual.ticket.getId();
+            if (clave == id)
+                return actual.ticket;
+            if (clave < id) {
+                candidato = actual.ticket; // sirve, pero puede haber uno mayor a la derecha
+                actual = actual.derecho;
+            } else {
+                actual = actual.izquierdo;
+            }
+        }
+        return candidato;
+    }
+
+    /**
+     * TECHO: el ticket con el menor ID que sea >= id, o null — O(log n).
+     */
+    public Ticket techo(Long id) {
+        Ticket candidato = null;
+        NodoBST actual = raiz;
+        while (actual != null) {
+            long clave = actual.ticket.getId();
+            if (clave == id)
+                return actual.ticket;
+            if (clave > id) {
+                candidato = actual.ticket; // sirve, pero puede haber uno menor a la izquierda
+                actual = actual.izquierdo;
+            } else {
+                actual = actual.derecho;
+            }
+        }
+        return candidato;
+    }
+
+    /**
+     * RANGO: tickets con desdeId <= id <= hastaId en orden ascendente — O(log n + k).
+     */
+    public List<Ticket> rango(Long desdeId, Long hastaId) {
+        return rango(desdeId, hastaId, Integer.MAX_VALUE);
+    }
+
+    /**
+     * RANGO con tope: como mucho 'limite' tickets, para paginar rangos grandes.
+     */
+    public List<Ticket> rango(Long desdeId, Long hastaId, int limite) {
         List<Ticket> resultado = new ArrayList<>();
-        inordenRec(raiz, resultado);
+        Iterator<Ticket> it = iteradorDesde(desdeId, true);
+        while (it.hasNext() && resultado.size() < limite) {
+            Ticket t = it.next();
+            if (t.getId() > hastaId)
+                break;
+            resultado.add(t);
+        }
         return resultado;
     }
 
-    private void inordenRec(NodoBST nodo, List<Ticket> resultado) {
-        if (nodo == null)
-            return;
-        inordenRec(nodo.izquierdo, resultado); // primero el subárbol izquierdo
-        resultado.add(nodo.ticket); // luego la raíz
-        inordenRec(nodo.derecho, resultado); // luego el subárbol derecho
+    /**
+     * SIGUIENTES: los primeros 'limite' tickets con id > despuesDeId — O(log n + limite).
+     * Es la base de la paginación por clave (keyset): la página siguiente empieza
+     * después del último ID devuelto, sin recorrer las anteriores.
+     */
+    public List<Ticket> siguientes(Long despuesDeId, int limite) {
+        List<Ticket> resultado = new ArrayList<>(Math.min(limite, tamanio));
+        Iterator<Ticket> it = iteradorDesde(despuesDeId, false);
+        while (it.hasNext() && resultado.size() < limite) {
+            resultado.add(it.next());
+        }
+        return resultado;
+    }
+
+    // ---- ITERADORES PEREZOSOS ----
+
+    /**
+     * Iterador INORDEN perezoso: avanza nodo a nodo con una pila de O(log n)
+     * en lugar de copiar todo el árbol a una lista.
+     * No es seguro frente a modificaciones concurrentes del árbol.
+     */
+    @Override
+    public Iterator<Ticket> iterator() {
+        return new IteradorInorden(raiz, Long.MIN_VALUE, true);
+    }
+
+    /**
+     * Iterador inorden que empieza en el primer ID >= desdeId (o > si no es inclusivo).
+     */
+    public Iterator<Ticket> iteradorDesde(Long desdeId, boolean inclusivo) {
+        return new IteradorInorden(raiz, desdeId, inclusivo);
+    }
+
+    @Override
+    public Spliterator<Ticket> spliterator() {
+        return Spliterators.spliterator(iterator(), tamanio,
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL);
+    }
+
+    public Stream<Ticket> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    private static class IteradorInorden implements Iterator<Ticket> {
+
+        private final Deque<NodoBST> pendientes = new ArrayDeque<>();
+
+        IteradorInorden(NodoBST raiz, long desdeId, boolean inclusivo) {
+            // apilar solo los ancestros >= desdeId: el tope queda en el primer ticket del rango
+            NodoBST actual = raiz;
+            while (actual != null) {
+                long clave = actual.ticket.getId();
+                if (clave > desdeId || (inclusivo && clave == desdeId)) {
+                    pendientes.push(actual);
+                    actual = actual.izquierdo;
+                } else {
+                    actual = actual.derecho;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !pendientes.isEmpty();
+        }
+
+        @Override
+        public Ticket next() {
+            if (pendientes.isEmpty())
+                throw new NoSuchElementException();
+            NodoBST nodo = pendientes.pop();
+            NodoBST actual = nodo.derecho; // el sucesor es el mínimo del subárbol derecho
+            while (actual != null) {
+                pendientes.push(actual);
+                actual = actual.izquierdo;
+            }
+            return nodo.ticket;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Ticket> accion) {
+            while (hasNext()) {
+                accion.accept(next());
+            }
+        }
     }
 
     // ---- ELIMINAR ----
 
     /**
-     * Elimina un nodo del árbol manteniendo la propiedad BST.
+     * Elimina un nodo del árbol manteniendo la propiedad BST y el balanceo AVL.
      * Caso 3 (nodo con dos hijos): se reemplaza con el sucesor inorden (mínimo del
-     * subárbol derecho).
+     * subárbol derecho) y se elimina físicamente el sucesor.
      */
     public void eliminar(Long id) {
-        raiz = eliminarRec(raiz, id);
-    }
+        NodoBST[] camino = new NodoBST[ALTURA_MAXIMA];
+        int profundidad = 0;
+        NodoBST actual = raiz;
+        while (actual != null && actual.ticket.getId() != id.longValue()) {
+            camino[profundidad++] = actual;
+            actual = (id < actual.ticket.getId()) ? actual.izquierdo : actual.derecho;
+        }
+        if (actual == null)
+            return; // no existe
 
-    private NodoBST eliminarRec(NodoBST nodo, Long id) {
-        if (nodo == null)
-            return null;
+        NodoBST objetivo = actual;
+        if (actual.izquierdo != null && actual.derecho != null) {
+            // caso 3: dos hijos — bajar al mínimo del subárbol derecho
+            camino[profundidad++] = actual;
+            objetivo = actual.derecho;
+            while (objetivo.izquierdo != null) {
+                camino[profundidad++] = objetivo;
+                objetivo = objetivo.izquierdo;
+            }
+            actual.ticket = objetivo.ticket;
+        }
 
-        if (id < nodo.ticket.getId()) {
-            nodo.izquierdo = eliminarRec(nodo.izquierdo, id);
-        } else if (id > nodo.ticket.getId()) {
-            nodo.derecho = eliminarRec(nodo.derecho, id);
+        // casos 1 y 2: el nodo a desenlazar tiene a lo sumo un hijo
+        NodoBST hijo = (objetivo.izquierdo != null) ? objetivo.izquierdo : objetivo.derecho;
+        if (profundidad == 0) {
+            raiz = hijo;
+        } else if (camino[profundidad - 1].izquierdo == objetivo) {
+            camino[profundidad - 1].izquierdo = hijo;
         } else {
-            // nodo encontrado
-            if (nodo.izquierdo == null)
-                return nodo.derecho; // caso 1: sin hijo izq
-            if (nodo.derecho == null)
-                return nodo.izquierdo; // caso 2: sin hijo der
+            camino[profundidad - 1].derecho = hijo;
+        }
+        tamanio--;
+        rebalancearCamino(camino, profundidad);
+    }
 
-            // caso 3: dos hijos — reemplazar con el mínimo del subárbol derecho
-            NodoBST sucesor = minimo(nodo.derecho);
-            nodo.ticket = sucesor.ticket;
-            nodo.derecho = eliminarRec(nodo.derecho, sucesor.ticket.getId());
+    // ---- BALANCEO AVL ----
+
+    /**
+     * Recorre el camino desde el nodo más profundo hasta la raíz actualizando alturas
+     * y rotando donde el factor de balance sale de [-1, 1]. Se detiene en cuanto un
+     * subárbol conserva su altura, porque los ancestros ya no cambian.
+     */
+    private void rebalancearCamino(NodoBST[] camino, int profundidad) {
+        for (int i = profundidad - 1; i >= 0; i--) {
+            NodoBST nodo = camino[i];
+            int alturaAnterior = nodo.altura;
+            NodoBST nuevaRaiz = balancear(nodo);
+            if (nuevaRaiz != nodo) {
+                if (i == 0) {
+                    raiz = nuevaRaiz;
+                } else if (camino[i - 1].izquierdo == nodo) {
+                    camino[i - 1].izquierdo = nuevaRaiz;
+                } else {
+                    camino[i - 1].derecho = nuevaRaiz;
+                }
+            }
+            if (nuevaRaiz.altura == alturaAnterior)
+                return;
         }
-        return nodo;
     }
 
-    private NodoBST minimo(NodoBST nodo) {
-        while (nodo.izquierdo != null)
-            nodo = nodo.izquierdo;
+    private NodoBST balancear(NodoBST nodo) {
+        actualizarAltura(nodo);
+        int factor = altura(nodo.izquierdo) - altura(nodo.derecho);
+        if (factor > 1) {
+            // cargado a la izquierda; caso izquierda-derecha requiere rotación doble
+            if (altura(nodo.izquierdo.izquierdo) < altura(nodo.izquierdo.derecho)) {
+                nodo.izquierdo = rotarIzquierda(nodo.izquierdo);
+            }
+            return rotarDerecha(nodo);
+        }
+        if (factor < -1) {
+            // cargado a la derecha; caso derecha-izquierda requiere rotación doble
+            if (altura(nodo.derecho.derecho) < altura(nodo.derecho.izquierdo)) {
+                nodo.derecho = rotarDerecha(nodo.derecho);
+            }
+            return rotarIzquierda(nodo);
+        }
         return nodo;
     }
 
+    private NodoBST rotarDerecha(NodoBST nodo) {
+        NodoBST nuevaRaiz = nodo.izquierdo;
+        nodo.izquierdo = nuevaRaiz.derecho;
+        nuevaRaiz.derecho = nodo;
+        actualizarAltura(nodo);
+        actualizarAltura(nuevaRaiz);
+        return nuevaRaiz;
+    }
+
+    private NodoBST rotarIzquierda(NodoBST nodo) {
+        NodoBST nuevaRaiz = nodo.derecho;
+        nodo.derecho = nuevaRaiz.izquierdo;
+        nuevaRaiz.izquierdo = nodo;
+        actualizarAltura(nodo);
+        actualizarAltura(nuevaRaiz);
+        return nuevaRaiz;
+    }
+
+    private static int altura(NodoBST nodo) {
+        return (nodo != null) ? nodo.altura : 0;
+    }
+
+    private static void actualizarAltura(NodoBST nodo) {
+        nodo.altura = 1 + Math.max(altura(nodo.izquierdo), altura(nodo.derecho));
+    }
+
     public boolean estaVacio() {
         return raiz == null;
     }
+
+    public int getTamanio() {
+        return tamanio;
+    }
+
+    public int getAltura() {
+        return altura(raiz);
+    }
 }
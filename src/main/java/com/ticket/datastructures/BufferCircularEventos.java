@@ -0,0 +1,79 @@
+package com.ticket.datastructures;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Buffer circular de los últimos 'capacidad' eventos, cada uno con un ID creciente.
+ * Permite retomar un flujo desde el último ID que recibió un cliente: si ese ID ya
+ * salió del buffer (o no es de esta secuencia) no se puede, y el cliente tiene que
+ * recargar el estado completo.
+ *
+ * Agregar es O(1) y no reserva memoria: el arreglo se reutiliza pisando la entrada
+ * más vieja. No es seguro entre hilos; quien lo usa lo protege con su lock.
+ */
+public class BufferCircularEventos<T> {
+
+    public record Entrada<T>(long id, T dato) {
+    }
+
+    private final Object[] datos;
+    private final long primerId;
+    private long siguienteId;
+
+    /**
+     * 'primerId' es el ID del primer evento. Conviene que no se repita entre arranques
+     * (ej. derivado de la hora), así un ID de un proceso anterior no se confunde.
+     */
+    public BufferCircularEventos(int capacidad, long primerId) {
+        if (capacidad < 1)
+            throw new IllegalArgumentException("La capacidad debe ser positiva: " + capacidad);
+        this.datos = new Object[capacidad];
+        this.primerId = primerId;
+        this.siguienteId = primerId;
+    }
+
+    /**
+     * Agrega un evento y devuelve su ID. Con el buffer lleno se pierde el más viejo.
+     */
+    public long agregar(T dato) {
+        long id = siguienteId++;
+        datos[(int) Math.floorMod(id, (long) datos.length)] = dato;
+        return id;
+    }
+
+    /**
+     * Eventos posteriores a 'ultimoId', en orden. Vacío (sin lista) si no se puede
+     * retomar desde ahí: el ID es más viejo que lo que guarda el buffer, o no lo emitió.
+     */
+    @SuppressWarnings("unchecked")
+    public Optional<List<Entrada<T>>> despuesDe(long ultimoId) {
+        if (ultimoId >= siguienteId || ultimoId < masViejo() - 1)
+            return Optional.empty();
+        List<Entrada<T>> eventos = new ArrayList<>((int) (siguienteId - ultimoId - 1));
+        for (long id = ultimoId + 1; id < siguienteId; id++) {
+            eventos.add(new Entrada<>(id, (T) datos[(int) Math.floorMod(id, (long) datos.length)]));
+        }
+        return Optional.of(eventos);
+    }
+
+    /**
+     * ID del último evento agregado; primerId - 1 si todavía no hay ninguno.
+     */
+    public long ultimoId() {
+        return siguienteId - 1;
+    }
+
+    private long masViejo() {
+        return Math.max(primerId, siguienteId - datos.length);
+    }
+
+    public int getTamanio() {
+        return (int) (siguienteId - masViejo());
+    }
+
+    public int getCapacidad() {
+        return datos.length;
+    }
+}
@@ -0,0 +1,128 @@
+package com.ticket.datastructures;
+
+import com.ticket.model.Ticket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Cola FIFO SIN BLOQUEOS para varios productores y consumidores (algoritmo de
+ * Michael–Scott). En lugar de locks usa compareAndSet sobre los punteros:
+ * si dos hilos compiten, uno gana y el otro reintenta, pero ninguno se queda
+ * esperando. Así cada ticket se entrega exactamente a UN consumidor aunque
+ * varios agentes llamen a desencolar() al mismo tiempo.
+ * El frente es siempre un nodo centinela; el primer ticket real está en frente.siguiente.
+ */
+public class ColaConcurrenteTickets {
+
+    private static class Nodo {
+        Ticket ticket; // se limpia al desencolar para no retener el ticket
+        final AtomicReference<Nodo> siguiente = new AtomicReference<>();
+
+        Nodo(Ticket ticket) {
+            this.ticket = ticket;
+        }
+    }
+
+    private final AtomicReference<Nodo> frente;
+    private final AtomicReference<Nodo> final_;
+    private final AtomicInteger tamanio = new AtomicInteger();
+
+    public ColaConcurrenteTickets() {
+        Nodo centinela = new Nodo(null);
+        this.frente = new AtomicReference<>(centinela);
+        this.final_ = new AtomicReference<>(centinela);
+    }
+
+    /**
+     * ENCOLAR — O(1) sin bloqueos.
+     * Paso 1: enlazar el nodo con CAS en final_.siguiente (punto de linealización).
+     * Paso 2: mover final_ al nuevo nodo; si otro hilo lo encuentra rezagado, lo ayuda a avanzar.
+     */
+    public void encolar(Ticket ticket) {
+        Nodo nuevo = new Nodo(ticket);
+        while (true) {
+            Nodo ultimo = final_.get();
+            Nodo siguiente = ultimo.siguiente.get();
+            if (ultimo != final_.get())
+                continue; // otro hilo movió el final mientras leíamos
+            if (siguiente == null) {
+                if (ultimo.siguiente.compareAndSet(null, nuevo)) {
+                    final_.compareAndSet(ultimo, nuevo);
+                    tamanio.incrementAndGet();
+                    return;
+                }
+            } else {
+                final_.compareAndSet(ultimo, siguiente); // ayudar a un encolar a medio terminar
+            }
+        }
+    }
+
+    /**
+     * DESENCOLAR — O(1) sin bloqueos. El CAS sobre 'frente' decide qué hilo
+     * se queda con el ticket: solo uno puede mover el frente desde el mismo nodo.
+     */
+    public Ticket desencolar() {
+        while (true) {
+            Nodo primero = frente.get();
+            Nodo ultimo = final_.get();
+            Nodo siguiente = primero.siguiente.get();
+            if (primero != frente.get())
+                continue;
+            if (siguiente == null)
+                return null; // cola vacía
+            if (primero == ultimo) {
+                final_.compareAndSet(ultimo, siguiente); // el final quedó rezagado
+                continue;
+            }
+            Ticket ticket = siguiente.ticket;
+            if (frente.compareAndSet(primero, siguiente)) {
+                siguiente.ticket = null; // 'siguiente' pasa a ser el nuevo centinela
+                tamanio.decrementAndGet();
+                return ticket;
+            }
+        }
+    }
+
+    /**
+     * VER FRENTE: el próximo ticket, sin retirarlo (puede cambiar enseguida).
+     */
+    public Ticket verFrente() {
+        while (true) {
+            Nodo primero = frente.get();
+            Nodo siguiente = primero.siguiente.get();
+            if (siguiente == null)
+                return null;
+            Ticket ticket = siguiente.ticket;
+            if (primero == frente.get())
+                return ticket; // nadie lo desencoló mientras lo leíamos
+        }
+    }
+
+    /**
+     * Copia de los tickets en orden FIFO. Es débilmente consistente: refleja
+     * la cola en algún momento del recorrido, no bloquea a los demás hilos.
+     */
+    public List<Ticket> obtenerCola() {
+        List<Ticket> resultado = new ArrayList<>();
+        for (Nodo actual = frente.get().siguiente.get(); actual != null; actual = actual.siguiente.get()) {
+            Ticket ticket = actual.ticket;
+            if (ticket != null)
+                resultado.add(ticket);
+        }
+        return resultado;
+    }
+
+    public boolean estaVacia() {
+        return frente.get().siguiente.get() == null;
+    }
+
+    /**
+     * Tamaño aproximado: el contador se actualiza justo después de cada CAS exitoso,
+     * así que con operaciones en vuelo puede ir un paso atrás, pero nunca es negativo.
+     */
+    public int getTamanio() {
+        return Math.max(0, tamanio.get());
+    }
+}
@@ -0,0 +1,163 @@
+package com.ticket.datastructures;
+
+import com.ticket.model.Prioridad;
+import com.ticket.model.Ticket;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cola de PRIORIDAD para despachar tickets: una cola FIFO por cada nivel de
+ * Prioridad. Se atiende siempre la cola de mayor prioridad que no esté vacía y,
+ * dentro de ella, el ticket más antiguo (fechaCreacion).
+ * Los nodos están doblemente enlazados y un mapa id → nodo permite quitar
+ * un ticket de cualquier posición en O(1) cuando cambia de estado.
+ */
+public class ColaPrioridadTickets {
+
+    private static class Nodo {
+        Ticket ticket;
+        Nodo anterior;
+        Nodo siguiente;
+
+        Nodo(Ticket ticket) {
+            this.ticket = ticket;
+        }
+    }
+
+    // Una cola por prioridad, indexada por ordinal: BAJA=0, MEDIA=1, ALTA=2
+    private final Nodo[] frentes = new Nodo[Prioridad.values().length];
+    private final Nodo[] finales = new Nodo[Prioridad.values().length];
+    private final int[] tamanios = new int[Prioridad.values().length];
+    private final Map<Long, Nodo> nodosPorId = new HashMap<>();
+
+    /**
+     * ENCOLAR: agrega el ticket en la cola de su prioridad respetando fechaCreacion.
+     * Los tickets nuevos son los más recientes, así que casi siempre se enlazan
+     * directamente al final — O(1). Si el ticket ya estaba, se reubica.
+     */
+    public void encolar(Ticket ticket) {
+        eliminar(ticket.getId());
+        int p = nivel(ticket);
+        Nodo nuevo = new Nodo(ticket);
+
+        // retroceder desde el final mientras haya tickets más nuevos que este
+        Nodo anterior = finales[p];
+        while (anterior != null && esMasNuevo(anterior.ticket, ticket)) {
+            anterior = anterior.anterior;
+        }
+        Nodo siguiente = (anterior != null) ? anterior.siguiente : frentes[p];
+
+        nuevo.anterior = anterior;
+        nuevo.siguiente = siguiente;
+        if (anterior != null) {
+            anterior.siguiente = nuevo;
+        } else {
+            frentes[p] = nuevo;
+        }
+        if (siguiente != null) {
+            siguiente.anterior = nuevo;
+        } else {
+            finales[p] = nuevo;
+        }
+        tamanios[p]++;
+        nodosPorId.put(ticket.getId(), nuevo);
+    }
+
+    /**
+     * DESENCOLAR: retira el ticket más antiguo de la prioridad más alta — O(1).
+     */
+    public Ticket desencolar() {
+        for (int p = frentes.length - 1; p >= 0; p--) {
+            if (frentes[p] != null) {
+                Nodo nodo = frentes[p];
+                desenlazar(nodo, p);
+                return nodo.ticket;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * VER FRENTE: el próximo ticket a atender, sin retirarlo.
+     */
+    public Ticket verFrente() {
+        for (int p = frentes.length - 1; p >= 0; p--) {
+            if (frentes[p] != null)
+                return frentes[p].ticket;
+        }
+        return null;
+    }
+
+    /**
+     * ELIMINAR: quita un ticket de cualquier posición — O(1) gracias al mapa.
+     */
+    public boolean eliminar(Long id) {
+        Nodo nodo = nodosPorId.get(id);
+        if (nodo == null)
+            return false;
+        desenlazar(nodo, nivel(nodo.ticket));
+        return true;
+    }
+
+    private void desenlazar(Nodo nodo, int p) {
+        if (nodo.anterior != null) {
+            nodo.anterior.siguiente = nodo.siguiente;
+        } else {
+            frentes[p] = nodo.siguiente;
+        }
+        if (nodo.siguiente != null) {
+            nodo.siguiente.anterior = nodo.anterior;
+        } else {
+            finales[p] = nodo.anterior;
+        }
+        nodo.anterior = null;
+        nodo.siguiente = null;
+        tamanios[p]--;
+        nodosPorId.remove(nodo.ticket.getId());
+    }
+
+    /**
+     * Devuelve los tickets en orden de atención: ALTA → MEDIA → BAJA, FIFO en cada nivel.
+     */
+    public List<Ticket> obtenerCola() {
+        List<Ticket> resultado = new ArrayList<>(nodosPorId.size());
+        for (int p = frentes.length - 1; p >= 0; p--) {
+            for (Nodo actual = frentes[p]; actual != null; actual = actual.siguiente) {
+                resultado.add(actual.ticket);
+            }
+        }
+        return resultado;
+    }
+
+    public boolean contiene(Long id) {
+        return nodosPorId.containsKey(id);
+    }
+
+    public boolean estaVacia() {
+        return nodosPorId.isEmpty();
+    }
+
+    public int getTamanio() {
+        return nodosPorId.size();
+    }
+
+    public int getTamanio(Prioridad prioridad) {
+        return tamanios[prioridad.ordinal()];
+    }
+
+    // Sin prioridad se trata como la más baja
+    private static int nivel(Ticket ticket) {
+        return (ticket.getPrioridad() != null) ? ticket.getPrioridad().ordinal() : 0;
+    }
+
+    private static boolean esMasNuevo(Ticket a, Ticket b) {
+        LocalDateTime fa = a.getFechaCreacion();
+        LocalDateTime fb = b.getFechaCreacion();
+        if (fa == null || fb == null)
+            return fa == null && fb != null; // sin fecha va al final
+        return fa.isAfter(fb);
+    }
+}
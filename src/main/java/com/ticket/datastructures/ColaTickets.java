@@ -48,6 +48,32 @@ public class ColaTickets {
         return atendido;
     }
 
+    /**
+     * ELIMINAR: retira un ticket de cualquier posición de la cola — O(n).
+     * Se usa cuando un ticket deja de estar ABIERTO o se borra de la BD.
+     */
+    public boolean eliminar(Long id) {
+        NodoTicket anterior = null;
+        NodoTicket actual = frente;
+        while (actual != null) {
+            if (actual.ticket.getId().equals(id)) {
+                if (anterior == null) {
+                    frente = actual.siguiente; // era el frente
+                } else {
+                    anterior.siguiente = actual.siguiente; // saltar el nodo eliminado
+                }
+                if (actual == final_) {
+                    final_ = anterior; // era el último
+                }
+                tamanio--;
+                return true;
+            }
+            anterior = actual;
+            actual = actual.siguiente;
+        }
+        return false;
+    }
+
     /**
      * VER FRENTE: Consulta el próximo a atender sin retirarlo.
      */
@@ -0,0 +1,159 @@
+package com.ticket.datastructures;
+
+import com.ticket.model.Estado;
+import com.ticket.model.Prioridad;
+import com.ticket.model.Ticket;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cantidad de tickets por estado, prioridad y categoría, y por los cruces
+ * estado × prioridad y categoría × estado. Cada contador es un LongAdder: quien
+ * escribe suma en su propia celda sin competir, y leer un número es O(1) sin
+ * importar cuántos tickets haya. Los tickets sin categoría cuentan bajo SIN_CATEGORIA.
+ */
+public class ContadoresTickets {
+
+    public static final long SIN_CATEGORIA = 0L;
+
+    private static final Estado[] ESTADOS = Estado.values();
+    private static final Prioridad[] PRIORIDADES = Prioridad.values();
+
+    /**
+     * Foto de los contadores. Cada número es exacto en el momento en que se leyó, pero
+     * una escritura concurrente puede verse en unos y todavía no en otros.
+     */
+    public record Instantanea(
+            long total,
+            Map<Estado, Long> porEstado,
+            Map<Prioridad, Long> porPrioridad,
+            Map<String, Long> porCategoria,
+            Map<Estado, Map<Prioridad, Long>> porEstadoYPrioridad,
+            Map<String, Map<Estado, Long>> porCategoriaYEstado) {
+    }
+
+    private final LongAdder total = new LongAdder();
+    private final LongAdder[] porEstado = nuevos(ESTADOS.length);
+    private final LongAdder[] porPrioridad = nuevos(PRIORIDADES.length);
+    private final LongAdder[][] porEstadoYPrioridad = new LongAdder[ESTADOS.length][];
+    private final Map<Long, LongAdder> porCategoria = new ConcurrentHashMap<>();
+    private final Map<Long, LongAdder[]> porCategoriaYEstado = new ConcurrentHashMap<>();
+    private final Map<Long, String> nombres = new ConcurrentHashMap<>();
+
+    public ContadoresTickets() {
+        for (int i = 0; i < ESTADOS.length; i++) {
+            porEstadoYPrioridad[i] = nuevos(PRIORIDADES.length);
+        }
+        nombres.put(SIN_CATEGORIA, "Sin categoría");
+    }
+
+    private static LongAdder[] nuevos(int n) {
+        LongAdder[] adders = new LongAdder[n];
+        for (int i = 0; i < n; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    /**
+     * Pone los contadores en cero y los carga con filas [estado, prioridad, categoriaId,
+     * categoriaNombre, cantidad] de un GROUP BY (categoriaId null = sin categoría).
+     */
+    public void cargar(List<Object[]> filas) {
+        total.reset();
+        for (LongAdder a : porEstado)
+            a.reset();
+        for (LongAdder a : porPrioridad)
+            a.reset();
+        for (LongAdder[] fila : porEstadoYPrioridad)
+            for (LongAdder a : fila)
+                a.reset();
+        porCategoria.clear();
+        porCategoriaYEstado.clear();
+        for (Object[] f : filas) {
+            Long categoriaId = f[2] != null ? (Long) f[2] : SIN_CATEGORIA;
+            if (f[3] != null) {
+                nombres.put(categoriaId, (String) f[3]);
+            }
+            sumar((Estado) f[0], (Prioridad) f[1], categoriaId, (Long) f[4]);
+        }
+    }
+
+    /**
+     * Un ticket pasó de 'anterior' a 'nuevo'; cualquiera de los dos puede ser null
+     * (alta o baja). Si no cambió nada que se cuente, no toca los contadores.
+     */
+    public void mover(Ticket anterior, Ticket nuevo) {
+        if (anterior != null && nuevo != null && anterior.getEstado() == nuevo.getEstado()
+                && anterior.getPrioridad() == nuevo.getPrioridad()
+                && categoriaId(anterior).equals(categoriaId(nuevo))) {
+            return;
+        }
+        if (anterior != null) {
+            sumar(anterior.getEstado(), anterior.getPrioridad(), categoriaId(anterior), -1);
+        }
+        if (nuevo != null) {
+            if (nuevo.getCategoria() != null && nuevo.getCategoria().getNombre() != null) {
+                nombres.put(nuevo.getCategoria().getId(), nuevo.getCategoria().getNombre());
+            }
+            sumar(nuevo.getEstado(), nuevo.getPrioridad(), categoriaId(nuevo), 1);
+        }
+    }
+
+    private static Long categoriaId(Ticket t) {
+        return t.getCategoria() != null ? t.getCategoria().getId() : SIN_CATEGORIA;
+    }
+
+    private void sumar(Estado estado, Prioridad prioridad, Long categoriaId, long cantidad) {
+        total.add(cantidad);
+        porEstado[estado.ordinal()].add(cantidad);
+        porPrioridad[prioridad.ordinal()].add(cantidad);
+        porEstadoYPrioridad[estado.ordinal()][prioridad.ordinal()].add(cantidad);
+        porCategoria.computeIfAbsent(categoriaId, k -> new LongAdder()).add(cantidad);
+        porCategoriaYEstado.computeIfAbsent(categoriaId, k -> nuevos(ESTADOS.length))[estado.ordinal()].add(cantidad);
+    }
+
+    public long getTotal() {
+        return total.sum();
+    }
+
+    public Instantanea instantanea() {
+        Map<Estado, Long> estados = new EnumMap<>(Estado.class);
+        Map<Estado, Map<Prioridad, Long>> estadoYPrioridad = new EnumMap<>(Estado.class);
+        for (Estado e : ESTADOS) {
+            estados.put(e, porEstado[e.ordinal()].sum());
+            Map<Prioridad, Long> fila = new EnumMap<>(Prioridad.class);
+            for (Prioridad p : PRIORIDADES) {
+                fila.put(p, porEstadoYPrioridad[e.ordinal()][p.ordinal()].sum());
+            }
+            estadoYPrioridad.put(e, fila);
+        }
+        Map<Prioridad, Long> prioridades = new EnumMap<>(Prioridad.class);
+        for (Prioridad p : PRIORIDADES) {
+            prioridades.put(p, porPrioridad[p.ordinal()].sum());
+        }
+
+        Map<String, Long> categorias = new LinkedHashMap<>();
+        Map<String, Map<Estado, Long>> categoriaYEstado = new LinkedHashMap<>();
+        new TreeMap<>(porCategoria).forEach((id, adder) -> {
+            long cantidad = adder.sum();
+            if (cantidad == 0)
+                return; // categoría cuyos tickets se borraron o cambiaron todos
+            String nombre = nombres.getOrDefault(id, "Categoría " + id);
+            categorias.put(nombre, cantidad);
+            Map<Estado, Long> fila = new EnumMap<>(Estado.class);
+            LongAdder[] adders = porCategoriaYEstado.get(id);
+            for (Estado e : ESTADOS) {
+                fila.put(e, adders != null ? adders[e.ordinal()].sum() : 0L);
+            }
+            categoriaYEstado.put(nombre, fila);
+        });
+        return new Instantanea(total.sum(), estados, prioridades, categorias, estadoYPrioridad, categoriaYEstado);
+    }
+}
@@ -0,0 +1,30 @@
+package com.ticket.datastructures;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+/**
+ * Métricas de una caché Caffeine (ver CacheConfig), para ver si las lecturas
+ * realmente se resuelven en memoria o siguen yendo a la BD.
+ */
+public class EstadisticasCache {
+
+    public String nombre;
+    public long entradas; // estimado: Caffeine no bloquea para contar
+    public long aciertos;
+    public long fallos; // cada fallo es una consulta a la BD
+    public double tasaAciertos; // aciertos / (aciertos + fallos); 1.0 si aún no hubo lecturas
+    public long desalojos; // por tamaño o por vencimiento
+
+    public static EstadisticasCache de(String nombre, Cache<?, ?> cache) {
+        CacheStats stats = cache.stats();
+        EstadisticasCache e = new EstadisticasCache();
+        e.nombre = nombre;
+        e.entradas = cache.estimatedSize();
+        e.aciertos = stats.hitCount();
+        e.fallos = stats.missCount();
+        e.tasaAciertos = stats.hitRate();
+        e.desalojos = stats.evictionCount();
+        return e;
+    }
+}
@@ -0,0 +1,18 @@
+package com.ticket.datastructures;
+
+/**
+ * Métricas de ocupación de una tabla hash, para ver qué tan bien reparte la función hash.
+ */
+public class EstadisticasHash {
+
+    public String modo; // "encadenamiento" o "sondeo"
+    public int capacidad;
+    public int tamanio;
+    public double factorCarga; // tamanio / capacidad
+    public double factorCargaMaximo; // umbral que dispara el crecimiento
+    public int posicionesOcupadas; // cubetas no vacías o casillas con dato
+    public int recorridoMaximo; // cadena más larga o sondeo más largo
+    public double recorridoPromedio; // nodos/casillas visitados en una búsqueda exitosa
+    public int lapidas; // casillas borradas (solo sondeo)
+    public boolean rehashEnCurso;
+}
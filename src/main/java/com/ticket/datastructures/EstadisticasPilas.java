@@ -0,0 +1,20 @@
+package com.ticket.datastructures;
+
+/**
+ * Ocupación del almacén de pilas de historial, para vigilar la memoria usada.
+ */
+public class EstadisticasPilas {
+
+    // Estimaciones para una JVM de 64 bits con referencias comprimidas
+    static final long BYTES_POR_PILA = 120; // PilaTickets + Long + entrada del LinkedHashMap
+    static final long BYTES_POR_ESTADO = 96; // NodoPila + String de la marca de tiempo
+
+    public int pilasEnMemoria;
+    public int maxPilas;
+    public int maxProfundidad;
+    public long estadosEnMemoria; // nodos sumando todas las pilas
+    public long bytesEstimados;
+    public long desalojos; // pilas expulsadas por LRU
+    public long aciertos; // accesos a pilas que ya estaban en memoria
+    public long cargas; // pilas reconstruidas al no estar en memoria
+}
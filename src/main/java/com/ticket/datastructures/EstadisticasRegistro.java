@@ -0,0 +1,15 @@
+package com.ticket.datastructures;
+
+/**
+ * Tamaño en disco del registro de transiciones de estado.
+ */
+public class EstadisticasRegistro {
+
+    public String directorio;
+    public int segmentos; // sellados + el activo
+    public long registros;
+    public long bytesEnDisco; // incluye el espacio reservado del segmento activo
+    public int registrosPorSegmento;
+    public long compactaciones;
+    public boolean compactacionEnCurso;
+}
@@ -0,0 +1,554 @@
+package com.ticket.datastructures;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Índice invertido para búsqueda de texto con ranking BM25. Cada ticket es un documento
+ * (título + descripción + comentarios) con un número interno 'doc' que solo crece, así
+ * las listas de aparición de cada término quedan ordenadas y se guardan comprimidas:
+ * diferencia con el doc anterior y frecuencia, ambas en varint (1 byte si son < 128).
+ *
+ * Reindexar un ticket no toca las listas viejas: el doc anterior se marca borrado y el
+ * ticket entra con un doc nuevo. Cuando los borrados superan un cuarto del total se
+ * compacta todo en una pasada. Cada doc guarda además sus propios términos (ID de
+ * término y frecuencia, también en varint): al borrarlo se descuenta de la frecuencia
+ * de documentos de cada uno, y un comentario nuevo se suma a lo indexado sin releer
+ * el ticket. No es thread-safe: quien lo usa sincroniza.
+ */
+public class IndiceInvertido {
+
+    public record Resultado(long ticketId, double puntaje) {
+    }
+
+    // BM25 clásico; el título pesa como si cada palabra apareciera PESO_TITULO veces
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int PESO_TITULO = 3;
+
+    private static final int LARGO_MAXIMO_TERMINO = 40;
+    private static final int MINIMO_PARA_COMPACTAR = 1024;
+
+    private static final Set<String> VACIAS = Set.of(
+            "de", "la", "que", "el", "en", "los", "del", "se", "las", "por", "un", "para", "con",
+            "no", "una", "su", "al", "lo", "como", "mas", "pero", "sus", "le", "ya", "este", "esta",
+            "es", "son", "fue", "ha", "me", "mi", "sin", "sobre", "muy", "ese", "esa", "hay", "o", "y", "a");
+
+    /**
+     * Apariciones de un término: pares (delta de doc, frecuencia) en varint.
+     */
+    private static final class Apariciones {
+        int id; // posición en 'terminoPorId'; cambia al compactar
+        byte[] datos = new byte[8];
+        int largo; // bytes usados
+        int docs; // documentos vivos con el término (la lista tiene además los borrados hasta compactar)
+        int ultimoDoc = -1;
+
+        Apariciones(int id) {
+            this.id = id;
+        }
+
+        void agregar(int doc, int frecuencia) {
+            if (datos.length - largo < 10) {
+                datos = Arrays.copyOf(datos, datos.length * 2);
+            }
+            largo = escribirVarint(datos, largo, doc - ultimoDoc - 1);
+            largo = escribirVarint(datos, largo, frecuencia);
+            ultimoDoc = doc;
+            docs++;
+        }
+    }
+
+    private final Map<String, Apariciones> terminos = new HashMap<>();
+    private Apariciones[] terminoPorId = new Apariciones[1024];
+    private int siguienteTermino;
+    private final MapaIds docPorTicket = new MapaIds();
+
+    // por doc
+    private long[] ticketDeDoc = new long[1024];
+    private int[] largoDeDoc = new int[1024]; // palabras, con el peso del título
+    private int[] huellaDeDoc = new int[1024]; // hash de título + descripción, para saltar reindexados iguales
+    private int[] inicioDeDoc = new int[1024]; // dónde empiezan sus términos en 'terminosDeDocs'
+    private final BitSet borrados = new BitSet();
+    // términos de cada doc, uno tras otro: pares (delta de ID de término, frecuencia) en varint
+    private byte[] terminosDeDocs = new byte[16 * 1024];
+    private int largoTerminosDeDocs;
+    private int siguienteDoc;
+
+    private int vivos;
+    private long largoTotal; // suma de largos de los docs vivos
+
+    // ---- ESCRITURA ----
+
+    /**
+     * Agrega el ticket o reemplaza lo que había indexado de él — O(palabras del texto).
+     */
+    public void indexar(long ticketId, String titulo, String descripcion, List<String> comentarios) {
+        int anterior = docPorTicket.quitar(ticketId);
+        if (anterior >= 0) {
+            borrar(anterior);
+        }
+
+        Map<Apariciones, Integer> frecuencias = new HashMap<>();
+        int largo = contar(titulo, PESO_TITULO, frecuencias)
+                + contar(descripcion, 1, frecuencias);
+        for (String comentario : comentarios) {
+            largo += contar(comentario, 1, frecuencias);
+        }
+        agregarDoc(ticketId, frecuencias, largo, huella(titulo, descripcion));
+        compactarSiConviene();
+    }
+
+    /**
+     * Suma el texto de un comentario nuevo a lo indexado del ticket, sin volver a pedir
+     * el resto — O(términos del ticket). Devuelve false si el ticket no está indexado.
+     */
+    public boolean agregarComentario(long ticketId, String texto) {
+        int anterior = docPorTicket.quitar(ticketId);
+        if (anterior < 0)
+            return false;
+        Map<Apariciones, Integer> frecuencias = terminosDe(anterior);
+        int largo = largoDeDoc[anterior] + contar(texto, 1, frecuencias);
+        int huella = huellaDeDoc[anterior];
+        borrar(anterior);
+        agregarDoc(ticketId, frecuencias, largo, huella);
+        compactarSiConviene();
+        return true;
+    }
+
+    /**
+     * Quita el ticket del índice (si estaba). Devuelve false si no estaba.
+     */
+    public boolean quitar(long ticketId) {
+        int doc = docPorTicket.quitar(ticketId);
+        if (doc < 0)
+            return false;
+        borrar(doc);
+        compactarSiConviene();
+        return true;
+    }
+
+    private void agregarDoc(long ticketId, Map<Apariciones, Integer> frecuencias, int largo, int huella) {
+        int doc = siguienteDoc++;
+        if (doc == ticketDeDoc.length) {
+            int capacidad = doc * 2;
+            ticketDeDoc = Arrays.copyOf(ticketDeDoc, capacidad);
+            largoDeDoc = Arrays.copyOf(largoDeDoc, capacidad);
+            huellaDeDoc = Arrays.copyOf(huellaDeDoc, capacidad);
+            inicioDeDoc = Arrays.copyOf(inicioDeDoc, capacidad);
+        }
+        ticketDeDoc[doc] = ticketId;
+        largoDeDoc[doc] = largo;
+        huellaDeDoc[doc] = huella;
+
+        // ordenados por ID de término, para guardar diferencias chicas
+        long[] pares = new long[frecuencias.size()];
+        int i = 0;
+        for (Map.Entry<Apariciones, Integer> e : frecuencias.entrySet()) {
+            e.getKey().agregar(doc, e.getValue());
+            pares[i++] = (long) e.getKey().id << 32 | e.getValue();
+        }
+        Arrays.sort(pares);
+        inicioDeDoc[doc] = largoTerminosDeDocs;
+        largoTerminosDeDocs = escribirTerminos(pares);
+
+        docPorTicket.poner(ticketId, doc);
+        vivos++;
+        largoTotal += largo;
+    }
+
+    /**
+     * Escribe los pares (ID de término << 32 | frecuencia), ya ordenados, al final de
+     * 'terminosDeDocs'. Devuelve el nuevo largo.
+     */
+    private int escribirTerminos(long[] pares) {
+        if (terminosDeDocs.length - largoTerminosDeDocs < pares.length * 10) {
+            terminosDeDocs = Arrays.copyOf(terminosDeDocs,
+                    Math.max(terminosDeDocs.length * 2, largoTerminosDeDocs + pares.length * 10));
+        }
+        int pos = largoTerminosDeDocs;
+        int anterior = -1;
+        for (long par : pares) {
+            int id = (int) (par >>> 32);
+            pos = escribirVarint(terminosDeDocs, pos, id - anterior - 1);
+            pos = escribirVarint(terminosDeDocs, pos, (int) par);
+            anterior = id;
+        }
+        return pos;
+    }
+
+    /**
+     * Marca el doc borrado y lo descuenta de la frecuencia de documentos de sus términos.
+     */
+    private void borrar(int doc) {
+        borrados.set(doc);
+        vivos--;
+        largoTotal -= largoDeDoc[doc];
+        terminosDe(doc).keySet().forEach(ap -> ap.docs--);
+    }
+
+    private Map<Apariciones, Integer> terminosDe(int doc) {
+        Map<Apariciones, Integer> frecuencias = new HashMap<>();
+        int[] pos = { inicioDeDoc[doc] };
+        int fin = finDeDoc(doc);
+        int id = -1;
+        while (pos[0] < fin) {
+            id += leerVarint(terminosDeDocs, pos) + 1;
+            frecuencias.put(terminoPorId[id], leerVarint(terminosDeDocs, pos));
+        }
+        return frecuencias;
+    }
+
+    private int finDeDoc(int doc) {
+        return doc + 1 < siguienteDoc ? inicioDeDoc[doc + 1] : largoTerminosDeDocs;
+    }
+
+    private Apariciones termino(String termino) {
+        Apariciones ap = terminos.get(termino);
+        if (ap == null) {
+            if (siguienteTermino == terminoPorId.length) {
+                terminoPorId = Arrays.copyOf(terminoPorId, siguienteTermino * 2);
+            }
+            ap = new Apariciones(siguienteTermino);
+            terminoPorId[siguienteTermino++] = ap;
+            terminos.put(termino, ap);
+        }
+        return ap;
+    }
+
+    /**
+     * true si el ticket está indexado con este mismo título y descripción
+     * (ej. solo cambió el estado y no hace falta reindexar).
+     */
+    public boolean mismoTexto(long ticketId, String titulo, String descripcion) {
+        int doc = docPorTicket.obtener(ticketId);
+        return doc >= 0 && huellaDeDoc[doc] == huella(titulo, descripcion);
+    }
+
+    private void compactarSiConviene() {
+        if (siguienteDoc >= MINIMO_PARA_COMPACTAR && borrados.cardinality() * 4 > siguienteDoc) {
+            compactar();
+        }
+    }
+
+    /**
+     * Reescribe todas las listas sin los docs borrados y renumera los vivos en orden,
+     * así las diferencias siguen siendo positivas; los términos que quedaron sin docs se
+     * descartan y el resto se renumera — O(apariciones totales).
+     */
+    private void compactar() {
+        int[] nuevoTermino = new int[siguienteTermino];
+        Apariciones[] terminosVivos = new Apariciones[terminoPorId.length];
+        int t = 0;
+        for (Iterator<Apariciones> it = terminos.values().iterator(); it.hasNext();) {
+            Apariciones ap = it.next();
+            if (ap.docs == 0) {
+                it.remove();
+            } else {
+                nuevoTermino[ap.id] = t;
+                ap.id = t;
+                terminosVivos[t++] = ap;
+            }
+        }
+        terminoPorId = terminosVivos;
+        siguienteTermino = t;
+
+        byte[] viejosTerminosDeDocs = terminosDeDocs;
+        int viejoLargo = largoTerminosDeDocs;
+        terminosDeDocs = new byte[Math.max(16 * 1024, largoTerminosDeDocs)];
+        largoTerminosDeDocs = 0;
+        int[] nuevoDoc = new int[siguienteDoc];
+        int[] pos = new int[1];
+        int n = 0;
+        for (int doc = 0; doc < siguienteDoc; doc++) {
+            if (borrados.get(doc)) {
+                nuevoDoc[doc] = -1;
+                continue;
+            }
+            // sus términos con los IDs nuevos, que pueden haber cambiado de orden
+            pos[0] = inicioDeDoc[doc];
+            int fin = doc + 1 < siguienteDoc ? inicioDeDoc[doc + 1] : viejoLargo;
+            long[] pares = new long[16];
+            int cantidad = 0;
+            int id = -1;
+            while (pos[0] < fin) {
+                id += leerVarint(viejosTerminosDeDocs, pos) + 1;
+                if (cantidad == pares.length) {
+                    pares = Arrays.copyOf(pares, cantidad * 2);
+                }
+                pares[cantidad++] = (long) nuevoTermino[id] << 32 | leerVarint(viejosTerminosDeDocs, pos);
+            }
+            pares = Arrays.copyOf(pares, cantidad);
+            Arrays.sort(pares);
+
+            nuevoDoc[doc] = n;
+            ticketDeDoc[n] = ticketDeDoc[doc];
+            largoDeDoc[n] = largoDeDoc[doc];
+            huellaDeDoc[n] = huellaDeDoc[doc];
+            inicioDeDoc[n] = largoTerminosDeDocs;
+            largoTerminosDeDocs = escribirTerminos(pares);
+            docPorTicket.poner(ticketDeDoc[n], n);
+            n++;
+        }
+        for (int i = 0; i < siguienteTermino; i++) {
+            Apariciones viejas = terminoPorId[i];
+            Apariciones nuevas = new Apariciones(viejas.id);
+            pos[0] = 0;
+            int doc = -1;
+            while (pos[0] < viejas.largo) {
+                doc += leerVarint(viejas.datos, pos) + 1;
+                int frecuencia = leerVarint(viejas.datos, pos);
+                if (nuevoDoc[doc] >= 0) {
+                    nuevas.agregar(nuevoDoc[doc], frecuencia);
+                }
+            }
+            viejas.datos = Arrays.copyOf(nuevas.datos, nuevas.largo);
+            viejas.largo = nuevas.largo;
+            viejas.ultimoDoc = nuevas.ultimoDoc;
+        }
+        borrados.clear();
+        siguienteDoc = n;
+    }
+
+    // ---- CONSULTA ----
+
+    /**
+     * Los 'limite' tickets de mayor puntaje BM25 para las palabras de 'consulta'
+     * (basta con que aparezca una; los que tienen más y más raras suben). Recorre solo
+     * las listas de esos términos.
+     */
+    public List<Resultado> buscar(String consulta, int limite) {
+        if (vivos == 0)
+            return List.of();
+        double largoPromedio = (double) largoTotal / vivos;
+        float[] puntajes = null;
+        int[] pos = new int[1];
+
+        for (String termino : new LinkedHashSet<>(tokenizar(consulta))) {
+            Apariciones ap = terminos.get(termino);
+            if (ap == null || ap.docs == 0)
+                continue;
+            if (puntajes == null) {
+                puntajes = new float[siguienteDoc];
+            }
+            // con 'docs' contando solo vivos el argumento del log es > 1 y el idf > 0
+            double idf = Math.log(1 + (vivos - ap.docs + 0.5) / (ap.docs + 0.5));
+            pos[0] = 0;
+            int doc = -1;
+            while (pos[0] < ap.largo) {
+                doc += leerVarint(ap.datos, pos) + 1;
+                int frecuencia = leerVarint(ap.datos, pos);
+                if (borrados.get(doc))
+                    continue;
+                double norma = K1 * (1 - B + B * largoDeDoc[doc] / largoPromedio);
+                puntajes[doc] += (float) (idf * frecuencia * (K1 + 1) / (frecuencia + norma));
+            }
+        }
+        if (puntajes == null)
+            return List.of();
+        return mejores(puntajes, limite);
+    }
+
+    private List<Resultado> mejores(float[] puntajes, int limite) {
+        // montículo de mínimos con los 'limite' mejores vistos hasta ahora
+        PriorityQueue<Integer> mejores = new PriorityQueue<>(limite + 1,
+                (a, b) -> Float.compare(puntajes[a], puntajes[b]));
+        for (int doc = 0; doc < puntajes.length; doc++) {
+            if (puntajes[doc] <= 0)
+                continue;
+            if (mejores.size() < limite) {
+                mejores.add(doc);
+            } else if (puntajes[doc] > puntajes[mejores.peek()]) {
+                mejores.poll();
+                mejores.add(doc);
+            }
+        }
+        Resultado[] resultado = new Resultado[mejores.size()];
+        for (int i = resultado.length - 1; i >= 0; i--) {
+            int doc = mejores.poll();
+            resultado[i] = new Resultado(ticketDeDoc[doc], puntajes[doc]);
+        }
+        return Arrays.asList(resultado);
+    }
+
+    public int getTamanio() {
+        return vivos;
+    }
+
+    public int getTerminos() {
+        return terminos.size();
+    }
+
+    /**
+     * Bytes ocupados por las listas de apariciones (sin el diccionario).
+     */
+    public long getBytesApariciones() {
+        long total = 0;
+        for (Apariciones ap : terminos.values()) {
+            total += ap.datos.length;
+        }
+        return total;
+    }
+
+    // ---- TEXTO ----
+
+    /**
+     * Palabras normalizadas: minúsculas, sin tildes ni diéresis ("Cámara" → "camara",
+     * "pingüino" → "pinguino", "año" → "ano"), sin palabras vacías ni letras sueltas.
+     */
+    public static List<String> tokenizar(String texto) {
+        List<String> tokens = new ArrayList<>();
+        if (texto == null || texto.isEmpty())
+            return tokens;
+        String plano = sinTildes(texto);
+        StringBuilder actual = new StringBuilder();
+        for (int i = 0; i <= plano.length(); i++) {
+            char c = i < plano.length() ? plano.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                actual.append(Character.toLowerCase(c));
+            } else if (!actual.isEmpty()) {
+                String token = actual.toString();
+                if (token.length() > 1 && token.length() <= LARGO_MAXIMO_TERMINO && !VACIAS.contains(token)) {
+                    tokens.add(token);
+                }
+                actual.setLength(0);
+            }
+        }
+        return tokens;
+    }
+
+    private static String sinTildes(String texto) {
+        for (int i = 0; i < texto.length(); i++) {
+            if (texto.charAt(i) > 0x7F) { // solo se normaliza si hay algo fuera de ASCII
+                String descompuesto = Normalizer.normalize(texto, Normalizer.Form.NFD);
+                return descompuesto.replaceAll("\\p{M}+", "");
+            }
+        }
+        return texto;
+    }
+
+    private int contar(String texto, int peso, Map<Apariciones, Integer> frecuencias) {
+        List<String> tokens = tokenizar(texto);
+        for (String t : tokens) {
+            frecuencias.merge(termino(t), peso, Integer::sum);
+        }
+        return tokens.size() * peso;
+    }
+
+    private static int huella(String titulo, String descripcion) {
+        return 31 * String.valueOf(titulo).hashCode() + String.valueOf(descripcion).hashCode();
+    }
+
+    private static int escribirVarint(byte[] destino, int pos, int valor) {
+        while ((valor & ~0x7F) != 0) {
+            destino[pos++] = (byte) ((valor & 0x7F) | 0x80);
+            valor >>>= 7;
+        }
+        destino[pos++] = (byte) valor;
+        return pos;
+    }
+
+    private static int leerVarint(byte[] origen, int[] pos) {
+        int valor = 0;
+        int desplazamiento = 0;
+        byte b;
+        do {
+            b = origen[pos[0]++];
+            valor |= (b & 0x7F) << desplazamiento;
+            desplazamiento += 7;
+        } while (b < 0);
+        return valor;
+    }
+
+    /**
+     * ticketId → doc con direccionamiento abierto (sondeo lineal) sobre arreglos
+     * primitivos: un HashMap<Long, Integer> gastaría ~4 objetos por ticket.
+     * Al borrar se corren hacia atrás los elementos del grupo, sin lápidas.
+     */
+    private static final class MapaIds {
+        private static final long VACIO = Long.MIN_VALUE;
+
+        private long[] claves = nuevasClaves(1024);
+        private int[] valores = new int[1024];
+        private int tamanio;
+
+        private static long[] nuevasClaves(int capacidad) {
+            long[] c = new long[capacidad];
+            Arrays.fill(c, VACIO);
+            return c;
+        }
+
+        private int posicion(long clave) {
+            return (int) (Long.hashCode(clave * 0x9E3779B97F4A7C15L) & (claves.length - 1));
+        }
+
+        int obtener(long clave) {
+            for (int i = posicion(clave); claves[i] != VACIO; i = (i + 1) & (claves.length - 1)) {
+                if (claves[i] == clave)
+                    return valores[i];
+            }
+            return -1;
+        }
+
+        void poner(long clave, int valor) {
+            if ((tamanio + 1) * 2 > claves.length) {
+                crecer();
+            }
+            int i = posicion(clave);
+            while (claves[i] != VACIO && claves[i] != clave) {
+                i = (i + 1) & (claves.length - 1);
+            }
+            if (claves[i] == VACIO) {
+                tamanio++;
+            }
+            claves[i] = clave;
+            valores[i] = valor;
+        }
+
+        int quitar(long clave) {
+            int mascara = claves.length - 1;
+            int i = posicion(clave);
+            while (claves[i] != clave) {
+                if (claves[i] == VACIO)
+                    return -1;
+                i = (i + 1) & mascara;
+            }
+            int valor = valores[i];
+            // corrimiento hacia atrás: cada elemento siguiente del grupo que pueda ocupar el hueco, lo ocupa
+            int hueco = i;
+            for (int j = (i + 1) & mascara; claves[j] != VACIO; j = (j + 1) & mascara) {
+                int ideal = posicion(claves[j]);
+                if (((j - ideal) & mascara) >= ((j - hueco) & mascara)) {
+                    claves[hueco] = claves[j];
+                    valores[hueco] = valores[j];
+                    hueco = j;
+                }
+            }
+            claves[hueco] = VACIO;
+            tamanio--;
+            return valor;
+        }
+
+        private void crecer() {
+            long[] viejasClaves = claves;
+            int[] viejosValores = valores;
+            claves = nuevasClaves(viejasClaves.length * 2);
+            valores = new int[viejasClaves.length * 2];
+            tamanio = 0;
+            for (int i = 0; i < viejasClaves.length; i++) {
+                if (viejasClaves[i] != VACIO) {
+                    poner(viejasClaves[i], viejosValores[i]);
+                }
+            }
+        }
+    }
+}
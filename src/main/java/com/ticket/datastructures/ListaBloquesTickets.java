@@ -0,0 +1,206 @@
+package com.ticket.datastructures;
+
+import com.ticket.model.Ticket;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lista "desenrollada": cada nodo guarda un bloque de hasta N tickets en un arreglo.
+ * Comparada con un nodo por ticket hay N veces menos nodos (menos memoria por
+ * elemento) y recorrerla salta de puntero en puntero N veces menos.
+ * Un índice id → bloque deja buscar, reemplazar y eliminar en O(N) dentro del
+ * bloque en lugar de O(n) sobre toda la lista.
+ */
+public class ListaBloquesTickets implements ListaTickets {
+
+    private static class Bloque {
+        final Ticket[] tickets;
+        int cantidad;
+        Bloque siguiente;
+        Bloque anterior;
+
+        Bloque(int capacidad) {
+            this.tickets = new Ticket[capacidad];
+        }
+
+        int posicionDe(Long id) {
+            for (int i = 0; i < cantidad; i++) {
+                if (tickets[i].getId().equals(id))
+                    return i;
+            }
+            return -1;
+        }
+    }
+
+    private final int tamanioBloque;
+    private final Map<Long, Bloque> indice = new HashMap<>();
+    private Bloque cabeza;
+    private Bloque cola;
+    private int tamanio;
+    private int bloques;
+
+    public ListaBloquesTickets() {
+        this(64);
+    }
+
+    public ListaBloquesTickets(int tamanioBloque) {
+        if (tamanioBloque < 2)
+            throw new IllegalArgumentException("Un bloque debe admitir al menos 2 tickets");
+        this.tamanioBloque = tamanioBloque;
+    }
+
+    /**
+     * AGREGAR AL FINAL — O(1): se escribe en el último bloque o se abre uno nuevo.
+     */
+    @Override
+    public void agregar(Ticket ticket) {
+        if (cola == null || cola.cantidad == tamanioBloque) {
+            enlazarDespues(cola, new Bloque(tamanioBloque));
+        }
+        cola.tickets[cola.cantidad++] = ticket;
+        indexar(ticket, cola);
+        tamanio++;
+    }
+
+    /**
+     * AGREGAR AL INICIO — O(N): corre el primer bloque un lugar, o abre uno nuevo si está lleno.
+     */
+    @Override
+    public void agregarAlInicio(Ticket ticket) {
+        if (cabeza == null || cabeza.cantidad == tamanioBloque) {
+            enlazarDespues(null, new Bloque(tamanioBloque));
+        }
+        System.arraycopy(cabeza.tickets, 0, cabeza.tickets, 1, cabeza.cantidad);
+        cabeza.tickets[0] = ticket;
+        cabeza.cantidad++;
+        indexar(ticket, cabeza);
+        tamanio++;
+    }
+
+    private void indexar(Ticket ticket, Bloque bloque) {
+        if (ticket.getId() != null) {
+            indice.put(ticket.getId(), bloque);
+        }
+    }
+
+    /**
+     * Enlaza 'nuevo' después de 'previo' (al inicio si previo es null).
+     */
+    private void enlazarDespues(Bloque previo, Bloque nuevo) {
+        Bloque siguiente = previo != null ? previo.siguiente : cabeza;
+        nuevo.anterior = previo;
+        nuevo.siguiente = siguiente;
+        if (previo != null) {
+            previo.siguiente = nuevo;
+        } else {
+            cabeza = nuevo;
+        }
+        if (siguiente != null) {
+            siguiente.anterior = nuevo;
+        } else {
+            cola = nuevo;
+        }
+        bloques++;
+    }
+
+    private void desenlazar(Bloque bloque) {
+        if (bloque.anterior != null) {
+            bloque.anterior.siguiente = bloque.siguiente;
+        } else {
+            cabeza = bloque.siguiente;
+        }
+        if (bloque.siguiente != null) {
+            bloque.siguiente.anterior = bloque.anterior;
+        } else {
+            cola = bloque.anterior;
+        }
+        bloque.siguiente = null;
+        bloque.anterior = null;
+        bloques--;
+    }
+
+    @Override
+    public List<Ticket> obtenerTodos() {
+        List<Ticket> resultado = new ArrayList<>(tamanio);
+        for (Bloque b = cabeza; b != null; b = b.siguiente) {
+            for (int i = 0; i < b.cantidad; i++) {
+                resultado.add(b.tickets[i]);
+            }
+        }
+        return resultado;
+    }
+
+    @Override
+    public Ticket buscarPorId(Long id) {
+        Bloque bloque = indice.get(id);
+        if (bloque == null)
+            return null;
+        return bloque.tickets[bloque.posicionDe(id)];
+    }
+
+    @Override
+    public boolean reemplazar(Ticket ticket) {
+        Bloque bloque = indice.get(ticket.getId());
+        if (bloque == null)
+            return false;
+        bloque.tickets[bloque.posicionDe(ticket.getId())] = ticket;
+        return true;
+    }
+
+    /**
+     * ELIMINAR — O(N): se corre el resto del bloque. Si el bloque queda a menos de
+     * la mitad y cabe junto con un vecino, se fusionan para no acumular bloques
+     * casi vacíos.
+     */
+    @Override
+    public boolean eliminar(Long id) {
+        Bloque bloque = indice.remove(id);
+        if (bloque == null)
+            return false;
+        int pos = bloque.posicionDe(id);
+        System.arraycopy(bloque.tickets, pos + 1, bloque.tickets, pos, bloque.cantidad - pos - 1);
+        bloque.tickets[--bloque.cantidad] = null;
+        tamanio--;
+
+        if (bloque.cantidad == 0) {
+            desenlazar(bloque);
+        } else if (bloque.cantidad < tamanioBloque / 2) {
+            if (bloque.anterior != null && bloque.anterior.cantidad + bloque.cantidad <= tamanioBloque) {
+                fusionarConSiguiente(bloque.anterior);
+            } else if (bloque.siguiente != null && bloque.cantidad + bloque.siguiente.cantidad <= tamanioBloque) {
+                fusionarConSiguiente(bloque);
+            }
+        }
+        return true;
+    }
+
+    private void fusionarConSiguiente(Bloque bloque) {
+        Bloque siguiente = bloque.siguiente;
+        for (int i = 0; i < siguiente.cantidad; i++) {
+            Ticket t = siguiente.tickets[i];
+            bloque.tickets[bloque.cantidad++] = t;
+            indexar(t, bloque); // los tickets movidos cambian de bloque
+        }
+        desenlazar(siguiente);
+    }
+
+    @Override
+    public int getTamanio() {
+        return tamanio;
+    }
+
+    @Override
+    public boolean estaVacia() {
+        return tamanio == 0;
+    }
+
+    public int getBloques() {
+        return bloques;
+    }
+
+    public int getTamanioBloque() {
+        return tamanioBloque;
+    }
+}
@@ -2,41 +2,71 @@ package com.ticket.datastructures;
 
 import com.ticket.model.Ticket;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
-public class ListaEnlazadaTickets {
+/**
+ * Lista doblemente enlazada con puntero a la cola: agregar al final es O(1).
+ * Con índice (por defecto) un HashMap id → nodo hace que buscar, reemplazar y
+ * eliminar sean O(1); sin índice se recorren los nodos desde la cabeza, O(n),
+ * como la lista original (útil para comparar).
+ */
+public class ListaEnlazadaTickets implements ListaTickets {
 
     private NodoTicket cabeza; // primer nodo de la lista
+    private NodoTicket cola; // último nodo de la lista
     private int tamanio;
+    private final Map<Long, NodoTicket> indice; // null en modo lineal
 
     public ListaEnlazadaTickets() {
+        this(true);
+    }
+
+    public ListaEnlazadaTickets(boolean conIndice) {
         this.cabeza = null;
+        this.cola = null;
         this.tamanio = 0;
+        this.indice = conIndice ? new HashMap<>() : null;
     }
 
+    @Override
     public void agregar(Ticket ticket) {
         NodoTicket nuevo = new NodoTicket(ticket);
-        if (cabeza == null) {
-            cabeza = nuevo; // lista vacía: el nuevo nodo es la cabeza
+        if (cola == null) {
+            cabeza = nuevo; // lista vacía: el nuevo nodo es cabeza y cola
         } else {
-            NodoTicket actual = cabeza;
-            while (actual.siguiente != null) { // recorrer hasta el final
-                actual = actual.siguiente;
-            }
-            actual.siguiente = nuevo; // enlazar al final
+            cola.siguiente = nuevo; // enlazar al final sin recorrer
+            nuevo.anterior = cola;
         }
+        cola = nuevo;
+        indexar(nuevo);
         tamanio++;
     }
 
+    @Override
     public void agregarAlInicio(Ticket ticket) {
         NodoTicket nuevo = new NodoTicket(ticket);
         nuevo.siguiente = cabeza;
+        if (cabeza != null) {
+            cabeza.anterior = nuevo;
+        } else {
+            cola = nuevo;
+        }
         cabeza = nuevo;
+        indexar(nuevo);
         tamanio++;
     }
 
+    private void indexar(NodoTicket nodo) {
+        if (indice != null && nodo.ticket.getId() != null) {
+            indice.put(nodo.ticket.getId(), nodo);
+        }
+    }
+
+    @Override
     public List<Ticket> obtenerTodos() {
-        List<Ticket> resultado = new ArrayList<>();
+        List<Ticket> resultado = new ArrayList<>(tamanio);
         NodoTicket actual = cabeza;
         while (actual != null) {
             resultado.add(actual.ticket);
@@ -45,46 +75,70 @@ public class ListaEnlazadaTickets {
         return resultado;
     }
 
-    public Ticket buscarPorId(Long id) {
+    /**
+     * Nodo del ticket: O(1) con índice, búsqueda lineal sin él.
+     */
+    private NodoTicket nodoDe(Long id) {
+        if (indice != null) {
+            return indice.get(id);
+        }
         NodoTicket actual = cabeza;
         while (actual != null) {
             if (actual.ticket.getId().equals(id)) {
-                return actual.ticket; // encontrado
+                return actual; // encontrado
             }
             actual = actual.siguiente;
         }
         return null; // no encontrado
     }
 
+    @Override
+    public Ticket buscarPorId(Long id) {
+        NodoTicket nodo = nodoDe(id);
+        return nodo != null ? nodo.ticket : null;
+    }
+
+    @Override
+    public boolean reemplazar(Ticket ticket) {
+        NodoTicket nodo = nodoDe(ticket.getId());
+        if (nodo == null)
+            return false;
+        nodo.ticket = ticket;
+        return true;
+    }
+
+    @Override
     public boolean eliminar(Long id) {
-        if (cabeza == null)
+        NodoTicket nodo = nodoDe(id);
+        if (nodo == null)
             return false;
 
-        // caso especial: eliminar la cabeza
-        if (cabeza.ticket.getId().equals(id)) {
-            cabeza = cabeza.siguiente;
-            tamanio--;
-            return true;
+        // saltar el nodo en ambos sentidos
+        if (nodo.anterior != null) {
+            nodo.anterior.siguiente = nodo.siguiente;
+        } else {
+            cabeza = nodo.siguiente; // era la cabeza
         }
-
-        NodoTicket anterior = cabeza;
-        NodoTicket actual = cabeza.siguiente;
-        while (actual != null) {
-            if (actual.ticket.getId().equals(id)) {
-                anterior.siguiente = actual.siguiente; // saltar el nodo eliminado
-                tamanio--;
-                return true;
-            }
-            anterior = actual;
-            actual = actual.siguiente;
+        if (nodo.siguiente != null) {
+            nodo.siguiente.anterior = nodo.anterior;
+        } else {
+            cola = nodo.anterior; // era la cola
+        }
+        nodo.siguiente = null;
+        nodo.anterior = null;
+        if (indice != null) {
+            indice.remove(id);
         }
-        return false;
+        tamanio--;
+        return true;
     }
 
+    @Override
     public int getTamanio() {
         return tamanio;
     }
 
+    @Override
     public boolean estaVacia() {
         return cabeza == null;
     }
@@ -0,0 +1,34 @@
+package com.ticket.datastructures;
+
+import com.ticket.model.Ticket;
+import java.util.List;
+
+/**
+ * Operaciones comunes de las listas de tickets que mantienen el orden de inserción.
+ * Hay dos implementaciones: nodo por ticket (ListaEnlazadaTickets, con o sin
+ * índice por ID) y bloques de varios tickets por nodo (ListaBloquesTickets).
+ */
+public interface ListaTickets {
+
+    /**
+     * Agrega al final.
+     */
+    void agregar(Ticket ticket);
+
+    void agregarAlInicio(Ticket ticket);
+
+    List<Ticket> obtenerTodos();
+
+    Ticket buscarPorId(Long id);
+
+    /**
+     * Sustituye el ticket con el mismo ID, conservando su posición.
+     */
+    boolean reemplazar(Ticket ticket);
+
+    boolean eliminar(Long id);
+
+    int getTamanio();
+
+    boolean estaVacia();
+}
@@ -7,10 +7,12 @@ public class NodoBST {
     public Ticket ticket;
     public NodoBST izquierdo; // id < clave actual
     public NodoBST derecho; // id > clave actual
+    public int altura; // altura del subárbol con raíz en este nodo (hoja = 1)
 
     public NodoBST(Ticket ticket) {
         this.ticket = ticket;
         this.izquierdo = null;
         this.derecho = null;
+        this.altura = 1;
     }
 }
@@ -5,10 +5,12 @@ public class NodoPila {
     public String estado; // ej: "ABIERTO", "EN_PROCESO", "CERRADO"
     public String timestamp; // cuándo se cambió al estado
     public NodoPila abajo; // nodo debajo en la pila
+    public NodoPila arriba; // nodo encima (null en el tope), para descartar la base en O(1)
 
     public NodoPila(String estado, String timestamp) {
         this.estado = estado;
         this.timestamp = timestamp;
         this.abajo = null;
+        this.arriba = null;
     }
 }
@@ -6,9 +6,11 @@ public class NodoTicket {
 
     public Ticket ticket; // dato almacenado en este nodo
     public NodoTicket siguiente; // puntero al siguiente nodo
+    public NodoTicket anterior; // puntero al nodo previo, para desenlazar en O(1)
 
     public NodoTicket(Ticket ticket) {
         this.ticket = ticket;
         this.siguiente = null;
+        this.anterior = null;
     }
 }
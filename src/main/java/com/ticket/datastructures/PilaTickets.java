@@ -7,20 +7,49 @@ import java.util.List;
 public class PilaTickets {
 
     private NodoPila tope; // nodo en la cima de la pila
+    private NodoPila base; // nodo más antiguo, el primero en descartarse
     private Long ticketId;
     private int tamanio;
+    private final int maxProfundidad; // al superarla se descarta el estado más antiguo
 
     public PilaTickets(Long ticketId) {
+        this(ticketId, Integer.MAX_VALUE);
+    }
+
+    public PilaTickets(Long ticketId, int maxProfundidad) {
+        if (maxProfundidad < 1)
+            throw new IllegalArgumentException("La profundidad máxima debe ser al menos 1");
         this.ticketId = ticketId;
         this.tope = null;
+        this.base = null;
         this.tamanio = 0;
+        this.maxProfundidad = maxProfundidad;
     }
 
     public void push(String estado) {
-        NodoPila nuevo = new NodoPila(estado, LocalDateTime.now().toString());
+        push(estado, LocalDateTime.now().toString());
+    }
+
+    /**
+     * PUSH con marca de tiempo explícita — O(1).
+     * Si la pila supera maxProfundidad se descarta la base (el estado más viejo).
+     */
+    public void push(String estado, String timestamp) {
+        NodoPila nuevo = new NodoPila(estado, timestamp);
         nuevo.abajo = tope; // el nuevo tope apunta al anterior
+        if (tope != null) {
+            tope.arriba = nuevo;
+        } else {
+            base = nuevo; // pila vacía: el nuevo también es la base
+        }
         tope = nuevo;
         tamanio++;
+
+        if (tamanio > maxProfundidad) {
+            base = base.arriba; // olvidar el estado más antiguo
+            base.abajo = null;
+            tamanio--;
+        }
     }
 
     public NodoPila pop() {
@@ -28,6 +57,12 @@ public class PilaTickets {
             return null;
         NodoPila retirado = tope;
         tope = tope.abajo; // el tope ahora es el nodo de abajo
+        if (tope != null) {
+            tope.arriba = null;
+        } else {
+            base = null; // la pila quedó vacía
+        }
+        retirado.abajo = null;
         tamanio--;
         return retirado;
     }
@@ -37,7 +72,7 @@ public class PilaTickets {
     }
 
     public List<String> obtenerHistorial() {
-        List<String> historial = new ArrayList<>();
+        List<String> historial = new ArrayList<>(tamanio);
         NodoPila actual = tope;
         while (actual != null) {
             historial.add(actual.timestamp + " → " + actual.estado);
@@ -46,6 +81,17 @@ public class PilaTickets {
         return historial;
     }
 
+    /**
+     * Copia independiente de la pila, para leerla fuera del lock que la protege.
+     */
+    public PilaTickets copiar() {
+        PilaTickets copia = new PilaTickets(ticketId, maxProfundidad);
+        for (NodoPila actual = base; actual != null; actual = actual.arriba) {
+            copia.push(actual.estado, actual.timestamp);
+        }
+        return copia;
+    }
+
     public boolean estaVacia() {
         return tope == null;
     }
@@ -57,4 +103,8 @@ public class PilaTickets {
     public Long getTicketId() {
         return ticketId;
     }
+
+    public int getMaxProfundidad() {
+        return maxProfundidad;
+    }
 }
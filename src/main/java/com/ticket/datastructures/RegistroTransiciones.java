@@ -0,0 +1,497 @@
+package com.ticket.datastructures;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Registro en disco, SOLO DE AGREGADO, de los cambios de estado de los tickets.
+ * Cada transición es un registro de ancho fijo (24 bytes) escrito en un segmento
+ * mapeado en memoria, así escribir es copiar bytes al final del archivo:
+ *
+ * [ticketId long][epochMillis long][estado int][firma int]
+ *
+ * 'estado' es el ordinal del enum Estado, o POP (deshacer el último) o BORRADO
+ * (el ticket se eliminó). La firma se escribe al final y permite descartar un
+ * registro a medio escribir si el proceso se cae.
+ * Cuando un segmento se llena se sella y se abre otro; compactar() reescribe los
+ * segmentos sellados dejando solo la pila efectiva de cada ticket.
+ * Cada segmento lleva en memoria un índice ticket -> posiciones de sus registros:
+ * reconstruir un ticket lee solo sus registros, no todos los segmentos.
+ */
+public class RegistroTransiciones implements Closeable {
+
+    public static final int BYTES_POR_REGISTRO = 24;
+    public static final int POP = -1;
+    public static final int BORRADO = -2;
+
+    private static final int FIRMA = 0x5449434B; // "TICK"
+    private static final String PREFIJO = "transiciones-";
+    private static final String EXTENSION = ".log";
+    private static final String EXTENSION_COMPACTO = ".compacto";
+    private static final String EXTENSION_TEMPORAL = ".tmp";
+
+    /**
+     * Una transición leída del registro.
+     */
+    public static class Transicion {
+        public final long ticketId;
+        public final int estado; // ordinal de Estado, POP o BORRADO
+        public final long epochMillis;
+
+        public Transicion(long ticketId, int estado, long epochMillis) {
+            this.ticketId = ticketId;
+            this.estado = estado;
+            this.epochMillis = epochMillis;
+        }
+    }
+
+    /**
+     * Posiciones (número de registro dentro del segmento) de los registros de un ticket,
+     * en orden de escritura.
+     */
+    private static class Posiciones {
+        int[] registros = new int[2];
+        int cantidad;
+
+        void agregar(int registro) {
+            if (cantidad == registros.length)
+                registros = Arrays.copyOf(registros, cantidad * 2);
+            registros[cantidad++] = registro;
+        }
+
+        Posiciones copiar() {
+            Posiciones copia = new Posiciones();
+            copia.registros = Arrays.copyOf(registros, cantidad);
+            copia.cantidad = cantidad;
+            return copia;
+        }
+    }
+
+    /**
+     * Segmento ya escrito. Se lee siempre a través de su mapeo, que sigue siendo
+     * válido aunque la compactación borre el archivo mientras alguien lo recorre.
+     * El índice de un segmento sellado no cambia más.
+     */
+    private static class Segmento {
+        final long secuencia;
+        final Path ruta;
+        final ByteBuffer datos;
+        final int registros;
+        final Map<Long, Posiciones> indice;
+
+        Segmento(long secuencia, Path ruta, ByteBuffer datos, int registros, Map<Long, Posiciones> indice) {
+            this.secuencia = secuencia;
+            this.ruta = ruta;
+            this.datos = datos;
+            this.registros = registros;
+            this.indice = indice;
+        }
+    }
+
+    private final Path directorio;
+    private final int registrosPorSegmento;
+    private final int maxProfundidad;
+    private final int segmentosParaCompactar;
+
+    // ReentrantLock y no synchronized: con hilos virtuales un hilo bloqueado en un monitor
+    // (ej. esperando a otro que hace force() a disco) retiene su hilo portador
+    private final ReentrantLock escritura = new ReentrantLock();
+    private volatile List<Segmento> sellados = List.of(); // se reemplaza entero (copy-on-write)
+    private long secuenciaActiva;
+    private Path rutaActiva;
+    private FileChannel canalActivo;
+    private MappedByteBuffer activo;
+    private int capacidadActiva;
+    private int registrosActivo;
+    private Map<Long, Posiciones> indiceActivo;
+    private boolean cerrado;
+
+    private final AtomicBoolean compactando = new AtomicBoolean();
+    private long compactaciones;
+
+    /**
+     * Abre (o crea) el registro en 'directorio' y recupera lo escrito antes de reiniciar.
+     *
+     * @param maxProfundidad         estados que se conservan por ticket al compactar
+     *                               (los mismos que guarda PilaTickets en memoria)
+     * @param segmentosParaCompactar segmentos sellados a partir de los cuales conviene compactar
+     */
+    public RegistroTransiciones(Path directorio, int registrosPorSegmento, int maxProfundidad,
+            int segmentosParaCompactar) throws IOException {
+        if (registrosPorSegmento < 1)
+            throw new IllegalArgumentException("Un segmento debe admitir al menos un registro");
+        this.directorio = directorio;
+        this.registrosPorSegmento = registrosPorSegmento;
+        this.maxProfundidad = maxProfundidad;
+        this.segmentosParaCompactar = Math.max(2, segmentosParaCompactar);
+        Files.createDirectories(directorio);
+        recuperar();
+    }
+
+    // ---- APERTURA Y RECUPERACIÓN ----
+
+    private void recuperar() throws IOException {
+        TreeMap<Long, Path> segmentos = new TreeMap<>();
+        long ultimoCompacto = -1;
+        List<Path> archivos;
+        try (Stream<Path> s = Files.list(directorio)) {
+            archivos = s.filter(p -> p.getFileName().toString().startsWith(PREFIJO)).toList();
+        }
+        for (Path p : archivos) {
+            String nombre = p.getFileName().toString();
+            if (nombre.endsWith(EXTENSION_TEMPORAL)) {
+                Files.deleteIfExists(p); // compactación interrumpida antes de confirmarse
+            } else if (nombre.endsWith(EXTENSION_COMPACTO)) {
+                ultimoCompacto = Math.max(ultimoCompacto, secuenciaDe(nombre, EXTENSION_COMPACTO));
+            }
+        }
+        // Un .compacto con secuencia N reemplaza a todo lo que tenga secuencia <= N.
+        // Si la compactación se cortó antes de borrar los originales, se borran ahora.
+        for (Path p : archivos) {
+            String nombre = p.getFileName().toString();
+            if (nombre.endsWith(EXTENSION_TEMPORAL))
+                continue;
+            boolean compacto = nombre.endsWith(EXTENSION_COMPACTO);
+            long secuencia = secuenciaDe(nombre, compacto ? EXTENSION_COMPACTO : EXTENSION);
+            if (secuencia < ultimoCompacto || (secuencia == ultimoCompacto && !compacto)) {
+                Files.deleteIfExists(p);
+            } else {
+                segmentos.put(secuencia, p);
+            }
+        }
+
+        List<Segmento> leidos = new ArrayList<>();
+        for (Map.Entry<Long, Path> e : segmentos.entrySet()) {
+            leidos.add(mapearSoloLectura(e.getKey(), e.getValue()));
+        }
+
+        // el último segmento normal que no esté lleno se sigue usando para escribir
+        Segmento ultimo = leidos.isEmpty() ? null : leidos.get(leidos.size() - 1);
+        if (ultimo != null && ultimo.ruta.getFileName().toString().endsWith(EXTENSION)
+                && ultimo.registros < ultimo.datos.capacity() / BYTES_POR_REGISTRO) {
+            leidos.remove(leidos.size() - 1);
+            abrirActivo(ultimo.secuencia, ultimo.registros);
+        } else {
+            abrirActivo(ultimo == null ? 0 : ultimo.secuencia + 1, 0);
+        }
+        sellados = List.copyOf(leidos);
+    }
+
+    private static long secuenciaDe(String nombre, String extension) {
+        return Long.parseLong(nombre.substring(PREFIJO.length(), nombre.length() - extension.length()));
+    }
+
+    private Path rutaDe(long secuencia, String extension) {
+        return directorio.resolve(String.format("%s%019d%s", PREFIJO, secuencia, extension));
+    }
+
+    private Segmento mapearSoloLectura(long secuencia, Path ruta) throws IOException {
+        try (FileChannel canal = FileChannel.open(ruta, StandardOpenOption.READ)) {
+            ByteBuffer datos = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+            int registros = contarValidos(datos);
+            return new Segmento(secuencia, ruta, datos, registros, indexar(datos, registros));
+        }
+    }
+
+    /**
+     * Registros válidos desde el inicio: se corta en el primero sin firma
+     * (espacio sin usar, lleno de ceros, o un registro interrumpido).
+     */
+    private static int contarValidos(ByteBuffer datos) {
+        int maximo = datos.capacity() / BYTES_POR_REGISTRO;
+        int i = 0;
+        while (i < maximo) {
+            int base = i * BYTES_POR_REGISTRO;
+            if (datos.getInt(base + 20) != firma(datos.getLong(base), datos.getInt(base + 16), datos.getLong(base + 8)))
+                break;
+            i++;
+        }
+        return i;
+    }
+
+    private static Map<Long, Posiciones> indexar(ByteBuffer datos, int registros) {
+        Map<Long, Posiciones> indice = new HashMap<>();
+        for (int i = 0; i < registros; i++) {
+            indice.computeIfAbsent(datos.getLong(i * BYTES_POR_REGISTRO), id -> new Posiciones()).agregar(i);
+        }
+        return indice;
+    }
+
+    private static int firma(long ticketId, int estado, long epochMillis) {
+        return FIRMA ^ (int) ticketId ^ (int) (ticketId >>> 32) ^ estado ^ (int) epochMillis ^ (int) (epochMillis >>> 32);
+    }
+
+    private void abrirActivo(long secuencia, int registrosExistentes) throws IOException {
+        Path ruta = rutaDe(secuencia, EXTENSION);
+        FileChannel canal = FileChannel.open(ruta,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long bytes = Math.max(canal.size(), (long) registrosPorSegmento * BYTES_POR_REGISTRO);
+        this.activo = canal.map(FileChannel.MapMode.READ_WRITE, 0, bytes); // reserva el archivo completo
+        this.canalActivo = canal;
+        this.secuenciaActiva = secuencia;
+        this.rutaActiva = ruta;
+        this.capacidadActiva = (int) (bytes / BYTES_POR_REGISTRO);
+        this.registrosActivo = registrosExistentes;
+        this.indiceActivo = indexar(activo, registrosExistentes);
+    }
+
+    // ---- ESCRITURA ----
+
+    /**
+     * AGREGAR — O(1): escribe el registro al final del segmento activo;
+     * si está lleno, lo sella y abre el siguiente.
+     */
+    public void agregar(long ticketId, int estado, long epochMillis) {
+        escritura.lock();
+        try {
+            if (cerrado)
+                throw new IllegalStateException("El registro de transiciones está cerrado");
+            if (registrosActivo == capacidadActiva)
+                rotar();
+            int base = registrosActivo * BYTES_POR_REGISTRO;
+            activo.putLong(base, ticketId);
+            activo.putLong(base + 8, epochMillis);
+            activo.putInt(base + 16, estado);
+            activo.putInt(base + 20, firma(ticketId, estado, epochMillis)); // la firma va última
+            indiceActivo.computeIfAbsent(ticketId, id -> new Posiciones()).agregar(registrosActivo);
+            registrosActivo++;
+        } finally {
+            escritura.unlock();
+        }
+    }
+
+    private void rotar() {
+        try {
+            activo.force();
+            canalActivo.close(); // el mapeo sigue siendo válido tras cerrar el canal
+            List<Segmento> nuevos = new ArrayList<>(sellados);
+            nuevos.add(new Segmento(secuenciaActiva, rutaActiva, activo.asReadOnlyBuffer(), registrosActivo,
+                    indiceActivo));
+            sellados = List.copyOf(nuevos);
+            abrirActivo(secuenciaActiva + 1, 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo abrir un nuevo segmento del registro", e);
+        }
+    }
+
+    // ---- LECTURA ----
+
+    /**
+     * Segmentos a leer para un ticket. Del activo se copian solo las posiciones de ese
+     * ticket: su índice sigue cambiando cuando se suelta el lock.
+     */
+    private List<Segmento> vista(long ticketId) {
+        escritura.lock();
+        try {
+            List<Segmento> vista = new ArrayList<>(sellados);
+            Posiciones propias = indiceActivo.get(ticketId);
+            vista.add(new Segmento(secuenciaActiva, rutaActiva, activo, registrosActivo,
+                    propias == null ? Map.of() : Map.of(ticketId, propias.copiar())));
+            return vista;
+        } finally {
+            escritura.unlock();
+        }
+    }
+
+    private static Transicion leer(ByteBuffer datos, int registro) {
+        int base = registro * BYTES_POR_REGISTRO;
+        return new Transicion(datos.getLong(base), datos.getInt(base + 16), datos.getLong(base + 8));
+    }
+
+    private static void recorrer(List<Segmento> segmentos, Consumer<Transicion> accion) {
+        for (Segmento s : segmentos) {
+            for (int i = 0; i < s.registros; i++) {
+                accion.accept(leer(s.datos, i));
+            }
+        }
+    }
+
+    /**
+     * Pila efectiva de un ticket (de la base al tope) según el registro — O(segmentos +
+     * registros del ticket): en cada segmento se va directo a sus posiciones.
+     * Se aplica la misma regla que al compactar: un estado igual al del tope no
+     * cuenta como transición y se guardan como máximo maxProfundidad estados.
+     */
+    public List<Transicion> reconstruir(long ticketId) {
+        Historial historial = new Historial(maxProfundidad);
+        for (Segmento s : vista(ticketId)) {
+            Posiciones posiciones = s.indice.get(ticketId);
+            if (posiciones == null)
+                continue;
+            for (int i = 0; i < posiciones.cantidad; i++) {
+                historial.aplicar(leer(s.datos, posiciones.registros[i]));
+            }
+        }
+        return new ArrayList<>(historial.estados);
+    }
+
+    /**
+     * Si el ticket tiene historial vigente en el registro (algún estado después de su último BORRADO).
+     */
+    public boolean tieneHistorial(long ticketId) {
+        return !reconstruir(ticketId).isEmpty();
+    }
+
+    private static class Historial {
+        final int maxProfundidad;
+        final ArrayDeque<Transicion> estados = new ArrayDeque<>();
+
+        Historial(int maxProfundidad) {
+            this.maxProfundidad = maxProfundidad;
+        }
+
+        void aplicar(Transicion t) {
+            if (t.estado == BORRADO) {
+                estados.clear();
+            } else if (t.estado == POP) {
+                estados.pollLast();
+            } else if (estados.isEmpty() || estados.peekLast().estado != t.estado) {
+                estados.addLast(t);
+                if (estados.size() > maxProfundidad)
+                    estados.pollFirst();
+            }
+        }
+    }
+
+    // ---- COMPACTACIÓN ----
+
+    public boolean necesitaCompactar() {
+        return sellados.size() >= segmentosParaCompactar && !compactando.get();
+    }
+
+    /**
+     * Reescribe todos los segmentos sellados en un único archivo con la pila efectiva
+     * de cada ticket; los POP, los estados repetidos o más profundos que maxProfundidad
+     * y los tickets borrados desaparecen. El segmento activo no se toca, así que
+     * se puede seguir escribiendo mientras tanto.
+     *
+     * @return false si ya había otra compactación en curso o no hay nada que compactar
+     */
+    public boolean compactar() throws IOException {
+        if (!compactando.compareAndSet(false, true))
+            return false;
+        try {
+            List<Segmento> originales = sellados;
+            if (originales.size() < 2)
+                return false;
+
+            Map<Long, Historial> historiales = new HashMap<>();
+            recorrer(originales, t -> historiales
+                    .computeIfAbsent(t.ticketId, id -> new Historial(maxProfundidad)).aplicar(t));
+            long total = 0;
+            for (Historial h : historiales.values())
+                total += h.estados.size();
+
+            long secuencia = originales.get(originales.size() - 1).secuencia;
+            Path temporal = rutaDe(secuencia, EXTENSION_COMPACTO + EXTENSION_TEMPORAL);
+            try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer salida = canal.map(FileChannel.MapMode.READ_WRITE, 0, total * BYTES_POR_REGISTRO);
+                int base = 0;
+                for (Historial h : historiales.values()) {
+                    for (Transicion t : h.estados) {
+                        salida.putLong(base, t.ticketId);
+                        salida.putLong(base + 8, t.epochMillis);
+                        salida.putInt(base + 16, t.estado);
+                        salida.putInt(base + 20, firma(t.ticketId, t.estado, t.epochMillis));
+                        base += BYTES_POR_REGISTRO;
+                    }
+                }
+                salida.force();
+            }
+            // el renombrado atómico es el punto de confirmación (ver recuperar())
+            Path compacto = rutaDe(secuencia, EXTENSION_COMPACTO);
+            Files.move(temporal, compacto, StandardCopyOption.ATOMIC_MOVE);
+            Segmento nuevo = mapearSoloLectura(secuencia, compacto);
+
+            escritura.lock();
+            try {
+                List<Segmento> restantes = new ArrayList<>();
+                restantes.add(nuevo);
+                restantes.addAll(sellados.subList(originales.size(), sellados.size()));
+                sellados = List.copyOf(restantes);
+                compactaciones++;
+            } finally {
+                escritura.unlock();
+            }
+            for (Segmento s : originales) {
+                if (!s.ruta.equals(compacto))
+                    Files.deleteIfExists(s.ruta);
+            }
+            return true;
+        } finally {
+            compactando.set(false);
+        }
+    }
+
+    // ---- MÉTRICAS Y CIERRE ----
+
+    public EstadisticasRegistro estadisticas() {
+        EstadisticasRegistro e = new EstadisticasRegistro();
+        escritura.lock();
+        try {
+            e.directorio = directorio.toAbsolutePath().toString();
+            e.segmentos = sellados.size() + 1;
+            for (Segmento s : sellados) {
+                e.registros += s.registros;
+                e.bytesEnDisco += s.datos.capacity();
+            }
+            e.registros += registrosActivo;
+            e.bytesEnDisco += (long) capacidadActiva * BYTES_POR_REGISTRO;
+            e.registrosPorSegmento = registrosPorSegmento;
+            e.compactaciones = compactaciones;
+        } finally {
+            escritura.unlock();
+        }
+        e.compactacionEnCurso = compactando.get();
+        return e;
+    }
+
+    /**
+     * Fuerza a disco lo escrito en el segmento activo. Sin esto los registros ya
+     * sobreviven a una caída del proceso (están en la caché del sistema operativo),
+     * pero no necesariamente a una caída de la máquina.
+     */
+    public void sincronizar() {
+        escritura.lock();
+        try {
+            if (!cerrado)
+                activo.force();
+        } finally {
+            escritura.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        escritura.lock();
+        try {
+            if (cerrado)
+                return;
+            cerrado = true;
+            activo.force();
+            canalActivo.close();
+        } finally {
+            escritura.unlock();
+        }
+    }
+}
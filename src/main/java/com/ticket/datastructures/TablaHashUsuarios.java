@@ -4,54 +4,82 @@ import com.ticket.model.Usuario;
 import java.util.ArrayList;
 import java.util.List;
 
-public class TablaHashUsuarios {
+/**
+ * Tabla hash con encadenamiento. La capacidad es siempre potencia de dos y se
+ * duplica cuando tamanio supera capacidad * factorCarga. El rehash es INCREMENTAL:
+ * mientras conviven la tabla vieja y la nueva, cada operación mueve unas pocas
+ * cubetas, así ninguna inserción paga sola el costo de recolocar todo.
+ */
+public class TablaHashUsuarios implements TablaUsuarios {
 
     // Nodo interno de la cubeta (encadenamiento por colisiones)
     private static class EntradaHash {
         String email;
+        int hash; // hash ya mezclado, para no recalcularlo al migrar
         Usuario usuario;
         EntradaHash siguiente; // para resolver colisiones
 
-        EntradaHash(String email, Usuario usuario) {
+        EntradaHash(String email, int hash, Usuario usuario) {
             this.email = email;
+            this.hash = hash;
             this.usuario = usuario;
             this.siguiente = null;
         }
     }
 
-    private static final int CAPACIDAD_DEFAULT = 16; // número de cubetas
+    private static final int CAPACIDAD_DEFAULT = 16; // número de cubetas inicial
+    private static final double FACTOR_CARGA_DEFAULT = 0.75;
+    private static final int CUBETAS_POR_PASO = 4; // cubetas migradas por operación
+
     private EntradaHash[] cubetas;
+    private EntradaHash[] cubetasNuevas; // != null mientras hay un rehash en curso
+    private int siguienteMigrar; // cubetas viejas con índice menor ya se movieron
+    private final double factorCarga;
     private int tamanio;
 
     public TablaHashUsuarios() {
-        this(CAPACIDAD_DEFAULT);
+        this(CAPACIDAD_DEFAULT, FACTOR_CARGA_DEFAULT);
     }
 
     public TablaHashUsuarios(int capacidad) {
-        this.cubetas = new EntradaHash[capacidad];
+        this(capacidad, FACTOR_CARGA_DEFAULT);
+    }
+
+    public TablaHashUsuarios(int capacidad, double factorCarga) {
+        if (factorCarga <= 0) {
+            throw new IllegalArgumentException("El factor de carga debe ser positivo: " + factorCarga);
+        }
+        this.cubetas = new EntradaHash[TablaUsuarios.potenciaDeDos(capacidad)];
+        this.factorCarga = factorCarga;
         this.tamanio = 0;
     }
 
     /**
-     * FUNCIÓN HASH: convierte el email en un índice de cubeta.
-     * Se usa hashCode() de Java y módulo para limitar al rango [0, capacidad-1].
+     * Cubeta donde vive el hash: en la tabla nueva si su cubeta vieja ya se migró.
      */
-    private int hash(String email) {
-        return Math.abs(email.hashCode()) % cubetas.length;
+    private EntradaHash[] tablaDe(int hash) {
+        if (cubetasNuevas != null && (hash & (cubetas.length - 1)) < siguienteMigrar) {
+            return cubetasNuevas;
+        }
+        return cubetas;
     }
 
     /**
      * INSERTAR: guarda un usuario indexado por su email — O(1) promedio.
      * Si ya existe el email, actualiza el usuario (upsert).
      */
+    @Override
     public void insertar(Usuario usuario) {
+        avanzarRehash();
         String email = usuario.getEmail();
-        int indice = hash(email);
+        int hash = TablaUsuarios.dispersar(email);
+        EntradaHash[] tabla = tablaDe(hash);
+        int indice = hash & (tabla.length - 1);
 
-        EntradaHash actual = cubetas[indice];
+        EntradaHash actual = tabla[indice];
         // verificar si ya existe el email en la cubeta (encadenamiento)
         while (actual != null) {
-            if (actual.email.equals(email)) {
+            if (actual.hash == hash && actual.email.equals(email)) {
                 actual.usuario = usuario; // actualizar si ya existe
                 return;
             }
@@ -59,21 +87,34 @@ public class TablaHashUsuarios {
         }
 
         // no existe: insertar al inicio de la cubeta
-        EntradaHash nueva = new EntradaHash(email, usuario);
-        nueva.siguiente = cubetas[indice]; // encadenar con los existentes
-        cubetas[indice] = nueva;
+        EntradaHash nueva = new EntradaHash(email, hash, usuario);
+        nueva.siguiente = tabla[indice]; // encadenar con los existentes
+        tabla[indice] = nueva;
         tamanio++;
+
+        if (cubetasNuevas == null && tamanio > cubetas.length * factorCarga) {
+            cubetasNuevas = new EntradaHash[cubetas.length << 1];
+            siguienteMigrar = 0;
+        } else if (cubetasNuevas != null && tamanio > cubetasNuevas.length * factorCarga) {
+            // factores de carga muy bajos pueden alcanzar el siguiente umbral antes de terminar
+            completarRehash();
+            cubetasNuevas = new EntradaHash[cubetas.length << 1];
+            siguienteMigrar = 0;
+        }
     }
 
     /**
      * BUSCAR: recupera un usuario por email — O(1) promedio.
      * Solo visita los nodos de UNA cubeta, no todos los usuarios.
      */
+    @Override
     public Usuario buscar(String email) {
-        int indice = hash(email);
-        EntradaHash actual = cubetas[indice];
+        avanzarRehash();
+        int hash = TablaUsuarios.dispersar(email);
+        EntradaHash[] tabla = tablaDe(hash);
+        EntradaHash actual = tabla[hash & (tabla.length - 1)];
         while (actual != null) {
-            if (actual.email.equals(email)) {
+            if (actual.hash == hash && actual.email.equals(email)) {
                 return actual.usuario; // encontrado
             }
             actual = actual.siguiente;
@@ -84,15 +125,19 @@ public class TablaHashUsuarios {
     /**
      * ELIMINAR: remueve un usuario por email de su cubeta.
      */
+    @Override
     public boolean eliminar(String email) {
-        int indice = hash(email);
-        EntradaHash actual = cubetas[indice];
+        avanzarRehash();
+        int hash = TablaUsuarios.dispersar(email);
+        EntradaHash[] tabla = tablaDe(hash);
+        int indice = hash & (tabla.length - 1);
+        EntradaHash actual = tabla[indice];
         EntradaHash anterior = null;
 
         while (actual != null) {
-            if (actual.email.equals(email)) {
+            if (actual.hash == hash && actual.email.equals(email)) {
                 if (anterior == null) {
-                    cubetas[indice] = actual.siguiente; // era el primero de la cubeta
+                    tabla[indice] = actual.siguiente; // era el primero de la cubeta
                 } else {
                     anterior.siguiente = actual.siguiente; // saltar el nodo eliminado
                 }
@@ -105,12 +150,53 @@ public class TablaHashUsuarios {
         return false;
     }
 
+    // ---- REHASH INCREMENTAL ----
+
+    /**
+     * Mueve hasta CUBETAS_POR_PASO cubetas viejas a la tabla nueva.
+     * Con capacidad duplicada, cada nodo va a la cubeta i o a la i + capacidadVieja.
+     */
+    private void avanzarRehash() {
+        if (cubetasNuevas == null)
+            return;
+        int hasta = Math.min(cubetas.length, siguienteMigrar + CUBETAS_POR_PASO);
+        for (; siguienteMigrar < hasta; siguienteMigrar++) {
+            migrarCubeta(siguienteMigrar);
+        }
+        if (siguienteMigrar == cubetas.length) {
+            cubetas = cubetasNuevas; // rehash terminado
+            cubetasNuevas = null;
+            siguienteMigrar = 0;
+        }
+    }
+
+    private void migrarCubeta(int indice) {
+        EntradaHash actual = cubetas[indice];
+        int mascara = cubetasNuevas.length - 1;
+        while (actual != null) {
+            EntradaHash siguiente = actual.siguiente;
+            int destino = actual.hash & mascara;
+            actual.siguiente = cubetasNuevas[destino];
+            cubetasNuevas[destino] = actual;
+            actual = siguiente;
+        }
+        cubetas[indice] = null;
+    }
+
+    private void completarRehash() {
+        while (cubetasNuevas != null) {
+            avanzarRehash();
+        }
+    }
+
     /**
      * Devuelve todos los usuarios almacenados en la tabla.
-     * Recorre las cubetas (O(capacidad + tamaño)).
+     * Recorre las cubetas (O(capacidad + tamaño)); termina antes cualquier rehash pendiente.
      */
+    @Override
     public List<UsuarioHashInfo> obtenerTodos() {
-        List<UsuarioHashInfo> resultado = new ArrayList<>();
+        completarRehash();
+        List<UsuarioHashInfo> resultado = new ArrayList<>(tamanio);
         for (int i = 0; i < cubetas.length; i++) {
             EntradaHash actual = cubetas[i];
             while (actual != null) {
@@ -121,6 +207,41 @@ public class TablaHashUsuarios {
         return resultado;
     }
 
+    @Override
+    public int indiceDe(String email) {
+        int hash = TablaUsuarios.dispersar(email);
+        return hash & (tablaDe(hash).length - 1);
+    }
+
+    @Override
+    public EstadisticasHash estadisticas() {
+        EstadisticasHash e = new EstadisticasHash();
+        e.modo = "encadenamiento";
+        e.rehashEnCurso = cubetasNuevas != null;
+        e.capacidad = getCapacidad();
+        e.tamanio = tamanio;
+        e.factorCarga = (double) tamanio / e.capacidad;
+        e.factorCargaMaximo = factorCarga;
+
+        long nodosVisitados = 0;
+        for (EntradaHash[] tabla : new EntradaHash[][] { cubetas, cubetasNuevas }) {
+            if (tabla == null)
+                continue;
+            for (EntradaHash cabeza : tabla) {
+                int largo = 0;
+                for (EntradaHash actual = cabeza; actual != null; actual = actual.siguiente) {
+                    largo++;
+                    nodosVisitados += largo; // encontrar el k-ésimo nodo cuesta k pasos
+                }
+                if (largo > 0)
+                    e.posicionesOcupadas++;
+                e.recorridoMaximo = Math.max(e.recorridoMaximo, largo);
+            }
+        }
+        e.recorridoPromedio = (tamanio == 0) ? 0 : (double) nodosVisitados / tamanio;
+        return e;
+    }
+
     /**
      * DTO interno para devolver info de la cubeta junto al usuario.
      */
@@ -136,11 +257,16 @@ public class TablaHashUsuarios {
         }
     }
 
+    @Override
     public int getTamanio() {
         return tamanio;
     }
 
+    /**
+     * Capacidad efectiva: la de la tabla nueva si hay un rehash en curso.
+     */
+    @Override
     public int getCapacidad() {
-        return cubetas.length;
+        return (cubetasNuevas != null) ? cubetasNuevas.length : cubetas.length;
     }
 }
@@ -0,0 +1,280 @@
+package com.ticket.datastructures;
+
+import com.ticket.model.Usuario;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tabla hash con DIRECCIONAMIENTO ABIERTO y sondeo lineal: las colisiones ocupan
+ * la siguiente casilla libre del mismo arreglo, sin nodos enlazados. Las búsquedas
+ * recorren memoria contigua, lo que aprovecha mucho mejor la caché del procesador.
+ * Al eliminar se deja una LÁPIDA para no cortar las secuencias de sondeo.
+ * Crece (o se limpia de lápidas) con rehash incremental, igual que TablaHashUsuarios.
+ */
+public class TablaHashUsuariosSondeo implements TablaUsuarios {
+
+    // Marca de casilla borrada; se compara por identidad, nunca con equals()
+    private static final String LAPIDA = new String("<borrado>");
+
+    private static final int CAPACIDAD_DEFAULT = 16;
+    private static final double FACTOR_CARGA_DEFAULT = 0.5;
+    private static final int CASILLAS_POR_PASO = 8; // casillas migradas por operación
+
+    // Arreglos paralelos: clave, hash mezclado y valor de cada casilla
+    private static class Casillas {
+        final String[] claves;
+        final int[] hashes;
+        final Usuario[] valores;
+        int lapidas;
+
+        Casillas(int capacidad) {
+            claves = new String[capacidad];
+            hashes = new int[capacidad];
+            valores = new Usuario[capacidad];
+        }
+
+        int mascara() {
+            return claves.length - 1;
+        }
+    }
+
+    private Casillas casillas;
+    private Casillas casillasNuevas; // != null mientras hay un rehash en curso
+    private int siguienteMigrar;
+    private final double factorCarga;
+    private int tamanio;
+
+    public TablaHashUsuariosSondeo() {
+        this(CAPACIDAD_DEFAULT, FACTOR_CARGA_DEFAULT);
+    }
+
+    public TablaHashUsuariosSondeo(int capacidad, double factorCarga) {
+        if (factorCarga <= 0 || factorCarga >= 1) {
+            throw new IllegalArgumentException(
+                    "Con sondeo lineal el factor de carga debe estar entre 0 y 1: " + factorCarga);
+        }
+        this.casillas = new Casillas(TablaUsuarios.potenciaDeDos(capacidad));
+        this.factorCarga = factorCarga;
+        this.tamanio = 0;
+    }
+
+    /**
+     * Sondeo lineal: desde hash & mascara avanza de a una casilla hasta dar con
+     * el email (devuelve su posición) o con una casilla nunca usada (devuelve -1).
+     */
+    private static int posicionDe(Casillas t, String email, int hash) {
+        int mascara = t.mascara();
+        int i = hash & mascara;
+        while (true) {
+            String clave = t.claves[i];
+            if (clave == null)
+                return -1;
+            if (clave != LAPIDA && t.hashes[i] == hash && clave.equals(email))
+                return i;
+            i = (i + 1) & mascara;
+        }
+    }
+
+    /**
+     * Coloca un email que se sabe ausente en la primera lápida o casilla libre del sondeo.
+     */
+    private static void colocar(Casillas t, String email, int hash, Usuario usuario) {
+        int mascara = t.mascara();
+        int i = hash & mascara;
+        while (t.claves[i] != null && t.claves[i] != LAPIDA) {
+            i = (i + 1) & mascara;
+        }
+        if (t.claves[i] == LAPIDA)
+            t.lapidas--; // se reutiliza la lápida
+        t.claves[i] = email;
+        t.hashes[i] = hash;
+        t.valores[i] = usuario;
+    }
+
+    private static void borrar(Casillas t, int posicion) {
+        t.claves[posicion] = LAPIDA;
+        t.valores[posicion] = null;
+        t.lapidas++;
+    }
+
+    /**
+     * INSERTAR (upsert) — O(1) promedio mientras el factor de carga se mantenga bajo.
+     */
+    @Override
+    public void insertar(Usuario usuario) {
+        avanzarRehash();
+        String email = usuario.getEmail();
+        int hash = TablaUsuarios.dispersar(email);
+
+        int pos = posicionDe(casillas, email, hash);
+        if (pos >= 0) {
+            casillas.valores[pos] = usuario; // actualizar si ya existe
+            return;
+        }
+        if (casillasNuevas != null) {
+            pos = posicionDe(casillasNuevas, email, hash);
+            if (pos >= 0) {
+                casillasNuevas.valores[pos] = usuario;
+                return;
+            }
+        }
+        asegurarEspacio();
+        colocar((casillasNuevas != null) ? casillasNuevas : casillas, email, hash, usuario);
+        tamanio++;
+    }
+
+    /**
+     * Se verifica ANTES de colocar: ninguna tabla se llena del todo, así cada sondeo
+     * siempre termina en una casilla vacía. Las lápidas también alargan los sondeos y
+     * cuentan para el umbral; si casi todo son lápidas se rehashea a la misma capacidad.
+     */
+    private void asegurarEspacio() {
+        Casillas destino = (casillasNuevas != null) ? casillasNuevas : casillas;
+        if (tamanio + 1 + destino.lapidas <= destino.claves.length * factorCarga)
+            return;
+        completarRehash();
+        int nuevaCapacidad = casillas.claves.length;
+        while (tamanio + 1 > nuevaCapacidad * factorCarga / 2) {
+            nuevaCapacidad <<= 1; // dejar la tabla nueva a media carga
+        }
+        casillasNuevas = new Casillas(nuevaCapacidad);
+        siguienteMigrar = 0;
+    }
+
+    /**
+     * BUSCAR por email — O(1) promedio, recorriendo casillas contiguas.
+     */
+    @Override
+    public Usuario buscar(String email) {
+        avanzarRehash();
+        int hash = TablaUsuarios.dispersar(email);
+        if (casillasNuevas != null) {
+            int pos = posicionDe(casillasNuevas, email, hash);
+            if (pos >= 0)
+                return casillasNuevas.valores[pos];
+        }
+        int pos = posicionDe(casillas, email, hash);
+        return (pos >= 0) ? casillas.valores[pos] : null;
+    }
+
+    /**
+     * ELIMINAR: deja una lápida en la casilla para no romper otros sondeos.
+     */
+    @Override
+    public boolean eliminar(String email) {
+        avanzarRehash();
+        int hash = TablaUsuarios.dispersar(email);
+        for (Casillas t : new Casillas[] { casillasNuevas, casillas }) {
+            if (t == null)
+                continue;
+            int pos = posicionDe(t, email, hash);
+            if (pos >= 0) {
+                borrar(t, pos);
+                tamanio--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // ---- REHASH INCREMENTAL ----
+
+    /**
+     * Mueve hasta CASILLAS_POR_PASO casillas viejas a la tabla nueva. En la vieja queda
+     * una lápida, así los sondeos de claves aún no migradas siguen funcionando.
+     */
+    private void avanzarRehash() {
+        if (casillasNuevas == null)
+            return;
+        int hasta = Math.min(casillas.claves.length, siguienteMigrar + CASILLAS_POR_PASO);
+        for (; siguienteMigrar < hasta; siguienteMigrar++) {
+            String clave = casillas.claves[siguienteMigrar];
+            if (clave != null && clave != LAPIDA) {
+                colocar(casillasNuevas, clave, casillas.hashes[siguienteMigrar],
+                        casillas.valores[siguienteMigrar]);
+                borrar(casillas, siguienteMigrar);
+            }
+        }
+        if (siguienteMigrar == casillas.claves.length) {
+            casillas = casillasNuevas; // rehash terminado
+            casillasNuevas = null;
+            siguienteMigrar = 0;
+        }
+    }
+
+    private void completarRehash() {
+        while (casillasNuevas != null) {
+            avanzarRehash();
+        }
+    }
+
+    /**
+     * Devuelve todos los usuarios con la casilla que ocupan — O(capacidad).
+     */
+    @Override
+    public List<TablaHashUsuarios.UsuarioHashInfo> obtenerTodos() {
+        completarRehash();
+        List<TablaHashUsuarios.UsuarioHashInfo> resultado = new ArrayList<>(tamanio);
+        for (int i = 0; i < casillas.claves.length; i++) {
+            String clave = casillas.claves[i];
+            if (clave != null && clave != LAPIDA) {
+                resultado.add(new TablaHashUsuarios.UsuarioHashInfo(i, clave, casillas.valores[i]));
+            }
+        }
+        return resultado;
+    }
+
+    @Override
+    public int indiceDe(String email) {
+        int hash = TablaUsuarios.dispersar(email);
+        for (Casillas t : new Casillas[] { casillasNuevas, casillas }) {
+            if (t == null)
+                continue;
+            int pos = posicionDe(t, email, hash);
+            if (pos >= 0)
+                return pos;
+        }
+        Casillas destino = (casillasNuevas != null) ? casillasNuevas : casillas;
+        return hash & destino.mascara(); // casilla inicial del sondeo
+    }
+
+    @Override
+    public EstadisticasHash estadisticas() {
+        EstadisticasHash e = new EstadisticasHash();
+        e.modo = "sondeo";
+        e.rehashEnCurso = casillasNuevas != null;
+        e.capacidad = getCapacidad();
+        e.tamanio = tamanio;
+        e.factorCarga = (double) tamanio / e.capacidad;
+        e.factorCargaMaximo = factorCarga;
+
+        long casillasVisitadas = 0;
+        for (Casillas t : new Casillas[] { casillas, casillasNuevas }) {
+            if (t == null)
+                continue;
+            e.lapidas += t.lapidas;
+            int mascara = t.mascara();
+            for (int i = 0; i < t.claves.length; i++) {
+                String clave = t.claves[i];
+                if (clave == null || clave == LAPIDA)
+                    continue;
+                int sondeo = ((i - (t.hashes[i] & mascara)) & mascara) + 1; // distancia a su casilla ideal
+                casillasVisitadas += sondeo;
+                e.posicionesOcupadas++;
+                e.recorridoMaximo = Math.max(e.recorridoMaximo, sondeo);
+            }
+        }
+        e.recorridoPromedio = (tamanio == 0) ? 0 : (double) casillasVisitadas / tamanio;
+        return e;
+    }
+
+    @Override
+    public int getTamanio() {
+        return tamanio;
+    }
+
+    @Override
+    public int getCapacidad() {
+        return (casillasNuevas != null) ? casillasNuevas.claves.length : casillas.claves.length;
+    }
+}
@@ -0,0 +1,54 @@
+package com.ticket.datastructures;
+
+import com.ticket.model.Usuario;
+import java.util.List;
+
+/**
+ * Operaciones comunes de las tablas hash de usuarios indexadas por email.
+ * Hay dos implementaciones: encadenamiento (TablaHashUsuarios) y
+ * direccionamiento abierto con sondeo lineal (TablaHashUsuariosSondeo).
+ */
+public interface TablaUsuarios {
+
+    void insertar(Usuario usuario);
+
+    Usuario buscar(String email);
+
+    boolean eliminar(String email);
+
+    List<TablaHashUsuarios.UsuarioHashInfo> obtenerTodos();
+
+    /**
+     * Posición (cubeta o casilla) donde está o estaría el email.
+     */
+    int indiceDe(String email);
+
+    EstadisticasHash estadisticas();
+
+    int getTamanio();
+
+    int getCapacidad();
+
+    /**
+     * FUNCIÓN HASH: mezcla los bits de hashCode() con el finalizador de MurmurHash3.
+     * Así la máscara (capacidad - 1) usa bits bien repartidos aunque los emails
+     * se parezcan mucho, y el resultado nunca es negativo tras aplicar la máscara.
+     */
+    static int dispersar(String email) {
+        int h = email.hashCode();
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    /**
+     * Menor potencia de dos >= capacidad (mínimo 2).
+     */
+    static int potenciaDeDos(int capacidad) {
+        int n = Math.max(2, capacidad);
+        return (n & (n - 1)) == 0 ? n : Integer.highestOneBit(n) << 1;
+    }
+}
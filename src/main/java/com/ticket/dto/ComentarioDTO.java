@@ -0,0 +1,17 @@
+package com.ticket.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Comentario tal como lo ve el cliente: solo IDs y el nombre del autor, sin las
+ * entidades Ticket y Usuario completas. Al crear, usuarioNombre viaja null
+ * (el comentario se inserta sin cargar al usuario).
+ */
+public record ComentarioDTO(
+        Long id,
+        String texto,
+        LocalDateTime fecha,
+        Long ticketId,
+        Long usuarioId,
+        String usuarioNombre) {
+}
@@ -11,6 +11,8 @@ public class EstructuraResponseDTO {
     private int tamanio;
     private Object datos;
     private List<String> historial;
+    private Long siguienteCursor; // ID a pasar como 'despuesDe' para la página siguiente
+    private Object metricas; // estadísticas internas de la estructura (ocupación, memoria...)
 
     public EstructuraResponseDTO() {
     }
@@ -82,4 +84,20 @@ public class EstructuraResponseDTO {
     public void setHistorial(List<String> historial) {
         this.historial = historial;
     }
+
+    public Long getSiguienteCursor() {
+        return siguienteCursor;
+    }
+
+    public void setSiguienteCursor(Long siguienteCursor) {
+        this.siguienteCursor = siguienteCursor;
+    }
+
+    public Object getMetricas() {
+        return metricas;
+    }
+
+    public void setMetricas(Object metricas) {
+        this.metricas = metricas;
+    }
 }
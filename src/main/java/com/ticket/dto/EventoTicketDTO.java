@@ -0,0 +1,14 @@
+package com.ticket.dto;
+
+/**
+ * Un cambio del flujo /api/tickets/events. 'ticket' viaja en CREADO, ACTUALIZADO y
+ * TOMADO (despachado desde la cola); en ELIMINADO solo el ID. RESYNC avisa que hubo
+ * cambios que no se van a recibir uno por uno (ver 'motivo'): el cliente recarga el
+ * listado y sigue escuchando.
+ */
+public record EventoTicketDTO(
+        String tipo,
+        Long ticketId,
+        TicketResumenDTO ticket,
+        String motivo) {
+}
@@ -0,0 +1,9 @@
+package com.ticket.dto;
+
+/**
+ * Un ticket encontrado por /api/tickets/search, con su puntaje BM25 (mayor = más relevante).
+ */
+public record ResultadoBusquedaDTO(
+        TicketResumenDTO ticket,
+        double puntaje) {
+}
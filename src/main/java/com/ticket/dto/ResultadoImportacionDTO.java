@@ -0,0 +1,20 @@
+package com.ticket.dto;
+
+import java.util.List;
+
+/**
+ * Resumen de una importación masiva. 'fallos' trae el detalle de los primeros
+ * rechazos (por posición en la entrada, desde 0); 'rechazados' es el total.
+ */
+public record ResultadoImportacionDTO(
+        long recibidos,
+        long insertados,
+        long rechazados,
+        int lotes,
+        long milisegundos,
+        long ticketsPorSegundo,
+        List<Fallo> fallos) {
+
+    public record Fallo(long posicion, String motivo) {
+    }
+}
@@ -0,0 +1,15 @@
+package com.ticket.dto;
+
+import com.ticket.model.Usuario;
+
+import java.time.Instant;
+
+/**
+ * Respuesta del login: el token va en 'Authorization: Bearer ...' en las peticiones
+ * siguientes, en lugar de reenviar email y contraseña.
+ */
+public record SesionDTO(
+        String token,
+        Instant expira,
+        Usuario usuario) {
+}
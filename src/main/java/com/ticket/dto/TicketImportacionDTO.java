@@ -0,0 +1,29 @@
+package com.ticket.dto;
+
+import com.ticket.model.Estado;
+import com.ticket.model.Prioridad;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+/**
+ * Un ticket de POST /api/tickets/bulk. Usuario y categoría van por ID
+ * (no como objetos anidados) para no tener que cargarlos.
+ */
+public record TicketImportacionDTO(
+        @NotBlank(message = "El título no puede estar vacío")
+        @Size(max = 200, message = "El título admite hasta 200 caracteres")
+        String titulo,
+
+        @NotBlank(message = "La descripción no puede estar vacía")
+        String descripcion,
+
+        @NotNull(message = "La prioridad es obligatoria")
+        Prioridad prioridad,
+
+        Estado estado, // ABIERTO si no viene
+
+        Long usuarioId,
+
+        Long categoriaId) {
+}
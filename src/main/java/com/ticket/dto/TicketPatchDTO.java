@@ -0,0 +1,22 @@
+package com.ticket.dto;
+
+import com.ticket.model.Estado;
+import com.ticket.model.Prioridad;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+
+/**
+ * Cuerpo de PATCH /api/tickets/{id}: solo se cambian los campos presentes (no null).
+ * Usuario y categoría se indican por ID.
+ */
+public record TicketPatchDTO(
+        @Size(max = 200, message = "El título no puede superar 200 caracteres")
+        @Pattern(regexp = "(?s).*\\S.*", message = "El título no puede estar vacío")
+        String titulo,
+        @Pattern(regexp = "(?s).*\\S.*", message = "La descripción no puede estar vacía")
+        String descripcion,
+        Prioridad prioridad,
+        Estado estado,
+        Long usuarioId,
+        Long categoriaId) {
+}
@@ -0,0 +1,36 @@
+package com.ticket.dto;
+
+import com.ticket.model.Estado;
+import com.ticket.model.Prioridad;
+import com.ticket.model.Ticket;
+
+import java.time.LocalDateTime;
+
+/**
+ * Fila de un listado de tickets: sin la descripción (TEXT) ni las entidades
+ * relacionadas, solo los nombres. El ticket completo se pide por ID.
+ */
+public record TicketResumenDTO(
+        Long id,
+        String titulo,
+        Prioridad prioridad,
+        Estado estado,
+        LocalDateTime fechaCreacion,
+        String categoriaNombre,
+        String usuarioNombre) {
+
+    /**
+     * Resumen de un ticket que ya está en memoria; usuario y categoría deben venir
+     * inicializados (ej. findConRelacionesById) para no disparar consultas.
+     */
+    public static TicketResumenDTO de(Ticket t) {
+        return new TicketResumenDTO(
+                t.getId(),
+                t.getTitulo(),
+                t.getPrioridad(),
+                t.getEstado(),
+                t.getFechaCreacion(),
+                t.getCategoria() != null ? t.getCategoria().getNombre() : null,
+                t.getUsuario() != null ? t.getUsuario().getNombre() : null);
+    }
+}
@@ -0,0 +1,17 @@
+package com.ticket.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Evento publicado por ComentarioService al agregar un comentario a un ticket.
+ * El índice de búsqueda lo escucha para sumar el texto nuevo sin releer el ticket.
+ */
+@Getter
+@AllArgsConstructor
+public class ComentarioCreadoEvent {
+
+    private final Long ticketId;
+    private final Long comentarioId;
+    private final String texto;
+}
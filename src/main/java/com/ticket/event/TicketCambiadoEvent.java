@@ -0,0 +1,31 @@
+package com.ticket.event;
+
+import com.ticket.model.Ticket;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Evento publicado por TicketService cada vez que un ticket se crea, actualiza o elimina.
+ * Los índices en memoria lo escuchan para mantenerse sincronizados sin releer la tabla.
+ */
+@Getter
+@AllArgsConstructor
+public class TicketCambiadoEvent {
+
+    public enum Tipo {
+        CREADO,
+        ACTUALIZADO,
+        TOMADO, // despachado desde la cola de prioridad: un ACTUALIZADO de ABIERTO a EN_PROCESO
+        ELIMINADO
+    }
+
+    private final Tipo tipo;
+    private final Long ticketId;
+    private final Ticket ticket; // null cuando tipo == ELIMINADO
+    // el historial de estados ya refleja el cambio (ej. un POP): no hay que apilar nada
+    private final boolean historialAplicado;
+
+    public TicketCambiadoEvent(Tipo tipo, Long ticketId, Ticket ticket) {
+        this(tipo, ticketId, ticket, false);
+    }
+}
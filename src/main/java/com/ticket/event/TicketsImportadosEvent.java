@@ -0,0 +1,18 @@
+package com.ticket.event;
+
+import com.ticket.model.Ticket;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Un lote de la importación masiva quedó insertado. Se publica uno por lote (no uno
+ * por ticket) para que los índices en memoria se pongan al día de una vez.
+ */
+@Getter
+@AllArgsConstructor
+public class TicketsImportadosEvent {
+
+    private final List<Ticket> tickets; // ya sin sesión, con usuario y categoría inicializados
+}
@@ -0,0 +1,15 @@
+package com.ticket.event;
+
+import com.ticket.model.Usuario;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Evento publicado por UsuarioService al registrar un usuario nuevo.
+ */
+@Getter
+@AllArgsConstructor
+public class UsuarioCreadoEvent {
+
+    private final Usuario usuario;
+}
@@ -0,0 +1,12 @@
+package com.ticket.exception;
+
+/**
+ * La cola de escritura diferida está llena: la BD no da abasto con la ráfaga actual.
+ * Se responde 429 con Retry-After en vez de acumular escrituras sin límite.
+ */
+public class ColaEscrituraLlenaException extends RuntimeException {
+
+    public ColaEscrituraLlenaException(int capacidad) {
+        super("Hay " + capacidad + " escrituras pendientes, reintente en un momento");
+    }
+}
@@ -1,8 +1,10 @@
 package com.ticket.exception;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -39,7 +41,46 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(response);
     }
 
-    
+    /**
+     * If-Match con una versión vieja, o un UPDATE que encontró otra versión en la BD
+     * (otro agente escribió entre la lectura y el commit): 412, y el cliente relee.
+     */
+    @ExceptionHandler({ VersionNoCoincideException.class, ObjectOptimisticLockingFailureException.class })
+    public ResponseEntity<Map<String, Object>> handleVersionConflict(RuntimeException ex) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("timestamp", LocalDateTime.now());
+        response.put("status", HttpStatus.PRECONDITION_FAILED.value());
+        response.put("error", "El ticket fue modificado por otra petición");
+        response.put("message", ex.getMessage());
+
+        log.warn("Conflicto de versión: {}", ex.getMessage());
+
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.status(HttpStatus.PRECONDITION_FAILED);
+        if (ex instanceof VersionNoCoincideException v) {
+            respuesta.eTag("\"" + v.getVersionActual() + "\"");
+        }
+        return respuesta.body(response);
+    }
+
+    /**
+     * Escritura diferida con la cola llena: 429 y el cliente reintenta en un segundo.
+     */
+    @ExceptionHandler(ColaEscrituraLlenaException.class)
+    public ResponseEntity<Map<String, Object>> handleColaLlena(ColaEscrituraLlenaException ex) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("timestamp", LocalDateTime.now());
+        response.put("status", HttpStatus.TOO_MANY_REQUESTS.value());
+        response.put("error", "Demasiadas escrituras en curso");
+        response.put("message", ex.getMessage());
+
+        log.warn("Escritura rechazada: {}", ex.getMessage());
+
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(response);
+    }
+
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String, Object>> handleGenericException(Exception ex) {
         Map<String, Object> response = new HashMap<>();
@@ -0,0 +1,18 @@
+package com.ticket.exception;
+
+import lombok.Getter;
+
+/**
+ * El If-Match de la petición no coincide con la versión actual del ticket: otro
+ * agente lo modificó desde que el cliente lo leyó. Se responde 412 con la versión actual.
+ */
+@Getter
+public class VersionNoCoincideException extends RuntimeException {
+
+    private final Long versionActual;
+
+    public VersionNoCoincideException(Long id, Long versionActual) {
+        super("El ticket " + id + " fue modificado (versión actual " + versionActual + ")");
+        this.versionActual = versionActual;
+    }
+}
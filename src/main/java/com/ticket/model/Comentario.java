@@ -9,14 +9,18 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "comentarios")
+@Table(name = "comentarios", indexes = {
+        // comentarios de un ticket en orden, paginados por ID
+        @Index(name = "idx_comentarios_ticket_id", columnList = "ticket_id, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Comentario {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "comentarios_seq")
+    @SequenceGenerator(name = "comentarios_seq", sequenceName = "comentarios_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "El texto del comentario no puede estar vacío")
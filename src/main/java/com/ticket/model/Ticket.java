@@ -1,23 +1,36 @@
 package com.ticket.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "tickets")
+@Table(name = "tickets", indexes = {
+        // (filtro, id): sirven tanto para el WHERE como para el ORDER BY id de la paginación
+        @Index(name = "idx_tickets_estado_id", columnList = "estado, id"),
+        @Index(name = "idx_tickets_prioridad_id", columnList = "prioridad, id"),
+        @Index(name = "idx_tickets_categoria_id", columnList = "categoria_id, id"),
+        @Index(name = "idx_tickets_usuario_id", columnList = "usuario_id, id"),
+        @Index(name = "idx_tickets_fecha_creacion", columnList = "fechaCreacion, id")
+})
+@DynamicUpdate // el UPDATE lleva solo las columnas que cambiaron (un PATCH de estado no reescribe la descripción)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Ticket {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // secuencia con bloques de 50 IDs: Hibernate puede agrupar los INSERT en lotes (con IDENTITY no)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tickets_seq")
+    @SequenceGenerator(name = "tickets_seq", sequenceName = "tickets_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "El título no puede estar vacío")
@@ -41,6 +54,13 @@ public class Ticket {
     @Column(nullable = false, updatable = false)
     private LocalDateTime fechaCreacion;
 
+    // bloqueo optimista: cada UPDATE exige la versión leída y la incrementa; viaja como ETag
+    @Version
+    @ColumnDefault("0") // filas anteriores a la columna
+    @Column(nullable = false)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "usuario_id", nullable = true)
     private Usuario usuario;
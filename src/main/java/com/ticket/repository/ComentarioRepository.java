@@ -1,17 +1,71 @@
 package com.ticket.repository;
 
+import com.ticket.dto.ComentarioDTO;
 import com.ticket.model.Comentario;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface ComentarioRepository extends JpaRepository<Comentario, Long> {
 
     
-    List<Comentario> findByTicketIdOrderByFechaAsc(Long ticketId);
+    List<Comentario> findByUsuarioId(Long usuarioId);
+
+    /**
+     * Página por clave de los comentarios de un ticket, en orden de creación (por ID).
+     * Usa el índice (ticket_id, id): no importa cuántos comentarios tenga el ticket.
+     */
+    @Query("""
+            select new com.ticket.dto.ComentarioDTO(c.id, c.texto, c.fecha, c.ticket.id, u.id, u.nombre)
+            from Comentario c join c.usuario u
+            where c.ticket.id = :ticketId and c.id > :despuesDeId
+            order by c.id""")
+    List<ComentarioDTO> buscarPagina(Long ticketId, Long despuesDeId, Limit limite);
+
+    /**
+     * Los primeros 'porTicket' comentarios de cada uno de los tickets, en una sola
+     * consulta (IN + row_number por ticket) en lugar de una por ticket.
+     */
+    @Query("""
+            select new com.ticket.dto.ComentarioDTO(x.id, x.texto, x.fecha, x.ticketId, x.usuarioId, x.usuarioNombre)
+            from (
+                select c.id as id, c.texto as texto, c.fecha as fecha, c.ticket.id as ticketId,
+                       u.id as usuarioId, u.nombre as usuarioNombre,
+                       row_number() over (partition by c.ticket.id order by c.id) as fila
+                from Comentario c join c.usuario u
+                where c.ticket.id in :ticketIds
+            ) x
+            where x.fila <= :porTicket
+            order by x.ticketId, x.id""")
+    List<ComentarioDTO> buscarPrimerosPorTicket(Collection<Long> ticketIds, int porTicket);
+
+    /**
+     * Filas [ticketId, cantidad]; los tickets sin comentarios no aparecen.
+     */
+    @Query("select c.ticket.id, count(c) from Comentario c where c.ticket.id in :ticketIds group by c.ticket.id")
+    List<Object[]> contarPorTicket(Collection<Long> ticketIds);
 
     
-    List<Comentario> findByUsuarioId(Long usuarioId);
+    @Query("select c.texto from Comentario c where c.ticket.id = :ticketId order by c.id")
+    List<String> textosPorTicket(Long ticketId);
+
+    /**
+     * Filas [ticketId, texto] de todos los comentarios ordenadas por ticket, para
+     * recorrerlas junto con TicketRepository.streamTextos sin cargarlas todas.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select c.ticket.id, c.texto from Comentario c order by c.ticket.id, c.id")
+    Stream<Object[]> streamTextos();
 }
@@ -0,0 +1,32 @@
+package com.ticket.repository;
+
+import com.ticket.model.Estado;
+import com.ticket.model.Prioridad;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filtros opcionales del listado y la exportación de tickets; los campos null no filtran.
+ * Se enlaza directo desde los parámetros de la URL (?estado=ABIERTO&desde=...).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FiltroTickets {
+
+    private Estado estado;
+    private Prioridad prioridad;
+    private Long categoriaId;
+    private Long usuarioId;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime desde; // fechaCreacion >= desde
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime hasta; // fechaCreacion < hasta
+}
@@ -1,9 +1,53 @@
 package com.ticket.repository;
 
+import com.ticket.model.Estado;
 import com.ticket.model.Ticket;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 @Repository
-public interface TicketRepository extends JpaRepository<Ticket, Long> {
+public interface TicketRepository extends JpaRepository<Ticket, Long>, TicketRepositoryCustom {
+
+    
+    @Query("select t from Ticket t left join fetch t.usuario left join fetch t.categoria order by t.id")
+    List<Ticket> findAllConRelaciones();
+
+    
+    @Query("select t from Ticket t left join fetch t.usuario left join fetch t.categoria where t.id = :id")
+    Optional<Ticket> findConRelacionesById(Long id);
+
+    /**
+     * Filas [id, titulo, descripcion] de todos los tickets ordenadas por ID, de a
+     * 1000 por viaje, para armar el índice de búsqueda sin cargar las entidades.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select t.id, t.titulo, t.descripcion from Ticket t order by t.id")
+    Stream<Object[]> streamTextos();
+
+    /**
+     * Filas [estado, prioridad, categoriaId, categoriaNombre, cantidad]; con la
+     * categoría null para los tickets sin categoría.
+     */
+    @Query("""
+            select t.estado, t.prioridad, c.id, c.nombre, count(t)
+            from Ticket t left join t.categoria c
+            group by t.estado, t.prioridad, c.id, c.nombre""")
+    List<Object[]> contarPorClasificacion();
+
+    
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Ticket t set t.estado = :nuevo, t.version = t.version + 1 where t.id = :id and t.estado = :esperado")
+    int cambiarEstadoSi(Long id, Estado esperado, Estado nuevo);
 }
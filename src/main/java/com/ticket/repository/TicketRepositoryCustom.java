@@ -0,0 +1,27 @@
+package com.ticket.repository;
+
+import com.ticket.dto.TicketResumenDTO;
+import com.ticket.model.Ticket;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Consultas de tickets que se arman en tiempo de ejecución (ver TicketRepositoryImpl).
+ */
+public interface TicketRepositoryCustom {
+
+    /**
+     * Página por clave (keyset): hasta 'limite' tickets con ID mayor a 'despuesDeId'
+     * que cumplan el filtro, ordenados por ID. Proyecta solo las columnas del resumen
+     * en una única consulta con los nombres de usuario y categoría.
+     */
+    List<TicketResumenDTO> buscarPagina(FiltroTickets filtro, Long despuesDeId, int limite);
+
+    /**
+     * Todos los tickets que cumplan el filtro, ordenados por ID, leídos de a
+     * 'fetchSize' filas con un cursor del driver. Debe recorrerse dentro de una
+     * transacción y cerrarse al terminar.
+     */
+    Stream<Ticket> streamPorFiltro(FiltroTickets filtro, int fetchSize);
+}
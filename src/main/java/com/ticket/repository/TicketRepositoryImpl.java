@@ -0,0 +1,93 @@
+package com.ticket.repository;
+
+import com.ticket.dto.TicketResumenDTO;
+import com.ticket.model.Categoria;
+import com.ticket.model.Ticket;
+import com.ticket.model.Usuario;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Solo se agregan al WHERE los filtros presentes. Así cada combinación genera
+ * una consulta concreta (estado = ? and id > ? order by id) que el motor resuelve
+ * con los índices compuestos (columna, id) declarados en Ticket, en lugar de un
+ * "(:p is null or col = :p)" que obliga a un plan genérico.
+ */
+public class TicketRepositoryImpl implements TicketRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<TicketResumenDTO> buscarPagina(FiltroTickets filtro, Long despuesDeId, int limite) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TicketResumenDTO> query = cb.createQuery(TicketResumenDTO.class);
+        Root<Ticket> t = query.from(Ticket.class);
+        // joins simples, no fetch: del usuario y la categoría solo viaja el nombre
+        Join<Ticket, Categoria> categoria = t.join("categoria", JoinType.LEFT);
+        Join<Ticket, Usuario> usuario = t.join("usuario", JoinType.LEFT);
+
+        query.select(cb.construct(TicketResumenDTO.class,
+                        t.get("id"), t.get("titulo"), t.get("prioridad"), t.get("estado"),
+                        t.get("fechaCreacion"), categoria.get("nombre"), usuario.get("nombre")))
+                .where(condiciones(cb, t, filtro, despuesDeId))
+                .orderBy(cb.asc(t.get("id")));
+        return entityManager.createQuery(query)
+                .setMaxResults(limite)
+                .getResultList();
+    }
+
+    @Override
+    public Stream<Ticket> streamPorFiltro(FiltroTickets filtro, int fetchSize) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Ticket> query = cb.createQuery(Ticket.class);
+        Root<Ticket> t = query.from(Ticket.class);
+        t.fetch("usuario", JoinType.LEFT); // evita una consulta por ticket al exportar
+        t.fetch("categoria", JoinType.LEFT);
+
+        query.select(t)
+                .where(condiciones(cb, t, filtro, null))
+                .orderBy(cb.asc(t.get("id")));
+        return entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize) // sin esto algunos drivers traen todo
+                .setHint(HibernateHints.HINT_READ_ONLY, true) // sin copias para dirty checking
+                .getResultStream();
+    }
+
+    private static Predicate[] condiciones(CriteriaBuilder cb, Root<Ticket> t, FiltroTickets filtro, Long despuesDeId) {
+        List<Predicate> condiciones = new ArrayList<>();
+        if (despuesDeId != null) {
+            condiciones.add(cb.greaterThan(t.get("id"), despuesDeId));
+        }
+        if (filtro.getEstado() != null) {
+            condiciones.add(cb.equal(t.get("estado"), filtro.getEstado()));
+        }
+        if (filtro.getPrioridad() != null) {
+            condiciones.add(cb.equal(t.get("prioridad"), filtro.getPrioridad()));
+        }
+        if (filtro.getCategoriaId() != null) {
+            condiciones.add(cb.equal(t.get("categoria").get("id"), filtro.getCategoriaId()));
+        }
+        if (filtro.getUsuarioId() != null) {
+            condiciones.add(cb.equal(t.get("usuario").get("id"), filtro.getUsuarioId()));
+        }
+        if (filtro.getDesde() != null) {
+            condiciones.add(cb.greaterThanOrEqualTo(t.get("fechaCreacion"), filtro.getDesde()));
+        }
+        if (filtro.getHasta() != null) {
+            condiciones.add(cb.lessThan(t.get("fechaCreacion"), filtro.getHasta()));
+        }
+        return condiciones.toArray(Predicate[]::new);
+    }
+}
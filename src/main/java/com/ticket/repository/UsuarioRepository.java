@@ -14,7 +14,4 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
 
     
     boolean existsByEmail(String email);
-
-    
-    Optional<Usuario> findByEmailAndPassword(String email, String password);
 }
@@ -0,0 +1,65 @@
+package com.ticket.service;
+
+import com.ticket.config.SeguridadConfig;
+import com.ticket.dto.SesionDTO;
+import com.ticket.model.Usuario;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Login con token. El usuario se busca por email en la caché de UsuarioService y la
+ * contraseña se verifica en el ejecutor de contraseñas, no en el hilo de la petición.
+ */
+@Service
+@Slf4j
+public class AutenticacionService {
+
+    private final UsuarioService usuarioService;
+    private final ContraseniaService contraseniaService;
+    private final TokenService tokenService;
+    private final TaskExecutor ejecutor;
+
+    // para un email inexistente se verifica igual contra este hash: tarda lo mismo que uno real
+    private String hashFicticio;
+
+    public AutenticacionService(UsuarioService usuarioService, ContraseniaService contraseniaService,
+            TokenService tokenService, @Qualifier(SeguridadConfig.EJECUTOR_CONTRASENIAS) TaskExecutor ejecutor) {
+        this.usuarioService = usuarioService;
+        this.contraseniaService = contraseniaService;
+        this.tokenService = tokenService;
+        this.ejecutor = ejecutor;
+    }
+
+    @PostConstruct
+    void init() {
+        hashFicticio = contraseniaService.hashear("");
+    }
+
+    /**
+     * Sesión nueva si las credenciales son válidas, vacío si no. Lanza
+     * TaskRejectedException si el ejecutor está saturado. Una contraseña guardada
+     * en claro (o con pocas iteraciones) se reemplaza por su hash al entrar.
+     */
+    public CompletableFuture<Optional<SesionDTO>> login(String email, String password) {
+        return CompletableFuture.supplyAsync(() -> {
+            Optional<Usuario> usuario = usuarioService.buscarPorEmail(email);
+            String guardado = usuario.map(Usuario::getPassword).orElse(hashFicticio);
+            if (!contraseniaService.verificar(password, guardado) || usuario.isEmpty())
+                return Optional.empty();
+
+            Usuario u = usuario.get();
+            if (contraseniaService.requiereRehash(guardado)) {
+                u = usuarioService.actualizarPassword(u.getId(), contraseniaService.hashear(password));
+                log.info("Contraseña de {} migrada a PBKDF2", email);
+            }
+            TokenService.Sesion sesion = tokenService.emitir(u);
+            return Optional.of(new SesionDTO(sesion.token(), sesion.expira(), u));
+        }, ejecutor);
+    }
+}
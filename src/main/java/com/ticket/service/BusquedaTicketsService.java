@@ -0,0 +1,185 @@
+package com.ticket.service;
+
+import com.ticket.datastructures.IndiceInvertido;
+import com.ticket.dto.ResultadoBusquedaDTO;
+import com.ticket.dto.TicketResumenDTO;
+import com.ticket.event.ComentarioCreadoEvent;
+import com.ticket.event.TicketCambiadoEvent;
+import com.ticket.event.TicketsImportadosEvent;
+import com.ticket.model.Ticket;
+import com.ticket.repository.ComentarioRepository;
+import com.ticket.repository.TicketRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Búsqueda de texto sobre título, descripción y comentarios de los tickets, con un
+ * índice invertido en memoria (sin servidor de búsqueda aparte). Se arma UNA vez al
+ * arrancar y se mantiene con los eventos de TicketService, ComentarioService y la
+ * importación masiva, igual que IndiceTicketsService.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BusquedaTicketsService {
+
+    private final TicketRepository ticketRepository;
+    private final ComentarioRepository comentarioRepository;
+    private final IndiceTicketsService indiceTicketsService;
+    private final PlatformTransactionManager transactionManager;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final IndiceInvertido indice = new IndiceInvertido();
+
+    /**
+     * Recorre a la par tickets y comentarios, ambos ordenados por ID de ticket, así
+     * cada ticket se indexa una sola vez con todos sus comentarios y nada queda en memoria
+     * salvo el índice.
+     */
+    @PostConstruct
+    public void cargar() {
+        long inicio = System.nanoTime();
+        TransactionTemplate lectura = new TransactionTemplate(transactionManager);
+        lectura.setReadOnly(true);
+        lock.writeLock().lock();
+        try {
+            lectura.executeWithoutResult(status -> {
+                try (Stream<Object[]> tickets = ticketRepository.streamTextos();
+                        Stream<Object[]> comentarios = comentarioRepository.streamTextos()) {
+                    Iterator<Object[]> itComentarios = comentarios.iterator();
+                    Object[] comentario = itComentarios.hasNext() ? itComentarios.next() : null;
+                    for (Iterator<Object[]> it = tickets.iterator(); it.hasNext();) {
+                        Object[] t = it.next();
+                        long id = (Long) t[0];
+                        List<String> textos = new ArrayList<>();
+                        while (comentario != null && (Long) comentario[0] <= id) {
+                            if ((Long) comentario[0] == id) {
+                                textos.add((String) comentario[1]);
+                            }
+                            comentario = itComentarios.hasNext() ? itComentarios.next() : null;
+                        }
+                        indice.indexar(id, (String) t[1], (String) t[2], textos);
+                    }
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("[Busqueda] Índice listo: {} tickets, {} términos, {} KB de apariciones ({} ms)",
+                indice.getTamanio(), indice.getTerminos(), indice.getBytesApariciones() / 1024,
+                (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    // ---- SINCRONIZACIÓN CON LAS ESCRITURAS ----
+
+    /**
+     * Tras el commit. Un cambio que no toca título ni descripción (ej. solo el estado)
+     * no reindexa; si los toca, se relee el ticket con sus comentarios.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(VersionesService.ORDEN_INDICES)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onTicketCambiado(TicketCambiadoEvent evento) {
+        Long id = evento.getTicketId();
+        Ticket t = evento.getTicket();
+        switch (evento.getTipo()) {
+            case ELIMINADO -> quitar(id);
+            case CREADO -> indexar(id, t.getTitulo(), t.getDescripcion(), List.of()); // aún sin comentarios
+            case ACTUALIZADO, TOMADO -> {
+                lock.readLock().lock();
+                try {
+                    if (indice.mismoTexto(id, t.getTitulo(), t.getDescripcion()))
+                        return;
+                } finally {
+                    lock.readLock().unlock();
+                }
+                indexar(id, t.getTitulo(), t.getDescripcion(), comentarioRepository.textosPorTicket(id));
+            }
+        }
+    }
+
+    /**
+     * El texto del comentario se suma a lo ya indexado del ticket: sin consultas y sin
+     * depender de cuántos comentarios tenga. Si el ticket ya se borró no hace nada.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(VersionesService.ORDEN_INDICES)
+    public void onComentarioCreado(ComentarioCreadoEvent evento) {
+        lock.writeLock().lock();
+        try {
+            indice.agregarComentario(evento.getTicketId(), evento.getTexto());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(VersionesService.ORDEN_INDICES)
+    public void onTicketsImportados(TicketsImportadosEvent evento) {
+        lock.writeLock().lock();
+        try {
+            for (Ticket t : evento.getTickets()) {
+                indice.indexar(t.getId(), t.getTitulo(), t.getDescripcion(), List.of());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void indexar(Long id, String titulo, String descripcion, List<String> comentarios) {
+        lock.writeLock().lock();
+        try {
+            indice.indexar(id, titulo, descripcion, comentarios);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.debug("[Busqueda] Ticket {} indexado", id);
+    }
+
+    private void quitar(Long id) {
+        lock.writeLock().lock();
+        try {
+            indice.quitar(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ---- CONSULTA ----
+
+    /**
+     * Los 'limite' tickets más relevantes para 'consulta', del más al menos relevante.
+     * Los resúmenes salen de los índices en memoria: no se consulta la BD.
+     */
+    public List<ResultadoBusquedaDTO> buscar(String consulta, int limite) {
+        List<IndiceInvertido.Resultado> encontrados;
+        lock.readLock().lock();
+        try {
+            encontrados = indice.buscar(consulta, limite);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return encontrados.stream()
+                .map(r -> {
+                    Ticket t = indiceTicketsService.buscarEnBST(r.ticketId());
+                    return t != null ? new ResultadoBusquedaDTO(TicketResumenDTO.de(t), r.puntaje()) : null;
+                })
+                .filter(Objects::nonNull) // borrado entre una consulta y otra
+                .toList();
+    }
+}
@@ -1,10 +1,15 @@
 package com.ticket.service;
 
+import com.ticket.config.CacheConfig;
 import com.ticket.model.Categoria;
 import com.ticket.repository.CategoriaRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -18,16 +23,21 @@ public class CategoriaService {
     @Autowired
     private CategoriaRepository categoriaRepository;
 
+    @Cacheable(cacheNames = CacheConfig.CATEGORIAS, key = "'todas'")
     public List<Categoria> obtenerTodas() {
         logger.info("Obteniendo todas las categorías");
-        return categoriaRepository.findAll();
+        return List.copyOf(categoriaRepository.findAll());
     }
 
+    @Cacheable(cacheNames = CacheConfig.CATEGORIA_POR_ID, unless = "#result == null") // los ID inexistentes no se guardan
     public Optional<Categoria> obtenerPorId(Long id) {
         logger.info("Obteniendo categoría con ID: {}", id);
         return categoriaRepository.findById(id);
     }
 
+    @Caching(
+            evict = @CacheEvict(cacheNames = CacheConfig.CATEGORIAS, allEntries = true),
+            put = @CachePut(cacheNames = CacheConfig.CATEGORIA_POR_ID, key = "#result.id"))
     public Categoria crear(Categoria categoria) {
         logger.info("Creando nueva categoría: {}", categoria.getNombre());
 
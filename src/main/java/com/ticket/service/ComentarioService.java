@@ -1,17 +1,26 @@
 package com.ticket.service;
 
+import com.ticket.dto.ComentarioDTO;
+import com.ticket.event.ComentarioCreadoEvent;
 import com.ticket.model.Comentario;
-import com.ticket.model.Ticket;
-import com.ticket.model.Usuario;
 import com.ticket.repository.ComentarioRepository;
 import com.ticket.repository.TicketRepository;
 import com.ticket.repository.UsuarioRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 @Service
 public class ComentarioService {
@@ -27,27 +36,100 @@ public class ComentarioService {
     @Autowired
     private UsuarioRepository usuarioRepository;
 
-    public List<Comentario> obtenerPorTicket(Long ticketId) {
-        logger.info("Obteniendo comentarios del ticket ID: {}", ticketId);
-        return comentarioRepository.findByTicketIdOrderByFechaAsc(ticketId);
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private EscrituraDiferidaService escrituraDiferida;
+
+    /**
+     * Página por clave: pide un comentario de más para saber si hay otra página sin hacer un COUNT.
+     */
+    public List<ComentarioDTO> obtenerPorTicket(Long ticketId, Long despuesDeId, int limite) {
+        logger.info("Obteniendo comentarios del ticket ID: {} después del ID {} (máx. {})", ticketId, despuesDeId, limite);
+        long despues = despuesDeId != null ? despuesDeId : 0L;
+        List<ComentarioDTO> encolados = escrituraDiferida.comentariosPendientes(ticketId, despues); // antes que la BD
+        return combinar(comentarioRepository.buscarPagina(ticketId, despues, Limit.of(limite)), encolados, limite);
     }
 
-    public Comentario crear(Long ticketId, Long usuarioId, String texto) {
-        logger.info("Creando comentario en ticket ID: {} por usuario ID: {}", ticketId, usuarioId);
+    /**
+     * Agrega a lo leído de la BD los comentarios aún en la cola de escritura diferida,
+     * en orden de ID y sin repetir los que se volcaron entre una lectura y otra.
+     */
+    private static List<ComentarioDTO> combinar(List<ComentarioDTO> guardados, List<ComentarioDTO> encolados, int limite) {
+        if (encolados.isEmpty())
+            return guardados;
+        TreeMap<Long, ComentarioDTO> todos = new TreeMap<>();
+        guardados.forEach(c -> todos.put(c.id(), c));
+        encolados.forEach(c -> todos.putIfAbsent(c.id(), c));
+        return todos.values().stream().limit(limite).toList();
+    }
+
+    /**
+     * Primeros comentarios de varios tickets a la vez, agrupados por ticket (en el orden
+     * pedido; los tickets sin comentarios quedan con una lista vacía).
+     */
+    public Map<Long, List<ComentarioDTO>> obtenerPorTickets(Collection<Long> ticketIds, int porTicket) {
+        logger.info("Obteniendo hasta {} comentarios de {} tickets", porTicket, ticketIds.size());
+        Map<Long, List<ComentarioDTO>> resultado = new LinkedHashMap<>();
+        Map<Long, List<ComentarioDTO>> encolados = new LinkedHashMap<>();
+        ticketIds.forEach(id -> {
+            resultado.put(id, new ArrayList<>());
+            encolados.put(id, escrituraDiferida.comentariosPendientes(id, 0L));
+        });
+        for (ComentarioDTO c : comentarioRepository.buscarPrimerosPorTicket(ticketIds, porTicket)) {
+            resultado.get(c.ticketId()).add(c);
+        }
+        resultado.replaceAll((id, guardados) -> combinar(guardados, encolados.get(id), porTicket));
+        return resultado;
+    }
+
+    public Map<Long, Long> contarPorTickets(Collection<Long> ticketIds) {
+        // primero los encolados: uno que se vuelque en el medio se cuenta dos veces, nunca ninguna
+        Map<Long, Long> resultado = new LinkedHashMap<>();
+        ticketIds.forEach(id -> resultado.put(id, (long) escrituraDiferida.cantidadPendientes(id)));
+        for (Object[] fila : comentarioRepository.contarPorTicket(ticketIds)) {
+            resultado.merge((Long) fila[0], (Long) fila[1], Long::sum);
+        }
+        return resultado;
+    }
 
-        Ticket ticket = ticketRepository.findById(ticketId)
-                .orElseThrow(() -> new IllegalArgumentException("Ticket no encontrado con ID: " + ticketId));
+    public boolean escrituraDiferida() {
+        return escrituraDiferida.isHabilitada();
+    }
 
-        Usuario usuario = usuarioRepository.findById(usuarioId)
-                .orElseThrow(() -> new IllegalArgumentException("Usuario no encontrado con ID: " + usuarioId));
+    /**
+     * Con escritura diferida: el comentario sale con su ID definitivo y se inserta en el
+     * próximo lote. Con la cola llena lanza ColaEscrituraLlenaException.
+     */
+    public ComentarioDTO encolar(Long ticketId, Long usuarioId, String texto) {
+        logger.info("Encolando comentario en ticket ID: {} por usuario ID: {}", ticketId, usuarioId);
+        return escrituraDiferida.encolarComentario(ticketId, usuarioId, texto);
+    }
+
+    /**
+     * Un solo INSERT: ticket y usuario se enlazan por referencia, sin cargarlos.
+     * Si alguno no existe lo rechaza la clave foránea y se informa como argumento inválido.
+     */
+    @Transactional
+    public ComentarioDTO crear(Long ticketId, Long usuarioId, String texto) {
+        logger.info("Creando comentario en ticket ID: {} por usuario ID: {}", ticketId, usuarioId);
 
         Comentario comentario = new Comentario();
         comentario.setTexto(texto);
-        comentario.setTicket(ticket);
-        comentario.setUsuario(usuario);
+        comentario.setTicket(ticketRepository.getReferenceById(ticketId));
+        comentario.setUsuario(usuarioRepository.getReferenceById(usuarioId));
 
-        Comentario comentarioCreado = comentarioRepository.save(comentario);
+        Comentario comentarioCreado;
+        try {
+            comentarioCreado = comentarioRepository.saveAndFlush(comentario);
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalArgumentException(
+                    "Ticket " + ticketId + " o usuario " + usuarioId + " no encontrado", e);
+        }
         logger.info("Comentario creado exitosamente con ID: {}", comentarioCreado.getId());
-        return comentarioCreado;
+        eventPublisher.publishEvent(new ComentarioCreadoEvent(ticketId, comentarioCreado.getId(), texto));
+        return new ComentarioDTO(comentarioCreado.getId(), comentarioCreado.getTexto(), comentarioCreado.getFecha(),
+                ticketId, usuarioId, null);
     }
 }
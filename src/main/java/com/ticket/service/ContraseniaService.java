@@ -0,0 +1,82 @@
+package com.ticket.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Hash lento de contraseñas (PBKDF2-HMAC-SHA512). Se guarda como
+ * "pbkdf2$iteraciones$sal$hash" para poder subir las iteraciones sin invalidar
+ * los hashes viejos. Las filas anteriores guardaban la contraseña en claro:
+ * se siguen aceptando y requiereRehash avisa para reemplazarlas en el próximo login.
+ */
+@Service
+@Slf4j
+public class ContraseniaService {
+
+    private static final String PREFIJO = "pbkdf2$";
+    private static final String ALGORITMO = "PBKDF2WithHmacSHA512";
+    private static final int BYTES_SAL = 16;
+    private static final int BITS_HASH = 256;
+
+    private final SecureRandom random = new SecureRandom();
+
+    @Value("${seguridad.password.iteraciones:210000}")
+    private int iteraciones;
+
+    public String hashear(String password) {
+        byte[] sal = new byte[BYTES_SAL];
+        random.nextBytes(sal);
+        Base64.Encoder b64 = Base64.getEncoder().withoutPadding();
+        return PREFIJO + iteraciones + "$" + b64.encodeToString(sal) + "$"
+                + b64.encodeToString(derivar(password, sal, iteraciones));
+    }
+
+    /**
+     * Compara en tiempo constante 'password' contra lo guardado (hash o, en filas
+     * viejas, la contraseña en claro).
+     */
+    public boolean verificar(String password, String guardado) {
+        if (guardado == null)
+            return false;
+        if (!guardado.startsWith(PREFIJO)) {
+            return MessageDigest.isEqual(password.getBytes(StandardCharsets.UTF_8),
+                    guardado.getBytes(StandardCharsets.UTF_8));
+        }
+        String[] partes = guardado.split("\\$");
+        if (partes.length != 4)
+            return false;
+        Base64.Decoder b64 = Base64.getDecoder();
+        byte[] esperado = b64.decode(partes[3]);
+        return MessageDigest.isEqual(esperado, derivar(password, b64.decode(partes[2]), Integer.parseInt(partes[1])));
+    }
+
+    /**
+     * true si lo guardado está en claro o con menos iteraciones que las configuradas.
+     */
+    public boolean requiereRehash(String guardado) {
+        if (guardado == null || !guardado.startsWith(PREFIJO))
+            return true;
+        String[] partes = guardado.split("\\$");
+        return partes.length != 4 || Integer.parseInt(partes[1]) < iteraciones;
+    }
+
+    private static byte[] derivar(String password, byte[] sal, int iteraciones) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), sal, iteraciones, BITS_HASH);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITMO).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("No se pudo calcular el hash de la contraseña", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
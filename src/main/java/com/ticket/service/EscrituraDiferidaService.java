@@ -0,0 +1,416 @@
+package com.ticket.service;
+
+import com.ticket.dto.ComentarioDTO;
+import com.ticket.event.ComentarioCreadoEvent;
+import com.ticket.event.TicketCambiadoEvent;
+import com.ticket.exception.ColaEscrituraLlenaException;
+import com.ticket.model.Estado;
+import com.ticket.model.Ticket;
+import com.ticket.model.Usuario;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Escritura diferida (write-behind) de comentarios y cambios de estado, activada con
+ * escritura.diferida.habilitada. La petición valida contra memoria (índice de tickets,
+ * caché de usuarios), deja la escritura en una cola acotada y responde enseguida; un
+ * hilo la vuelca a la BD en lotes de hasta 'max-lote' cuando se juntan o cuando la más
+ * vieja cumple 'max-latencia':
+ * - comentarios: un INSERT por lote con el ID ya asignado (se reservan bloques de la
+ *   secuencia igual que Hibernate, así el cliente recibe el ID definitivo);
+ * - estados: un UPDATE por ticket con el último estado; los intermedios igual se
+ *   publican en orden para que el historial los apile.
+ * Con la cola llena se rechaza con 429. Al cerrar se vuelca lo pendiente.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EscrituraDiferidaService {
+
+    private static final int ASIGNACION_COMENTARIOS = 50; // igual al allocationSize de Comentario
+
+    private static final String INSERTAR_COMENTARIO =
+            "insert into comentarios (id, texto, fecha, ticket_id, usuario_id) values (?, ?, ?, ?, ?)";
+    private static final String CAMBIAR_ESTADO =
+            "update tickets set estado = ?, version = version + 1 where id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ApplicationEventPublisher eventPublisher;
+    private final IndiceTicketsService indiceTicketsService;
+    private final UsuarioService usuarioService;
+    private final VersionesService versionesService;
+
+    @Value("${escritura.diferida.habilitada:false}")
+    private boolean habilitada;
+
+    @Value("${escritura.diferida.capacidad:10000}")
+    private int capacidad;
+
+    @Value("${escritura.diferida.max-lote:500}")
+    private int maxLote;
+
+    @Value("${escritura.diferida.max-latencia:50ms}")
+    private Duration maxLatencia;
+
+    private sealed interface Escritura permits ComentarioPendiente, EstadoPendiente {
+        Long ticketId();
+    }
+
+    private record ComentarioPendiente(ComentarioDTO comentario) implements Escritura {
+        @Override
+        public Long ticketId() {
+            return comentario.ticketId();
+        }
+    }
+
+    private record EstadoPendiente(long secuencia, Long ticketId, Estado estado) implements Escritura {
+    }
+
+    // cola y señales bajo un mismo lock: las escrituras ocupan lugar hasta que se vuelcan
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition hayEscrituras = lock.newCondition();
+    private final Condition loteCompleto = lock.newCondition();
+    private final Condition vaciada = lock.newCondition();
+    private final ArrayDeque<Escritura> cola = new ArrayDeque<>();
+    private boolean volcando;
+    private boolean urgente; // alguien espera que se vacíe: no esperar a completar el lote
+    private boolean cerrada;
+
+    // comentarios encolados por ticket y por ID, para que las lecturas los vean antes del INSERT
+    private final Map<Long, NavigableMap<Long, ComentarioDTO>> comentariosPendientes = new ConcurrentHashMap<>();
+
+    private final ReentrantLock lockIds = new ReentrantLock();
+    private String siguienteValorSql;
+    private long siguienteId = 1;
+    private long topeId; // bloque reservado: siguienteId..topeId
+
+    private final AtomicLong secuencia = new AtomicLong();
+    private Thread volcador;
+
+    @PostConstruct
+    void iniciar() {
+        if (!habilitada)
+            return;
+        siguienteValorSql = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect().getSequenceSupport().getSequenceNextValString("comentarios_seq");
+        volcador = Thread.ofPlatform().name("escritura-diferida").start(this::volcar);
+        log.info("Escritura diferida activa: hasta {} pendientes, lotes de {} o cada {} ms",
+                capacidad, maxLote, maxLatencia.toMillis());
+    }
+
+    @PreDestroy
+    void cerrar() throws InterruptedException {
+        if (volcador == null)
+            return;
+        lock.lock();
+        try {
+            cerrada = true;
+            urgente = true;
+            hayEscrituras.signal();
+            loteCompleto.signal();
+        } finally {
+            lock.unlock();
+        }
+        volcador.join(TimeUnit.SECONDS.toMillis(30));
+        log.info("Escritura diferida detenida; pendientes sin volcar: {}", cola.size());
+    }
+
+    public boolean isHabilitada() {
+        return habilitada;
+    }
+
+    // ---- ENCOLAR ----
+
+    /**
+     * Encola un comentario y lo devuelve con su ID definitivo. Ticket y usuario se
+     * validan en memoria; si alguno no existe se lanza IllegalArgumentException como
+     * en ComentarioService.crear.
+     */
+    public ComentarioDTO encolarComentario(Long ticketId, Long usuarioId, String texto) {
+        Usuario usuario = usuarioService.obtenerPorId(usuarioId).orElse(null);
+        if (usuario == null || indiceTicketsService.buscarEnBST(ticketId) == null) {
+            throw new IllegalArgumentException("Ticket " + ticketId + " o usuario " + usuarioId + " no encontrado");
+        }
+        ComentarioDTO comentario = new ComentarioDTO(reservarId(), texto, LocalDateTime.now(),
+                ticketId, usuarioId, usuario.getNombre());
+        // visible para las lecturas antes de encolar: el volcador lo quita después del INSERT
+        comentariosPendientes.computeIfAbsent(ticketId, k -> new ConcurrentSkipListMap<>())
+                .put(comentario.id(), comentario);
+        try {
+            encolar(new ComentarioPendiente(comentario));
+        } catch (RuntimeException e) {
+            quitarPendiente(comentario);
+            throw e;
+        }
+        versionesService.ticketModificado(ticketId); // las lecturas ya lo incluyen
+        return comentario;
+    }
+
+    /**
+     * Encola un cambio de estado. Devuelve el número de la escritura, o null si el
+     * ticket no existe.
+     */
+    public Long encolarEstado(Long ticketId, Estado estado) {
+        if (indiceTicketsService.buscarEnBST(ticketId) == null)
+            return null;
+        long numero = secuencia.incrementAndGet();
+        encolar(new EstadoPendiente(numero, ticketId, estado));
+        return numero;
+    }
+
+    private void encolar(Escritura escritura) {
+        lock.lock();
+        try {
+            if (cerrada)
+                throw new IllegalStateException("La escritura diferida se está cerrando");
+            if (cola.size() >= capacidad)
+                throw new ColaEscrituraLlenaException(capacidad);
+            cola.addLast(escritura);
+            if (cola.size() == 1)
+                hayEscrituras.signal();
+            if (cola.size() >= maxLote)
+                loteCompleto.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long reservarId() {
+        lockIds.lock();
+        try {
+            if (siguienteId > topeId) {
+                // el valor leído es el último ID del bloque (mismo criterio que el optimizador "pooled")
+                long tope = jdbcTemplate.queryForObject(siguienteValorSql, Long.class);
+                siguienteId = Math.max(1, tope - ASIGNACION_COMENTARIOS + 1);
+                topeId = tope;
+            }
+            return siguienteId++;
+        } finally {
+            lockIds.unlock();
+        }
+    }
+
+    // ---- LECTURAS ----
+
+    /**
+     * Comentarios encolados del ticket con ID mayor a 'despuesDeId', en orden.
+     * Se piden ANTES de consultar la BD: uno que se vuelque en el medio aparece en
+     * ambos lados (y se descarta el repetido) en vez de en ninguno.
+     */
+    public List<ComentarioDTO> comentariosPendientes(Long ticketId, long despuesDeId) {
+        NavigableMap<Long, ComentarioDTO> pendientes = comentariosPendientes.get(ticketId);
+        return pendientes == null ? List.of() : List.copyOf(pendientes.tailMap(despuesDeId, false).values());
+    }
+
+    public int cantidadPendientes(Long ticketId) {
+        NavigableMap<Long, ComentarioDTO> pendientes = comentariosPendientes.get(ticketId);
+        return pendientes == null ? 0 : pendientes.size();
+    }
+
+    private void quitarPendiente(ComentarioDTO c) {
+        comentariosPendientes.computeIfPresent(c.ticketId(), (id, pendientes) -> {
+            pendientes.remove(c.id());
+            return pendientes.isEmpty() ? null : pendientes;
+        });
+    }
+
+    /**
+     * Espera a que todo lo encolado hasta ahora esté en la BD (ej. antes de deshacer un
+     * estado, que lee el historial ya aplicado).
+     */
+    public void vaciar() {
+        if (volcador == null)
+            return;
+        lock.lock();
+        try {
+            if (cola.isEmpty() && !volcando)
+                return;
+            urgente = true; // el volcador lo baja cuando la cola queda vacía
+            loteCompleto.signal();
+            while (!cola.isEmpty() || volcando) {
+                vaciada.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ---- VOLCADO ----
+
+    private void volcar() {
+        while (true) {
+            List<Escritura> lote;
+            lock.lock();
+            try {
+                while (cola.isEmpty() && !cerrada) {
+                    hayEscrituras.awaitUninterruptibly();
+                }
+                if (cola.isEmpty())
+                    return; // cerrada y sin pendientes
+                long espera = maxLatencia.toNanos(); // desde que llegó la primera del lote
+                while (cola.size() < maxLote && !urgente && espera > 0) {
+                    espera = loteCompleto.awaitNanos(espera);
+                }
+                lote = new ArrayList<>(Math.min(cola.size(), maxLote));
+                while (lote.size() < maxLote && !cola.isEmpty()) {
+                    lote.add(cola.pollFirst());
+                }
+                volcando = true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                continue;
+            } finally {
+                lock.unlock();
+            }
+            try {
+                escribirLote(lote);
+            } catch (RuntimeException e) {
+                log.error("Error inesperado al volcar {} escrituras diferidas", lote.size(), e);
+            } finally {
+                lock.lock();
+                try {
+                    volcando = false;
+                    if (cola.isEmpty()) {
+                        urgente = cerrada;
+                        vaciada.signalAll();
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    private void escribirLote(List<Escritura> lote) {
+        List<ComentarioDTO> comentarios = new ArrayList<>();
+        Map<Long, List<EstadoPendiente>> estados = new LinkedHashMap<>(); // por ticket, en orden de llegada
+        for (Escritura e : lote) {
+            switch (e) {
+                case ComentarioPendiente c -> comentarios.add(c.comentario());
+                case EstadoPendiente s -> estados.computeIfAbsent(s.ticketId(), k -> new ArrayList<>()).add(s);
+            }
+        }
+        long inicio = System.nanoTime();
+        Set<Long> sinTicket = new LinkedHashSet<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                insertarComentarios(comentarios);
+                sinTicket.addAll(aplicarEstados(estados));
+            });
+        } catch (RuntimeException e) {
+            // un ticket borrado mientras tanto hace fallar el lote entero: se reintenta de a uno
+            log.warn("Lote de {} escrituras diferidas rechazado ({}), se reintenta de a una",
+                    lote.size(), e.getMessage());
+            sinTicket.clear();
+            comentarios.removeIf(c -> !intentar(() -> insertarComentarios(List.of(c)), "comentario " + c.id()));
+            estados.entrySet().removeIf(par -> !intentar(
+                    () -> sinTicket.addAll(aplicarEstados(Map.of(par.getKey(), par.getValue()))),
+                    "estado del ticket " + par.getKey()));
+        }
+        if (!sinTicket.isEmpty()) {
+            log.warn("Estados diferidos descartados: los tickets {} ya no existen", sinTicket);
+            estados.keySet().removeAll(sinTicket); // no publicar su cambio
+        }
+        log.debug("Volcadas {} escrituras diferidas ({} comentarios, {} tickets) en {} ms", lote.size(),
+                comentarios.size(), estados.size(), (System.nanoTime() - inicio) / 1_000_000);
+        comentarios.forEach(this::quitarPendiente);
+        publicar(comentarios, estados);
+        // sin transacción los listeners corren al publicar: recién ahora los índices están al día
+        lote.stream().map(Escritura::ticketId).distinct().forEach(versionesService::ticketModificado);
+    }
+
+    private boolean intentar(Runnable escritura, String descripcion) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> escritura.run());
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Escritura diferida descartada ({}): {}", descripcion, e.getMessage());
+            return false;
+        }
+    }
+
+    private void insertarComentarios(List<ComentarioDTO> comentarios) {
+        if (comentarios.isEmpty())
+            return;
+        jdbcTemplate.batchUpdate(INSERTAR_COMENTARIO, comentarios, comentarios.size(), (ps, c) -> {
+            ps.setLong(1, c.id());
+            ps.setString(2, c.texto());
+            ps.setTimestamp(3, Timestamp.valueOf(c.fecha()));
+            ps.setLong(4, c.ticketId());
+            ps.setLong(5, c.usuarioId());
+        });
+    }
+
+    /**
+     * Un UPDATE por ticket con el último estado encolado. Devuelve los tickets que ya
+     * no existen (el UPDATE tocó 0 filas); el mapa no se modifica.
+     */
+    private List<Long> aplicarEstados(Map<Long, List<EstadoPendiente>> estados) {
+        if (estados.isEmpty())
+            return List.of();
+        List<Long> ids = List.copyOf(estados.keySet());
+        int[][] filas = jdbcTemplate.batchUpdate(CAMBIAR_ESTADO, ids, ids.size(), (ps, id) -> {
+            List<EstadoPendiente> cambios = estados.get(id);
+            ps.setString(1, cambios.get(cambios.size() - 1).estado().name());
+            ps.setLong(2, id);
+        });
+        List<Long> sinTicket = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            if (filas[0][i] == 0)
+                sinTicket.add(ids.get(i));
+        }
+        return sinTicket;
+    }
+
+    /**
+     * Ya confirmado el lote: un ComentarioCreadoEvent por comentario (el índice de
+     * búsqueda suma cada texto al ticket) y un TicketCambiadoEvent por cada estado
+     * encolado, en orden.
+     */
+    private void publicar(List<ComentarioDTO> comentarios, Map<Long, List<EstadoPendiente>> estados) {
+        comentarios.forEach(c ->
+                eventPublisher.publishEvent(new ComentarioCreadoEvent(c.ticketId(), c.id(), c.texto())));
+
+        Set<Long> tickets = new LinkedHashSet<>(estados.keySet());
+        for (Long id : tickets) {
+            Ticket actual = indiceTicketsService.buscarEnBST(id);
+            if (actual == null)
+                continue; // borrado entre el UPDATE y ahora: su ELIMINADO ya se publicó
+            for (EstadoPendiente cambio : estados.get(id)) {
+                Ticket copia = new Ticket(actual.getId(), actual.getTitulo(), actual.getDescripcion(),
+                        actual.getPrioridad(), cambio.estado(), actual.getFechaCreacion(), actual.getVersion(),
+                        actual.getUsuario(), actual.getCategoria());
+                eventPublisher.publishEvent(new TicketCambiadoEvent(TicketCambiadoEvent.Tipo.ACTUALIZADO, id, copia));
+            }
+        }
+    }
+}
@@ -1,126 +1,270 @@
 package com.ticket.service;
 
 import com.ticket.datastructures.*;
+import com.ticket.dto.TicketResumenDTO;
+import com.ticket.event.UsuarioCreadoEvent;
+import com.ticket.model.Estado;
 import com.ticket.model.Ticket;
 import com.ticket.model.Usuario;
-import com.ticket.repository.TicketRepository;
 import com.ticket.repository.UsuarioRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class EstructurasService {
 
-    private final TicketRepository ticketRepository;
     private final UsuarioRepository usuarioRepository;
+    private final IndiceTicketsService indiceTicketsService;
+    private final TicketService ticketService;
+    private final HistorialEstadosService historialEstadosService;
+    private final EscrituraDiferidaService escrituraDiferida;
 
-    // Pilas de historial en memoria (una por ticket), persisten durante la sesión
-    private final Map<Long, PilaTickets> pilasPorTicket = new HashMap<>();
+    @Value("${estructuras.hash.modo:encadenamiento}")
+    private String modoHash; // "encadenamiento" o "sondeo"
 
-    public ListaEnlazadaTickets construirListaEnlazada() {
-        log.info("[ListaEnlazada] Cargando tickets de la BD y construyendo lista enlazada");
-        List<Ticket> tickets = ticketRepository.findAll();
-        ListaEnlazadaTickets lista = new ListaEnlazadaTickets();
-        for (Ticket t : tickets) {
-            lista.agregar(t);
-        }
-        log.info("[ListaEnlazada] Lista construida con {} nodos", lista.getTamanio());
-        return lista;
+    @Value("${estructuras.hash.factor-carga:0.75}")
+    private double factorCargaHash;
+
+    private final ReentrantLock lockHash = new ReentrantLock();
+    private TablaUsuarios tablaUsuarios;
+
+    /**
+     * Los recorridos devuelven resúmenes: los tickets en memoria ya tienen usuario y
+     * categoría cargados, así que convertirlos no toca la BD y la respuesta no arrastra
+     * descripciones ni los datos completos del usuario.
+     */
+    private static List<TicketResumenDTO> resumir(List<Ticket> tickets) {
+        return tickets.stream().map(TicketResumenDTO::de).toList();
+    }
+
+    public List<TicketResumenDTO> recorrerLista() {
+        log.info("[ListaEnlazada] Recorriendo la lista enlazada en memoria");
+        return resumir(indiceTicketsService.recorrerLista());
     }
 
     public Ticket buscarEnLista(Long id) {
-        log.info("[ListaEnlazada] Búsqueda lineal por ID: {}", id);
-        return construirListaEnlazada().buscarPorId(id);
+        log.info("[ListaEnlazada] Búsqueda por ID (modo {}): {}", modoLista(), id);
+        return indiceTicketsService.buscarEnLista(id);
+    }
+
+    /**
+     * "indexada", "lineal" o "bloques" (ver estructuras.lista.modo).
+     */
+    public String modoLista() {
+        return indiceTicketsService.getModoLista();
     }
 
+    public int tamanioBloqueLista() {
+        return indiceTicketsService.getTamanioBloqueLista();
+    }
+
+    /**
+     * Copia de la pila del ticket: se puede recorrer sin bloquear a quien apila o desapila.
+     */
     public PilaTickets obtenerPila(Long ticketId) {
-        if (!pilasPorTicket.containsKey(ticketId)) {
-            PilaTickets pila = new PilaTickets(ticketId);
-            // inicializar con el estado actual del ticket desde la BD
-            ticketRepository.findById(ticketId).ifPresent(t -> {
-                pila.push(t.getEstado().name());
-                log.info("[Pila] Pila inicializada con estado '{}' para ticket {}", t.getEstado(), ticketId);
-            });
-            pilasPorTicket.put(ticketId, pila);
-        }
-        return pilasPorTicket.get(ticketId);
+        return historialEstadosService.obtener(ticketId);
     }
 
-    public List<String> pushEstado(Long ticketId, String nuevoEstado) {
-        PilaTickets pila = obtenerPila(ticketId);
-        pila.push(nuevoEstado);
+    /**
+     * PUSH: cambia el estado del ticket en la BD; al confirmarse, el cambio se apila
+     * y se registra en disco (HistorialEstadosService escucha TicketCambiadoEvent).
+     * Devuelve null si el ticket no existe.
+     */
+    public List<String> pushEstado(Long ticketId, Estado nuevoEstado) {
+        if (ticketService.cambiarEstado(ticketId, nuevoEstado).isEmpty()) {
+            log.warn("[Pila] El ticket {} no existe", ticketId);
+            return null;
+        }
         log.info("[Pila] Estado '{}' apilado en ticket {}", nuevoEstado, ticketId);
-        return pila.obtenerHistorial();
+        return historialEstadosService.obtener(ticketId).obtenerHistorial();
+    }
+
+    public boolean escrituraDiferida() {
+        return escrituraDiferida.isHabilitada();
     }
 
-    public String popEstado(Long ticketId) {
-        PilaTickets pila = obtenerPila(ticketId);
-        NodoPila retirado = pila.pop();
-        if (retirado == null) {
-            log.warn("[Pila] La pila del ticket {} está vacía", ticketId);
+    /**
+     * PUSH con escritura diferida: el cambio se encola y se aplica (y apila) en el
+     * próximo lote. Devuelve el número de la escritura, o null si el ticket no existe.
+     */
+    public Long encolarEstado(Long ticketId, Estado nuevoEstado) {
+        Long numero = escrituraDiferida.encolarEstado(ticketId, nuevoEstado);
+        if (numero == null) {
+            log.warn("[Pila] El ticket {} no existe", ticketId);
+        } else {
+            log.info("[Pila] Estado '{}' encolado para el ticket {} (escritura {})", nuevoEstado, ticketId, numero);
+        }
+        return numero;
+    }
+
+    /**
+     * POP: deshace el último cambio de estado y devuelve el ticket al estado anterior.
+     * Con escritura diferida, primero se vuelcan los cambios encolados para deshacer
+     * sobre el historial real. Devuelve null si el ticket no existe y un Deshecho sin
+     * 'retirado' si no hay un estado anterior.
+     */
+    public HistorialEstadosService.Deshecho popEstado(Long ticketId) {
+        escrituraDiferida.vaciar();
+        HistorialEstadosService.Deshecho deshecho = ticketService.deshacerEstado(ticketId).orElse(null);
+        if (deshecho == null) {
+            log.warn("[Pila] El ticket {} no existe", ticketId);
             return null;
         }
-        log.info("[Pila] Estado '{}' retirado del ticket {}", retirado.estado, ticketId);
-        return retirado.estado;
-    }
-
-    public ColaTickets construirCola() {
-        log.info("[Cola] Construyendo cola FIFO de tickets pendientes");
-        List<Ticket> tickets = ticketRepository.findAll();
-        // Filtrar solo tickets abiertos y ordenar por fecha de creación
-        ColaTickets cola = new ColaTickets();
-        tickets.stream()
-                .filter(t -> t.getEstado() != null &&
-                        t.getEstado().name().equals("ABIERTO"))
-                .sorted((a, b) -> {
-                    if (a.getFechaCreacion() == null)
-                        return 1;
-                    if (b.getFechaCreacion() == null)
-                        return -1;
-                    return a.getFechaCreacion().compareTo(b.getFechaCreacion());
-                })
-                .forEach(cola::encolar);
-        log.info("[Cola] Cola construida con {} tickets", cola.getTamanio());
-        return cola;
-    }
-
-    public ArbolBSTTickets construirBST() {
-        log.info("[BST] Construyendo árbol BST con tickets de la BD");
-        List<Ticket> tickets = ticketRepository.findAll();
-        ArbolBSTTickets arbol = new ArbolBSTTickets();
-        for (Ticket t : tickets) {
-            arbol.insertar(t);
+        if (deshecho.getRetirado() == null) {
+            log.warn("[Pila] La pila del ticket {} no tiene un estado anterior", ticketId);
+            return deshecho;
         }
-        log.info("[BST] Árbol construido con {} nodos", tickets.size());
-        return arbol;
+        log.info("[Pila] Estado '{}' retirado del ticket {}, vuelve a '{}'",
+                deshecho.getRetirado(), ticketId, deshecho.getRestaurado());
+        return deshecho;
+    }
+
+    public EstadisticasPilas estadisticasPilas() {
+        return historialEstadosService.estadisticasPilas();
+    }
+
+    public EstadisticasRegistro estadisticasRegistro() {
+        return historialEstadosService.estadisticasRegistro();
+    }
+
+    public List<TicketResumenDTO> obtenerCola() {
+        log.info("[Cola] Consultando cola de prioridad de tickets pendientes");
+        return resumir(indiceTicketsService.obtenerCola());
+    }
+
+    public Ticket verFrenteCola() {
+        return indiceTicketsService.verFrenteCola();
+    }
+
+    public Ticket atenderCola() {
+        log.info("[Cola] Despachando el próximo ticket de la cola");
+        return ticketService.dispatchNextTicket().orElse(null);
+    }
+
+    public List<TicketResumenDTO> recorrerBSTInorden() {
+        log.info("[BST] Recorrido inorden del árbol en memoria");
+        return resumir(indiceTicketsService.recorrerBSTInorden());
     }
 
     public Ticket buscarEnBST(Long id) {
         log.info("[BST] Búsqueda O(log n) por ID: {}", id);
-        return construirBST().buscar(id);
+        return indiceTicketsService.buscarEnBST(id);
+    }
+
+    public List<TicketResumenDTO> paginaBST(Long despuesDeId, int limite) {
+        log.info("[BST] Página de {} tickets después del ID {}", limite, despuesDeId);
+        return resumir(indiceTicketsService.siguientesEnBST(despuesDeId, limite));
+    }
+
+    public List<TicketResumenDTO> rangoBST(Long desdeId, Long hastaId, int limite) {
+        log.info("[BST] Rango de IDs [{}, {}] (máx. {})", desdeId, hastaId, limite);
+        return resumir(indiceTicketsService.rangoEnBST(desdeId, hastaId, limite));
+    }
+
+    public Ticket pisoBST(Long id) {
+        log.info("[BST] Piso de ID: {}", id);
+        return indiceTicketsService.pisoEnBST(id);
+    }
+
+    public Ticket techoBST(Long id) {
+        log.info("[BST] Techo de ID: {}", id);
+        return indiceTicketsService.techoEnBST(id);
+    }
+
+    // ---- TABLA HASH DE USUARIOS ----
+
+    /**
+     * La tabla se carga al terminar el arranque (así incluye a los usuarios que
+     * DataInitializer crea) y luego se mantiene con UsuarioCreadoEvent: ninguna
+     * petición a /api/estructuras/hash espera el findAll() con el lock tomado.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargarTablaHash() {
+        lockHash.lock();
+        try {
+            tablaOCargar();
+        } finally {
+            lockHash.unlock();
+        }
     }
 
-    public TablaHashUsuarios construirTablaHash() {
-        log.info("[Hash] Construyendo tabla hash de usuarios");
-        List<Usuario> usuarios = usuarioRepository.findAll();
-        TablaHashUsuarios tabla = new TablaHashUsuarios();
-        for (Usuario u : usuarios) {
-            tabla.insertar(u);
+    /**
+     * Lleva un lock exclusivo incluso para buscar, porque cada operación avanza
+     * el rehash incremental.
+     */
+    private TablaUsuarios tablaOCargar() {
+        if (tablaUsuarios == null) {
+            log.info("[Hash] Construyendo tabla hash de usuarios (modo {}, factor de carga {})",
+                    modoHash, factorCargaHash);
+            TablaUsuarios tabla = "sondeo".equalsIgnoreCase(modoHash)
+                    ? new TablaHashUsuariosSondeo(16, factorCargaHash)
+                    : new TablaHashUsuarios(16, factorCargaHash);
+            for (Usuario u : usuarioRepository.findAll()) {
+                tabla.insertar(u);
+            }
+            log.info("[Hash] Tabla construida con {} usuarios en {} posiciones",
+                    tabla.getTamanio(), tabla.getCapacidad());
+            tablaUsuarios = tabla;
+        }
+        return tablaUsuarios;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUsuarioCreado(UsuarioCreadoEvent evento) {
+        lockHash.lock();
+        try {
+            if (tablaUsuarios != null) { // si aún no se cargó, la carga lo incluirá
+                tablaUsuarios.insertar(evento.getUsuario());
+            }
+        } finally {
+            lockHash.unlock();
+        }
+    }
+
+    public List<TablaHashUsuarios.UsuarioHashInfo> obtenerEntradasHash() {
+        lockHash.lock();
+        try {
+            return tablaOCargar().obtenerTodos();
+        } finally {
+            lockHash.unlock();
+        }
+    }
+
+    public EstadisticasHash estadisticasHash() {
+        lockHash.lock();
+        try {
+            return tablaOCargar().estadisticas();
+        } finally {
+            lockHash.unlock();
         }
-        log.info("[Hash] Tabla construida con {} usuarios en {} cubetas",
-                tabla.getTamanio(), tabla.getCapacidad());
-        return tabla;
     }
 
     public Usuario buscarEnHash(String email) {
         log.info("[Hash] Búsqueda por email: {}", email);
-        return construirTablaHash().buscar(email);
+        lockHash.lock();
+        try {
+            return tablaOCargar().buscar(email);
+        } finally {
+            lockHash.unlock();
+        }
+    }
+
+    public int indiceEnHash(String email) {
+        lockHash.lock();
+        try {
+            return tablaOCargar().indiceDe(email);
+        } finally {
+            lockHash.unlock();
+        }
     }
 }
@@ -0,0 +1,230 @@
+package com.ticket.service;
+
+import com.ticket.datastructures.BufferCircularEventos;
+import com.ticket.datastructures.BufferCircularEventos.Entrada;
+import com.ticket.dto.EventoTicketDTO;
+import com.ticket.dto.TicketResumenDTO;
+import com.ticket.event.TicketCambiadoEvent;
+import com.ticket.event.TicketsImportadosEvent;
+import com.ticket.model.Categoria;
+import com.ticket.model.Ticket;
+import com.ticket.model.Usuario;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Flujo de cambios de tickets por Server-Sent Events, para que las consolas dejen de
+ * consultar el listado y la cola cada pocos segundos. Cada cambio confirmado (alta,
+ * edición, baja, despacho) se guarda con un ID creciente en un buffer circular y se
+ * reparte a los suscriptores:
+ * - cada suscriptor tiene su propia cola acotada y un hilo virtual que le escribe, así
+ *   un cliente lento no frena al que confirma la transacción ni a los demás;
+ * - si su cola se llena se descarta lo pendiente y se le manda un RESYNC;
+ * - al reconectar con Last-Event-ID se le reenvía lo que se perdió si sigue en el
+ *   buffer; si no, un RESYNC.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EventosTicketsService {
+
+    public static final String RESYNC = "RESYNC";
+
+    private final UsuarioService usuarioService;
+    private final CategoriaService categoriaService;
+
+    @Value("${eventos.sse.historial:10000}")
+    private int tamanioHistorial;
+
+    @Value("${eventos.sse.buffer-suscriptor:256}")
+    private int bufferSuscriptor;
+
+    @Value("${eventos.sse.max-suscriptores:1000}")
+    private int maxSuscriptores;
+
+    @Value("${eventos.sse.latido:15s}")
+    private Duration latido;
+
+    @Value("${eventos.sse.timeout:30m}")
+    private Duration timeout;
+
+    // agregar al historial y repartir, o reenviar y registrar un suscriptor, es atómico:
+    // un suscriptor nuevo no pierde ni recibe dos veces un evento publicado en el medio
+    private final ReentrantLock lock = new ReentrantLock();
+    private BufferCircularEventos<EventoTicketDTO> historial;
+    private final Set<Suscriptor> suscriptores = ConcurrentHashMap.newKeySet();
+    private final LongAdder resincronizaciones = new LongAdder();
+
+    @PostConstruct
+    void iniciar() {
+        // IDs a partir de la hora: un Last-Event-ID de un arranque anterior queda fuera del buffer
+        historial = new BufferCircularEventos<>(tamanioHistorial, System.currentTimeMillis() * 1000);
+    }
+
+    @PreDestroy
+    void cerrar() {
+        suscriptores.forEach(s -> s.emitter.complete());
+    }
+
+    /**
+     * Nueva suscripción. Con 'ultimoId' (Last-Event-ID) primero recibe lo que se perdió.
+     * Devuelve vacío si ya hay max-suscriptores conectados.
+     */
+    public Optional<SseEmitter> suscribir(Long ultimoId) {
+        Suscriptor s = new Suscriptor(new SseEmitter(timeout.toMillis()));
+        lock.lock();
+        try {
+            if (suscriptores.size() >= maxSuscriptores)
+                return Optional.empty();
+            if (ultimoId != null) {
+                historial.despuesDe(ultimoId).ifPresentOrElse(
+                        perdidos -> perdidos.forEach(s::ofrecer),
+                        () -> s.ofrecer(new Entrada<>(historial.ultimoId(),
+                                resync("El evento " + ultimoId + " ya no está en el historial"))));
+            }
+            suscriptores.add(s);
+        } finally {
+            lock.unlock();
+        }
+        s.emitter.onCompletion(s::cerrar);
+        s.emitter.onTimeout(s::cerrar);
+        s.emitter.onError(e -> s.cerrar());
+        Thread.ofVirtual().name("sse-suscriptor").start(s::enviar);
+        log.debug("[SSE] Suscriptor nuevo desde el evento {} ({} conectados)", ultimoId, suscriptores.size());
+        return Optional.of(s.emitter);
+    }
+
+    public int getSuscriptores() {
+        return suscriptores.size();
+    }
+
+    public long getResincronizaciones() {
+        return resincronizaciones.sum();
+    }
+
+    // ---- PUBLICACIÓN ----
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(VersionesService.ORDEN_AVISOS)
+    public void onTicketCambiado(TicketCambiadoEvent evento) {
+        Ticket t = evento.getTicket();
+        publicar(new EventoTicketDTO(evento.getTipo().name(), evento.getTicketId(),
+                t != null ? resumir(t) : null, null));
+    }
+
+    /**
+     * Una importación masiva no se reparte ticket por ticket: un RESYNC y que cada
+     * consola recargue el listado una vez.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(VersionesService.ORDEN_AVISOS)
+    public void onTicketsImportados(TicketsImportadosEvent evento) {
+        publicar(resync(evento.getTickets().size() + " tickets importados"));
+    }
+
+    private void publicar(EventoTicketDTO evento) {
+        lock.lock();
+        try {
+            Entrada<EventoTicketDTO> entrada = new Entrada<>(historial.agregar(evento), evento);
+            suscriptores.forEach(s -> s.ofrecer(entrada));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static EventoTicketDTO resync(String motivo) {
+        return new EventoTicketDTO(RESYNC, null, null, motivo);
+    }
+
+    /**
+     * Resumen sin ir a la BD: si usuario o categoría no vienen cargados (proxy, o solo
+     * el ID como llegan en el JSON de alta) el nombre sale de la caché de referencia.
+     */
+    private TicketResumenDTO resumir(Ticket t) {
+        return new TicketResumenDTO(t.getId(), t.getTitulo(), t.getPrioridad(), t.getEstado(), t.getFechaCreacion(),
+                nombre(t.getCategoria(), Categoria::getId, Categoria::getNombre, categoriaService::obtenerPorId),
+                nombre(t.getUsuario(), Usuario::getId, Usuario::getNombre, usuarioService::obtenerPorId));
+    }
+
+    private static <E> String nombre(E entidad, Function<E, Long> id, Function<E, String> nombre,
+            Function<Long, Optional<E>> cache) {
+        if (entidad == null)
+            return null;
+        if (Hibernate.isInitialized(entidad) && nombre.apply(entidad) != null)
+            return nombre.apply(entidad);
+        return cache.apply(id.apply(entidad)).map(nombre).orElse(null);
+    }
+
+    // ---- SUSCRIPTORES ----
+
+    private final class Suscriptor {
+
+        final SseEmitter emitter;
+        final ArrayBlockingQueue<Entrada<EventoTicketDTO>> cola = new ArrayBlockingQueue<>(bufferSuscriptor);
+        volatile boolean cerrado;
+
+        Suscriptor(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        /**
+         * Con el lock del servicio tomado. Si no entra, el cliente va demasiado atrasado:
+         * se descarta lo pendiente y se le pide recargar; sigue desde este evento.
+         */
+        void ofrecer(Entrada<EventoTicketDTO> entrada) {
+            if (cola.offer(entrada))
+                return;
+            cola.clear();
+            cola.offer(new Entrada<>(entrada.id(), resync("Consumidor lento: se descartaron eventos")));
+            resincronizaciones.increment();
+        }
+
+        void enviar() {
+            try {
+                emitter.send(SseEmitter.event().comment("conectado").reconnectTime(3000));
+                while (!cerrado) {
+                    Entrada<EventoTicketDTO> e = cola.poll(latido.toMillis(), TimeUnit.MILLISECONDS);
+                    if (e == null) {
+                        emitter.send(SseEmitter.event().comment("latido")); // también detecta clientes caídos
+                    } else {
+                        emitter.send(SseEmitter.event()
+                                .id(Long.toString(e.id()))
+                                .name(e.dato().tipo())
+                                .data(e.dato(), MediaType.APPLICATION_JSON));
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.debug("[SSE] Suscriptor desconectado: {}", e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                cerrar();
+            }
+        }
+
+        void cerrar() {
+            cerrado = true;
+            suscriptores.remove(this);
+        }
+    }
+}
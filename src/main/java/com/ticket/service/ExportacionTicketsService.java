@@ -0,0 +1,190 @@
+package com.ticket.service;
+
+import com.ticket.model.Categoria;
+import com.ticket.model.Ticket;
+import com.ticket.model.Usuario;
+import com.ticket.repository.FiltroTickets;
+import com.ticket.repository.TicketRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.json.JsonFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Exportación completa de tickets con memoria constante: se recorre un cursor de la BD
+ * de a 'fetch-size' filas y cada ticket se escribe en la respuesta y se suelta del
+ * contexto de persistencia antes de leer el siguiente. Nunca se arma la lista entera.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExportacionTicketsService {
+
+    public enum Formato {
+        NDJSON, CSV
+    }
+
+    private static final String[] COLUMNAS = { "id", "titulo", "descripcion", "prioridad", "estado",
+            "fechaCreacion", "usuarioId", "usuarioNombre", "categoriaId", "categoriaNombre" };
+
+    // sin separador entre valores raíz: el salto de línea lo escribe exportar después de cada ticket
+    private static final JsonFactory JSON = JsonFactory.builder().rootValueSeparator("").build();
+
+    private final TicketRepository ticketRepository;
+    private final EntityManager entityManager;
+
+    @Value("${tickets.exportacion.fetch-size:500}")
+    private int fetchSize;
+
+    /**
+     * Escribe en 'salida' todos los tickets que cumplan el filtro, ordenados por ID.
+     * Devuelve cuántos se exportaron. No cierra 'salida'.
+     */
+    @Transactional(readOnly = true)
+    public long exportar(FiltroTickets filtro, Formato formato, OutputStream salida) throws IOException {
+        long exportados = 0;
+        try (Stream<Ticket> tickets = ticketRepository.streamPorFiltro(filtro, fetchSize);
+                Escritor escritor = formato == Formato.NDJSON ? new EscritorNdjson(salida) : new EscritorCsv(salida)) {
+            Iterator<Ticket> it = tickets.iterator();
+            while (it.hasNext()) {
+                Ticket ticket = it.next();
+                escritor.escribir(ticket);
+                entityManager.detach(ticket);
+                if (++exportados % fetchSize == 0) {
+                    // usuarios y categorías también quedan en el contexto; vaciarlo cada lote
+                    entityManager.clear();
+                    escritor.flush();
+                }
+            }
+        }
+        log.info("Exportados {} tickets en {} con filtro {}", exportados, formato, filtro);
+        return exportados;
+    }
+
+    private interface Escritor extends AutoCloseable {
+        void escribir(Ticket ticket) throws IOException;
+
+        void flush() throws IOException;
+
+        @Override
+        void close() throws IOException;
+    }
+
+    /**
+     * Un objeto JSON por línea. Se escribe campo a campo con el generador, sin
+     * pasar por el ObjectMapper ni construir un árbol intermedio.
+     */
+    private static class EscritorNdjson implements Escritor {
+        private final JsonGenerator json;
+
+        EscritorNdjson(OutputStream salida) {
+            this.json = JSON.createGenerator(salida);
+        }
+
+        @Override
+        public void escribir(Ticket t) {
+            Usuario u = t.getUsuario();
+            Categoria c = t.getCategoria();
+            json.writeStartObject();
+            json.writeNumberProperty("id", t.getId());
+            json.writeStringProperty("titulo", t.getTitulo());
+            json.writeStringProperty("descripcion", t.getDescripcion());
+            json.writeStringProperty("prioridad", t.getPrioridad() != null ? t.getPrioridad().name() : null);
+            json.writeStringProperty("estado", t.getEstado() != null ? t.getEstado().name() : null);
+            json.writeStringProperty("fechaCreacion",
+                    t.getFechaCreacion() != null ? t.getFechaCreacion().toString() : null);
+            if (u != null) {
+                json.writeNumberProperty("usuarioId", u.getId());
+                json.writeStringProperty("usuarioNombre", u.getNombre());
+            } else {
+                json.writeNullProperty("usuarioId");
+                json.writeNullProperty("usuarioNombre");
+            }
+            if (c != null) {
+                json.writeNumberProperty("categoriaId", c.getId());
+                json.writeStringProperty("categoriaNombre", c.getNombre());
+            } else {
+                json.writeNullProperty("categoriaId");
+                json.writeNullProperty("categoriaNombre");
+            }
+            json.writeEndObject();
+            json.writeRaw('\n');
+        }
+
+        @Override
+        public void flush() {
+            json.flush();
+        }
+
+        @Override
+        public void close() {
+            json.flush(); // no cerrar la salida: es de quien llama
+        }
+    }
+
+    /**
+     * CSV (RFC 4180) con cabecera; los campos con coma, comillas o saltos de línea van entre comillas.
+     */
+    private static class EscritorCsv implements Escritor {
+        private final Writer out;
+
+        EscritorCsv(OutputStream salida) throws IOException {
+            this.out = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8), 16 * 1024);
+            out.write(String.join(",", COLUMNAS));
+            out.write("\r\n");
+        }
+
+        @Override
+        public void escribir(Ticket t) throws IOException {
+            Usuario u = t.getUsuario();
+            Categoria c = t.getCategoria();
+            campo(t.getId(), false);
+            campo(t.getTitulo(), false);
+            campo(t.getDescripcion(), false);
+            campo(t.getPrioridad(), false);
+            campo(t.getEstado(), false);
+            campo(t.getFechaCreacion(), false);
+            campo(u != null ? u.getId() : null, false);
+            campo(u != null ? u.getNombre() : null, false);
+            campo(c != null ? c.getId() : null, false);
+            campo(c != null ? c.getNombre() : null, true);
+        }
+
+        private void campo(Object valor, boolean ultimo) throws IOException {
+            if (valor != null) {
+                String s = valor.toString();
+                if (s.indexOf(',') >= 0 || s.indexOf('"') >= 0 || s.indexOf('\n') >= 0 || s.indexOf('\r') >= 0) {
+                    out.write('"');
+                    out.write(s.replace("\"", "\"\""));
+                    out.write('"');
+                } else {
+                    out.write(s);
+                }
+            }
+            out.write(ultimo ? "\r\n" : ",");
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.ticket.service;
+
+import com.ticket.datastructures.*;
+import com.ticket.event.TicketCambiadoEvent;
+import com.ticket.event.TicketsImportadosEvent;
+import com.ticket.model.Estado;
+import com.ticket.model.Ticket;
+import com.ticket.repository.TicketRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.function.BiPredicate;
+
+/**
+ * Historial de estados de cada ticket: una pila en memoria (acotada, LRU) respaldada
+ * por un registro en disco de solo agregado. Toda transición de Ticket.estado que
+ * publica TicketService queda registrada; la pila de un ticket que no está en memoria
+ * se reconstruye leyendo el registro, así el historial sobrevive a desalojos y reinicios.
+ */
+@Service
+@Slf4j
+public class HistorialEstadosService {
+
+    private final TicketRepository ticketRepository;
+    // el ejecutor de la aplicación: hilos virtuales si spring.threads.virtual.enabled=true
+    private final TaskExecutor ejecutor;
+
+    @Value("${estructuras.pila.max-tickets:10000}")
+    private int maxPilas;
+
+    @Value("${estructuras.pila.max-profundidad:100}")
+    private int maxProfundidad;
+
+    @Value("${estructuras.registro.directorio:data/transiciones}")
+    private String directorioRegistro;
+
+    @Value("${estructuras.registro.registros-por-segmento:65536}")
+    private int registrosPorSegmento;
+
+    @Value("${estructuras.registro.segmentos-para-compactar:8}")
+    private int segmentosParaCompactar;
+
+    private RegistroTransiciones registro;
+    private AlmacenPilasTickets pilas;
+
+    public HistorialEstadosService(TicketRepository ticketRepository,
+            @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) TaskExecutor ejecutor) {
+        this.ticketRepository = ticketRepository;
+        this.ejecutor = ejecutor;
+    }
+
+    /**
+     * Resultado de deshacer: el estado retirado del tope y el que queda vigente.
+     * 'retirado' es null si no había un estado anterior al que volver.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Deshecho {
+        private final String retirado;
+        private final Estado restaurado;
+    }
+
+    @PostConstruct
+    void abrir() throws IOException {
+        registro = new RegistroTransiciones(Path.of(directorioRegistro), registrosPorSegmento,
+                maxProfundidad, segmentosParaCompactar);
+        pilas = new AlmacenPilasTickets(maxPilas, maxProfundidad, this::inicializarPila,
+                pila -> log.debug("[Pila] Historial del ticket {} desalojado de memoria ({} estados)",
+                        pila.getTicketId(), pila.getTamanio()));
+        EstadisticasRegistro e = registro.estadisticas();
+        log.info("[Pila] Registro de transiciones en {}: {} registros en {} segmentos",
+                e.directorio, e.registros, e.segmentos);
+    }
+
+    @PreDestroy
+    void cerrar() throws IOException {
+        registro.close();
+    }
+
+    private void inicializarPila(PilaTickets pila) {
+        inicializarPila(pila, null);
+    }
+
+    /**
+     * Rellena la pila de un ticket que no está en memoria. Primero se reproduce el
+     * registro; si el ticket nunca pasó por él (ej. recién creado, o creado antes de
+     * existir el registro) y quien llama trae su estado 'vigente', la pila queda vacía
+     * y ese estado se apila después como base. Solo sin 'vigente' (una consulta) se lee
+     * el estado actual de la BD y se registra como base.
+     */
+    private void inicializarPila(PilaTickets pila, Estado vigente) {
+        Long ticketId = pila.getTicketId();
+        List<RegistroTransiciones.Transicion> transiciones = registro.reconstruir(ticketId);
+        if (!transiciones.isEmpty()) {
+            for (RegistroTransiciones.Transicion t : transiciones) {
+                pila.push(Estado.values()[t.estado].name(), marcaDeTiempo(t.epochMillis));
+            }
+            log.debug("[Pila] Historial del ticket {} reconstruido desde el registro ({} estados)",
+                    ticketId, transiciones.size());
+            return;
+        }
+        if (vigente != null)
+            return;
+        ticketRepository.findById(ticketId).ifPresent(t -> {
+            if (t.getEstado() == null)
+                return;
+            long ahora = System.currentTimeMillis();
+            registro.agregar(ticketId, t.getEstado().ordinal(), ahora);
+            pila.push(t.getEstado().name(), marcaDeTiempo(ahora));
+            log.info("[Pila] Pila inicializada con estado '{}' para ticket {}", t.getEstado(), ticketId);
+        });
+    }
+
+    private static String marcaDeTiempo(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault()).toString();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(VersionesService.ORDEN_INDICES)
+    public void onTicketCambiado(TicketCambiadoEvent evento) {
+        Long ticketId = evento.getTicketId();
+        if (evento.getTipo() == TicketCambiadoEvent.Tipo.CREADO || evento.getTipo() == TicketCambiadoEvent.Tipo.ELIMINADO) {
+            // al eliminar no dejar historiales huérfanos; al crear, olvidar el de un ID reutilizado
+            // (ej. una BD en memoria que se reinició pero el registro en disco no)
+            olvidar(ticketId, System.currentTimeMillis());
+        }
+        if (evento.getTipo() != TicketCambiadoEvent.Tipo.ELIMINADO && !evento.isHistorialAplicado()
+                && evento.getTicket().getEstado() != null) {
+            registrarTransicion(ticketId, evento.getTicket().getEstado());
+        }
+        compactarSiHaceFalta();
+    }
+
+    /**
+     * Tickets de la importación masiva: solo se registra su estado inicial en disco
+     * (sin cargar pilas en memoria); la pila se arma la primera vez que se consulte.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(VersionesService.ORDEN_INDICES)
+    public void onTicketsImportados(TicketsImportadosEvent evento) {
+        long ahora = System.currentTimeMillis();
+        for (Ticket t : evento.getTickets()) {
+            olvidar(t.getId(), ahora); // por si el ID se reutiliza
+            registro.agregar(t.getId(), t.getEstado().ordinal(), ahora);
+        }
+        compactarSiHaceFalta();
+    }
+
+    /**
+     * Registra BORRADO y descarta la pila solo si el ticket tiene historial: un ID nuevo
+     * (el caso normal al crear) no agrega nada al registro.
+     */
+    private void olvidar(Long ticketId, long ahora) {
+        if (!registro.tieneHistorial(ticketId))
+            return;
+        registro.agregar(ticketId, RegistroTransiciones.BORRADO, ahora);
+        pilas.descartar(ticketId);
+    }
+
+    /**
+     * Apila y registra 'estado' si es distinto del tope (editar el título no es una transición).
+     */
+    private void registrarTransicion(Long ticketId, Estado estado) {
+        pilas.conPila(ticketId, pila -> inicializarPila(pila, estado), pila -> {
+            NodoPila tope = pila.peek();
+            if (tope == null || !tope.estado.equals(estado.name())) {
+                long ahora = System.currentTimeMillis();
+                registro.agregar(ticketId, estado.ordinal(), ahora);
+                pila.push(estado.name(), marcaDeTiempo(ahora));
+                log.info("[Pila] Transición del ticket {} a '{}' registrada", ticketId, estado);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Copia de la pila del ticket: se puede recorrer sin bloquear a quien apila o desapila.
+     */
+    public PilaTickets obtener(Long ticketId) {
+        return pilas.obtener(ticketId);
+    }
+
+    /**
+     * Retira el tope y registra el POP, pero solo después de que 'aplicar' escriba en la
+     * BD el estado de abajo: se le pasan (tope, anterior) con el lock de la pila tomado y
+     * devuelve si la escritura tocó el ticket. Así la pila nunca se adelanta a la BD.
+     * Devuelve un Deshecho sin 'retirado' si no hay un estado anterior al que volver (la
+     * base de la pila es el estado vigente), o null si 'aplicar' no pudo escribirlo.
+     */
+    public Deshecho deshacer(Long ticketId, BiPredicate<Estado, Estado> aplicar) {
+        Deshecho deshecho = pilas.conPila(ticketId, pila -> {
+            NodoPila tope = pila.peek();
+            if (pila.getTamanio() < 2)
+                return new Deshecho(null, tope != null ? Estado.valueOf(tope.estado) : null);
+            Estado restaurado = Estado.valueOf(tope.abajo.estado);
+            if (!aplicar.test(Estado.valueOf(tope.estado), restaurado))
+                return null;
+            pila.pop();
+            registro.agregar(ticketId, RegistroTransiciones.POP, System.currentTimeMillis());
+            return new Deshecho(tope.estado, restaurado);
+        });
+        compactarSiHaceFalta();
+        return deshecho;
+    }
+
+    /**
+     * Vuelve a apilar un estado retirado por deshacer cuya escritura en la BD no se confirmó.
+     */
+    public void reapilar(Long ticketId, Estado estado) {
+        registrarTransicion(ticketId, estado);
+    }
+
+    private void compactarSiHaceFalta() {
+        if (!registro.necesitaCompactar())
+            return;
+        ejecutor.execute(() -> {
+            try {
+                if (registro.compactar()) {
+                    EstadisticasRegistro e = registro.estadisticas();
+                    log.info("[Pila] Registro compactado: {} registros en {} segmentos", e.registros, e.segmentos);
+                }
+            } catch (IOException e) {
+                log.error("[Pila] No se pudo compactar el registro de transiciones", e);
+            }
+        });
+    }
+
+    public EstadisticasPilas estadisticasPilas() {
+        return pilas.estadisticas();
+    }
+
+    public EstadisticasRegistro estadisticasRegistro() {
+        return registro.estadisticas();
+    }
+}
@@ -0,0 +1,209 @@
+package com.ticket.service;
+
+import com.ticket.dto.ResultadoImportacionDTO;
+import com.ticket.dto.TicketImportacionDTO;
+import com.ticket.event.TicketsImportadosEvent;
+import com.ticket.model.Categoria;
+import com.ticket.model.Estado;
+import com.ticket.model.Ticket;
+import com.ticket.model.Usuario;
+import com.ticket.repository.CategoriaRepository;
+import com.ticket.repository.TicketRepository;
+import com.ticket.repository.UsuarioRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.exc.StreamReadException;
+import tools.jackson.databind.MappingIterator;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Importación masiva de tickets. La entrada (arreglo JSON o NDJSON) se lee de a un
+ * ticket, nunca entera en memoria, y se inserta en lotes de 'tamanio-lote' con una
+ * transacción por lote: un lote que falla no deshace los anteriores.
+ * Los INSERT de cada lote viajan agrupados (hibernate.jdbc.batch_size) gracias a
+ * que los IDs salen de una secuencia en bloques, sin esperar al INSERT.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ImportacionTicketsService {
+
+    private static final int MAX_FALLOS_DETALLADOS = 100;
+
+    private final TicketRepository ticketRepository;
+    private final UsuarioRepository usuarioRepository;
+    private final CategoriaRepository categoriaRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+
+    @Value("${tickets.importacion.tamanio-lote:1000}")
+    private int tamanioLote;
+
+    private static class Progreso {
+        long recibidos;
+        long insertados;
+        long rechazados;
+        int lotes;
+        final List<ResultadoImportacionDTO.Fallo> fallos = new ArrayList<>();
+
+        void rechazar(long posicion, String motivo) {
+            rechazados++;
+            if (fallos.size() < MAX_FALLOS_DETALLADOS) {
+                fallos.add(new ResultadoImportacionDTO.Fallo(posicion, motivo));
+            }
+        }
+    }
+
+    /**
+     * Lee tickets de 'entrada' hasta agotarla. Un elemento que no se puede convertir
+     * (ej. prioridad desconocida) se rechaza y se sigue con el próximo; un JSON mal
+     * formado corta la lectura, pero lo ya insertado queda.
+     */
+    public ResultadoImportacionDTO importar(InputStream entrada) {
+        long inicio = System.nanoTime();
+        Progreso progreso = new Progreso();
+        List<TicketImportacionDTO> lote = new ArrayList<>(tamanioLote);
+        long inicioLote = 0;
+
+        try (MappingIterator<TicketImportacionDTO> it = objectMapper.readerFor(TicketImportacionDTO.class)
+                .readValues(entrada)) { // acepta un arreglo o valores sueltos separados por saltos de línea
+            while (true) {
+                long posicion = progreso.recibidos;
+                try {
+                    if (!it.hasNextValue())
+                        break;
+                    progreso.recibidos++;
+                    lote.add(it.nextValue());
+                } catch (StreamReadException e) {
+                    progreso.rechazar(posicion, "JSON mal formado, se detuvo la lectura: " + e.getOriginalMessage());
+                    break;
+                } catch (JacksonException e) {
+                    lote.add(null); // conserva la posición; guardarLote lo salta
+                    progreso.rechazar(posicion, "No se pudo leer el ticket: " + e.getOriginalMessage());
+                }
+                if (lote.size() == tamanioLote) {
+                    guardarLote(lote, inicioLote, progreso);
+                    inicioLote += lote.size();
+                    lote.clear();
+                }
+            }
+        }
+        if (!lote.isEmpty()) {
+            guardarLote(lote, inicioLote, progreso);
+        }
+
+        long ms = Math.max(1, (System.nanoTime() - inicio) / 1_000_000);
+        log.info("Importación: {} recibidos, {} insertados, {} rechazados en {} lotes ({} ms, {} tickets/s)",
+                progreso.recibidos, progreso.insertados, progreso.rechazados, progreso.lotes, ms,
+                progreso.insertados * 1000 / ms);
+        return new ResultadoImportacionDTO(progreso.recibidos, progreso.insertados, progreso.rechazados,
+                progreso.lotes, ms, progreso.insertados * 1000 / ms, progreso.fallos);
+    }
+
+    /**
+     * Valida y guarda un lote en su propia transacción. 'inicio' es la posición en la
+     * entrada del primer elemento, para informar los rechazos.
+     */
+    private void guardarLote(List<TicketImportacionDTO> lote, long inicio, Progreso progreso) {
+        progreso.lotes++;
+        List<ResultadoImportacionDTO.Fallo> invalidos = new ArrayList<>();
+        try {
+            int insertados = transactionTemplate.execute(status -> {
+                // una consulta por lote trae los usuarios y categorías referenciados
+                Map<Long, Usuario> usuarios = porId(lote, TicketImportacionDTO::usuarioId,
+                        usuarioRepository::findAllById, Usuario::getId);
+                Map<Long, Categoria> categorias = porId(lote, TicketImportacionDTO::categoriaId,
+                        categoriaRepository::findAllById, Categoria::getId);
+
+                List<Ticket> tickets = new ArrayList<>(lote.size());
+                for (int i = 0; i < lote.size(); i++) {
+                    TicketImportacionDTO dto = lote.get(i);
+                    if (dto == null)
+                        continue; // ya rechazado al leer
+                    String motivo = validar(dto, usuarios, categorias);
+                    if (motivo != null) {
+                        invalidos.add(new ResultadoImportacionDTO.Fallo(inicio + i, motivo));
+                        continue;
+                    }
+                    tickets.add(aTicket(dto, usuarios, categorias));
+                }
+                ticketRepository.saveAll(tickets);
+                entityManager.flush();
+                entityManager.clear(); // el lote siguiente empieza con el contexto vacío
+                // se entrega tras el commit; los tickets ya tienen usuario y categoría cargados
+                eventPublisher.publishEvent(new TicketsImportadosEvent(tickets));
+                return tickets.size();
+            });
+            progreso.insertados += insertados;
+            invalidos.forEach(f -> progreso.rechazar(f.posicion(), f.motivo()));
+        } catch (RuntimeException e) {
+            // el lote entero se deshizo: todo lo que no se había rechazado al leer cuenta como fallo
+            log.warn("Lote de importación desde la posición {} descartado: {}", inicio, e.getMessage());
+            for (int i = 0; i < lote.size(); i++) {
+                if (lote.get(i) != null) {
+                    progreso.rechazar(inicio + i, "Lote descartado por la BD: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static <T> Map<Long, T> porId(List<TicketImportacionDTO> lote,
+            Function<TicketImportacionDTO, Long> campo,
+            Function<Set<Long>, List<T>> cargar,
+            Function<T, Long> id) {
+        Set<Long> ids = lote.stream()
+                .filter(Objects::nonNull)
+                .map(campo)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (ids.isEmpty())
+            return Map.of();
+        return cargar.apply(ids).stream().collect(Collectors.toMap(id, Function.identity()));
+    }
+
+    private String validar(TicketImportacionDTO dto, Map<Long, Usuario> usuarios, Map<Long, Categoria> categorias) {
+        Set<ConstraintViolation<TicketImportacionDTO>> errores = validator.validate(dto);
+        if (!errores.isEmpty()) {
+            return errores.stream().map(ConstraintViolation::getMessage).sorted()
+                    .collect(Collectors.joining("; "));
+        }
+        if (dto.usuarioId() != null && !usuarios.containsKey(dto.usuarioId())) {
+            return "No existe el usuario " + dto.usuarioId();
+        }
+        if (dto.categoriaId() != null && !categorias.containsKey(dto.categoriaId())) {
+            return "No existe la categoría " + dto.categoriaId();
+        }
+        return null;
+    }
+
+    private static Ticket aTicket(TicketImportacionDTO dto, Map<Long, Usuario> usuarios, Map<Long, Categoria> categorias) {
+        Ticket t = new Ticket();
+        t.setTitulo(dto.titulo());
+        t.setDescripcion(dto.descripcion());
+        t.setPrioridad(dto.prioridad());
+        t.setEstado(dto.estado() != null ? dto.estado() : Estado.ABIERTO);
+        t.setUsuario(dto.usuarioId() != null ? usuarios.get(dto.usuarioId()) : null);
+        t.setCategoria(dto.categoriaId() != null ? categorias.get(dto.categoriaId()) : null);
+        return t;
+    }
+}
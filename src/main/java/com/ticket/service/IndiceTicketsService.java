@@ -0,0 +1,293 @@
+package com.ticket.service;
+
+import com.ticket.datastructures.ArbolBSTTickets;
+import com.ticket.datastructures.ColaPrioridadTickets;
+import com.ticket.datastructures.ContadoresTickets;
+import com.ticket.datastructures.ListaBloquesTickets;
+import com.ticket.datastructures.ListaEnlazadaTickets;
+import com.ticket.datastructures.ListaTickets;
+import com.ticket.event.TicketCambiadoEvent;
+import com.ticket.event.TicketsImportadosEvent;
+import com.ticket.model.Estado;
+import com.ticket.model.Ticket;
+import com.ticket.repository.TicketRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índices de tickets en memoria (lista, cola de despacho y BST) que viven mientras corre la aplicación.
+ * Se cargan UNA vez al arrancar y luego se actualizan con cada TicketCambiadoEvent,
+ * así las consultas de /api/estructuras no vuelven a leer la tabla completa.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IndiceTicketsService {
+
+    private final TicketRepository ticketRepository;
+
+    // Las estructuras no son thread-safe: lecturas concurrentes, escrituras exclusivas
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Value("${estructuras.lista.modo:indexada}")
+    private String modoLista; // "indexada", "lineal" o "bloques"
+
+    @Value("${estructuras.lista.tamanio-bloque:64}")
+    private int tamanioBloqueLista;
+
+    private ListaTickets lista;
+    private final ColaPrioridadTickets cola = new ColaPrioridadTickets();
+    private final ArbolBSTTickets arbol = new ArbolBSTTickets();
+    private final ContadoresTickets contadores = new ContadoresTickets(); // se leen sin tomar el lock
+
+    @PostConstruct
+    public void cargar() {
+        log.info("[Indice] Cargando tickets de la BD para construir los índices en memoria");
+        List<Ticket> tickets = ticketRepository.findAllConRelaciones(); // ordenados por ID
+
+        lock.writeLock().lock();
+        try {
+            lista = crearLista();
+            for (Ticket t : tickets) {
+                lista.agregar(t); // O(1) gracias al puntero a la cola
+            }
+            tickets.stream()
+                    .filter(t -> t.getEstado() == Estado.ABIERTO)
+                    .sorted(Comparator.comparing(Ticket::getFechaCreacion,
+                            Comparator.nullsLast(Comparator.naturalOrder())))
+                    .forEach(cola::encolar);
+            arbol.cargarOrdenados(tickets);
+            // los contadores salen de un GROUP BY, no de recorrer la lista recién cargada
+            contadores.cargar(ticketRepository.contarPorClasificacion());
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (contadores.getTotal() != tickets.size()) {
+            log.warn("[Indice] El GROUP BY contó {} tickets y se cargaron {}", contadores.getTotal(), tickets.size());
+        }
+        log.info("[Indice] Índices listos: {} tickets (lista {}), {} en cola",
+                lista.getTamanio(), modoLista, cola.getTamanio());
+    }
+
+    private ListaTickets crearLista() {
+        return switch (modoLista.toLowerCase()) {
+            case "lineal" -> new ListaEnlazadaTickets(false);
+            case "bloques" -> new ListaBloquesTickets(tamanioBloqueLista);
+            default -> new ListaEnlazadaTickets(true);
+        };
+    }
+
+    public String getModoLista() {
+        return modoLista.toLowerCase();
+    }
+
+    public int getTamanioBloqueLista() {
+        return tamanioBloqueLista;
+    }
+
+    // ---- SINCRONIZACIÓN CON LAS ESCRITURAS ----
+
+    /**
+     * Se ejecuta tras el commit de TicketService, de modo que un rollback
+     * nunca deja un ticket fantasma en los índices. La recarga usa una transacción
+     * nueva para obtener instancias limpias, no las de la sesión que escribió.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(VersionesService.ORDEN_INDICES)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onTicketCambiado(TicketCambiadoEvent evento) {
+        Long id = evento.getTicketId();
+        if (evento.getTipo() == TicketCambiadoEvent.Tipo.ELIMINADO) {
+            quitar(id);
+            return;
+        }
+        // recargar con usuario y categoría inicializados para poder serializarlo luego
+        ticketRepository.findConRelacionesById(id).ifPresentOrElse(t -> {
+            registrar(t);
+            log.debug("[Indice] Ticket {} sincronizado", id);
+        }, () -> quitar(id));
+    }
+
+    /**
+     * Lote de la importación masiva: llega con usuario y categoría ya cargados, así que
+     * se registra tal cual, sin volver a leer la BD, bajo un solo lock de escritura.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(VersionesService.ORDEN_INDICES)
+    public void onTicketsImportados(TicketsImportadosEvent evento) {
+        lock.writeLock().lock();
+        try {
+            evento.getTickets().forEach(this::registrar); // el lock es reentrante
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.debug("[Indice] {} tickets importados sincronizados", evento.getTickets().size());
+    }
+
+    private void registrar(Ticket ticket) {
+        lock.writeLock().lock();
+        try {
+            contadores.mover(arbol.buscar(ticket.getId()), ticket); // el árbol aún tiene la versión anterior
+            if (!lista.reemplazar(ticket)) {
+                lista.agregar(ticket);
+            }
+            arbol.eliminar(ticket.getId());
+            arbol.insertar(ticket); // el AVL rebalancea, los IDs crecientes no degeneran el árbol
+            cola.eliminar(ticket.getId());
+            if (ticket.getEstado() == Estado.ABIERTO) {
+                cola.encolar(ticket);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void quitar(Long id) {
+        lock.writeLock().lock();
+        try {
+            contadores.mover(arbol.buscar(id), null);
+            lista.eliminar(id);
+            arbol.eliminar(id);
+            cola.eliminar(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.debug("[Indice] Ticket {} retirado de los índices", id);
+    }
+
+    // ---- CONSULTAS ----
+
+    /**
+     * Conteos por estado, prioridad y categoría — O(1) respecto de la cantidad de tickets.
+     */
+    public ContadoresTickets.Instantanea estadisticas() {
+        return contadores.instantanea();
+    }
+
+    public List<Ticket> recorrerLista() {
+        lock.readLock().lock();
+        try {
+            return lista.obtenerTodos();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Ticket buscarEnLista(Long id) {
+        lock.readLock().lock();
+        try {
+            return lista.buscarPorId(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Ticket> obtenerCola() {
+        lock.readLock().lock();
+        try {
+            return cola.obtenerCola();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Retira de la cola el próximo ticket a despachar (o null si está vacía).
+     */
+    public Ticket tomarDeCola() {
+        lock.writeLock().lock();
+        try {
+            return cola.desencolar();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Devuelve a la cola un ticket tomado cuyo despacho no llegó a confirmarse.
+     */
+    public void devolverACola(Ticket ticket) {
+        lock.writeLock().lock();
+        try {
+            if (arbol.buscar(ticket.getId()) != null) { // salvo que se haya borrado entretanto
+                cola.encolar(ticket);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Ticket verFrenteCola() {
+        lock.readLock().lock();
+        try {
+            return cola.verFrente();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Ticket> recorrerBSTInorden() {
+        lock.readLock().lock();
+        try {
+            return arbol.inorden();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Ticket buscarEnBST(Long id) {
+        lock.readLock().lock();
+        try {
+            return arbol.buscar(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Ticket> siguientesEnBST(Long despuesDeId, int limite) {
+        lock.readLock().lock();
+        try {
+            return arbol.siguientes(despuesDeId, limite);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Ticket> rangoEnBST(Long desdeId, Long hastaId, int limite) {
+        lock.readLock().lock();
+        try {
+            return arbol.rango(desdeId, hastaId, limite);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Ticket pisoEnBST(Long id) {
+        lock.readLock().lock();
+        try {
+            return arbol.piso(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Ticket techoEnBST(Long id) {
+        lock.readLock().lock();
+        try {
+            return arbol.techo(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -1,14 +1,33 @@
 package com.ticket.service;
 
+import com.ticket.datastructures.ContadoresTickets;
+import com.ticket.dto.TicketPatchDTO;
+import com.ticket.dto.TicketResumenDTO;
+import com.ticket.event.TicketCambiadoEvent;
+import com.ticket.exception.VersionNoCoincideException;
+import com.ticket.model.Categoria;
+import com.ticket.model.Estado;
 import com.ticket.model.Ticket;
+import com.ticket.model.Usuario;
+import com.ticket.repository.CategoriaRepository;
+import com.ticket.repository.FiltroTickets;
 import com.ticket.repository.TicketRepository;
+import com.ticket.repository.UsuarioRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -17,15 +36,41 @@ import java.util.Optional;
 public class TicketService {
 
     private final TicketRepository ticketRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final IndiceTicketsService indiceTicketsService;
+    private final UsuarioRepository usuarioRepository;
+    private final CategoriaRepository categoriaRepository;
+    private final HistorialEstadosService historialEstadosService;
 
-    public List<Ticket> getAllTickets() {
-        log.info("Obteniendo todos los tickets");
-        return ticketRepository.findAll();
+    /**
+     * Página por clave: pide un ticket de más para saber si hay otra página sin hacer un COUNT.
+     */
+    public List<TicketResumenDTO> buscarTickets(FiltroTickets filtro, Long despuesDeId, int limite) {
+        log.info("Buscando tickets después del ID {} (máx. {}) con filtro {}", despuesDeId, limite, filtro);
+        return ticketRepository.buscarPagina(filtro, despuesDeId, limite);
+    }
+
+    /**
+     * Sale de los contadores en memoria: no abre transacción ni consulta la BD.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ContadoresTickets.Instantanea obtenerEstadisticas() {
+        return indiceTicketsService.estadisticas();
+    }
+
+    /**
+     * Versión (@Version) del ticket según el índice en memoria, sin ir a la BD; null si
+     * no está. Alcanza para responder un If-None-Match: el índice se actualiza tras
+     * cada commit.
+     */
+    public Long versionEnMemoria(Long id) {
+        Ticket t = indiceTicketsService.buscarEnBST(id);
+        return t != null ? t.getVersion() : null;
     }
 
     public Optional<Ticket> getTicketById(Long id) {
         log.info("Buscando ticket con ID: {}", id);
-        return ticketRepository.findById(id);
+        return ticketRepository.findConRelacionesById(id); // usuario y categoría en el mismo SELECT
     }
 
     @Transactional
@@ -33,14 +78,21 @@ public class TicketService {
         log.info("Creando nuevo ticket: {}", ticket.getTitulo());
         Ticket savedTicket = ticketRepository.save(ticket);
         log.info("Ticket creado exitosamente con ID: {}", savedTicket.getId());
+        eventPublisher.publishEvent(new TicketCambiadoEvent(
+                TicketCambiadoEvent.Tipo.CREADO, savedTicket.getId(), savedTicket));
         return savedTicket;
     }
 
+    /**
+     * Reemplaza todos los campos editables. Con 'versiones' (del If-Match) solo actualiza
+     * si la versión leída es una de ellas; null = sin condición.
+     */
     @Transactional
-    public Optional<Ticket> updateTicket(Long id, Ticket ticketDetails) {
+    public Optional<Ticket> updateTicket(Long id, Ticket ticketDetails, Set<Long> versiones) {
         log.info("Actualizando ticket con ID: {}", id);
         return ticketRepository.findById(id)
                 .map(ticket -> {
+                    exigirVersion(ticket, versiones);
                     ticket.setTitulo(ticketDetails.getTitulo());
                     ticket.setDescripcion(ticketDetails.getDescripcion());
                     ticket.setPrioridad(ticketDetails.getPrioridad());
@@ -50,19 +102,164 @@ public class TicketService {
                     }
                     Ticket updated = ticketRepository.save(ticket);
                     log.info("Ticket actualizado exitosamente: {}", id);
+                    eventPublisher.publishEvent(new TicketCambiadoEvent(
+                            TicketCambiadoEvent.Tipo.ACTUALIZADO, id, updated));
                     return updated;
                 });
     }
 
+    /**
+     * Cambia solo los campos presentes en 'cambios'. Es la misma lectura que haría
+     * cualquier UPDATE; la versión se compara en memoria y el UPDATE (solo de las
+     * columnas modificadas) vuelve a exigirla en el WHERE, así una escritura
+     * concurrente entre la lectura y el commit también se detecta.
+     * Usuario y categoría nuevos se enlazan por referencia y recién después del flush
+     * se resuelven (normalmente desde la caché de segundo nivel): el ticket devuelto
+     * y el que reciben los índices en memoria no llevan proxies.
+     */
+    @Transactional
+    public Optional<Ticket> patchTicket(Long id, TicketPatchDTO cambios, Set<Long> versiones) {
+        log.info("Actualizando parcialmente ticket con ID: {}", id);
+        return ticketRepository.findConRelacionesById(id)
+                .map(ticket -> {
+                    exigirVersion(ticket, versiones);
+                    if (cambios.titulo() != null)
+                        ticket.setTitulo(cambios.titulo());
+                    if (cambios.descripcion() != null)
+                        ticket.setDescripcion(cambios.descripcion());
+                    if (cambios.prioridad() != null)
+                        ticket.setPrioridad(cambios.prioridad());
+                    if (cambios.estado() != null)
+                        ticket.setEstado(cambios.estado());
+                    if (cambios.usuarioId() != null)
+                        ticket.setUsuario(usuarioRepository.getReferenceById(cambios.usuarioId()));
+                    if (cambios.categoriaId() != null)
+                        ticket.setCategoria(categoriaRepository.getReferenceById(cambios.categoriaId()));
+                    try {
+                        ticketRepository.flush(); // FK inexistente o versión vieja: se informa acá y no en el commit
+                    } catch (DataIntegrityViolationException e) {
+                        throw new IllegalArgumentException("Usuario " + cambios.usuarioId() + " o categoría "
+                                + cambios.categoriaId() + " no encontrado", e);
+                    }
+                    ticket.setUsuario(Hibernate.unproxy(ticket.getUsuario(), Usuario.class));
+                    ticket.setCategoria(Hibernate.unproxy(ticket.getCategoria(), Categoria.class));
+                    eventPublisher.publishEvent(new TicketCambiadoEvent(
+                            TicketCambiadoEvent.Tipo.ACTUALIZADO, id, ticket));
+                    return ticket;
+                });
+    }
+
+    private static void exigirVersion(Ticket ticket, Set<Long> versiones) {
+        if (versiones != null && !versiones.contains(ticket.getVersion())) {
+            throw new VersionNoCoincideException(ticket.getId(), ticket.getVersion());
+        }
+    }
+
+    @Transactional
+    public Optional<Ticket> cambiarEstado(Long id, Estado estado) {
+        log.info("Cambiando estado del ticket {} a {}", id, estado);
+        return ticketRepository.findById(id)
+                .map(ticket -> {
+                    ticket.setEstado(estado);
+                    Ticket updated = ticketRepository.save(ticket);
+                    eventPublisher.publishEvent(new TicketCambiadoEvent(
+                            TicketCambiadoEvent.Tipo.ACTUALIZADO, id, updated));
+                    return updated;
+                });
+    }
+
+    /**
+     * POP del historial: devuelve el ticket al estado de abajo del tope de su pila. El
+     * UPDATE va condicionado a que la BD siga en el estado del tope y el tope se retira
+     * solo si tocó la fila, con el lock de la pila tomado; si la transacción no confirma
+     * se vuelve a apilar. Dos POP concurrentes o un PATCH en el medio terminan en 412.
+     * Vacío si el ticket no existe.
+     */
+    @Transactional
+    public Optional<HistorialEstadosService.Deshecho> deshacerEstado(Long id) {
+        if (!ticketRepository.existsById(id)) {
+            return Optional.empty();
+        }
+        HistorialEstadosService.Deshecho deshecho = historialEstadosService.deshacer(id,
+                (tope, anterior) -> ticketRepository.cambiarEstadoSi(id, tope, anterior) == 1);
+        if (deshecho == null) {
+            if (!ticketRepository.existsById(id)) {
+                return Optional.empty(); // se eliminó mientras tanto
+            }
+            throw new ObjectOptimisticLockingFailureException(Ticket.class, id);
+        }
+        if (deshecho.getRetirado() == null) {
+            return Optional.of(deshecho);
+        }
+        Estado retirado = Estado.valueOf(deshecho.getRetirado());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    historialEstadosService.reapilar(id, retirado);
+                }
+            }
+        });
+        Ticket ticket = ticketRepository.findConRelacionesById(id).orElseThrow();
+        log.info("Ticket {} vuelve de {} a {}", id, retirado, deshecho.getRestaurado());
+        eventPublisher.publishEvent(new TicketCambiadoEvent(
+                TicketCambiadoEvent.Tipo.ACTUALIZADO, id, ticket, true));
+        return Optional.of(deshecho);
+    }
+
     @Transactional
     public boolean deleteTicket(Long id) {
         log.info("Eliminando ticket con ID: {}", id);
         if (ticketRepository.existsById(id)) {
             ticketRepository.deleteById(id);
             log.info("Ticket eliminado exitosamente: {}", id);
+            eventPublisher.publishEvent(new TicketCambiadoEvent(
+                    TicketCambiadoEvent.Tipo.ELIMINADO, id, null));
             return true;
         }
         log.warn("No se encontró el ticket con ID: {}", id);
         return false;
     }
+
+    /**
+     * Despacha el próximo ticket de la cola de prioridad: lo retira de la cola en
+     * memoria y lo pasa a EN_PROCESO con un UPDATE condicionado a que siga ABIERTO.
+     * Dos agentes nunca reciben el mismo ticket; si la transacción no confirma,
+     * el ticket vuelve a la cola.
+     */
+    @Transactional
+    public Optional<Ticket> dispatchNextTicket() {
+        Ticket candidato;
+        while ((candidato = indiceTicketsService.tomarDeCola()) != null) {
+            Long id = candidato.getId();
+            int filas;
+            try {
+                filas = ticketRepository.cambiarEstadoSi(id, Estado.ABIERTO, Estado.EN_PROCESO);
+            } catch (RuntimeException e) {
+                // ya salió de la cola y en la BD sigue ABIERTO: devolverlo antes de propagar
+                indiceTicketsService.devolverACola(candidato);
+                throw e;
+            }
+            if (filas == 1) {
+                Ticket tomado = candidato;
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        if (status != STATUS_COMMITTED) {
+                            indiceTicketsService.devolverACola(tomado);
+                        }
+                    }
+                });
+                Ticket despachado = ticketRepository.findConRelacionesById(id).orElseThrow();
+                log.info("Ticket {} despachado ({}), pasa a EN_PROCESO", id, despachado.getPrioridad());
+                eventPublisher.publishEvent(new TicketCambiadoEvent(
+                        TicketCambiadoEvent.Tipo.TOMADO, id, despachado));
+                return Optional.of(despachado);
+            }
+            // otro proceso ya lo cambió: estaba desactualizado en la cola, probar el siguiente
+            log.debug("Ticket {} ya no estaba ABIERTO, se descarta de la cola", id);
+        }
+        log.info("No hay tickets abiertos para despachar");
+        return Optional.empty();
+    }
 }
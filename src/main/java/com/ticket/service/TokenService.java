@@ -0,0 +1,112 @@
+package com.ticket.service;
+
+import com.ticket.model.Usuario;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tokens de sesión firmados con HMAC-SHA256: "usuarioId.expira.jti.firma". Se validan
+ * solo en memoria (firma y vencimiento), sin consultar la BD. Los tokens cerrados con
+ * logout se guardan por su jti hasta que vencen; después ya no hace falta recordarlos.
+ */
+@Service
+@Slf4j
+public class TokenService {
+
+    private static final String ALGORITMO = "HmacSHA256";
+
+    public record Sesion(String token, Instant expira) {
+    }
+
+    public record Datos(long usuarioId, String jti, Instant expira) {
+    }
+
+    private static final Base64.Encoder B64 = Base64.getUrlEncoder().withoutPadding();
+
+    private final SecretKeySpec clave;
+    private final Duration duracion;
+    private final ThreadLocal<Mac> mac; // Mac no es thread-safe
+    private final SecureRandom random = new SecureRandom();
+    private final Map<String, Long> revocados = new ConcurrentHashMap<>(); // jti → expira (epoch s)
+
+    public TokenService(@Value("${seguridad.token.secreto:}") String secreto,
+            @Value("${seguridad.token.duracion:8h}") Duration duracion) {
+        byte[] bytes;
+        if (secreto.isBlank()) {
+            bytes = new byte[32];
+            random.nextBytes(bytes);
+            log.warn("seguridad.token.secreto no está configurado: se usa uno aleatorio y los tokens "
+                    + "dejan de valer al reiniciar");
+        } else {
+            bytes = secreto.getBytes(StandardCharsets.UTF_8);
+        }
+        this.clave = new SecretKeySpec(bytes, ALGORITMO);
+        this.duracion = duracion;
+        this.mac = ThreadLocal.withInitial(() -> {
+            try {
+                Mac m = Mac.getInstance(ALGORITMO);
+                m.init(clave);
+                return m;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HMAC no disponible", e);
+            }
+        });
+    }
+
+    public Sesion emitir(Usuario usuario) {
+        Instant expira = Instant.now().plus(duracion);
+        byte[] jti = new byte[12];
+        random.nextBytes(jti);
+        String cuerpo = usuario.getId() + "." + expira.getEpochSecond() + "." + B64.encodeToString(jti);
+        return new Sesion(cuerpo + "." + firmar(cuerpo), expira);
+    }
+
+    /**
+     * Datos del token si la firma es correcta, no venció y no fue revocado.
+     */
+    public Optional<Datos> validar(String token) {
+        String[] partes = token.split("\\.");
+        if (partes.length != 4)
+            return Optional.empty();
+        String cuerpo = partes[0] + "." + partes[1] + "." + partes[2];
+        if (!MessageDigest.isEqual(firmar(cuerpo).getBytes(StandardCharsets.US_ASCII),
+                partes[3].getBytes(StandardCharsets.US_ASCII)))
+            return Optional.empty();
+        try {
+            long usuarioId = Long.parseLong(partes[0]);
+            Instant expira = Instant.ofEpochSecond(Long.parseLong(partes[1]));
+            if (!expira.isAfter(Instant.now()) || revocados.containsKey(partes[2]))
+                return Optional.empty();
+            return Optional.of(new Datos(usuarioId, partes[2], expira));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Invalida el token hasta su vencimiento. Aprovecha para olvidar los revocados que ya vencieron.
+     */
+    public void revocar(Datos datos) {
+        long ahora = Instant.now().getEpochSecond();
+        revocados.values().removeIf(expira -> expira <= ahora);
+        revocados.put(datos.jti(), datos.expira().getEpochSecond());
+    }
+
+    private String firmar(String cuerpo) {
+        return B64.encodeToString(mac.get().doFinal(cuerpo.getBytes(StandardCharsets.US_ASCII)));
+    }
+}
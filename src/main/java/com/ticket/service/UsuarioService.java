@@ -1,9 +1,16 @@
 package com.ticket.service;
 
+import com.ticket.config.CacheConfig;
+import com.ticket.event.UsuarioCreadoEvent;
 import com.ticket.model.Usuario;
 import com.ticket.repository.UsuarioRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -14,33 +21,51 @@ public class UsuarioService {
     @Autowired
     private UsuarioRepository usuarioRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ContraseniaService contraseniaService;
+
     
     public List<Usuario> obtenerTodos() {
         return usuarioRepository.findAll();
     }
 
-    
+    @Cacheable(cacheNames = CacheConfig.USUARIO_POR_ID, unless = "#result == null")
     public Optional<Usuario> obtenerPorId(Long id) {
         return usuarioRepository.findById(id);
     }
 
-    
+    @Cacheable(cacheNames = CacheConfig.USUARIO_POR_EMAIL, unless = "#result == null")
     public Optional<Usuario> buscarPorEmail(String email) {
         return usuarioRepository.findByEmail(email);
     }
 
-    
+    @Caching(put = {
+            @CachePut(cacheNames = CacheConfig.USUARIO_POR_ID, key = "#result.id"),
+            @CachePut(cacheNames = CacheConfig.USUARIO_POR_EMAIL, key = "#result.email")})
     public Usuario crear(Usuario usuario) {
         // Validar que el email no esté duplicado
         if (usuarioRepository.existsByEmail(usuario.getEmail())) {
             throw new IllegalArgumentException("Ya existe un usuario con el email: " + usuario.getEmail());
         }
 
-        return usuarioRepository.save(usuario);
+        usuario.setPassword(contraseniaService.hashear(usuario.getPassword()));
+        Usuario usuarioCreado = usuarioRepository.save(usuario);
+        eventPublisher.publishEvent(new UsuarioCreadoEvent(usuarioCreado));
+        return usuarioCreado;
     }
 
-    
-    public Optional<Usuario> login(String email, String password) {
-        return usuarioRepository.findByEmailAndPassword(email, password);
+    // reemplaza la contraseña guardada por 'hash' (ver AutenticacionService.login)
+    @Caching(put = {
+            @CachePut(cacheNames = CacheConfig.USUARIO_POR_ID, key = "#result.id"),
+            @CachePut(cacheNames = CacheConfig.USUARIO_POR_EMAIL, key = "#result.email")})
+    @Transactional
+    public Usuario actualizarPassword(Long id, String hash) {
+        Usuario usuario = usuarioRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("No existe el usuario " + id));
+        usuario.setPassword(hash);
+        return usuario;
     }
 }
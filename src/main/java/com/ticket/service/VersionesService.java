@@ -0,0 +1,112 @@
+package com.ticket.service;
+
+import com.ticket.config.FormatosRespuestaConfig;
+import com.ticket.event.ComentarioCreadoEvent;
+import com.ticket.event.TicketCambiadoEvent;
+import com.ticket.event.TicketsImportadosEvent;
+import com.ticket.model.Ticket;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Contadores de modificación para los ETag de los GET: un global (cualquier cambio
+ * de tickets o comentarios), uno por ticket y uno de categorías. Comparar el
+ * If-None-Match con un contador no toca la BD ni arma la respuesta, así que las
+ * consultas periódicas sin cambios se resuelven con un 304 vacío.
+ *
+ * Un contador debe subir recién cuando el cambio ya se ve: confirmado en la BD y
+ * aplicado a los índices en memoria. Si subiera antes, una lectura en el medio
+ * guardaría datos viejos con el ETag nuevo y el cliente no los volvería a pedir.
+ * AFTER_COMMIT y AFTER_COMPLETION corren en la misma pasada de afterCompletion, en
+ * el orden de @Order: los listeners de índices, búsqueda e historial llevan
+ * ORDEN_INDICES, estos ORDEN_VERSIONES y el aviso por SSE ORDEN_AVISOS. Se usa
+ * AFTER_COMPLETION para subir también tras un rollback: subir de más solo cuesta un 200.
+ *
+ * Los ETag son débiles (W/): valen con o sin gzip, y Tomcat no comprime respuestas
+ * con un ETag fuerte. Sí distinguen el formato (JSON, Smile o CBOR, según el Accept):
+ * un If-None-Match de una representación no debe dar 304 para otra.
+ */
+@Service
+public class VersionesService {
+
+    /** Listeners que aplican un cambio a las estructuras en memoria. */
+    public static final int ORDEN_INDICES = 0;
+    /** Los de este servicio: cuando los índices ya están al día. */
+    public static final int ORDEN_VERSIONES = Ordered.LOWEST_PRECEDENCE - 100;
+    /** Los que avisan a los clientes: cuando el ETag ya cambió. */
+    public static final int ORDEN_AVISOS = Ordered.LOWEST_PRECEDENCE;
+
+    // los tickets comparten contador por franja: acotado en memoria, y una colisión
+    // solo invalida de más
+    private static final int FRANJAS = 4096; // potencia de 2
+
+    // distingue los ETag de este arranque de los de uno anterior (los contadores vuelven a 0)
+    private final String epoca = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong global = new AtomicLong();
+    private final AtomicLong categorias = new AtomicLong();
+    private final AtomicLongArray porTicket = new AtomicLongArray(FRANJAS);
+
+    public String etagGlobal(WebRequest request) {
+        return etag(global.get(), request);
+    }
+
+    /**
+     * ETag de lo que depende de un solo ticket (sus comentarios, su historial de estados).
+     */
+    public String etagTicket(Long ticketId, WebRequest request) {
+        return etag(porTicket.get(franja(ticketId)), request);
+    }
+
+    public String etagCategorias(WebRequest request) {
+        return etag(categorias.get(), request);
+    }
+
+    /**
+     * Para quien aplica cambios fuera de una transacción (ej. la escritura diferida):
+     * llamarlo después de publicar los eventos, cuando los índices ya están al día.
+     */
+    public void ticketModificado(Long ticketId) {
+        porTicket.incrementAndGet(franja(ticketId));
+        global.incrementAndGet();
+    }
+
+    public void categoriasModificadas() {
+        categorias.incrementAndGet();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    @Order(ORDEN_VERSIONES)
+    public void onTicketCambiado(TicketCambiadoEvent evento) {
+        ticketModificado(evento.getTicketId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    @Order(ORDEN_VERSIONES)
+    public void onComentarioCreado(ComentarioCreadoEvent evento) {
+        ticketModificado(evento.getTicketId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    @Order(ORDEN_VERSIONES)
+    public void onTicketsImportados(TicketsImportadosEvent evento) {
+        for (Ticket t : evento.getTickets()) {
+            porTicket.incrementAndGet(franja(t.getId()));
+        }
+        global.incrementAndGet();
+    }
+
+    private static int franja(Long ticketId) {
+        return Long.hashCode(ticketId) & (FRANJAS - 1);
+    }
+
+    private String etag(long contador, WebRequest request) {
+        return "W/\"" + epoca + "-" + contador + FormatosRespuestaConfig.sufijoEtag(request) + "\"";
+    }
+}
@@ -0,0 +1,75 @@
+package com.ticket.config;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FiltroConcurrenciaBDTest {
+
+    private final FiltroConcurrenciaBD filtro = new FiltroConcurrenciaBD(1, Duration.ofMillis(50));
+
+    private MockHttpServletResponse pasar(MockHttpServletRequest request, FilterChain chain) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filtro.doFilter(request, response, chain);
+        return response;
+    }
+
+    @Test
+    void sinPermisoLibreRespondeServicioNoDisponible() throws Exception {
+        CountDownLatch dentro = new CountDownLatch(1);
+        CountDownLatch soltar = new CountDownLatch(1);
+        Thread ocupado = Thread.ofVirtual().start(() -> {
+            try {
+                pasar(new MockHttpServletRequest("GET", "/api/tickets"), (req, res) -> {
+                    dentro.countDown();
+                    try {
+                        soltar.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertThat(dentro.await(5, TimeUnit.SECONDS)).isTrue();
+
+        MockHttpServletResponse rechazada = pasar(new MockHttpServletRequest("GET", "/api/tickets/1"), new MockFilterChain());
+        assertThat(rechazada.getStatus()).isEqualTo(503);
+        assertThat(rechazada.getHeader("Retry-After")).isEqualTo("1");
+
+        // lo que sale de memoria no pide permiso
+        assertThat(pasar(new MockHttpServletRequest("GET", "/api/estructuras/bst"), new MockFilterChain())
+                .getStatus()).isEqualTo(200);
+        assertThat(pasar(new MockHttpServletRequest("GET", "/api/tickets/stats"), new MockFilterChain())
+                .getStatus()).isEqualTo(200);
+        // pero cambiar un estado desde /api/estructuras sí escribe en la BD
+        assertThat(pasar(new MockHttpServletRequest("POST", "/api/estructuras/pila/1"), new MockFilterChain())
+                .getStatus()).isEqualTo(503);
+
+        soltar.countDown();
+        ocupado.join();
+        assertThat(filtro.getPermisosDisponibles()).isEqualTo(1);
+        assertThat(pasar(new MockHttpServletRequest("GET", "/api/tickets/1"), new MockFilterChain())
+                .getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void unaPeticionAsincronaRetieneElPermisoHastaCompletar() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/tickets/exportar");
+        request.setAsyncSupported(true);
+        pasar(request, (req, res) -> req.startAsync());
+        assertThat(filtro.getPermisosDisponibles()).isZero();
+
+        request.getAsyncContext().complete();
+        assertThat(filtro.getPermisosDisponibles()).isEqualTo(1);
+    }
+}
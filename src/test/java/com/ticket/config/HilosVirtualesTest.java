@@ -0,0 +1,38 @@
+package com.ticket.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.task.AsyncTaskExecutor;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.threads.virtual.enabled=true",
+        "spring.datasource.hikari.maximum-pool-size=4",
+        "spring.datasource.url=jdbc:h2:mem:hilos-virtuales",
+        "estructuras.registro.directorio=target/hilos-virtuales/transiciones"
+})
+class HilosVirtualesTest {
+
+    @Autowired
+    @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    private AsyncTaskExecutor ejecutor;
+
+    @Autowired
+    private FiltroConcurrenciaBD filtro;
+
+    @Test
+    void elTrabajoAsincronoCorreEnHilosVirtuales() throws Exception {
+        assertThat(ejecutor.submit(() -> Thread.currentThread().isVirtual()).get(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void elLimiteDeConcurrenciaSigueAlPoolDeConexiones() {
+        assertThat(filtro.getPermisos()).isEqualTo(4);
+    }
+}
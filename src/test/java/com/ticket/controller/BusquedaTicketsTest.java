@@ -0,0 +1,110 @@
+package com.ticket.controller;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * El índice de búsqueda se entera de cada escritura (alta, cambio, comentario, baja)
+ * y las búsquedas no consultan la BD.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.datasource.url=jdbc:h2:mem:busqueda-tickets",
+        "estructuras.registro.directorio=target/busqueda-tickets/transiciones"
+})
+@AutoConfigureMockMvc
+class BusquedaTicketsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private long crear(String titulo, String descripcion) throws Exception {
+        String cuerpo = mockMvc.perform(post("/api/tickets")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"titulo\": \"" + titulo + "\", \"descripcion\": \"" + descripcion
+                                + "\", \"prioridad\": \"ALTA\", \"estado\": \"ABIERTO\"}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return Long.parseLong(cuerpo.replaceAll("^\\{\"id\":(\\d+).*", "$1"));
+    }
+
+    @Test
+    void encuentraPorTituloDescripcionYComentarios() throws Exception {
+        long id = crear("Proyector de la sala B", "No muestra imagen por HDMI");
+        crear("Cañón del aula", "Proyector sin lámpara");
+
+        mockMvc.perform(get("/api/tickets/search").param("q", "proyector hdmi"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].ticket.id").value(id))
+                .andExpect(jsonPath("$[0].ticket.titulo").value("Proyector de la sala B"));
+        mockMvc.perform(get("/api/tickets/search").param("q", "canon LAMPARA"))
+                .andExpect(jsonPath("$.length()").value(1));
+
+        mockMvc.perform(post("/api/tickets/" + id + "/comentarios")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"texto\": \"Se cambió el adaptador\", \"usuarioId\": 1}"))
+                .andExpect(status().isCreated());
+        mockMvc.perform(get("/api/tickets/search").param("q", "adaptador"))
+                .andExpect(jsonPath("$[0].ticket.id").value(id));
+
+        // varios comentarios seguidos no sacan al ticket de los resultados
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(post("/api/tickets/" + id + "/comentarios")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"texto\": \"Revisión " + i + "\", \"usuarioId\": 1}"))
+                    .andExpect(status().isCreated());
+        }
+        mockMvc.perform(get("/api/tickets/search").param("q", "proyector"))
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].ticket.id").value(id));
+    }
+
+    @Test
+    void sigueLosCambiosYBajasSinConsultarLaBD() throws Exception {
+        long id = crear("Ventilador ruidoso", "En el servidor principal");
+        mockMvc.perform(put("/api/tickets/" + id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"titulo\": \"Ventilador roto\", \"descripcion\": \"En el rack 2\","
+                                + " \"prioridad\": \"ALTA\", \"estado\": \"EN_PROCESO\"}"))
+                .andExpect(status().isOk());
+
+        Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estadisticas.clear();
+        mockMvc.perform(get("/api/tickets/search").param("q", "ruidoso"))
+                .andExpect(jsonPath("$.length()").value(0));
+        mockMvc.perform(get("/api/tickets/search").param("q", "rack"))
+                .andExpect(jsonPath("$[0].ticket.id").value(id))
+                .andExpect(jsonPath("$[0].ticket.estado").value("EN_PROCESO"));
+        assertThat(estadisticas.getPrepareStatementCount()).isZero();
+
+        mockMvc.perform(delete("/api/tickets/" + id)).andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/tickets/search").param("q", "ventilador"))
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    void rechazaConsultasVaciasOLimitesFueraDeRango() throws Exception {
+        mockMvc.perform(get("/api/tickets/search").param("q", " ")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/tickets/search").param("q", "x").param("limite", "0"))
+                .andExpect(status().isBadRequest());
+    }
+}
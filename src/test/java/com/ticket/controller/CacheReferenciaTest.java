@@ -0,0 +1,80 @@
+package com.ticket.controller;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Categorías y usuarios se leen de la caché después de la primera vez, y un alta
+ * se ve enseguida en las lecturas siguientes.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.datasource.url=jdbc:h2:mem:cache-referencia",
+        "estructuras.registro.directorio=target/cache-referencia/transiciones"
+})
+@AutoConfigureMockMvc
+class CacheReferenciaTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics estadisticas;
+
+    @BeforeEach
+    void estadisticas() {
+        estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private long sentencias(String url) throws Exception {
+        estadisticas.clear();
+        mockMvc.perform(get(url)).andExpect(status().isOk());
+        return estadisticas.getPrepareStatementCount();
+    }
+
+    @Test
+    void lasLecturasRepetidasNoVanALaBD() throws Exception {
+        sentencias("/api/categorias");
+        sentencias("/api/categorias/1");
+        sentencias("/api/usuarios/1");
+        assertThat(sentencias("/api/categorias")).isZero();
+        assertThat(sentencias("/api/categorias/1")).isZero();
+        assertThat(sentencias("/api/usuarios/1")).isZero();
+
+        mockMvc.perform(get("/api/estructuras/cache"))
+                .andExpect(jsonPath("$.datos[?(@.nombre == 'categorias')].aciertos", everyItem(greaterThan(0))))
+                .andExpect(jsonPath("$.datos[?(@.nombre == 'usuarioPorId')].aciertos", everyItem(greaterThan(0))));
+    }
+
+    @Test
+    void crearInvalidaLaListaYCacheaElNuevo() throws Exception {
+        mockMvc.perform(get("/api/categorias")).andExpect(jsonPath("$.length()").value(3));
+        String creada = mockMvc.perform(post("/api/categorias")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nombre\": \"Impresoras\"}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        String id = creada.replaceAll(".*\"id\":(\\d+).*", "$1");
+
+        mockMvc.perform(get("/api/categorias")).andExpect(jsonPath("$.length()").value(4));
+        assertThat(sentencias("/api/categorias/" + id)).isZero();
+    }
+}
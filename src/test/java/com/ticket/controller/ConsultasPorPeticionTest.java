@@ -0,0 +1,135 @@
+package com.ticket.controller;
+
+import com.ticket.model.Categoria;
+import com.ticket.model.Estado;
+import com.ticket.model.Prioridad;
+import com.ticket.model.Ticket;
+import com.ticket.model.Usuario;
+import com.ticket.repository.CategoriaRepository;
+import com.ticket.repository.UsuarioRepository;
+import com.ticket.service.TicketService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Cuenta las sentencias SQL de cada petición para que no vuelva el N+1: el listado
+ * es una sola consulta sin importar cuántos tickets devuelva, los comentarios de
+ * varios tickets también, y los recorridos de /api/estructuras salen de memoria
+ * sin tocar la BD.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.datasource.url=jdbc:h2:mem:consultas-por-peticion",
+        "estructuras.registro.directorio=target/consultas-por-peticion/transiciones"
+})
+@AutoConfigureMockMvc
+class ConsultasPorPeticionTest {
+
+    private static final int TICKETS = 12;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics estadisticas;
+    private Long unId;
+
+    @BeforeEach
+    void crearTickets() {
+        estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        List<Usuario> usuarios = usuarioRepository.findAll();
+        List<Categoria> categorias = categoriaRepository.findAll();
+        for (int i = 0; i < TICKETS; i++) {
+            Ticket t = new Ticket();
+            t.setTitulo("Ticket " + i);
+            t.setDescripcion("Descripción larga " + i);
+            t.setPrioridad(Prioridad.values()[i % Prioridad.values().length]);
+            t.setEstado(Estado.ABIERTO);
+            t.setUsuario(usuarios.get(i % usuarios.size())); // usuarios y categorías distintos por fila
+            t.setCategoria(categorias.get(i % categorias.size()));
+            unId = ticketService.createTicket(t).getId();
+        }
+    }
+
+    private long sentencias(String url) throws Exception {
+        estadisticas.clear();
+        mockMvc.perform(get(url)).andExpect(status().isOk());
+        return estadisticas.getPrepareStatementCount();
+    }
+
+    @Test
+    void elListadoEsUnaSolaConsulta() throws Exception {
+        assertThat(sentencias("/api/tickets?limite=500")).isEqualTo(1);
+        assertThat(sentencias("/api/tickets?limite=5&estado=ABIERTO")).isEqualTo(1);
+    }
+
+    @Test
+    void elListadoNoArrastraDescripcionNiUsuario() throws Exception {
+        String cuerpo = mockMvc.perform(get("/api/tickets?limite=500"))
+                .andReturn().getResponse().getContentAsString();
+        assertThat(cuerpo).contains("\"usuarioNombre\"", "\"categoriaNombre\"")
+                .doesNotContain("\"descripcion\"", "\"password\"");
+    }
+
+    @Test
+    void elDetalleTraeRelacionesEnLaMismaConsulta() throws Exception {
+        assertThat(sentencias("/api/tickets/" + unId)).isEqualTo(1);
+    }
+
+    @Test
+    void crearUnComentarioNoCargaTicketNiUsuario() throws Exception {
+        estadisticas.clear();
+        mockMvc.perform(post("/api/tickets/" + unId + "/comentarios")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"texto\": \"Hola\", \"usuarioId\": 1}"))
+                .andExpect(status().isCreated());
+        assertThat(estadisticas.getEntityInsertCount()).isEqualTo(1);
+        assertThat(estadisticas.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void losComentariosDeVariosTicketsSonUnaSolaConsulta() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(post("/api/tickets/" + unId + "/comentarios")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"texto\": \"c" + i + "\", \"usuarioId\": 2}"));
+        }
+        String ids = (unId - 2) + "," + (unId - 1) + "," + unId;
+        assertThat(sentencias("/api/tickets/" + unId + "/comentarios?limite=2")).isEqualTo(1);
+        assertThat(sentencias("/api/tickets/comentarios?ticketIds=" + ids + "&porTicket=2")).isEqualTo(1);
+        assertThat(sentencias("/api/tickets/comentarios/conteo?ticketIds=" + ids)).isEqualTo(1);
+    }
+
+    @Test
+    void losRecorridosDeEstructurasNoConsultanLaBD() throws Exception {
+        assertThat(sentencias("/api/estructuras/lista")).isZero();
+        assertThat(sentencias("/api/estructuras/cola")).isZero();
+        assertThat(sentencias("/api/estructuras/bst")).isZero();
+    }
+}
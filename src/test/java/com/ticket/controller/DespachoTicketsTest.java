@@ -0,0 +1,152 @@
+package com.ticket.controller;
+
+import com.ticket.model.Estado;
+import com.ticket.model.Ticket;
+import com.ticket.repository.TicketRepository;
+import com.ticket.service.IndiceTicketsService;
+import com.ticket.service.TicketService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.reset;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Despacho desde la cola de prioridad: orden de atención, tickets que otro proceso
+ * ya tomó, agentes concurrentes y un UPDATE que falla.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:despacho-tickets",
+        "estructuras.registro.directorio=target/despacho-tickets/transiciones"
+})
+@AutoConfigureMockMvc
+class DespachoTicketsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private IndiceTicketsService indiceTicketsService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoSpyBean
+    private TicketRepository ticketRepository;
+
+    @BeforeEach
+    void vaciarCola() {
+        while (ticketService.dispatchNextTicket().isPresent()) {
+            // lo que dejó otro test
+        }
+    }
+
+    private long crear(String prioridad) throws Exception {
+        String cuerpo = mockMvc.perform(post("/api/tickets")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"titulo\": \"Pendiente " + prioridad + "\", \"descripcion\": \"Para despachar\","
+                                + " \"prioridad\": \"" + prioridad + "\", \"estado\": \"ABIERTO\"}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return Long.parseLong(cuerpo.replaceAll("^\\{\"id\":(\\d+).*", "$1"));
+    }
+
+    private String estadoEnBD(long id) {
+        return jdbcTemplate.queryForObject("select estado from tickets where id = ?", String.class, id);
+    }
+
+    @Test
+    void atiendePorPrioridadYPasaAEnProceso() throws Exception {
+        long baja = crear("BAJA");
+        long alta = crear("ALTA");
+        long media = crear("MEDIA");
+
+        for (long id : new long[] { alta, media, baja }) {
+            mockMvc.perform(delete("/api/estructuras/cola/atender"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.datos.id").value(id))
+                    .andExpect(jsonPath("$.datos.estado").value("EN_PROCESO"));
+            assertThat(estadoEnBD(id)).isEqualTo("EN_PROCESO");
+        }
+        mockMvc.perform(delete("/api/estructuras/cola/atender")).andExpect(status().isNoContent());
+    }
+
+    @Test
+    void saltaLosTicketsQueOtroProcesoYaTomo() throws Exception {
+        long tomadoPorOtro = crear("ALTA");
+        long siguiente = crear("MEDIA");
+        // otra instancia lo pasó a EN_PROCESO: la cola en memoria de esta no se enteró
+        jdbcTemplate.update("update tickets set estado = 'EN_PROCESO' where id = ?", tomadoPorOtro);
+
+        assertThat(ticketService.dispatchNextTicket()).map(Ticket::getId).contains(siguiente);
+        assertThat(indiceTicketsService.verFrenteCola()).isNull();
+    }
+
+    @Test
+    void agentesConcurrentesNuncaRecibenElMismoTicket() throws Exception {
+        List<Long> creados = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            creados.add(crear(i % 3 == 0 ? "ALTA" : "MEDIA"));
+        }
+
+        Callable<List<Long>> agente = () -> {
+            List<Long> propios = new ArrayList<>();
+            Optional<Ticket> t;
+            while ((t = ticketService.dispatchNextTicket()).isPresent()) {
+                propios.add(t.get().getId());
+            }
+            return propios;
+        };
+        List<Long> despachados = new ArrayList<>();
+        try (ExecutorService agentes = Executors.newFixedThreadPool(6)) {
+            List<Future<List<Long>>> resultados = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                resultados.add(agentes.submit(agente));
+            }
+            for (Future<List<Long>> r : resultados) {
+                despachados.addAll(r.get());
+            }
+        }
+        assertThat(despachados).doesNotHaveDuplicates().containsExactlyInAnyOrderElementsOf(creados);
+    }
+
+    @Test
+    void siElUpdateFallaElTicketVuelveALaCola() throws Exception {
+        long id = crear("ALTA");
+        doThrow(new QueryTimeoutException("tiempo de espera del lock agotado"))
+                .when(ticketRepository).cambiarEstadoSi(any(), any(), any());
+
+        assertThatThrownBy(() -> ticketService.dispatchNextTicket()).isInstanceOf(QueryTimeoutException.class);
+        reset(ticketRepository);
+        assertThat(estadoEnBD(id)).isEqualTo(Estado.ABIERTO.name());
+        assertThat(indiceTicketsService.verFrenteCola().getId()).isEqualTo(id);
+
+        assertThat(ticketService.dispatchNextTicket()).map(Ticket::getId).contains(id);
+    }
+}
@@ -0,0 +1,180 @@
+package com.ticket.controller;
+
+import com.ticket.model.Estado;
+import com.ticket.repository.ComentarioRepository;
+import com.ticket.repository.TicketRepository;
+import com.ticket.service.EscrituraDiferidaService;
+import com.ticket.service.HistorialEstadosService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Con una latencia de volcado larga las escrituras quedan en la cola durante el
+ * test; vaciar() las baja a la BD cuando hace falta comprobarlas.
+ */
+@SpringBootTest(properties = {
+        "escritura.diferida.habilitada=true",
+        "escritura.diferida.capacidad=3",
+        "escritura.diferida.max-lote=100",
+        "escritura.diferida.max-latencia=2s",
+        "spring.datasource.url=jdbc:h2:mem:escritura-diferida",
+        "estructuras.registro.directorio=target/escritura-diferida/transiciones"
+})
+@AutoConfigureMockMvc
+@ExtendWith(OutputCaptureExtension.class)
+class EscrituraDiferidaTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EscrituraDiferidaService escrituraDiferida;
+
+    @Autowired
+    private ComentarioRepository comentarioRepository;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private HistorialEstadosService historialEstadosService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long id;
+
+    @BeforeEach
+    void crearTicket() throws Exception {
+        escrituraDiferida.vaciar(); // cola vacía para cada test
+        String cuerpo = mockMvc.perform(post("/api/tickets")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"titulo\": \"Caída general\", \"descripcion\": \"Sin red en planta\","
+                                + " \"prioridad\": \"ALTA\", \"estado\": \"ABIERTO\"}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        id = Long.parseLong(cuerpo.replaceAll("^\\{\"id\":(\\d+).*", "$1"));
+    }
+
+    private long crear(String titulo) throws Exception {
+        String cuerpo = mockMvc.perform(post("/api/tickets")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"titulo\": \"" + titulo + "\", \"descripcion\": \"d\","
+                                + " \"prioridad\": \"MEDIA\", \"estado\": \"ABIERTO\"}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return Long.parseLong(cuerpo.replaceAll("^\\{\"id\":(\\d+).*", "$1"));
+    }
+
+    private ResultActions comentar(long ticketId, String texto) throws Exception {
+        return mockMvc.perform(post("/api/tickets/" + ticketId + "/comentarios")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"texto\": \"" + texto + "\", \"usuarioId\": 1}"));
+    }
+
+    @Test
+    void elComentarioSeConfirmaConSuIdYSeLeeAntesDeInsertarse() throws Exception {
+        String cuerpo = comentar(id, "Reiniciando el switch")
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.usuarioNombre").isNotEmpty())
+                .andReturn().getResponse().getContentAsString();
+        long comentarioId = Long.parseLong(cuerpo.replaceAll("^\\{\"id\":(\\d+).*", "$1"));
+        assertThat(comentarioRepository.existsById(comentarioId)).isFalse();
+
+        mockMvc.perform(get("/api/tickets/" + id + "/comentarios"))
+                .andExpect(jsonPath("$[0].id").value(comentarioId))
+                .andExpect(jsonPath("$[0].texto").value("Reiniciando el switch"));
+        mockMvc.perform(get("/api/tickets/comentarios/conteo?ticketIds=" + id))
+                .andExpect(jsonPath("$." + id).value(1));
+
+        escrituraDiferida.vaciar();
+        assertThat(comentarioRepository.existsById(comentarioId)).isTrue();
+        assertThat(escrituraDiferida.cantidadPendientes(id)).isZero();
+        mockMvc.perform(get("/api/tickets/" + id + "/comentarios"))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(comentarioId));
+    }
+
+    @Test
+    void conLaColaLlenaRespondeDemasiadasPeticiones() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            comentar(id, "c" + i).andExpect(status().isAccepted());
+        }
+        comentar(id, "sobra")
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "1"));
+
+        escrituraDiferida.vaciar();
+        assertThat(comentarioRepository.buscarPagina(id, 0L, Limit.of(10)))
+                .extracting(c -> c.texto()).containsExactly("c0", "c1", "c2");
+        comentar(id, "ahora sí").andExpect(status().isAccepted());
+    }
+
+    @Test
+    void losEstadosEncoladosSeAplicanYSeApilanEnOrden() throws Exception {
+        for (String estado : List.of("EN_PROCESO", "CERRADO")) {
+            mockMvc.perform(post("/api/estructuras/pila/" + id)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"estado\": \"" + estado + "\"}"))
+                    .andExpect(status().isAccepted());
+        }
+        assertThat(ticketRepository.findById(id).orElseThrow().getEstado()).isEqualTo(Estado.ABIERTO);
+
+        escrituraDiferida.vaciar();
+        assertThat(ticketRepository.findById(id).orElseThrow().getEstado()).isEqualTo(Estado.CERRADO);
+        List<String> historial = historialEstadosService.obtener(id).obtenerHistorial(); // del tope hacia abajo
+        assertThat(historial).hasSize(3);
+        assertThat(historial.get(0)).endsWith("CERRADO");
+        assertThat(historial.get(1)).endsWith("EN_PROCESO");
+        assertThat(historial.get(2)).endsWith("ABIERTO");
+    }
+
+    @Test
+    void unTicketBorradoAntesDelVolcadoNoFrenaAlResto(CapturedOutput salida) throws Exception {
+        long otro = crear("Impresora atascada");
+        comentar(id, "Revisando").andExpect(status().isAccepted());
+        for (long ticket : new long[] { id, otro }) {
+            mockMvc.perform(post("/api/estructuras/pila/" + ticket)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"estado\": \"EN_PROCESO\"}"))
+                    .andExpect(status().isAccepted());
+        }
+        // otra instancia lo borró: el comentario hace fallar el lote y se reintenta de a una
+        jdbcTemplate.update("delete from tickets where id = ?", id);
+
+        escrituraDiferida.vaciar();
+        assertThat(ticketRepository.findById(otro).orElseThrow().getEstado()).isEqualTo(Estado.EN_PROCESO);
+        assertThat(salida.getOut())
+                .contains("Estados diferidos descartados: los tickets [" + id + "] ya no existen")
+                .doesNotContain("(estado del ticket " + id + "): null");
+    }
+
+    @Test
+    void unTicketInexistenteSeRechazaAlEncolar() throws Exception {
+        comentar(999_999, "nadie").andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/estructuras/pila/999999")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"estado\": \"CERRADO\"}"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,91 @@
+package com.ticket.controller;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.datasource.url=jdbc:h2:mem:estadisticas-tickets",
+        "estructuras.registro.directorio=target/estadisticas-tickets/transiciones"
+})
+@AutoConfigureMockMvc
+class EstadisticasTicketsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private JsonNode stats() throws Exception {
+        Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estadisticas.clear();
+        String cuerpo = mockMvc.perform(get("/api/tickets/stats"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertThat(estadisticas.getPrepareStatementCount()).isZero();
+        return objectMapper.readTree(cuerpo);
+    }
+
+    // las categorías sin tickets no aparecen en la respuesta
+    private static long cantidad(JsonNode stats, String ruta) {
+        JsonNode n = stats.at(ruta);
+        return n.isMissingNode() ? 0 : n.asLong();
+    }
+
+    private static String ticket(String estado, String prioridad) {
+        return "{\"titulo\": \"T\", \"descripcion\": \"d\", \"prioridad\": \"" + prioridad
+                + "\", \"estado\": \"" + estado + "\", \"categoria\": {\"id\": 2}}";
+    }
+
+    @Test
+    void losContadoresSiguenAltasCambiosYBajasSinConsultarLaBD() throws Exception {
+        JsonNode antes = stats();
+        String creado = mockMvc.perform(post("/api/tickets")
+                        .contentType(MediaType.APPLICATION_JSON).content(ticket("ABIERTO", "ALTA")))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        long id = objectMapper.readTree(creado).get("id").asLong();
+
+        JsonNode trasAlta = stats();
+        assertThat(trasAlta.get("total").asLong()).isEqualTo(antes.get("total").asLong() + 1);
+        assertThat(cantidad(trasAlta, "/porEstadoYPrioridad/ABIERTO/ALTA"))
+                .isEqualTo(cantidad(antes, "/porEstadoYPrioridad/ABIERTO/ALTA") + 1);
+        assertThat(cantidad(trasAlta, "/porCategoria/Software"))
+                .isEqualTo(cantidad(antes, "/porCategoria/Software") + 1);
+
+        mockMvc.perform(put("/api/tickets/" + id)
+                        .contentType(MediaType.APPLICATION_JSON).content(ticket("CERRADO", "ALTA")))
+                .andExpect(status().isOk());
+        JsonNode trasCambio = stats();
+        assertThat(trasCambio.get("total").asLong()).isEqualTo(trasAlta.get("total").asLong());
+        assertThat(cantidad(trasCambio, "/porEstado/CERRADO"))
+                .isEqualTo(cantidad(trasAlta, "/porEstado/CERRADO") + 1);
+        assertThat(cantidad(trasCambio, "/porCategoriaYEstado/Software/ABIERTO"))
+                .isEqualTo(cantidad(trasAlta, "/porCategoriaYEstado/Software/ABIERTO") - 1);
+
+        mockMvc.perform(delete("/api/tickets/" + id)).andExpect(status().isNoContent());
+        JsonNode trasBaja = stats();
+        assertThat(trasBaja.get("total").asLong()).isEqualTo(antes.get("total").asLong());
+        assertThat(cantidad(trasBaja, "/porEstado/CERRADO")).isEqualTo(cantidad(antes, "/porEstado/CERRADO"));
+    }
+}
@@ -0,0 +1,98 @@
+package com.ticket.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * El flujo SSE queda abierto durante el test: se lee lo que el emisor ya escribió en
+ * la respuesta hasta encontrar lo esperado.
+ */
+@SpringBootTest(properties = {
+        "eventos.sse.latido=200ms",
+        "spring.datasource.url=jdbc:h2:mem:eventos-tickets",
+        "estructuras.registro.directorio=target/eventos-tickets/transiciones"
+})
+@AutoConfigureMockMvc
+class EventosTicketsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private MockHttpServletResponse suscribir(MockHttpServletRequestBuilder peticion) throws Exception {
+        return mockMvc.perform(peticion)
+                .andExpect(status().isOk())
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+    }
+
+    private void crearTicket(String titulo) throws Exception {
+        mockMvc.perform(post("/api/tickets")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"titulo\": \"" + titulo + "\", \"descripcion\": \"Desde el test de eventos\","
+                                + " \"prioridad\": \"MEDIA\", \"estado\": \"ABIERTO\"}"))
+                .andExpect(status().isCreated());
+    }
+
+    private static String esperar(MockHttpServletResponse respuesta, String texto) throws Exception {
+        for (int i = 0; i < 100; i++) {
+            String contenido = respuesta.getContentAsString(StandardCharsets.UTF_8);
+            if (contenido.contains(texto))
+                return contenido;
+            Thread.sleep(50);
+        }
+        throw new AssertionError("No llegó '" + texto + "': " + respuesta.getContentAsString(StandardCharsets.UTF_8));
+    }
+
+    /** ID del evento cuyo data contiene 'texto'. */
+    private static long idDelEvento(String flujo, String texto) {
+        Matcher m = Pattern.compile("id:(\\d+)\\nevent:\\w+\\ndata:[^\\n]*" + Pattern.quote(texto)).matcher(flujo);
+        assertThat(m.find()).as("evento con '%s' en %s", texto, flujo).isTrue();
+        return Long.parseLong(m.group(1));
+    }
+
+    @Test
+    void cadaAltaLlegaComoEventoYHayLatidos() throws Exception {
+        MockHttpServletResponse flujo = suscribir(get("/api/tickets/events"));
+        crearTicket("Impresora sin toner");
+
+        String contenido = esperar(flujo, "Impresora sin toner");
+        assertThat(contenido).contains("event:CREADO").contains("\"ticketId\":");
+        assertThat(esperar(flujo, ":latido")).contains(":latido");
+    }
+
+    @Test
+    void conLastEventIdSeReenviaLoQueSePerdio() throws Exception {
+        MockHttpServletResponse primero = suscribir(get("/api/tickets/events"));
+        crearTicket("Antes de cortar");
+        long visto = idDelEvento(esperar(primero, "Antes de cortar"), "Antes de cortar");
+        crearTicket("Mientras estaba desconectado");
+
+        MockHttpServletResponse reconectado = suscribir(get("/api/tickets/events")
+                .header("Last-Event-ID", visto));
+        String contenido = esperar(reconectado, "Mientras estaba desconectado");
+        assertThat(contenido).doesNotContain("Antes de cortar");
+        assertThat(idDelEvento(contenido, "Mientras estaba desconectado")).isGreaterThan(visto);
+    }
+
+    @Test
+    void unLastEventIdFueraDelHistorialPideResync() throws Exception {
+        MockHttpServletResponse flujo = suscribir(get("/api/tickets/events").header("Last-Event-ID", 5));
+        assertThat(esperar(flujo, "event:RESYNC")).contains("ya no está en el historial");
+    }
+}
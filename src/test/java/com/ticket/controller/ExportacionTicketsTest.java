@@ -0,0 +1,155 @@
+package com.ticket.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * GET /api/tickets/exportar: CSV según RFC 4180, NDJSON con un objeto por línea y los
+ * mismos filtros que el listado. 'desde' deja afuera los tickets de DataInitializer.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:exportacion-tickets",
+        "estructuras.registro.directorio=target/exportacion-tickets/transiciones"
+})
+@AutoConfigureMockMvc
+class ExportacionTicketsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private long crear(String titulo, String descripcion, String prioridad, String estado) throws Exception {
+        String cuerpo = mockMvc.perform(post("/api/tickets")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of(
+                                "titulo", titulo, "descripcion", descripcion, "prioridad", prioridad,
+                                "estado", estado, "categoria", Map.of("id", 2)))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return Long.parseLong(cuerpo.replaceAll("^\\{\"id\":(\\d+).*", "$1"));
+    }
+
+    private MockHttpServletResponse exportar(String consulta) throws Exception {
+        MvcResult pendiente = mockMvc.perform(get("/api/tickets/exportar?" + consulta)).andReturn();
+        return mockMvc.perform(asyncDispatch(pendiente)).andExpect(status().isOk()).andReturn().getResponse();
+    }
+
+    /**
+     * Lector mínimo de RFC 4180: registros separados por CRLF, campos entre comillas
+     * que pueden tener comas, saltos de línea y comillas duplicadas.
+     */
+    private static List<List<String>> leerCsv(String texto) {
+        List<List<String>> registros = new ArrayList<>();
+        List<String> actual = new ArrayList<>();
+        StringBuilder campo = new StringBuilder();
+        boolean entreComillas = false;
+        for (int i = 0; i < texto.length(); i++) {
+            char ch = texto.charAt(i);
+            if (entreComillas) {
+                if (ch == '"' && i + 1 < texto.length() && texto.charAt(i + 1) == '"') {
+                    campo.append('"');
+                    i++;
+                } else if (ch == '"') {
+                    entreComillas = false;
+                } else {
+                    campo.append(ch);
+                }
+            } else if (ch == '"') {
+                entreComillas = true;
+            } else if (ch == ',') {
+                actual.add(campo.toString());
+                campo.setLength(0);
+            } else if (ch == '\r' && i + 1 < texto.length() && texto.charAt(i + 1) == '\n') {
+                actual.add(campo.toString());
+                campo.setLength(0);
+                registros.add(actual);
+                actual = new ArrayList<>();
+                i++;
+            } else {
+                campo.append(ch);
+            }
+        }
+        assertThat(entreComillas).as("comillas sin cerrar").isFalse();
+        assertThat(campo).as("el último registro termina en CRLF").isEmpty();
+        return registros;
+    }
+
+    private static String desde() {
+        return LocalDateTime.now().minusSeconds(1).truncatedTo(ChronoUnit.SECONDS).toString();
+    }
+
+    @Test
+    void csvEntrecomillaComasComillasYSaltosDeLinea() throws Exception {
+        String desde = desde();
+        String titulo = "Error \"fatal\", reinicio";
+        String descripcion = "Paso 1: abrir\r\nPaso 2: \"guardar\", cerrar\nFin";
+        long id = crear(titulo, descripcion, "ALTA", "CERRADO");
+        crear("Otro, abierto", "no se exporta", "ALTA", "ABIERTO");
+
+        MockHttpServletResponse respuesta = exportar("formato=csv&estado=CERRADO&desde=" + desde);
+        assertThat(respuesta.getContentType()).startsWith("text/csv");
+        List<List<String>> registros = leerCsv(respuesta.getContentAsString(StandardCharsets.UTF_8));
+
+        assertThat(registros.get(0)).containsExactly("id", "titulo", "descripcion", "prioridad", "estado",
+                "fechaCreacion", "usuarioId", "usuarioNombre", "categoriaId", "categoriaNombre");
+        assertThat(registros).hasSize(2);
+        List<String> fila = registros.get(1);
+        assertThat(fila).hasSize(10);
+        assertThat(fila.get(0)).isEqualTo(String.valueOf(id));
+        assertThat(fila.get(1)).isEqualTo(titulo);
+        assertThat(fila.get(2)).isEqualTo(descripcion);
+        assertThat(fila.subList(3, 5)).containsExactly("ALTA", "CERRADO");
+        assertThat(fila.get(8)).isEqualTo("2");
+    }
+
+    @Test
+    void ndjsonTieneUnObjetoPorLineaYRespetaLosFiltros() throws Exception {
+        String desde = desde();
+        List<Long> esperados = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            esperados.add(crear("Lento " + i, "Línea 1\nLínea 2", "BAJA", "EN_PROCESO"));
+            crear("Urgente " + i, "otra prioridad", "ALTA", "EN_PROCESO");
+        }
+
+        MockHttpServletResponse respuesta = exportar("formato=ndjson&prioridad=BAJA&estado=EN_PROCESO&desde=" + desde);
+        assertThat(respuesta.getContentType()).startsWith(MediaType.APPLICATION_NDJSON_VALUE);
+        String cuerpo = respuesta.getContentAsString(StandardCharsets.UTF_8);
+        assertThat(cuerpo).endsWith("\n");
+
+        List<Long> ids = new ArrayList<>();
+        for (String linea : cuerpo.split("\n")) {
+            JsonNode ticket = objectMapper.readTree(linea); // falla si un objeto ocupa más de una línea
+            assertThat(ticket.isObject()).isTrue();
+            assertThat(ticket.get("prioridad").asString()).isEqualTo("BAJA");
+            assertThat(ticket.get("estado").asString()).isEqualTo("EN_PROCESO");
+            assertThat(ticket.get("descripcion").asString()).isEqualTo("Línea 1\nLínea 2");
+            ids.add(ticket.get("id").asLong());
+        }
+        assertThat(ids).containsExactlyElementsOf(esperados); // ordenados por ID
+
+        mockMvc.perform(get("/api/tickets/exportar?formato=xml")).andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,115 @@
+package com.ticket.controller;
+
+import com.ticket.config.FormatosRespuestaConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * El mismo listado en JSON, Smile y CBOR según el Accept, con el mismo contenido y
+ * un ETag por formato. La compresión gzip es de Tomcat y no pasa por MockMvc.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:formatos-respuesta",
+        "estructuras.registro.directorio=target/formatos-respuesta/transiciones"
+})
+@AutoConfigureMockMvc
+class FormatosRespuestaTest {
+
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+    private static final MediaType CBOR = MediaType.parseMediaType("application/cbor");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void crearTickets() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            mockMvc.perform(post("/api/tickets")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"titulo\": \"Impresora sin tóner " + i + "\", \"descripcion\": \"d\","
+                                    + " \"prioridad\": \"MEDIA\", \"estado\": \"ABIERTO\", \"categoria\": {\"id\": 2}}"))
+                    .andExpect(status().isCreated());
+        }
+    }
+
+    private MockHttpServletResponse listado(MediaType formato) throws Exception {
+        MockHttpServletResponse respuesta = mockMvc.perform(get("/api/tickets?limite=50").accept(formato))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        assertThat(MediaType.parseMediaType(respuesta.getContentType()).isCompatibleWith(formato)).isTrue();
+        return respuesta;
+    }
+
+    @Test
+    void smileYCborTraenLoMismoQueJson() throws Exception {
+        MockHttpServletResponse json = listado(MediaType.APPLICATION_JSON);
+        MockHttpServletResponse smile = listado(SMILE);
+        MockHttpServletResponse cbor = listado(CBOR);
+
+        JsonNode esperado = objectMapper.readTree(json.getContentAsByteArray());
+        assertThat(esperado.isEmpty()).isFalse();
+        assertThat(FormatosRespuestaConfig.smileMapper().readTree(smile.getContentAsByteArray())).isEqualTo(esperado);
+        assertThat(new CBORMapper().readTree(cbor.getContentAsByteArray())).isEqualTo(esperado);
+
+        assertThat(smile.getContentAsByteArray().length).isLessThan(json.getContentAsByteArray().length / 2);
+        assertThat(json.getHeaders(HttpHeaders.VARY)).contains(HttpHeaders.ACCEPT);
+        assertThat(smile.getHeaders(HttpHeaders.VARY)).contains(HttpHeaders.ACCEPT);
+    }
+
+    @Test
+    void cadaFormatoTieneSuPropioEtag() throws Exception {
+        String json = listado(MediaType.APPLICATION_JSON).getHeader(HttpHeaders.ETAG);
+        String smile = listado(SMILE).getHeader(HttpHeaders.ETAG);
+        String cbor = listado(CBOR).getHeader(HttpHeaders.ETAG);
+        assertThat(json).startsWith("W/\"");
+        assertThat(List.of(json, smile, cbor)).doesNotHaveDuplicates();
+
+        // el ETag de JSON no sirve para pedir Smile, y viceversa
+        mockMvc.perform(get("/api/tickets?limite=50").accept(SMILE).header(HttpHeaders.IF_NONE_MATCH, json))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/tickets?limite=50").accept(SMILE).header(HttpHeaders.IF_NONE_MATCH, smile))
+                .andExpect(status().isNotModified())
+                .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)));
+        mockMvc.perform(get("/api/tickets?limite=50").header(HttpHeaders.IF_NONE_MATCH, json))
+                .andExpect(status().isNotModified());
+        // con Smile preferido por calidad sobre JSON gana Smile
+        mockMvc.perform(get("/api/tickets?limite=50")
+                        .header(HttpHeaders.ACCEPT, "application/json;q=0.5, application/x-jackson-smile")
+                        .header(HttpHeaders.IF_NONE_MATCH, smile))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void elDetalleAgregaElFormatoALaVersion() throws Exception {
+        String id = objectMapper.readTree(listado(MediaType.APPLICATION_JSON).getContentAsByteArray())
+                .findValue("id").asString();
+        mockMvc.perform(get("/api/tickets/" + id).accept(SMILE))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0-s\""));
+        mockMvc.perform(get("/api/tickets/" + id).header(HttpHeaders.IF_NONE_MATCH, "\"0-s\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""));
+    }
+}
@@ -0,0 +1,173 @@
+package com.ticket.controller;
+
+import com.ticket.service.BusquedaTicketsService;
+import com.ticket.service.IndiceTicketsService;
+import com.ticket.service.VersionesService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Un GET repetido con el ETag recibido responde 304 sin tocar la BD mientras nada
+ * cambie, y 200 con otro ETag en cuanto algo cambia.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.datasource.url=jdbc:h2:mem:get-condicional",
+        "estructuras.registro.directorio=target/get-condicional/transiciones"
+})
+@AutoConfigureMockMvc
+class GetCondicionalTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private IndiceTicketsService indiceTicketsService;
+
+    @Autowired
+    private BusquedaTicketsService busquedaTicketsService;
+
+    @MockitoSpyBean
+    private VersionesService versionesService;
+
+    private Statistics estadisticas;
+    private long id;
+
+    @BeforeEach
+    void crearTicket() throws Exception {
+        estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        id = crear("Monitor parpadea");
+    }
+
+    private long crear(String titulo) throws Exception {
+        String cuerpo = mockMvc.perform(post("/api/tickets")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"titulo\": \"" + titulo + "\", \"descripcion\": \"Desde el test de ETag\","
+                                + " \"prioridad\": \"BAJA\", \"estado\": \"ABIERTO\"}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return Long.parseLong(cuerpo.replaceAll("^\\{\"id\":(\\d+).*", "$1"));
+    }
+
+    private void comentar(long ticketId) throws Exception {
+        mockMvc.perform(post("/api/tickets/" + ticketId + "/comentarios")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"texto\": \"Visto\", \"usuarioId\": 1}"))
+                .andExpect(status().isCreated());
+    }
+
+    private String etag(String url) throws Exception {
+        String etag = mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).as("ETag de %s", url).isNotNull();
+        return etag;
+    }
+
+    /** Estado de la respuesta condicional; un 304 no debe ejecutar ninguna sentencia. */
+    private int condicional(String url, String etag) throws Exception {
+        estadisticas.clear();
+        MockHttpServletResponse respuesta = mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andReturn().getResponse();
+        if (respuesta.getStatus() == 304) {
+            assertThat(respuesta.getContentLength()).isZero();
+            assertThat(estadisticas.getPrepareStatementCount()).as("sentencias de %s", url).isZero();
+        }
+        return respuesta.getStatus();
+    }
+
+    @Test
+    void elListadoRespondeNoModificadoHastaQueCambiaUnTicket() throws Exception {
+        for (String url : new String[] { "/api/tickets", "/api/tickets/stats", "/api/tickets/search?q=monitor",
+                "/api/estructuras/cola", "/api/estructuras/bst/pagina" }) {
+            String etag = etag(url);
+            assertThat(condicional(url, etag)).as(url).isEqualTo(304);
+        }
+        String antes = etag("/api/tickets");
+        crear("Teclado sin respuesta");
+        assertThat(condicional("/api/tickets", antes)).isEqualTo(200);
+        assertThat(etag("/api/tickets")).isNotEqualTo(antes);
+    }
+
+    @Test
+    void losComentariosDeUnTicketNoSeInvalidanPorOtro() throws Exception {
+        long otro = crear("Mouse sin batería");
+        String url = "/api/tickets/" + id + "/comentarios";
+        String etag = etag(url);
+
+        comentar(otro);
+        assertThat(condicional(url, etag)).isEqualTo(304);
+        comentar(id);
+        assertThat(condicional(url, etag)).isEqualTo(200);
+    }
+
+    @Test
+    void elDetalleUsaLaVersionDelTicket() throws Exception {
+        String url = "/api/tickets/" + id;
+        String etag = etag(url);
+        assertThat(etag).isEqualTo("\"0\"");
+        assertThat(condicional(url, etag)).isEqualTo(304);
+
+        mockMvc.perform(patch(url)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_MATCH, etag)
+                        .content("{\"prioridad\": \"ALTA\"}"))
+                .andExpect(status().isOk());
+        assertThat(condicional(url, etag)).isEqualTo(200);
+        assertThat(etag(url)).isEqualTo("\"1\"");
+    }
+
+    @Test
+    void elContadorSubeCuandoLosIndicesYaTienenElCambio() throws Exception {
+        // lo que vería un GET en el instante en que cambia el ETag
+        List<String> vistos = new CopyOnWriteArrayList<>();
+        doAnswer(invocacion -> {
+            vistos.add(indiceTicketsService.buscarEnBST(id).getTitulo() + " / "
+                    + busquedaTicketsService.buscar("reemplazado", 1).size());
+            return invocacion.callRealMethod();
+        }).when(versionesService).ticketModificado(id);
+
+        mockMvc.perform(patch("/api/tickets/" + id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"titulo\": \"Monitor reemplazado\"}"))
+                .andExpect(status().isOk());
+        assertThat(vistos).containsExactly("Monitor reemplazado / 1");
+    }
+
+    @Test
+    void lasCategoriasCambianSoloAlCrearUna() throws Exception {
+        String etag = etag("/api/categorias");
+        crear("No afecta a las categorías");
+        assertThat(condicional("/api/categorias", etag)).isEqualTo(304);
+
+        mockMvc.perform(post("/api/categorias")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nombre\": \"Periféricos " + id + "\"}"))
+                .andExpect(status().isCreated());
+        assertThat(condicional("/api/categorias", etag)).isEqualTo(200);
+    }
+}
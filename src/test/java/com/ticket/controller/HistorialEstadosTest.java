@@ -0,0 +1,140 @@
+package com.ticket.controller;
+
+import com.ticket.repository.TicketRepository;
+import com.ticket.service.HistorialEstadosService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Lo que el historial escribe en el registro de transiciones al crear y eliminar.
+ * El registro va a un directorio nuevo en cada ejecución: con uno fijo los IDs de la
+ * BD en memoria se repiten entre ejecuciones y ya tendrían historial.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:historial-estados")
+@AutoConfigureMockMvc
+class HistorialEstadosTest {
+
+    @TempDir
+    static Path directorio;
+
+    @DynamicPropertySource
+    static void registro(DynamicPropertyRegistry propiedades) {
+        propiedades.add("estructuras.registro.directorio", () -> directorio.resolve("transiciones").toString());
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private HistorialEstadosService historialEstadosService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoSpyBean
+    private TicketRepository ticketRepository;
+
+    private long crear() throws Exception {
+        String cuerpo = mockMvc.perform(post("/api/tickets")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"titulo\": \"Proyector sin señal\", \"descripcion\": \"Sala 2\","
+                                + " \"prioridad\": \"BAJA\", \"estado\": \"ABIERTO\"}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return Long.parseLong(cuerpo.replaceAll("^\\{\"id\":(\\d+).*", "$1"));
+    }
+
+    private void apilar(long id, String estado) throws Exception {
+        mockMvc.perform(post("/api/estructuras/pila/" + id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"estado\": \"" + estado + "\"}"))
+                .andExpect(status().isOk());
+    }
+
+    private String estadoEnBD(long id) {
+        return jdbcTemplate.queryForObject("select estado from tickets where id = ?", String.class, id);
+    }
+
+    private List<String> pila(long id) {
+        return historialEstadosService.obtener(id).obtenerHistorial().stream()
+                .map(h -> h.substring(h.lastIndexOf(' ') + 1)).toList();
+    }
+
+    private long registros() {
+        return historialEstadosService.estadisticasRegistro().registros;
+    }
+
+    @Test
+    void crearUnTicketNuevoSoloRegistraSuEstado() throws Exception {
+        long antes = registros();
+        clearInvocations(ticketRepository);
+        long id = crear();
+        assertThat(registros()).isEqualTo(antes + 1); // sin BORRADO: el ID no tenía historial
+        verify(ticketRepository, never()).findById(id); // la base de la pila es el estado del evento
+        assertThat(historialEstadosService.obtener(id).obtenerHistorial()).hasSize(1);
+
+        mockMvc.perform(delete("/api/tickets/" + id)).andExpect(status().isNoContent());
+        assertThat(registros()).isEqualTo(antes + 2); // al eliminar sí se borra el historial
+        assertThat(historialEstadosService.obtener(id).estaVacia()).isTrue();
+    }
+
+    @Test
+    void popDevuelveElTicketAlEstadoAnteriorEnLaPilaYEnLaBD() throws Exception {
+        long id = crear();
+        apilar(id, "EN_PROCESO");
+        apilar(id, "CERRADO");
+
+        mockMvc.perform(delete("/api/estructuras/pila/" + id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.datos").value("CERRADO"));
+        assertThat(estadoEnBD(id)).isEqualTo("EN_PROCESO");
+        assertThat(pila(id)).containsExactly("EN_PROCESO", "ABIERTO"); // no se volvió a apilar
+
+        mockMvc.perform(delete("/api/estructuras/pila/" + id)).andExpect(status().isOk());
+        assertThat(estadoEnBD(id)).isEqualTo("ABIERTO");
+        mockMvc.perform(delete("/api/estructuras/pila/" + id)).andExpect(status().isNoContent());
+        assertThat(pila(id)).containsExactly("ABIERTO");
+    }
+
+    @Test
+    void siLaBDYaNoEstaEnElTopeElPopNoRetiraNada() throws Exception {
+        long id = crear();
+        apilar(id, "EN_PROCESO");
+        // otra instancia lo cerró sin pasar por esta pila
+        jdbcTemplate.update("update tickets set estado = 'CERRADO' where id = ?", id);
+
+        mockMvc.perform(delete("/api/estructuras/pila/" + id)).andExpect(status().isPreconditionFailed());
+        assertThat(estadoEnBD(id)).isEqualTo("CERRADO");
+        assertThat(pila(id)).containsExactly("EN_PROCESO", "ABIERTO");
+    }
+
+    @Test
+    void popDeUnTicketEliminadoResponde404() throws Exception {
+        long id = crear();
+        apilar(id, "EN_PROCESO");
+        mockMvc.perform(delete("/api/tickets/" + id)).andExpect(status().isNoContent());
+
+        mockMvc.perform(delete("/api/estructuras/pila/" + id)).andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,102 @@
+package com.ticket.controller;
+
+import com.ticket.model.Ticket;
+import com.ticket.repository.TicketRepository;
+import com.ticket.service.IndiceTicketsService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "tickets.importacion.tamanio-lote=2", // varios lotes con pocos tickets
+        "spring.datasource.url=jdbc:h2:mem:importacion-tickets",
+        "estructuras.registro.directorio=target/importacion-tickets/transiciones"
+})
+@AutoConfigureMockMvc
+class ImportacionTicketsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private IndiceTicketsService indiceTicketsService;
+
+    @Test
+    void importaUnArregloJsonYRechazaLosInvalidosSinFrenarAlResto() throws Exception {
+        String cuerpo = """
+                [
+                  {"titulo": "A", "descripcion": "a", "prioridad": "ALTA", "usuarioId": 1, "categoriaId": 2},
+                  {"titulo": "", "descripcion": "b", "prioridad": "BAJA"},
+                  {"titulo": "C", "descripcion": "c", "prioridad": "URGENTE"},
+                  {"titulo": "D", "descripcion": "d", "prioridad": "MEDIA", "usuarioId": 999},
+                  {"titulo": "E", "descripcion": "e", "prioridad": "BAJA", "estado": "CERRADO"}
+                ]
+                """;
+        mockMvc.perform(post("/api/tickets/bulk").contentType(MediaType.APPLICATION_JSON).content(cuerpo))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.recibidos").value(5))
+                .andExpect(jsonPath("$.insertados").value(2))
+                .andExpect(jsonPath("$.rechazados").value(3))
+                .andExpect(jsonPath("$.lotes").value(3))
+                .andExpect(jsonPath("$.fallos[?(@.posicion == 1)].motivo").value("El título no puede estar vacío"))
+                .andExpect(jsonPath("$.fallos[?(@.posicion == 2)]").exists())
+                .andExpect(jsonPath("$.fallos[?(@.posicion == 3)].motivo").value("No existe el usuario 999"));
+
+        List<Ticket> importados = ticketRepository.findAllConRelaciones().stream()
+                .filter(t -> t.getTitulo().equals("A") || t.getTitulo().equals("E"))
+                .toList();
+        assertThat(importados).hasSize(2);
+        Ticket a = importados.get(0);
+        assertThat(a.getUsuario().getId()).isEqualTo(1L);
+        assertThat(a.getCategoria().getId()).isEqualTo(2L);
+        assertThat(a.getFechaCreacion()).isNotNull();
+        assertThat(importados.get(1).getEstado().name()).isEqualTo("CERRADO");
+
+        // los índices en memoria se enteran sin releer la tabla
+        assertThat(indiceTicketsService.buscarEnBST(a.getId())).isNotNull();
+        assertThat(indiceTicketsService.buscarEnBST(a.getId()).getCategoria().getNombre()).isNotBlank();
+    }
+
+    @Test
+    void importaNdjsonLineaPorLinea() throws Exception {
+        long antes = ticketRepository.count();
+        String cuerpo = """
+                {"titulo": "N1", "descripcion": "x", "prioridad": "ALTA"}
+                {"titulo": "N2", "descripcion": "y", "prioridad": "MEDIA"}
+                {"titulo": "N3", "descripcion": "z", "prioridad": "BAJA"}
+                """;
+        mockMvc.perform(post("/api/tickets/bulk").contentType(MediaType.APPLICATION_NDJSON).content(cuerpo))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.insertados").value(3))
+                .andExpect(jsonPath("$.rechazados").value(0));
+        assertThat(ticketRepository.count()).isEqualTo(antes + 3);
+    }
+
+    @Test
+    void unJsonMalFormadoCortaLaLecturaPeroConservaLoAnterior() throws Exception {
+        long antes = ticketRepository.count();
+        String cuerpo = """
+                {"titulo": "M1", "descripcion": "x", "prioridad": "ALTA"}
+                {"titulo": "M2", "descripcion": "y", "prioridad": "ALTA"}
+                {"titulo": "M3", "descripcion":
+                """;
+        mockMvc.perform(post("/api/tickets/bulk").contentType(MediaType.APPLICATION_NDJSON).content(cuerpo))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.insertados").value(2))
+                .andExpect(jsonPath("$.rechazados").value(1));
+        assertThat(ticketRepository.count()).isEqualTo(antes + 2);
+    }
+}
@@ -0,0 +1,147 @@
+package com.ticket.controller;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * GET /api/tickets: paginación por clave con X-Cursor-Siguiente y los filtros del
+ * listado. Los 12 tickets tienen estado, prioridad, categoría, usuario y fecha
+ * conocidos, así cada filtro se compara con lo que debería devolver.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:listado-tickets",
+        "estructuras.registro.directorio=target/listado-tickets/transiciones"
+})
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ListadoTicketsTest {
+
+    private static final String[] ESTADOS = { "ABIERTO", "EN_PROCESO", "CERRADO" };
+    private static final String[] PRIORIDADES = { "ALTA", "MEDIA", "BAJA", "MEDIA" };
+    private static final LocalDateTime ENERO = LocalDateTime.of(2025, 1, 1, 9, 0);
+
+    private record Creado(long id, String estado, String prioridad, long categoriaId, long usuarioId,
+            LocalDateTime fecha) {
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Creado> creados = new ArrayList<>();
+
+    @BeforeAll
+    void crearTickets() throws Exception {
+        for (int i = 0; i < 12; i++) {
+            String estado = ESTADOS[i % 3];
+            String prioridad = PRIORIDADES[i % 4];
+            long categoriaId = 1 + (i / 2) % 3;
+            long usuarioId = 1 + i % 2;
+            String cuerpo = mockMvc.perform(post("/api/tickets")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"titulo\": \"Listado " + i + "\", \"descripcion\": \"d\","
+                                    + " \"prioridad\": \"" + prioridad + "\", \"estado\": \"" + estado + "\","
+                                    + " \"usuario\": {\"id\": " + usuarioId + "},"
+                                    + " \"categoria\": {\"id\": " + categoriaId + "}}"))
+                    .andExpect(status().isCreated())
+                    .andReturn().getResponse().getContentAsString();
+            long id = Long.parseLong(cuerpo.replaceAll("^\\{\"id\":(\\d+).*", "$1"));
+            LocalDateTime fecha = ENERO.plusDays(i);
+            jdbcTemplate.update("update tickets set fecha_creacion = ? where id = ?", Timestamp.valueOf(fecha), id);
+            creados.add(new Creado(id, estado, prioridad, categoriaId, usuarioId, fecha));
+        }
+    }
+
+    private List<Long> esperados(Predicate<Creado> condicion) {
+        return creados.stream().filter(condicion).map(Creado::id).toList();
+    }
+
+    /**
+     * Recorre todas las páginas siguiendo X-Cursor-Siguiente hasta que no viene más.
+     */
+    private List<Long> recorrer(String filtros, int limite, List<Integer> tamanios) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            MockHttpServletResponse pagina = mockMvc.perform(get("/api/tickets?limite=" + limite + filtros
+                            + (cursor != null ? "&despuesDe=" + cursor : "")))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse();
+            JsonNode filas = objectMapper.readTree(pagina.getContentAsString());
+            filas.forEach(t -> ids.add(t.get("id").asLong()));
+            tamanios.add(filas.size());
+            cursor = pagina.getHeader(TicketController.CABECERA_CURSOR);
+        } while (cursor != null);
+        return ids;
+    }
+
+    private List<Long> recorrer(String filtros) throws Exception {
+        return recorrer(filtros, 500, new ArrayList<>());
+    }
+
+    @Test
+    void elCursorRecorreTodasLasPaginasSinRepetir() throws Exception {
+        List<Integer> tamanios = new ArrayList<>();
+        assertThat(recorrer("", 5, tamanios)).containsExactlyElementsOf(esperados(c -> true));
+        assertThat(tamanios).containsExactly(5, 5, 2);
+
+        // con una página exacta no hay cursor: la última página no queda vacía
+        tamanios.clear();
+        assertThat(recorrer("", 6, tamanios)).hasSize(12);
+        assertThat(tamanios).containsExactly(6, 6);
+    }
+
+    @Test
+    void cadaFiltroAcotaElListado() throws Exception {
+        assertThat(recorrer("&estado=CERRADO")).containsExactlyElementsOf(esperados(c -> c.estado().equals("CERRADO")));
+        assertThat(recorrer("&prioridad=MEDIA")).containsExactlyElementsOf(esperados(c -> c.prioridad().equals("MEDIA")));
+        assertThat(recorrer("&categoriaId=2")).containsExactlyElementsOf(esperados(c -> c.categoriaId() == 2));
+        assertThat(recorrer("&usuarioId=2")).containsExactlyElementsOf(esperados(c -> c.usuarioId() == 2));
+
+        LocalDateTime desde = ENERO.plusDays(3);
+        LocalDateTime hasta = ENERO.plusDays(8);
+        assertThat(recorrer("&desde=" + desde + "&hasta=" + hasta)) // hasta es exclusivo
+                .containsExactlyElementsOf(esperados(c -> !c.fecha().isBefore(desde) && c.fecha().isBefore(hasta)))
+                .hasSize(5);
+
+        // filtros combinados y paginados con el cursor
+        List<Integer> tamanios = new ArrayList<>();
+        assertThat(recorrer("&estado=ABIERTO&usuarioId=1", 1, tamanios))
+                .containsExactlyElementsOf(esperados(c -> c.estado().equals("ABIERTO") && c.usuarioId() == 1))
+                .isNotEmpty();
+        assertThat(tamanios).allMatch(n -> n == 1);
+    }
+
+    @Test
+    void unLimiteFueraDeRangoResponde400() throws Exception {
+        mockMvc.perform(get("/api/tickets?limite=0")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/tickets?limite=501")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/tickets?limite=500")).andExpect(status().isOk());
+    }
+}
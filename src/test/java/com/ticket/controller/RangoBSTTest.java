@@ -0,0 +1,82 @@
+package com.ticket.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Recorrer /bst/rango página por página con 'despuesDe' = 'siguienteCursor'.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:rango-bst",
+        "estructuras.registro.directorio=target/rango-bst/transiciones"
+})
+@AutoConfigureMockMvc
+class RangoBSTTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private long crear(int i) throws Exception {
+        String cuerpo = mockMvc.perform(post("/api/tickets")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"titulo\": \"Rango " + i + "\", \"descripcion\": \"d\","
+                                + " \"prioridad\": \"MEDIA\", \"estado\": \"ABIERTO\"}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return Long.parseLong(cuerpo.replaceAll("^\\{\"id\":(\\d+).*", "$1"));
+    }
+
+    private JsonNode rango(String consulta) throws Exception {
+        return objectMapper.readTree(mockMvc.perform(get("/api/estructuras/bst/rango?" + consulta))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+    }
+
+    @Test
+    void elCursorRecorreTodoElRangoSinRepetir() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 9; i++) {
+            ids.add(crear(i));
+        }
+        long desde = ids.get(1);
+        long hasta = ids.get(7);
+
+        List<Long> recorridos = new ArrayList<>();
+        String cursor = "";
+        int paginas = 0;
+        do {
+            JsonNode pagina = rango("desde=" + desde + "&hasta=" + hasta + "&limite=3" + cursor);
+            for (JsonNode t : pagina.get("datos")) {
+                recorridos.add(t.get("id").asLong());
+            }
+            JsonNode siguiente = pagina.get("siguienteCursor");
+            cursor = siguiente == null || siguiente.isNull() ? null : "&despuesDe=" + siguiente.asLong();
+            paginas++;
+        } while (cursor != null);
+
+        assertThat(recorridos).containsExactlyElementsOf(ids.subList(1, 8));
+        assertThat(paginas).isEqualTo(3);
+
+        // un cursor fuera del rango no lo amplía
+        assertThat(rango("desde=" + desde + "&hasta=" + hasta + "&despuesDe=0").get("datos").get(0).get("id").asLong())
+                .isEqualTo(desde);
+        assertThat(rango("desde=" + desde + "&hasta=" + hasta + "&despuesDe=" + hasta).get("datos")).isEmpty();
+    }
+}
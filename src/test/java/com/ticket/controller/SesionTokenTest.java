@@ -0,0 +1,114 @@
+package com.ticket.controller;
+
+import com.ticket.config.SeguridadConfig;
+import com.ticket.model.Rol;
+import com.ticket.model.Usuario;
+import com.ticket.repository.UsuarioRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.datasource.url=jdbc:h2:mem:sesion-token",
+        "estructuras.registro.directorio=target/sesion-token/transiciones"
+})
+@AutoConfigureMockMvc
+class SesionTokenTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ApplicationContext contexto;
+
+    private ResultActions login(String email, String password) throws Exception {
+        MvcResult pendiente = mockMvc.perform(post("/api/usuarios/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\": \"" + email + "\", \"password\": \"" + password + "\"}"))
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(pendiente));
+    }
+
+    private String token(String email, String password) throws Exception {
+        String cuerpo = login(email, password).andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return cuerpo.replaceAll(".*\"token\":\"([^\"]+)\".*", "$1");
+    }
+
+    @Test
+    void elEjecutorDeContraseniasNoReemplazaAlDeLaAplicacion() {
+        assertThat(contexto.getBean(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME))
+                .isNotSameAs(contexto.getBean(SeguridadConfig.EJECUTOR_CONTRASENIAS));
+    }
+
+    @Test
+    void elTokenIdentificaAlUsuarioSinConsultarLaBD() throws Exception {
+        String token = token("admin@test.com", "1234");
+        mockMvc.perform(get("/api/usuarios/yo").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk()); // llena la caché usuarioPorId si hacía falta
+
+        Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estadisticas.clear();
+        mockMvc.perform(get("/api/usuarios/yo").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email").value("admin@test.com"))
+                .andExpect(jsonPath("$.password").doesNotExist());
+        assertThat(estadisticas.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void credencialesInvalidasYTokensAlteradosSeRechazan() throws Exception {
+        login("admin@test.com", "mal").andExpect(status().isUnauthorized());
+        login("nadie@test.com", "1234").andExpect(status().isUnauthorized());
+
+        String token = token("tecnico@test.com", "1234");
+        String alterado = "1" + token.substring(token.indexOf('.'));
+        mockMvc.perform(get("/api/usuarios/yo").header(HttpHeaders.AUTHORIZATION, "Bearer " + alterado))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void elLogoutRevocaElToken() throws Exception {
+        String token = token("tecnico@test.com", "1234");
+        mockMvc.perform(post("/api/usuarios/logout").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/usuarios/yo").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void unaContraseniaEnClaroSeMigraAHashAlEntrar() throws Exception {
+        usuarioRepository.save(new Usuario(null, "Viejo", "viejo@test.com", "secreta", Rol.TECNICO));
+
+        login("viejo@test.com", "secreta").andExpect(status().isOk())
+                .andExpect(jsonPath("$.usuario.password").doesNotExist());
+        assertThat(usuarioRepository.findByEmail("viejo@test.com").orElseThrow().getPassword())
+                .startsWith("pbkdf2$");
+        login("viejo@test.com", "secreta").andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,173 @@
+package com.ticket.controller;
+
+import com.ticket.dto.TicketPatchDTO;
+import com.ticket.model.Estado;
+import com.ticket.repository.TicketRepository;
+import com.ticket.service.TicketService;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.ticket.controller.TicketPatchTest$Sentencias",
+        "spring.datasource.url=jdbc:h2:mem:ticket-patch",
+        "estructuras.registro.directorio=target/ticket-patch/transiciones"
+})
+@AutoConfigureMockMvc
+class TicketPatchTest {
+
+    /**
+     * Guarda el SQL que genera Hibernate, para ver qué columnas lleva cada UPDATE.
+     */
+    public static class Sentencias implements StatementInspector {
+        static final List<String> SQL = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            SQL.add(sql.toLowerCase());
+            return sql;
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long id;
+
+    @BeforeEach
+    void crearTicket() throws Exception {
+        String cuerpo = mockMvc.perform(post("/api/tickets")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"titulo\": \"Disco lleno\", \"descripcion\": \"Servidor de archivos\","
+                                + " \"prioridad\": \"MEDIA\", \"estado\": \"ABIERTO\", \"version\": 7}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        id = Long.parseLong(cuerpo.replaceAll("^\\{\"id\":(\\d+).*", "$1"));
+    }
+
+    private static String soloUpdates() {
+        return Sentencias.SQL.stream().filter(s -> s.startsWith("update tickets")).findFirst().orElseThrow();
+    }
+
+    @Test
+    void elPatchSoloEscribeLosCamposEnviadosYAvanzaElETag() throws Exception {
+        mockMvc.perform(get("/api/tickets/" + id))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+                .andExpect(jsonPath("$.version").value(0)); // la versión del cuerpo del POST se ignora
+
+        Sentencias.SQL.clear();
+        mockMvc.perform(patch("/api/tickets/" + id)
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"estado\": \"EN_PROCESO\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(jsonPath("$.estado").value("EN_PROCESO"))
+                .andExpect(jsonPath("$.descripcion").value("Servidor de archivos"));
+
+        String update = soloUpdates();
+        assertThat(update).contains("estado", "version").doesNotContain("descripcion", "titulo");
+        assertThat(update).containsPattern("where .*version");
+    }
+
+    @Test
+    void unIfMatchViejoResponde412ConLaVersionActual() throws Exception {
+        mockMvc.perform(patch("/api/tickets/" + id)
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"prioridad\": \"ALTA\"}"))
+                .andExpect(status().isOk());
+
+        // el segundo agente todavía tiene la versión 0
+        mockMvc.perform(patch("/api/tickets/" + id)
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"prioridad\": \"BAJA\"}"))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+        mockMvc.perform(put("/api/tickets/" + id)
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"titulo\": \"X\", \"descripcion\": \"Y\", \"prioridad\": \"BAJA\", \"estado\": \"CERRADO\"}"))
+                .andExpect(status().isPreconditionFailed());
+
+        assertThat(ticketRepository.findById(id).orElseThrow().getPrioridad().name()).isEqualTo("ALTA");
+    }
+
+    @Test
+    void unaEscrituraConcurrenteEntreLecturaYCommitTambienSeDetecta() {
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> {
+            ticketRepository.findById(id).orElseThrow(); // lectura con versión 0
+            jdbcTemplate.update("update tickets set version = version + 1 where id = ?", id); // otro agente
+            ticketService.patchTicket(id, new TicketPatchDTO(null, null, null, Estado.CERRADO, null, null), null);
+        })).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+    }
+
+    @Test
+    void cambiarUsuarioYCategoriaDevuelveLasEntidadesSinProxies() throws Exception {
+        String cuerpo = mockMvc.perform(patch("/api/tickets/" + id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"usuarioId\": 1, \"categoriaId\": 1}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.usuario.id").value(1))
+                .andExpect(jsonPath("$.usuario.nombre").isNotEmpty())
+                .andExpect(jsonPath("$.categoria.id").value(1))
+                .andExpect(jsonPath("$.categoria.nombre").isNotEmpty())
+                .andReturn().getResponse().getContentAsString();
+        assertThat(cuerpo).doesNotContain("hibernateLazyInitializer");
+
+        mockMvc.perform(get("/api/tickets/" + id))
+                .andExpect(jsonPath("$.usuario.id").value(1))
+                .andExpect(jsonPath("$.categoria.id").value(1));
+    }
+
+    @Test
+    void camposInvalidosResponden400() throws Exception {
+        mockMvc.perform(patch("/api/tickets/" + id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"titulo\": \"  \"}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(patch("/api/tickets/" + id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"categoriaId\": 999}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(patch("/api/tickets/999999")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"estado\": \"CERRADO\"}"))
+                .andExpect(status().isNotFound());
+    }
+}
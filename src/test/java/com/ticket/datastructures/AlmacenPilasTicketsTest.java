@@ -0,0 +1,93 @@
+package com.ticket.datastructures;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AlmacenPilasTicketsTest {
+
+    @Test
+    void laPilaDescartaLosEstadosMasViejosAlSuperarLaProfundidad() {
+        PilaTickets pila = new PilaTickets(1L, 3);
+        for (int i = 1; i <= 5; i++) {
+            pila.push("E" + i, "t" + i);
+        }
+
+        assertThat(pila.getTamanio()).isEqualTo(3);
+        assertThat(pila.obtenerHistorial()).containsExactly("t5 → E5", "t4 → E4", "t3 → E3");
+        assertThat(pila.pop().estado).isEqualTo("E5");
+        assertThat(pila.copiar().obtenerHistorial()).containsExactly("t4 → E4", "t3 → E3");
+    }
+
+    @Test
+    void desalojaLasPilasMenosUsadasYMantieneLaMemoriaAcotada() {
+        List<Long> desalojadas = new ArrayList<>();
+        AlmacenPilasTickets almacen = new AlmacenPilasTickets(16, 4,
+                pila -> {
+                }, pila -> desalojadas.add(pila.getTicketId()));
+
+        for (long id = 1; id <= 1_000; id++) {
+            for (int i = 0; i < 10; i++) {
+                String estado = "E" + i;
+                almacen.conPila(id, pila -> {
+                    pila.push(estado);
+                    return null;
+                });
+            }
+        }
+
+        EstadisticasPilas stats = almacen.estadisticas();
+        assertThat(stats.pilasEnMemoria).isLessThanOrEqualTo(16 + 15); // capacidad redondeada por segmento
+        assertThat(stats.estadosEnMemoria).isEqualTo(stats.pilasEnMemoria * 4L);
+        assertThat(stats.desalojos).isEqualTo(1_000 - stats.pilasEnMemoria);
+        assertThat(desalojadas).hasSize((int) stats.desalojos).doesNotContain(1_000L);
+        assertThat(almacen.obtener(1_000L).getTamanio()).isEqualTo(4);
+    }
+
+    @Test
+    void pushYPopConcurrentesSobreElMismoTicketSonAtomicos() throws Exception {
+        int hilos = 8;
+        int porHilo = 10_000;
+        AlmacenPilasTickets almacen = new AlmacenPilasTickets(100, Integer.MAX_VALUE, pila -> {
+        }, pila -> {
+        });
+        CountDownLatch largada = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(hilos);
+
+        List<Future<?>> tareas = new ArrayList<>();
+        for (int h = 0; h < hilos; h++) {
+            tareas.add(pool.submit(() -> {
+                largada.await();
+                for (int i = 0; i < porHilo; i++) {
+                    almacen.conPila(7L, pila -> {
+                        pila.push("ABIERTO");
+                        return null;
+                    });
+                    almacen.conPila(7L, pila -> {
+                        pila.push("EN_PROCESO");
+                        return null;
+                    });
+                    almacen.conPila(7L, PilaTickets::pop);
+                }
+                return null;
+            }));
+        }
+
+        largada.countDown();
+        for (Future<?> tarea : tareas) {
+            tarea.get(2, TimeUnit.MINUTES);
+        }
+        pool.shutdown();
+
+        assertThat(almacen.obtener(7L).getTamanio()).isEqualTo(hilos * porHilo);
+        assertThat(almacen.estadisticas().estadosEnMemoria).isEqualTo(hilos * porHilo);
+    }
+}
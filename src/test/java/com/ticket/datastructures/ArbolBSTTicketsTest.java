@@ -0,0 +1,160 @@
+package com.ticket.datastructures;
+
+import com.ticket.model.Ticket;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ArbolBSTTicketsTest {
+
+    private static final int UN_MILLON = 1_000_000;
+
+    private static Ticket ticket(long id) {
+        Ticket t = new Ticket();
+        t.setId(id);
+        return t;
+    }
+
+    // Cota de altura de un AVL: h < 1.4405 * log2(n + 2) - 0.3277
+    private static double alturaMaximaAVL(int n) {
+        return 1.4405 * (Math.log(n + 2) / Math.log(2)) - 0.3277;
+    }
+
+    @Test
+    void insertarUnMillonDeIdsSecuencialesMantieneAlturaLogaritmica() {
+        ArbolBSTTickets arbol = new ArbolBSTTickets();
+        for (long id = 1; id <= UN_MILLON; id++) {
+            arbol.insertar(ticket(id));
+        }
+
+        assertThat(arbol.getTamanio()).isEqualTo(UN_MILLON);
+        assertThat((double) arbol.getAltura()).isLessThan(alturaMaximaAVL(UN_MILLON));
+        assertThat(arbol.buscar(1L).getId()).isEqualTo(1L);
+        assertThat(arbol.buscar((long) UN_MILLON).getId()).isEqualTo(UN_MILLON);
+        assertThat(arbol.buscar(UN_MILLON + 1L)).isNull();
+    }
+
+    @Test
+    void cargarOrdenadosConstruyeArbolPerfectamenteBalanceado() {
+        List<Ticket> ordenados = new ArrayList<>(UN_MILLON);
+        for (long id = 1; id <= UN_MILLON; id++) {
+            ordenados.add(ticket(id));
+        }
+
+        ArbolBSTTickets arbol = new ArbolBSTTickets();
+        arbol.cargarOrdenados(ordenados);
+
+        // altura mínima posible: ceil(log2(n + 1)) = 20 para un millón
+        assertThat(arbol.getAltura()).isEqualTo(20);
+        assertThat(arbol.getTamanio()).isEqualTo(UN_MILLON);
+        assertThat(arbol.buscar(500_000L).getId()).isEqualTo(500_000L);
+        assertThat(arbol.inorden()).hasSize(UN_MILLON);
+    }
+
+    @Test
+    void eliminarConservaBalanceYOrdenInorden() {
+        ArbolBSTTickets arbol = new ArbolBSTTickets();
+        int n = 100_000;
+        for (long id = 1; id <= n; id++) {
+            arbol.insertar(ticket(id));
+        }
+        for (long id = 2; id <= n; id += 2) {
+            arbol.eliminar(id); // quitar todos los pares
+        }
+
+        assertThat(arbol.getTamanio()).isEqualTo(n / 2);
+        assertThat((double) arbol.getAltura()).isLessThan(alturaMaximaAVL(n / 2));
+        assertThat(arbol.buscar(2L)).isNull();
+        assertThat(arbol.buscar(3L).getId()).isEqualTo(3L);
+
+        List<Ticket> inorden = arbol.inorden();
+        for (int i = 0; i < inorden.size(); i++) {
+            assertThat(inorden.get(i).getId()).isEqualTo(2L * i + 1);
+        }
+    }
+
+    @Test
+    void insertarIdDuplicadoNoLoAgregaDosVeces() {
+        ArbolBSTTickets arbol = new ArbolBSTTickets();
+        arbol.insertar(ticket(7));
+        arbol.insertar(ticket(7));
+
+        assertThat(arbol.getTamanio()).isEqualTo(1);
+        assertThat(arbol.inorden()).hasSize(1);
+    }
+
+    @Test
+    void cargarOrdenadosRechazaEntradaDesordenada() {
+        ArbolBSTTickets arbol = new ArbolBSTTickets();
+
+        assertThatThrownBy(() -> arbol.cargarOrdenados(List.of(ticket(2), ticket(1))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static ArbolBSTTickets arbolConIds(long desde, long hasta, long paso) {
+        ArbolBSTTickets arbol = new ArbolBSTTickets();
+        for (long id = desde; id <= hasta; id += paso) {
+            arbol.insertar(ticket(id));
+        }
+        return arbol;
+    }
+
+    private static List<Long> ids(List<Ticket> tickets) {
+        return tickets.stream().map(Ticket::getId).toList();
+    }
+
+    @Test
+    void pisoYTechoDevuelvenElVecinoMasCercano() {
+        ArbolBSTTickets arbol = arbolConIds(10, 100, 10); // 10, 20, ..., 100
+
+        assertThat(arbol.piso(35L).getId()).isEqualTo(30L);
+        assertThat(arbol.techo(35L).getId()).isEqualTo(40L);
+        assertThat(arbol.piso(40L).getId()).isEqualTo(40L);
+        assertThat(arbol.techo(40L).getId()).isEqualTo(40L);
+        assertThat(arbol.piso(5L)).isNull();
+        assertThat(arbol.techo(101L)).isNull();
+    }
+
+    @Test
+    void rangoYSiguientesRecorrenSoloLaParteSolicitada() {
+        ArbolBSTTickets arbol = arbolConIds(10, 100, 10);
+
+        assertThat(ids(arbol.rango(25L, 60L))).containsExactly(30L, 40L, 50L, 60L);
+        assertThat(ids(arbol.rango(25L, 60L, 2))).containsExactly(30L, 40L);
+        assertThat(ids(arbol.siguientes(40L, 3))).containsExactly(50L, 60L, 70L);
+        assertThat(ids(arbol.siguientes(95L, 3))).containsExactly(100L);
+        assertThat(arbol.siguientes(100L, 3)).isEmpty();
+    }
+
+    @Test
+    void paginarConSiguientesVisitaCadaTicketUnaVez() {
+        ArbolBSTTickets arbol = arbolConIds(1, 10_000, 1);
+
+        List<Long> vistos = new ArrayList<>();
+        long cursor = 0;
+        List<Ticket> pagina;
+        while (!(pagina = arbol.siguientes(cursor, 333)).isEmpty()) {
+            vistos.addAll(ids(pagina));
+            cursor = pagina.get(pagina.size() - 1).getId();
+        }
+
+        assertThat(vistos).hasSize(10_000).isSorted().doesNotHaveDuplicates();
+    }
+
+    @Test
+    void iteradorPerezosoYStreamRespetanElOrden() {
+        ArbolBSTTickets arbol = arbolConIds(1, 1_000, 1);
+
+        Iterator<Ticket> it = arbol.iteradorDesde(500L, true);
+        assertThat(it.next().getId()).isEqualTo(500L);
+        assertThat(it.next().getId()).isEqualTo(501L);
+
+        assertThat(arbol.stream().map(Ticket::getId).toList()).isSorted().hasSize(1_000);
+        assertThat(arbol.stream().filter(t -> t.getId() % 2 == 0).count()).isEqualTo(500);
+    }
+}
@@ -0,0 +1,40 @@
+package com.ticket.datastructures;
+
+import com.ticket.datastructures.BufferCircularEventos.Entrada;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BufferCircularEventosTest {
+
+    @Test
+    void retomaDesdeCualquierIdQueSigaEnElBuffer() {
+        BufferCircularEventos<String> buffer = new BufferCircularEventos<>(3, 100);
+        assertThat(buffer.ultimoId()).isEqualTo(99);
+        assertThat(buffer.despuesDe(99)).hasValue(List.of());
+
+        for (String e : new String[] { "a", "b", "c", "d", "e" }) {
+            buffer.agregar(e);
+        }
+        assertThat(buffer.ultimoId()).isEqualTo(104);
+        assertThat(buffer.getTamanio()).isEqualTo(3);
+        // quedan 102..104: se puede retomar desde 101 (el anterior al más viejo) en adelante
+        assertThat(buffer.despuesDe(101).orElseThrow()).extracting(Entrada::dato).containsExactly("c", "d", "e");
+        assertThat(buffer.despuesDe(103).orElseThrow()).containsExactly(new Entrada<>(104, "e"));
+        assertThat(buffer.despuesDe(104).orElseThrow()).isEmpty();
+    }
+
+    @Test
+    void unIdPerdidoOAjenoNoSePuedeRetomar() {
+        BufferCircularEventos<String> buffer = new BufferCircularEventos<>(2, 100);
+        buffer.agregar("a");
+        buffer.agregar("b");
+        buffer.agregar("c");
+        assertThat(buffer.despuesDe(99)).isEmpty(); // "a" (100) ya se pisó
+        assertThat(buffer.despuesDe(100).orElseThrow()).extracting(Entrada::dato).containsExactly("b", "c");
+        assertThat(buffer.despuesDe(5)).isEmpty(); // de otro arranque
+        assertThat(buffer.despuesDe(500)).isEmpty(); // todavía no emitido
+    }
+}
@@ -0,0 +1,96 @@
+package com.ticket.datastructures;
+
+import com.ticket.model.Ticket;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ColaConcurrenteTicketsTest {
+
+    private static Ticket ticket(long id) {
+        Ticket t = new Ticket();
+        t.setId(id);
+        return t;
+    }
+
+    @Test
+    void conUnSoloHiloRespetaOrdenFifo() {
+        ColaConcurrenteTickets cola = new ColaConcurrenteTickets();
+        for (long id = 1; id <= 5; id++) {
+            cola.encolar(ticket(id));
+        }
+
+        assertThat(cola.getTamanio()).isEqualTo(5);
+        assertThat(cola.verFrente().getId()).isEqualTo(1L);
+        assertThat(cola.obtenerCola()).extracting(Ticket::getId).containsExactly(1L, 2L, 3L, 4L, 5L);
+        for (long id = 1; id <= 5; id++) {
+            assertThat(cola.desencolar().getId()).isEqualTo(id);
+        }
+        assertThat(cola.desencolar()).isNull();
+        assertThat(cola.estaVacia()).isTrue();
+    }
+
+    @Test
+    void productoresYConsumidoresConcurrentesNoPierdenNiDuplicanTickets() throws Exception {
+        int productores = 24;
+        int consumidores = 24;
+        int porProductor = 20_000;
+        int total = productores * porProductor;
+
+        ColaConcurrenteTickets cola = new ColaConcurrenteTickets();
+        AtomicIntegerArray vecesReclamado = new AtomicIntegerArray(total + 1);
+        AtomicInteger reclamados = new AtomicInteger();
+        CountDownLatch largada = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(productores + consumidores);
+
+        List<Future<?>> tareas = new ArrayList<>();
+        for (int p = 0; p < productores; p++) {
+            int base = p * porProductor;
+            tareas.add(pool.submit(() -> {
+                largada.await();
+                for (int i = 1; i <= porProductor; i++) {
+                    cola.encolar(ticket(base + i));
+                }
+                return null;
+            }));
+        }
+        for (int c = 0; c < consumidores; c++) {
+            tareas.add(pool.submit(() -> {
+                largada.await();
+                while (reclamados.get() < total) {
+                    Ticket t = cola.desencolar();
+                    if (t == null) {
+                        Thread.onSpinWait();
+                        continue;
+                    }
+                    vecesReclamado.incrementAndGet(t.getId().intValue());
+                    reclamados.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        largada.countDown();
+        for (Future<?> tarea : tareas) {
+            tarea.get(2, TimeUnit.MINUTES); // propaga cualquier excepción de los hilos
+        }
+        pool.shutdown();
+
+        assertThat(reclamados.get()).isEqualTo(total);
+        for (int id = 1; id <= total; id++) {
+            assertThat(vecesReclamado.get(id)).as("veces que se reclamó el ticket %d", id).isEqualTo(1);
+        }
+        assertThat(cola.desencolar()).isNull();
+        assertThat(cola.getTamanio()).isZero();
+    }
+}
@@ -0,0 +1,60 @@
+package com.ticket.datastructures;
+
+import com.ticket.model.Prioridad;
+import com.ticket.model.Ticket;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ColaPrioridadTicketsTest {
+
+    private static final LocalDateTime INICIO = LocalDateTime.of(2025, 1, 1, 9, 0);
+
+    private static Ticket ticket(long id, Prioridad prioridad, int minuto) {
+        Ticket t = new Ticket();
+        t.setId(id);
+        t.setPrioridad(prioridad);
+        t.setFechaCreacion(INICIO.plusMinutes(minuto));
+        return t;
+    }
+
+    @Test
+    void atiendePorPrioridadYDentroDeCadaUnaElMasAntiguo() {
+        ColaPrioridadTickets cola = new ColaPrioridadTickets();
+        cola.encolar(ticket(1, Prioridad.BAJA, 0));
+        cola.encolar(ticket(2, Prioridad.ALTA, 5));
+        cola.encolar(ticket(3, Prioridad.MEDIA, 1));
+        cola.encolar(ticket(4, Prioridad.ALTA, 2)); // más antiguo que el 2 aunque llega después
+        cola.encolar(ticket(5, Prioridad.MEDIA, 3));
+
+        assertThat(cola.obtenerCola()).extracting(Ticket::getId).containsExactly(4L, 2L, 3L, 5L, 1L);
+        assertThat(cola.getTamanio(Prioridad.ALTA)).isEqualTo(2);
+        assertThat(cola.verFrente().getId()).isEqualTo(4L);
+        for (long id : new long[] { 4, 2, 3, 5, 1 }) {
+            assertThat(cola.desencolar().getId()).isEqualTo(id);
+        }
+        assertThat(cola.desencolar()).isNull();
+        assertThat(cola.estaVacia()).isTrue();
+    }
+
+    @Test
+    void eliminarYReencolarMueveElTicket() {
+        ColaPrioridadTickets cola = new ColaPrioridadTickets();
+        cola.encolar(ticket(1, Prioridad.MEDIA, 0));
+        cola.encolar(ticket(2, Prioridad.MEDIA, 1));
+        cola.encolar(ticket(3, Prioridad.MEDIA, 2));
+
+        assertThat(cola.eliminar(2L)).isTrue();
+        assertThat(cola.eliminar(2L)).isFalse();
+        assertThat(cola.obtenerCola()).extracting(Ticket::getId).containsExactly(1L, 3L);
+
+        // cambia de prioridad: se reubica sin duplicarse
+        cola.encolar(ticket(3, Prioridad.ALTA, 2));
+        assertThat(cola.obtenerCola()).extracting(Ticket::getId).containsExactly(3L, 1L);
+        assertThat(cola.getTamanio()).isEqualTo(2);
+        assertThat(cola.getTamanio(Prioridad.MEDIA)).isEqualTo(1);
+        assertThat(cola.contiene(3L)).isTrue();
+    }
+}
@@ -0,0 +1,65 @@
+package com.ticket.datastructures;
+
+import com.ticket.model.Categoria;
+import com.ticket.model.Estado;
+import com.ticket.model.Prioridad;
+import com.ticket.model.Ticket;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContadoresTicketsTest {
+
+    private static Ticket ticket(Estado estado, Prioridad prioridad, Categoria categoria) {
+        Ticket t = new Ticket();
+        t.setEstado(estado);
+        t.setPrioridad(prioridad);
+        t.setCategoria(categoria);
+        return t;
+    }
+
+    @Test
+    void cargarDesdeElGroupByYMoverConCadaCambio() {
+        Categoria redes = new Categoria(3L, "Redes");
+        ContadoresTickets contadores = new ContadoresTickets();
+        contadores.cargar(List.of(
+                new Object[] { Estado.ABIERTO, Prioridad.ALTA, 3L, "Redes", 5L },
+                new Object[] { Estado.CERRADO, Prioridad.BAJA, null, null, 2L }));
+
+        Ticket antes = ticket(Estado.ABIERTO, Prioridad.ALTA, redes);
+        contadores.mover(antes, ticket(Estado.EN_PROCESO, Prioridad.ALTA, redes));
+        contadores.mover(null, ticket(Estado.ABIERTO, Prioridad.MEDIA, null));
+        contadores.mover(ticket(Estado.CERRADO, Prioridad.BAJA, null), null);
+
+        ContadoresTickets.Instantanea foto = contadores.instantanea();
+        assertThat(foto.total()).isEqualTo(7);
+        assertThat(foto.porEstado()).containsEntry(Estado.ABIERTO, 5L).containsEntry(Estado.EN_PROCESO, 1L)
+                .containsEntry(Estado.CERRADO, 1L);
+        assertThat(foto.porPrioridad()).containsEntry(Prioridad.ALTA, 5L).containsEntry(Prioridad.MEDIA, 1L);
+        assertThat(foto.porCategoria()).containsEntry("Redes", 5L).containsEntry("Sin categoría", 2L);
+        assertThat(foto.porEstadoYPrioridad().get(Estado.EN_PROCESO)).containsEntry(Prioridad.ALTA, 1L);
+        assertThat(foto.porCategoriaYEstado().get("Redes")).containsEntry(Estado.ABIERTO, 4L)
+                .containsEntry(Estado.EN_PROCESO, 1L);
+    }
+
+    @Test
+    void escriturasConcurrentesNoPierdenCuentas() {
+        ContadoresTickets contadores = new ContadoresTickets();
+        Categoria hardware = new Categoria(1L, "Hardware");
+        IntStream.range(0, 100_000).parallel().forEach(i -> {
+            Ticket abierto = ticket(Estado.ABIERTO, Prioridad.values()[i % 3], hardware);
+            contadores.mover(null, abierto);
+            if (i % 2 == 0) {
+                contadores.mover(abierto, ticket(Estado.CERRADO, abierto.getPrioridad(), hardware));
+            }
+        });
+
+        ContadoresTickets.Instantanea foto = contadores.instantanea();
+        assertThat(foto.total()).isEqualTo(100_000);
+        assertThat(foto.porEstado()).containsEntry(Estado.ABIERTO, 50_000L).containsEntry(Estado.CERRADO, 50_000L);
+        assertThat(foto.porCategoria()).containsEntry("Hardware", 100_000L);
+    }
+}
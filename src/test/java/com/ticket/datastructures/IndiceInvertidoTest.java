@@ -0,0 +1,131 @@
+package com.ticket.datastructures;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IndiceInvertidoTest {
+
+    private static final int UN_MILLON = 1_000_000;
+
+    private static List<Long> ids(List<IndiceInvertido.Resultado> resultados) {
+        return resultados.stream().map(IndiceInvertido.Resultado::ticketId).toList();
+    }
+
+    @Test
+    void tokenizarIgnoraTildesMayusculasYPalabrasVacias() {
+        assertThat(IndiceInvertido.tokenizar("La CÁMARA no enciende, el pingüino del año 2024"))
+                .containsExactly("camara", "enciende", "pinguino", "ano", "2024");
+    }
+
+    @Test
+    void buscaSinTildesYPuntuaMasAltoElTitulo() {
+        IndiceInvertido indice = new IndiceInvertido();
+        indice.indexar(1, "Impresora sin tóner", "La de la oficina 3", List.of());
+        indice.indexar(2, "Red caída", "Tampoco anda la impresora del piso", List.of());
+        indice.indexar(3, "Monitor", "Parpadea", List.of("Cambiar el cable de la impresora"));
+        indice.indexar(4, "Teclado", "Falta una tecla", List.of());
+
+        assertThat(ids(indice.buscar("impresora", 10))).startsWith(1L).containsExactlyInAnyOrder(1L, 2L, 3L);
+        assertThat(ids(indice.buscar("TONER", 10))).containsExactly(1L);
+        assertThat(ids(indice.buscar("caida", 10))).containsExactly(2L);
+        assertThat(indice.buscar("inexistente", 10)).isEmpty();
+        assertThat(indice.buscar("de la", 10)).isEmpty(); // solo palabras vacías
+    }
+
+    @Test
+    void reindexarReemplazaElTextoAnteriorYQuitarLoSaca() {
+        IndiceInvertido indice = new IndiceInvertido();
+        indice.indexar(7, "Pantalla azul", "Al iniciar", List.of());
+        assertThat(indice.mismoTexto(7, "Pantalla azul", "Al iniciar")).isTrue();
+
+        indice.indexar(7, "Pantalla negra", "Al iniciar", List.of("Se arregló con otro driver"));
+        assertThat(indice.mismoTexto(7, "Pantalla azul", "Al iniciar")).isFalse();
+        assertThat(indice.buscar("azul", 10)).isEmpty();
+        assertThat(ids(indice.buscar("negra driver", 10))).containsExactly(7L);
+        assertThat(indice.getTamanio()).isEqualTo(1);
+
+        assertThat(indice.quitar(7)).isTrue();
+        assertThat(indice.quitar(7)).isFalse();
+        assertThat(indice.buscar("pantalla", 10)).isEmpty();
+    }
+
+    @Test
+    void reindexarVariasVecesNoDejaElIdfNegativo() {
+        IndiceInvertido indice = new IndiceInvertido();
+        indice.indexar(1, "Impresora sin tóner", "Oficina 3", List.of());
+        indice.indexar(2, "Red caída", "Piso 2", List.of());
+        // cada vuelta deja un doc borrado con "impresora": no debe seguir contando
+        for (int i = 0; i < 5; i++) {
+            indice.indexar(1, "Impresora sin tóner", "Oficina 3", List.of("Comentario " + i));
+            assertThat(ids(indice.buscar("impresora", 10))).as("vuelta %d", i).containsExactly(1L);
+        }
+        for (int i = 0; i < 5; i++) {
+            assertThat(indice.agregarComentario(1, "Sigue sin imprimir " + i)).isTrue();
+        }
+        assertThat(ids(indice.buscar("impresora", 10))).containsExactly(1L);
+        assertThat(indice.getTamanio()).isEqualTo(2);
+    }
+
+    @Test
+    void agregarComentarioSumaAlTextoIndexado() {
+        IndiceInvertido indice = new IndiceInvertido();
+        indice.indexar(7, "Pantalla azul", "Al iniciar", List.of("Reinstalar driver"));
+        assertThat(indice.agregarComentario(7, "Se cambió la placa de video")).isTrue();
+        assertThat(indice.agregarComentario(8, "No existe")).isFalse();
+
+        assertThat(ids(indice.buscar("placa", 10))).containsExactly(7L);
+        assertThat(ids(indice.buscar("driver", 10))).containsExactly(7L);
+        assertThat(ids(indice.buscar("azul", 10))).containsExactly(7L);
+        assertThat(indice.mismoTexto(7, "Pantalla azul", "Al iniciar")).isTrue();
+    }
+
+    @Test
+    void compactarConservaLosResultados() {
+        IndiceInvertido indice = new IndiceInvertido();
+        for (long id = 1; id <= 10_000; id++) {
+            indice.indexar(id, "ticket " + (id % 2 == 0 ? "par" : "impar"), "numero " + id, List.of());
+        }
+        // reindexar la mitad varias veces fuerza compactaciones
+        for (int vuelta = 0; vuelta < 3; vuelta++) {
+            for (long id = 2; id <= 10_000; id += 2) {
+                indice.indexar(id, "ticket par", "numero " + id + " vuelta" + vuelta, List.of());
+            }
+        }
+        for (long id = 1; id <= 10_000; id += 4) {
+            indice.quitar(id);
+        }
+
+        assertThat(indice.getTamanio()).isEqualTo(7_500);
+        assertThat(ids(indice.buscar("4242", 10))).containsExactly(4242L);
+        assertThat(ids(indice.buscar("vuelta2", 10_000))).hasSize(5_000);
+        assertThat(indice.buscar("vuelta0", 10)).isEmpty();
+        assertThat(indice.buscar("impar", 10_000)).hasSize(2_500);
+
+        // después de compactar los comentarios siguen sumándose al doc renumerado
+        for (long id = 2; id <= 10_000; id += 2) {
+            indice.agregarComentario(id, "revisado " + (id == 4242 ? "urgente" : ""));
+        }
+        assertThat(ids(indice.buscar("urgente", 10))).containsExactly(4242L);
+        assertThat(ids(indice.buscar("vuelta2", 10_000))).hasSize(5_000);
+        assertThat(ids(indice.buscar("4242", 10))).containsExactly(4242L);
+    }
+
+    @Test
+    void unMillonDeTicketsDevuelveLosMasRelevantes() {
+        IndiceInvertido indice = new IndiceInvertido();
+        String[] palabras = { "impresora", "red", "monitor", "teclado", "correo", "vpn", "servidor", "licencia" };
+        for (long id = 1; id <= UN_MILLON; id++) {
+            indice.indexar(id, "Falla " + palabras[(int) (id % palabras.length)],
+                    "Usuario " + id + " reporta problema con " + palabras[(int) (id % 7)], List.of());
+        }
+        indice.indexar(UN_MILLON + 1, "VPN servidor caído", "vpn no conecta al servidor", List.of());
+
+        List<IndiceInvertido.Resultado> resultados = indice.buscar("vpn servidor", 10);
+        assertThat(resultados).hasSize(10);
+        assertThat(resultados.get(0).ticketId()).isEqualTo(UN_MILLON + 1L);
+        assertThat(ids(indice.buscar("999999", 10))).containsExactly(999_999L);
+    }
+}
@@ -0,0 +1,105 @@
+package com.ticket.datastructures;
+
+import com.ticket.model.Ticket;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ListaTicketsTest {
+
+    static Stream<Supplier<ListaTickets>> implementaciones() {
+        return Stream.of(
+                () -> new ListaEnlazadaTickets(false),
+                () -> new ListaEnlazadaTickets(true),
+                () -> new ListaBloquesTickets(4),
+                () -> new ListaBloquesTickets(64));
+    }
+
+    private static Ticket ticket(long id) {
+        Ticket t = new Ticket();
+        t.setId(id);
+        return t;
+    }
+
+    @ParameterizedTest
+    @MethodSource("implementaciones")
+    void secuenciaAleatoriaCoincideConArrayList(Supplier<ListaTickets> fabrica) {
+        ListaTickets lista = fabrica.get();
+        List<Ticket> esperado = new ArrayList<>();
+        Random random = new Random(42);
+        long siguienteId = 1;
+
+        for (int paso = 0; paso < 20_000; paso++) {
+            int op = random.nextInt(10);
+            if (op < 4 || esperado.isEmpty()) {
+                Ticket t = ticket(siguienteId++);
+                lista.agregar(t);
+                esperado.add(t);
+            } else if (op < 5) {
+                Ticket t = ticket(siguienteId++);
+                lista.agregarAlInicio(t);
+                esperado.add(0, t);
+            } else if (op < 8) {
+                Ticket victima = esperado.remove(random.nextInt(esperado.size()));
+                assertThat(lista.eliminar(victima.getId())).isTrue();
+                assertThat(lista.eliminar(victima.getId())).isFalse();
+            } else if (op < 9) {
+                int pos = random.nextInt(esperado.size());
+                Ticket nuevo = ticket(esperado.get(pos).getId());
+                assertThat(lista.reemplazar(nuevo)).isTrue();
+                esperado.set(pos, nuevo);
+            } else {
+                Ticket buscado = esperado.get(random.nextInt(esperado.size()));
+                assertThat(lista.buscarPorId(buscado.getId())).isSameAs(buscado);
+                assertThat(lista.buscarPorId(siguienteId)).isNull();
+            }
+        }
+
+        assertThat(lista.getTamanio()).isEqualTo(esperado.size());
+        assertThat(lista.obtenerTodos()).containsExactlyElementsOf(esperado);
+        for (Ticket t : new ArrayList<>(esperado)) {
+            assertThat(lista.eliminar(t.getId())).isTrue();
+        }
+        assertThat(lista.estaVacia()).isTrue();
+        assertThat(lista.obtenerTodos()).isEmpty();
+    }
+
+    @ParameterizedTest
+    @MethodSource("implementaciones")
+    void construirCienMilTicketsAgregandoAlFinalEsLineal(Supplier<ListaTickets> fabrica) {
+        ListaTickets lista = fabrica.get();
+        for (long id = 1; id <= 100_000; id++) {
+            lista.agregar(ticket(id)); // con el recorrido hasta el final serían ~5·10⁹ saltos
+        }
+
+        assertThat(lista.getTamanio()).isEqualTo(100_000);
+        assertThat(lista.obtenerTodos().get(99_999).getId()).isEqualTo(100_000L);
+    }
+
+    @Test
+    void losBloquesSeFusionanAlVaciarse() {
+        ListaBloquesTickets lista = new ListaBloquesTickets(8);
+        for (long id = 1; id <= 800; id++) {
+            lista.agregar(ticket(id));
+        }
+        assertThat(lista.getBloques()).isEqualTo(100);
+
+        for (long id = 1; id <= 800; id++) {
+            if (id % 8 != 0)
+                lista.eliminar(id); // queda 1 ticket por bloque antes de fusionar
+        }
+
+        assertThat(lista.getTamanio()).isEqualTo(100);
+        assertThat(lista.getBloques()).isLessThanOrEqualTo(100 / 4 + 1);
+        assertThat(lista.obtenerTodos()).extracting(Ticket::getId)
+                .isEqualTo(Stream.iterate(8L, id -> id + 8).limit(100).toList());
+    }
+}
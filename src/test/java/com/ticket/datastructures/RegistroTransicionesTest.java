@@ -0,0 +1,142 @@
+package com.ticket.datastructures;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RegistroTransicionesTest {
+
+    private static final int ABIERTO = 0;
+    private static final int EN_PROCESO = 1;
+    private static final int CERRADO = 2;
+
+    @TempDir
+    Path directorio;
+
+    private static List<Integer> estados(RegistroTransiciones registro, long ticketId) {
+        return registro.reconstruir(ticketId).stream().map(t -> t.estado).toList();
+    }
+
+    @Test
+    void reconstruyeLaPilaEfectivaDespuesDeReabrir() throws IOException {
+        try (RegistroTransiciones registro = new RegistroTransiciones(directorio, 4, 100, 8)) {
+            registro.agregar(1, ABIERTO, 1_000);
+            registro.agregar(2, ABIERTO, 1_001);
+            registro.agregar(1, EN_PROCESO, 1_002);
+            registro.agregar(1, EN_PROCESO, 1_003); // repetido: no es una transición
+            registro.agregar(1, CERRADO, 1_004);
+            registro.agregar(1, RegistroTransiciones.POP, 1_005);
+            registro.agregar(2, RegistroTransiciones.BORRADO, 1_006);
+            registro.agregar(3, ABIERTO, 1_007);
+        }
+
+        try (RegistroTransiciones registro = new RegistroTransiciones(directorio, 4, 100, 8)) {
+            assertThat(estados(registro, 1)).containsExactly(ABIERTO, EN_PROCESO);
+            assertThat(registro.reconstruir(1).get(1).epochMillis).isEqualTo(1_002);
+            assertThat(estados(registro, 2)).isEmpty();
+            assertThat(estados(registro, 3)).containsExactly(ABIERTO);
+            assertThat(registro.estadisticas().registros).isEqualTo(8);
+
+            registro.agregar(3, CERRADO, 1_008); // sigue escribiendo tras el último registro
+            assertThat(estados(registro, 3)).containsExactly(ABIERTO, CERRADO);
+        }
+    }
+
+    @Test
+    void descartaUnRegistroAMedioEscribir() throws IOException {
+        try (RegistroTransiciones registro = new RegistroTransiciones(directorio, 16, 100, 8)) {
+            registro.agregar(1, ABIERTO, 1_000);
+            registro.agregar(1, EN_PROCESO, 1_001);
+        }
+        Path segmento;
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            segmento = archivos.findFirst().orElseThrow();
+        }
+        // simular una caída: el tercer registro quedó sin firma
+        try (FileChannel canal = FileChannel.open(segmento, StandardOpenOption.WRITE)) {
+            ByteBuffer parcial = ByteBuffer.allocate(16).putLong(1).putLong(1_002).flip();
+            canal.write(parcial, 2L * RegistroTransiciones.BYTES_POR_REGISTRO);
+        }
+
+        try (RegistroTransiciones registro = new RegistroTransiciones(directorio, 16, 100, 8)) {
+            assertThat(estados(registro, 1)).containsExactly(ABIERTO, EN_PROCESO);
+            registro.agregar(1, CERRADO, 1_003); // sobrescribe el registro roto
+            assertThat(estados(registro, 1)).containsExactly(ABIERTO, EN_PROCESO, CERRADO);
+        }
+    }
+
+    @Test
+    void reconstruyeUnTicketRepartidoEntreSegmentos() throws IOException {
+        try (RegistroTransiciones registro = new RegistroTransiciones(directorio, 3, 100, 8)) {
+            long ms = 0;
+            registro.agregar(7, ABIERTO, ms++);
+            for (long otro = 100; otro < 110; otro++) // llenan segmentos sin el ticket 7
+                registro.agregar(otro, ABIERTO, ms++);
+            registro.agregar(7, EN_PROCESO, ms++);
+            registro.agregar(8, ABIERTO, ms++);
+            registro.agregar(8, RegistroTransiciones.BORRADO, ms++);
+            registro.agregar(7, CERRADO, ms++); // queda en el segmento activo
+
+            assertThat(registro.estadisticas().segmentos).isGreaterThan(3);
+            assertThat(estados(registro, 7)).containsExactly(ABIERTO, EN_PROCESO, CERRADO);
+            assertThat(registro.tieneHistorial(7)).isTrue();
+            assertThat(registro.tieneHistorial(8)).isFalse(); // el último registro es BORRADO
+            assertThat(registro.tieneHistorial(9)).isFalse();
+        }
+        try (RegistroTransiciones registro = new RegistroTransiciones(directorio, 3, 100, 8)) {
+            assertThat(estados(registro, 7)).containsExactly(ABIERTO, EN_PROCESO, CERRADO);
+            assertThat(estados(registro, 105)).containsExactly(ABIERTO);
+        }
+    }
+
+    @Test
+    void compactarConservaElHistorialYReduceElRegistro() throws IOException {
+        int maxProfundidad = 3;
+        try (RegistroTransiciones registro = new RegistroTransiciones(directorio, 10, maxProfundidad, 2)) {
+            long ms = 0;
+            for (long id = 1; id <= 20; id++) {
+                for (int vuelta = 0; vuelta < 5; vuelta++) {
+                    registro.agregar(id, ABIERTO, ms++);
+                    registro.agregar(id, EN_PROCESO, ms++);
+                    registro.agregar(id, CERRADO, ms++);
+                }
+                if (id % 2 == 0)
+                    registro.agregar(id, RegistroTransiciones.POP, ms++);
+                if (id % 5 == 0)
+                    registro.agregar(id, RegistroTransiciones.BORRADO, ms++);
+            }
+            List<List<Integer>> antes = new ArrayList<>();
+            for (long id = 1; id <= 20; id++)
+                antes.add(estados(registro, id));
+            long registrosAntes = registro.estadisticas().registros;
+
+            assertThat(registro.necesitaCompactar()).isTrue();
+            assertThat(registro.compactar()).isTrue();
+
+            EstadisticasRegistro despues = registro.estadisticas();
+            assertThat(despues.registros).isLessThan(registrosAntes / 4);
+            assertThat(despues.segmentos).isEqualTo(2); // compactado + activo
+            for (long id = 1; id <= 20; id++)
+                assertThat(estados(registro, id)).as("ticket %d", id).isEqualTo(antes.get((int) id - 1));
+            assertThat(estados(registro, 1)).containsExactly(ABIERTO, EN_PROCESO, CERRADO);
+            assertThat(estados(registro, 2)).containsExactly(ABIERTO, EN_PROCESO);
+            assertThat(estados(registro, 5)).isEmpty();
+        }
+
+        try (RegistroTransiciones registro = new RegistroTransiciones(directorio, 10, maxProfundidad, 2)) {
+            assertThat(estados(registro, 1)).containsExactly(ABIERTO, EN_PROCESO, CERRADO);
+            assertThat(estados(registro, 2)).containsExactly(ABIERTO, EN_PROCESO);
+        }
+    }
+}
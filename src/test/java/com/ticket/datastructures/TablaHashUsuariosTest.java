@@ -0,0 +1,83 @@
+package com.ticket.datastructures;
+
+import com.ticket.model.Usuario;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TablaHashUsuariosTest {
+
+    private static Usuario usuario(String email) {
+        Usuario u = new Usuario();
+        u.setEmail(email);
+        return u;
+    }
+
+    /**
+     * Aplica la misma secuencia aleatoria de operaciones a la tabla y a un HashMap
+     * y verifica que siempre coincidan, atravesando varios rehash incrementales.
+     */
+    private static void compararConHashMap(TablaUsuarios tabla) {
+        Map<String, Usuario> esperado = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            String email = "usuario" + random.nextInt(20_000) + "@test.com";
+            int operacion = random.nextInt(10);
+            if (operacion < 6) {
+                Usuario u = usuario(email);
+                tabla.insertar(u);
+                esperado.put(email, u);
+            } else if (operacion < 8) {
+                assertThat(tabla.eliminar(email)).isEqualTo(esperado.remove(email) != null);
+            } else {
+                assertThat(tabla.buscar(email)).isSameAs(esperado.get(email));
+            }
+            assertThat(tabla.getTamanio()).isEqualTo(esperado.size());
+        }
+        assertThat(tabla.obtenerTodos()).hasSize(esperado.size());
+        for (TablaHashUsuarios.UsuarioHashInfo info : tabla.obtenerTodos()) {
+            assertThat(info.usuario).isSameAs(esperado.get(info.email));
+            assertThat(tabla.indiceDe(info.email)).isEqualTo(info.indiceCubeta);
+        }
+    }
+
+    @Test
+    void encadenamientoSeComportaComoHashMap() {
+        compararConHashMap(new TablaHashUsuarios(16, 0.75));
+    }
+
+    @Test
+    void sondeoLinealSeComportaComoHashMap() {
+        compararConHashMap(new TablaHashUsuariosSondeo(16, 0.5));
+    }
+
+    @Test
+    void creceEnPotenciasDeDosRespetandoElFactorDeCarga() {
+        TablaHashUsuarios tabla = new TablaHashUsuarios(16, 0.75);
+        for (int i = 0; i < 50_000; i++) {
+            tabla.insertar(usuario("agente" + i + "@empresa.com"));
+        }
+        tabla.obtenerTodos(); // termina cualquier rehash pendiente
+
+        EstadisticasHash stats = tabla.estadisticas();
+        assertThat(Integer.bitCount(stats.capacidad)).isEqualTo(1);
+        assertThat(stats.factorCarga).isLessThanOrEqualTo(0.75);
+        assertThat(stats.recorridoMaximo).isLessThan(16); // nada de cadenas de miles de nodos
+    }
+
+    @Test
+    void indiceNuncaEsNegativo() {
+        // "polygenelubricants".hashCode() == Integer.MIN_VALUE, que rompía Math.abs(...) % n
+        String email = "polygenelubricants";
+        assertThat(email.hashCode()).isEqualTo(Integer.MIN_VALUE);
+
+        TablaHashUsuarios tabla = new TablaHashUsuarios();
+        tabla.insertar(usuario(email));
+        assertThat(tabla.indiceDe(email)).isBetween(0, tabla.getCapacidad() - 1);
+        assertThat(tabla.buscar(email)).isNotNull();
+    }
+}